@@ -1,9 +1,20 @@
 package it.uniroma2.pmcsn;
 
 import com.google.common.base.Preconditions;
+import it.uniroma2.pmcsn.simulation.analytic.AnalyticStatistics;
+import it.uniroma2.pmcsn.simulation.analytic.CloudletCtmc;
+import it.uniroma2.pmcsn.simulation.analytic.CtmcSolverFactory;
+import it.uniroma2.pmcsn.simulation.analytic.DormandPrinceIntegrator;
+import it.uniroma2.pmcsn.simulation.analytic.MeanFieldModel;
+import it.uniroma2.pmcsn.simulation.model.Engine;
 import it.uniroma2.pmcsn.simulation.model.SimulationConfig;
-import it.uniroma2.pmcsn.simulation.simulator.Simulator;
-import it.uniroma2.pmcsn.simulation.simulator.statistics.BetweenRunCollectorStatistics;
+import it.uniroma2.pmcsn.simulation.simulator.ISimulator;
+import it.uniroma2.pmcsn.simulation.simulator.LockStepSimulator;
+import it.uniroma2.pmcsn.simulation.simulator.MultiCloudletSimulator;
+import it.uniroma2.pmcsn.simulation.simulator.ReplicationRunner;
+import it.uniroma2.pmcsn.simulation.simulator.SimulatorFactory;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.ComparisonStatistics;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.ReplicationStatistics;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -34,20 +45,102 @@ public class Application {
         }
     }
 
-    public static void main(String[] args) {
+    private static @Nonnull SimulationConfig loadAlternativeConfigFrom(@Nonnull String configurationFilename) {
+        try {
+            return SimulationConfig.from(configurationFilename);
+        } catch (IllegalArgumentException e) {
+            LOG.fatal("Error reading configuration file to compare: " + e.getMessage());
+        } catch (IOException e) {
+            LOG.fatal("Error opening configuration file to compare: " + e.getMessage());
+        }
+        System.exit(1);
+        return null;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
         LOG.debug("Loading configuration");
         loadConfigFrom(args);
         LOG.debug('\n' + SIMULATION_CONFIG.toString());
 
-        Simulator simulator = new Simulator(SIMULATION_CONFIG);
+        if (Engine.from(SIMULATION_CONFIG.getEngine()) == Engine.ANALYTIC) {
+            CloudletCtmc cloudletCtmc = new CloudletCtmc(SIMULATION_CONFIG);
+            LOG.info("*START* solution of the cloudlet CTMC with {} states", cloudletCtmc.getStates());
+            AnalyticStatistics analyticStatistics = cloudletCtmc.solve(
+                    CtmcSolverFactory.get(SIMULATION_CONFIG.getCtmcSolver())
+            );
+            LOG.info("*STOP* solution");
+            LOG.info('\n' + analyticStatistics.toString());
+            return;
+        }
+
+        if (Engine.from(SIMULATION_CONFIG.getEngine()) == Engine.MEAN_FIELD) {
+            MeanFieldModel meanFieldModel = new MeanFieldModel(SIMULATION_CONFIG);
+            LOG.info("*START* integration of the mean-field model");
+            long start = System.nanoTime();
+            AnalyticStatistics analyticStatistics = meanFieldModel.solve(new DormandPrinceIntegrator());
+            LOG.info("*STOP* integration in {} ms", (System.nanoTime() - start) / 1_000_000.0);
+            LOG.info('\n' + analyticStatistics.toString());
+            return;
+        }
+
+        if (!SIMULATION_CONFIG.getSweepS().isEmpty()) {
+            LockStepSimulator lockStepSimulator = new LockStepSimulator(SIMULATION_CONFIG);
+            LOG.info("*START* lock-step simulation of {} values of S, please wait", lockStepSimulator.getLanes());
+            lockStepSimulator.start();
+            LOG.info("*STOP* simulation");
+            for (int lane = 0; lane < lockStepSimulator.getLanes(); ++lane) {
+                LOG.info("\nThreshold S = {}\n{}", lockStepSimulator.getThreshold(lane), lockStepSimulator.getStatistics(lane));
+            }
+            return;
+        }
+
+        if (SIMULATION_CONFIG.getCloudlets() > 1) {
+            MultiCloudletSimulator multiCloudletSimulator = new MultiCloudletSimulator(SIMULATION_CONFIG);
+            LOG.info(
+                    "*START* simulation of {} cloudlets on {} threads, please wait",
+                    multiCloudletSimulator.getCloudlets(),
+                    multiCloudletSimulator.getThreads()
+            );
+            multiCloudletSimulator.start();
+            LOG.info("*STOP* simulation");
+            LOG.info('\n' + multiCloudletSimulator.getStatistics().toString());
+            return;
+        }
+
+        if (SIMULATION_CONFIG.getReplications() > 1 && !SIMULATION_CONFIG.getCompareConfig().isEmpty()) {
+            SimulationConfig alternativeConfig = loadAlternativeConfigFrom(SIMULATION_CONFIG.getCompareConfig());
+            ReplicationRunner replicationRunner = new ReplicationRunner(SIMULATION_CONFIG);
+            LOG.info(
+                    "*START* {} paired replications of {} and {} on {} threads, please wait",
+                    replicationRunner.getReplications(),
+                    SIMULATION_CONFIG.getConfigurationFilename(),
+                    alternativeConfig.getConfigurationFilename(),
+                    replicationRunner.getThreads()
+            );
+            ComparisonStatistics comparisonStatistics = replicationRunner.compare(alternativeConfig);
+            LOG.info("*STOP* replications");
+            LOG.info('\n' + comparisonStatistics.toString());
+            return;
+        }
+
+        if (SIMULATION_CONFIG.getReplications() > 1) {
+            ReplicationRunner replicationRunner = new ReplicationRunner(SIMULATION_CONFIG);
+            LOG.info(
+                    "*START* {} replications on {} threads, please wait",
+                    replicationRunner.getReplications(),
+                    replicationRunner.getThreads()
+            );
+            ReplicationStatistics replicationStatistics = replicationRunner.run();
+            LOG.info("*STOP* replications");
+            LOG.info('\n' + replicationStatistics.toString());
+            return;
+        }
+
+        ISimulator simulator = SimulatorFactory.get(SIMULATION_CONFIG);
         LOG.info("*START* simulation, please wait");
         simulator.start();
         LOG.info("*STOP* simulation");
         LOG.info('\n' + simulator.getStatistics().toString());
-
-        // to collect between-the-run statistics uncomment following line
-        //  and comment previous ones
-//        new BetweenRunCollectorStatistics(100, new Object[] {SIMULATION_CONFIG}).collect();
     }
 
 }
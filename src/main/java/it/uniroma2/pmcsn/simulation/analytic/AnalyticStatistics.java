@@ -0,0 +1,178 @@
+package it.uniroma2.pmcsn.simulation.analytic;
+
+import it.uniroma2.pmcsn.simulation.simulator.statistics.Metric;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.Statistics;
+
+import javax.annotation.Nonnull;
+
+import static it.uniroma2.pmcsn.simulation.simulator.statistics.Statistics.*;
+
+/**
+ * Stationary values of each {@link Metric}, from the solution of {@link CloudletCtmc} or {@link MeanFieldModel}.
+ *
+ * Values are kept as time averages per unit of time: areas are mean populations and completions
+ * are throughputs, so each metric is computed with the same formula used by {@link Statistics}.
+ */
+public class AnalyticStatistics {
+
+    private static final Metric[] METRICS = Metric.values();
+
+    // Mean population of each class on cloudlet and cloud
+    private final double tasksC1CletArea;
+    private final double tasksC2CletArea;
+    private final double tasksC1CloudArea;
+    private final double tasksC2CloudArea;
+
+    // Throughput of each class on cloudlet and cloud
+    private final double tasksC1CletCompletion;
+    private final double tasksC2CletCompletion;
+    private final double tasksC1CloudCompletion;
+    private final double tasksC2CloudCompletion;
+
+    // Response time of class 2 interrupted tasks, per unit of time
+    private final double tasksC2InterruptedResponseTime;
+    // Rate of class 2 interrupted tasks
+    private final double tasksC2CletInterrupted;
+
+    // How the values have been obtained
+    private final String solution;
+
+    AnalyticStatistics(double tasksC1CletArea, double tasksC2CletArea, double tasksC1CloudArea,
+                       double tasksC2CloudArea, double tasksC1CletCompletion, double tasksC2CletCompletion,
+                       double tasksC1CloudCompletion, double tasksC2CloudCompletion,
+                       double tasksC2InterruptedResponseTime, double tasksC2CletInterrupted,
+                       @Nonnull String solution) {
+        this.tasksC1CletArea = tasksC1CletArea;
+        this.tasksC2CletArea = tasksC2CletArea;
+        this.tasksC1CloudArea = tasksC1CloudArea;
+        this.tasksC2CloudArea = tasksC2CloudArea;
+        this.tasksC1CletCompletion = tasksC1CletCompletion;
+        this.tasksC2CletCompletion = tasksC2CletCompletion;
+        this.tasksC1CloudCompletion = tasksC1CloudCompletion;
+        this.tasksC2CloudCompletion = tasksC2CloudCompletion;
+        this.tasksC2InterruptedResponseTime = tasksC2InterruptedResponseTime;
+        this.tasksC2CletInterrupted = tasksC2CletInterrupted;
+        this.solution = solution;
+    }
+
+    public @Nonnull String getSolution() {
+        return solution;
+    }
+
+    /**
+     * Get stationary value of {@param metric}.
+     *
+     * @param metric to compute
+     * @return value of the metric
+     */
+    public double getValue(@Nonnull Metric metric) {
+        switch (metric) {
+            case SYSTEM_RESPONSE_TIME:
+                return safeDivision(
+                        tasksC1CletArea + tasksC2CletArea + tasksC1CloudArea + tasksC2CloudArea,
+                        getSystemCompletion()
+                );
+            case SYSTEM_C1_RESPONSE_TIME:
+                return safeDivision(tasksC1CletArea + tasksC1CloudArea, tasksC1CletCompletion + tasksC1CloudCompletion);
+            case SYSTEM_C2_RESPONSE_TIME:
+                return safeDivision(tasksC2CletArea + tasksC2CloudArea, tasksC2CletCompletion + tasksC2CloudCompletion);
+            case CLET_RESPONSE_TIME:
+                return safeDivision(tasksC1CletArea + tasksC2CletArea, tasksC1CletCompletion + tasksC2CletCompletion);
+            case CLET_C1_RESPONSE_TIME:
+                return safeDivision(tasksC1CletArea, tasksC1CletCompletion);
+            case CLET_C2_RESPONSE_TIME:
+                return safeDivision(tasksC2CletArea, tasksC2CletCompletion);
+            case CLOUD_RESPONSE_TIME:
+                return safeDivision(tasksC1CloudArea + tasksC2CloudArea, tasksC1CloudCompletion + tasksC2CloudCompletion);
+            case CLOUD_C1_RESPONSE_TIME:
+                return safeDivision(tasksC1CloudArea, tasksC1CloudCompletion);
+            case CLOUD_C2_RESPONSE_TIME:
+                return safeDivision(tasksC2CloudArea, tasksC2CloudCompletion);
+
+            case SYSTEM_THROUGHPUT:
+                return getSystemCompletion();
+            case SYSTEM_C1_THROUGHPUT:
+                return tasksC1CletCompletion + tasksC1CloudCompletion;
+            case SYSTEM_C2_THROUGHPUT:
+                return tasksC2CletCompletion + tasksC2CloudCompletion;
+            case CLET_THROUGHPUT:
+                return tasksC1CletCompletion + tasksC2CletCompletion;
+            case CLET_C1_THROUGHPUT:
+                return tasksC1CletCompletion;
+            case CLET_C2_THROUGHPUT:
+                return tasksC2CletCompletion;
+            case CLOUD_THROUGHPUT:
+                return tasksC1CloudCompletion + tasksC2CloudCompletion;
+            case CLOUD_C1_THROUGHPUT:
+                return tasksC1CloudCompletion;
+            case CLOUD_C2_THROUGHPUT:
+                return tasksC2CloudCompletion;
+
+            case SYSTEM_POPULATION:
+                return tasksC1CletArea + tasksC2CletArea + tasksC1CloudArea + tasksC2CloudArea;
+            case SYSTEM_C1_POPULATION:
+                return tasksC1CletArea + tasksC1CloudArea;
+            case SYSTEM_C2_POPULATION:
+                return tasksC2CletArea + tasksC2CloudArea;
+            case CLET_POPULATION:
+                return tasksC1CletArea + tasksC2CletArea;
+            case CLET_C1_POPULATION:
+                return tasksC1CletArea;
+            case CLET_C2_POPULATION:
+                return tasksC2CletArea;
+            case CLOUD_POPULATION:
+                return tasksC1CloudArea + tasksC2CloudArea;
+            case CLOUD_C1_POPULATION:
+                return tasksC1CloudArea;
+            case CLOUD_C2_POPULATION:
+                return tasksC2CloudArea;
+
+            case C2_INTERRUPTED_RESPONSE_TIME:
+                return safeDivision(tasksC2InterruptedResponseTime, tasksC2CletInterrupted);
+            case C2_INTERRUPTED_FRACTION:
+                return safeDivision(tasksC2CletInterrupted, tasksC2CletCompletion + tasksC2CloudCompletion);
+
+            default:
+                throw new TypeNotPresentException(metric.name(), new Throwable("Metric not yet implemented"));
+        }
+    }
+
+    private double getSystemCompletion() {
+        return tasksC1CletCompletion + tasksC2CletCompletion + tasksC1CloudCompletion + tasksC2CloudCompletion;
+    }
+
+    private static double safeDivision(double numerator, double divider) {
+        return divider != 0 ? numerator / divider : DEFAULT_VALUE_SAFE_DIVISION;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append(generateTitle("Analytic statistics", "#", 5, 3, 0));
+        stringBuilder.append(String.format(H_TEMPLATE, solution));
+        stringBuilder.append(NL);
+
+        Metric previous = null;
+        for (Metric metric : METRICS) {
+            if (previous == null || previous.getSection() != metric.getSection()) {
+                if (previous != null) {
+                    stringBuilder.append(NL);
+                }
+                stringBuilder.append(String.format(H_TEMPLATE, metric.getSection().getTitle()));
+            } else if (previous.getGroup() != metric.getGroup()) {
+                stringBuilder.append(NL);
+            }
+            previous = metric;
+
+            double value = getValue(metric);
+            stringBuilder.append(String.format(
+                    P_TEMPLATE,
+                    metric.getDescription(),
+                    metric.isPercentage() ? PER.format(value * 100) : DF.format(value),
+                    metric.getUnit()
+            ));
+        }
+        return stringBuilder.toString();
+    }
+
+}
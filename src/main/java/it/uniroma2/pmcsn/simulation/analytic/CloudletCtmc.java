@@ -0,0 +1,391 @@
+package it.uniroma2.pmcsn.simulation.analytic;
+
+import com.google.common.base.Preconditions;
+import it.uniroma2.pmcsn.simulation.model.SimulationConfig;
+import it.uniroma2.pmcsn.simulation.model.Task;
+import it.uniroma2.pmcsn.simulation.system.cloudlet.access_control.AccessControlFactory;
+import it.uniroma2.pmcsn.simulation.system.cloudlet.access_control.Action;
+import it.uniroma2.pmcsn.simulation.system.cloudlet.access_control.IAccessControl;
+import it.uniroma2.pmcsn.simulation.system.cloudlet.task_interrupt.TaskInterruptFactory;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import static it.uniroma2.pmcsn.simulation.system.cloudlet.access_control.Action.*;
+
+/**
+ * Cloudlet as a CTMC over the states (n1, n2), with n1 + n2 <= N, for exponential arrivals and services.
+ *
+ * The cloud is an infinite server station, so its populations follow from the rates of tasks sent to it,
+ * by Little's law. Class 2 interrupted tasks spend a setup time in the cloud plus a service time which,
+ * given the heuristic used by {@link it.uniroma2.pmcsn.simulation.system.cloud.Cloud}, is exponential
+ * with rate mu-2-cloud.
+ *
+ * With {@link AccessControlFactory.Algorithm#ALGORITHM2} the interrupted task must be chosen by arrival time:
+ * choosing it by completion time leaves in the cloudlet the tasks with longer residual service times,
+ * so the cloudlet is not a CTMC over (n1, n2).
+ *
+ * The time spent in the cloudlet by interrupted tasks is removed from the class 2 cloudlet area, as done by
+ * {@link it.uniroma2.pmcsn.simulation.simulator.statistics.Statistics}, so it is computed following a tagged
+ * class 2 task, over the states (n1, o, y), with o older and y younger class 2 tasks in the cloudlet,
+ * until it completes or it is interrupted.
+ */
+public class CloudletCtmc {
+
+    private final int thresholdN;
+    private final int thresholdS;
+    private final double lambda1;
+    private final double lambda2;
+    private final double mu1Cloudlet;
+    private final double mu2Cloudlet;
+    private final double mu1Cloud;
+    private final double mu2Cloud;
+    private final double meanSetupTime;
+    private final IAccessControl accessControl;
+    private final TaskInterruptFactory.Algorithm taskInterruptAlgorithm;
+
+    // Index of state (n1, n2)
+    private final int[][] states;
+    private final int statesCount;
+    // Index of state (n1, o, y) of the tagged class 2 task
+    private final int[][][] taggedStates;
+    private final int taggedStatesCount;
+
+    public CloudletCtmc(@Nonnull SimulationConfig simulationConfig) {
+        this(
+                simulationConfig.getThresholdN(),
+                simulationConfig.getThresholdS(),
+                simulationConfig.getLambda1(),
+                simulationConfig.getLambda2(),
+                simulationConfig.getMu1Cloudlet(),
+                simulationConfig.getMu2Cloudlet(),
+                simulationConfig.getMu1Cloud(),
+                simulationConfig.getMu2Cloud(),
+                simulationConfig.getMeanSetupTime(),
+                AccessControlFactory.Algorithm.from(simulationConfig.getCloudletAccessControlAlgorithm()),
+                TaskInterruptFactory.Algorithm.from(simulationConfig.getCloudletTaskInterruptAlgorithm())
+        );
+    }
+
+    public CloudletCtmc(@Nonnegative int thresholdN, @Nonnegative int thresholdS, double lambda1, double lambda2,
+                        double mu1Cloudlet, double mu2Cloudlet, double mu1Cloud, double mu2Cloud,
+                        @Nonnegative double meanSetupTime,
+                        @Nonnull AccessControlFactory.Algorithm accessControlAlgorithm,
+                        @Nonnull TaskInterruptFactory.Algorithm taskInterruptAlgorithm) {
+        Preconditions.checkArgument(thresholdN > 0, "ThresholdN must be > 0 (current: %s)", thresholdN);
+        Preconditions.checkNotNull(accessControlAlgorithm, "AccessControlAlgorithm can not be null (current: %s)", accessControlAlgorithm);
+        Preconditions.checkNotNull(taskInterruptAlgorithm, "TaskInterruptAlgorithm can not be null (current: %s)", taskInterruptAlgorithm);
+        Preconditions.checkArgument(
+                thresholdS >= 0 && (thresholdS <= thresholdN || accessControlAlgorithm != AccessControlFactory.Algorithm.ALGORITHM2),
+                "ThresholdS must be in range [0, %s] (current: %s)",
+                thresholdN,
+                thresholdS
+        );
+        Preconditions.checkArgument(
+                accessControlAlgorithm != AccessControlFactory.Algorithm.ALGORITHM2 || taskInterruptAlgorithm.isByArrivalTime(),
+                "TaskInterruptAlgorithm must choose by arrival time to model the cloudlet as a CTMC (current: %s)",
+                taskInterruptAlgorithm
+        );
+        Preconditions.checkArgument(lambda1 > 0, "Lambda1 must be > 0 (current: %s)", lambda1);
+        Preconditions.checkArgument(lambda2 > 0, "Lambda2 must be > 0 (current: %s)", lambda2);
+        Preconditions.checkArgument(mu1Cloudlet > 0, "Mu1Cloudlet must be > 0 (current: %s)", mu1Cloudlet);
+        Preconditions.checkArgument(mu2Cloudlet > 0, "Mu2Cloudlet must be > 0 (current: %s)", mu2Cloudlet);
+        Preconditions.checkArgument(mu1Cloud > 0, "Mu1Cloud must be > 0 (current: %s)", mu1Cloud);
+        Preconditions.checkArgument(mu2Cloud > 0, "Mu2Cloud must be > 0 (current: %s)", mu2Cloud);
+        Preconditions.checkArgument(meanSetupTime >= 0, "MeanSetupTime must be >= 0 (current: %s)", meanSetupTime);
+
+        this.thresholdN = thresholdN;
+        this.thresholdS = thresholdS;
+        this.lambda1 = lambda1;
+        this.lambda2 = lambda2;
+        this.mu1Cloudlet = mu1Cloudlet;
+        this.mu2Cloudlet = mu2Cloudlet;
+        this.mu1Cloud = mu1Cloud;
+        this.mu2Cloud = mu2Cloud;
+        this.meanSetupTime = meanSetupTime;
+        this.accessControl = AccessControlFactory.get(accessControlAlgorithm);
+        this.taskInterruptAlgorithm = taskInterruptAlgorithm;
+
+        int index = 0;
+        this.states = new int[thresholdN + 1][];
+        for (int n1 = 0; n1 <= thresholdN; ++n1) {
+            this.states[n1] = new int[thresholdN - n1 + 1];
+            for (int n2 = 0; n1 + n2 <= thresholdN; ++n2) {
+                this.states[n1][n2] = index++;
+            }
+        }
+        this.statesCount = index;
+
+        // tagged task is in the cloudlet, so n1 + o + y <= N - 1
+        index = 0;
+        this.taggedStates = new int[thresholdN][][];
+        for (int n1 = 0; n1 < thresholdN; ++n1) {
+            this.taggedStates[n1] = new int[thresholdN - n1][];
+            for (int o = 0; n1 + o < thresholdN; ++o) {
+                this.taggedStates[n1][o] = new int[thresholdN - n1 - o];
+                for (int y = 0; n1 + o + y < thresholdN; ++y) {
+                    this.taggedStates[n1][o][y] = index++;
+                }
+            }
+        }
+        this.taggedStatesCount = index;
+    }
+
+    public int getStates() {
+        return statesCount;
+    }
+
+    /**
+     * Action of the cloudlet controller for an arrival of {@param taskClass} in state (n1, n2).
+     *
+     * @param taskClass class of the arrived task
+     * @param n1 class 1 tasks in the cloudlet
+     * @param n2 class 2 tasks in the cloudlet
+     * @return action of the controller
+     */
+    public @Nonnull Action accessControl(@Nonnull Task.Class taskClass, @Nonnegative int n1, @Nonnegative int n2) {
+        return accessControl.accessControl(taskClass, n1, n2, thresholdN, thresholdS);
+    }
+
+    /**
+     * @return generator of the cloudlet CTMC, over the states (n1, n2)
+     */
+    public @Nonnull SparseGenerator getGenerator() {
+        SparseGenerator.Builder builder = new SparseGenerator.Builder(statesCount);
+        for (int n1 = 0; n1 <= thresholdN; ++n1) {
+            for (int n2 = 0; n1 + n2 <= thresholdN; ++n2) {
+                int state = states[n1][n2];
+                switch (accessControl(Task.Class.CLASS1, n1, n2)) {
+                    case SEND_CLOUDLET:
+                        builder.add(state, states[n1 + 1][n2], lambda1);
+                        break;
+
+                    case SEND_CLOUDLET_PREEMPTION_CLASS2:
+                        builder.add(state, states[n1 + 1][n2 - 1], lambda1);
+                        break;
+
+                    case SEND_CLOUD:
+                        break;
+                }
+                if (accessControl(Task.Class.CLASS2, n1, n2) == SEND_CLOUDLET) {
+                    builder.add(state, states[n1][n2 + 1], lambda2);
+                }
+                if (n1 > 0) {
+                    builder.add(state, states[n1 - 1][n2], n1 * mu1Cloudlet);
+                }
+                if (n2 > 0) {
+                    builder.add(state, states[n1][n2 - 1], n2 * mu2Cloudlet);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Generator of the tagged class 2 task CTMC, over the states (n1, o, y), where the tagged task leaves
+     * when it completes or it is interrupted.
+     *
+     * @param interruption filled with the rate of interruption of the tagged task, indexed as states
+     * @return generator of the tagged task CTMC
+     */
+    private @Nonnull SparseGenerator getTaggedGenerator(@Nonnull double[] interruption) {
+        SparseGenerator.Builder builder = new SparseGenerator.Builder(taggedStatesCount);
+        for (int n1 = 0; n1 < thresholdN; ++n1) {
+            for (int o = 0; n1 + o < thresholdN; ++o) {
+                for (int y = 0; n1 + o + y < thresholdN; ++y) {
+                    int state = taggedStates[n1][o][y];
+                    int n2 = o + y + 1;
+                    switch (accessControl(Task.Class.CLASS1, n1, n2)) {
+                        case SEND_CLOUDLET:
+                            builder.add(state, taggedStates[n1 + 1][o][y], lambda1);
+                            break;
+
+                        case SEND_CLOUDLET_PREEMPTION_CLASS2:
+                            double older;
+                            double younger;
+                            switch (taskInterruptAlgorithm) {
+                                case MIN_ARRIVAL_TIME:
+                                    older = o > 0 ? 1.0 : 0.0;
+                                    younger = 0.0;
+                                    break;
+
+                                case MAX_ARRIVAL_TIME:
+                                    older = 0.0;
+                                    younger = y > 0 ? 1.0 : 0.0;
+                                    break;
+
+                                default:
+                                    throw new TypeNotPresentException(
+                                            taskInterruptAlgorithm.name(),
+                                            new Throwable("Strategy not supported by the CTMC")
+                                    );
+                            }
+                            if (o > 0) {
+                                builder.add(state, taggedStates[n1 + 1][o - 1][y], lambda1 * older);
+                            }
+                            if (y > 0) {
+                                builder.add(state, taggedStates[n1 + 1][o][y - 1], lambda1 * younger);
+                            }
+                            interruption[state] = lambda1 * (1.0 - older - younger);
+                            builder.exit(state, interruption[state]);
+                            break;
+
+                        case SEND_CLOUD:
+                            break;
+                    }
+                    if (accessControl(Task.Class.CLASS2, n1, n2) == SEND_CLOUDLET) {
+                        builder.add(state, taggedStates[n1][o][y + 1], lambda2);
+                    }
+                    if (n1 > 0) {
+                        builder.add(state, taggedStates[n1 - 1][o][y], n1 * mu1Cloudlet);
+                    }
+                    if (o > 0) {
+                        builder.add(state, taggedStates[n1][o - 1][y], o * mu2Cloudlet);
+                    }
+                    if (y > 0) {
+                        builder.add(state, taggedStates[n1][o][y - 1], y * mu2Cloudlet);
+                    }
+                    // completion of the tagged task
+                    builder.exit(state, mu2Cloudlet);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Solve the CTMC for the stationary distribution of the cloudlet states, with cloud populations
+     * from the rates of tasks sent to the cloud.
+     *
+     * @param solver of the CTMC
+     * @return stationary distribution of the model state
+     * @throws IllegalStateException iif {@param solver} does not converge
+     */
+    public @Nonnull StationaryDistribution getStationaryDistribution(@Nonnull ICtmcSolver solver) {
+        Preconditions.checkNotNull(solver, "Solver can not be null (current: %s)", solver);
+
+        double[] pi = solver.stationary(getGenerator());
+
+        int[] c1Cloudlet = new int[statesCount];
+        int[] c2Cloudlet = new int[statesCount];
+        double[] probabilities = new double[statesCount];
+        double c1CloudArrival = 0.0;
+        double c2CloudArrival = 0.0;
+        double c2Interrupted = 0.0;
+        for (int n1 = 0; n1 <= thresholdN; ++n1) {
+            for (int n2 = 0; n1 + n2 <= thresholdN; ++n2) {
+                int state = states[n1][n2];
+                c1Cloudlet[state] = n1;
+                c2Cloudlet[state] = n2;
+                probabilities[state] = pi[state];
+                switch (accessControl(Task.Class.CLASS1, n1, n2)) {
+                    case SEND_CLOUDLET_PREEMPTION_CLASS2:
+                        c2Interrupted += pi[state] * lambda1;
+                        break;
+
+                    case SEND_CLOUD:
+                        c1CloudArrival += pi[state] * lambda1;
+                        break;
+                }
+                if (accessControl(Task.Class.CLASS2, n1, n2) == SEND_CLOUD) {
+                    c2CloudArrival += pi[state] * lambda2;
+                }
+            }
+        }
+
+        return new StationaryDistribution(
+                c1Cloudlet,
+                c2Cloudlet,
+                probabilities,
+                c1CloudArrival / mu1Cloud,
+                c2CloudArrival / mu2Cloud,
+                c2Interrupted * (meanSetupTime + 1.0 / mu2Cloud)
+        );
+    }
+
+    /**
+     * Solve the CTMC for the stationary value of each metric.
+     *
+     * @param solver of the CTMC
+     * @return stationary values of the metrics
+     * @throws IllegalStateException iif {@param solver} does not converge
+     */
+    public @Nonnull AnalyticStatistics solve(@Nonnull ICtmcSolver solver) {
+        Preconditions.checkNotNull(solver, "Solver can not be null (current: %s)", solver);
+
+        double[] pi = solver.stationary(getGenerator());
+        long iterations = solver.getIterations();
+
+        double c1CletArea = 0.0;
+        double c2CletArea = 0.0;
+        double c1CletCompletion = 0.0;
+        double c1CloudCompletion = 0.0;
+        double c2CletAdmission = 0.0;
+        double c2CloudCompletion = 0.0;
+        double c2Interrupted = 0.0;
+        double c2InterruptedCloudArea = 0.0;
+        for (int n1 = 0; n1 <= thresholdN; ++n1) {
+            for (int n2 = 0; n1 + n2 <= thresholdN; ++n2) {
+                double p = pi[states[n1][n2]];
+                c1CletArea += p * n1;
+                c2CletArea += p * n2;
+                switch (accessControl(Task.Class.CLASS1, n1, n2)) {
+                    case SEND_CLOUDLET:
+                        c1CletCompletion += p * lambda1;
+                        break;
+
+                    case SEND_CLOUDLET_PREEMPTION_CLASS2:
+                        c1CletCompletion += p * lambda1;
+                        c2Interrupted += p * lambda1;
+                        c2InterruptedCloudArea += p * lambda1 * (meanSetupTime + 1.0 / mu2Cloud);
+                        break;
+
+                    case SEND_CLOUD:
+                        c1CloudCompletion += p * lambda1;
+                        break;
+                }
+                if (accessControl(Task.Class.CLASS2, n1, n2) == SEND_CLOUDLET) {
+                    c2CletAdmission += p * lambda2;
+                } else {
+                    c2CloudCompletion += p * lambda2;
+                }
+            }
+        }
+
+        // time spent in the cloudlet by interrupted tasks, per unit of time
+        double c2InterruptedCletArea = 0.0;
+        if (c2Interrupted > 0.0) {
+            double[] interruption = new double[taggedStatesCount];
+            SparseGenerator taggedGenerator = getTaggedGenerator(interruption);
+            // probability to be interrupted, then time in the cloudlet when interrupted
+            double[] interrupted = solver.accumulated(taggedGenerator, interruption);
+            iterations += solver.getIterations();
+            double[] interruptedTime = solver.accumulated(taggedGenerator, interrupted);
+            iterations += solver.getIterations();
+
+            for (int n1 = 0; n1 < thresholdN; ++n1) {
+                for (int n2 = 0; n1 + n2 < thresholdN; ++n2) {
+                    if (accessControl(Task.Class.CLASS2, n1, n2) == SEND_CLOUDLET) {
+                        c2InterruptedCletArea += pi[states[n1][n2]] * lambda2 * interruptedTime[taggedStates[n1][n2][0]];
+                    }
+                }
+            }
+        }
+
+        return new AnalyticStatistics(
+                c1CletArea,
+                c2CletArea - c2InterruptedCletArea,
+                c1CloudCompletion / mu1Cloud,
+                c2CloudCompletion / mu2Cloud + c2InterruptedCloudArea,
+                c1CletCompletion,
+                c2CletAdmission - c2Interrupted,
+                c1CloudCompletion,
+                c2CloudCompletion + c2Interrupted,
+                c2InterruptedCletArea + c2InterruptedCloudArea,
+                c2Interrupted,
+                "Stationary values of the cloudlet CTMC with " + statesCount + " states, solved in " +
+                        iterations + " iterations"
+        );
+    }
+
+}
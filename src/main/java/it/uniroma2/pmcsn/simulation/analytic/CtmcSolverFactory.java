@@ -0,0 +1,46 @@
+package it.uniroma2.pmcsn.simulation.analytic;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnull;
+
+public class CtmcSolverFactory {
+
+    public enum Algorithm {
+
+        GAUSS_SEIDEL,
+        POWER;
+
+        public static @Nonnull Algorithm from(@Nonnull String algorithm) {
+            for (Algorithm a : Algorithm.values()) {
+                if (algorithm.equalsIgnoreCase(a.name())) {
+                    return a;
+                }
+            }
+            throw new TypeNotPresentException(algorithm, new Throwable("Selected solver not yet implemented"));
+        }
+
+    }
+
+    public static @Nonnull ICtmcSolver get(@Nonnull String algorithm) {
+        Preconditions.checkNotNull(algorithm, "Algorithm can not be null");
+
+        return get(Algorithm.from(algorithm));
+    }
+
+    public static @Nonnull ICtmcSolver get(@Nonnull Algorithm algorithm) {
+        Preconditions.checkNotNull(algorithm, "Algorithm can not be null");
+
+        switch (algorithm) {
+            case GAUSS_SEIDEL:
+                return new GaussSeidelCtmcSolver();
+
+            case POWER:
+                return new PowerCtmcSolver();
+
+            default:
+                throw new TypeNotPresentException(algorithm.name(), new Throwable("Solver not yet implemented"));
+        }
+    }
+
+}
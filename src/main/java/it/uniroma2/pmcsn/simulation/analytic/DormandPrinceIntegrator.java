@@ -0,0 +1,174 @@
+package it.uniroma2.pmcsn.simulation.analytic;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Explicit Runge-Kutta 5(4) pair of Dormand and Prince, with step size adapted to keep the local error,
+ * estimated by the embedded 4th order solution, within absolute and relative tolerances.
+ */
+public class DormandPrinceIntegrator {
+
+    public static final double TOLERANCE = 1e-10;
+    public static final double STATIONARY_TOLERANCE = 1e-8;
+    public static final int MAX_STEPS = 10_000_000;
+
+    // Stage coefficients, the system is autonomous so nodes are not needed
+    private static final double A21 = 1.0 / 5.0;
+    private static final double A31 = 3.0 / 40.0, A32 = 9.0 / 40.0;
+    private static final double A41 = 44.0 / 45.0, A42 = -56.0 / 15.0, A43 = 32.0 / 9.0;
+    private static final double A51 = 19372.0 / 6561.0, A52 = -25360.0 / 2187.0, A53 = 64448.0 / 6561.0,
+            A54 = -212.0 / 729.0;
+    private static final double A61 = 9017.0 / 3168.0, A62 = -355.0 / 33.0, A63 = 46732.0 / 5247.0,
+            A64 = 49.0 / 176.0, A65 = -5103.0 / 18656.0;
+    private static final double A71 = 35.0 / 384.0, A73 = 500.0 / 1113.0, A74 = 125.0 / 192.0,
+            A75 = -2187.0 / 6784.0, A76 = 11.0 / 84.0;
+    // Difference between 5th and 4th order weights
+    private static final double E1 = 71.0 / 57600.0, E3 = -71.0 / 16695.0, E4 = 71.0 / 1920.0,
+            E5 = -17253.0 / 339200.0, E6 = 22.0 / 525.0, E7 = -1.0 / 40.0;
+
+    // Step size controller
+    private static final double SAFETY = 0.9;
+    private static final double MIN_FACTOR = 0.2;
+    private static final double MAX_FACTOR = 5.0;
+
+    private final double absoluteTolerance;
+    private final double relativeTolerance;
+    private final int maxSteps;
+
+    private long steps = 0;
+    private long rejectedSteps = 0;
+    private double time = 0.0;
+
+    public DormandPrinceIntegrator() {
+        this(TOLERANCE, TOLERANCE, MAX_STEPS);
+    }
+
+    public DormandPrinceIntegrator(double absoluteTolerance, double relativeTolerance, int maxSteps) {
+        Preconditions.checkArgument(absoluteTolerance > 0.0, "AbsoluteTolerance must be > 0 (current: %s)", absoluteTolerance);
+        Preconditions.checkArgument(relativeTolerance > 0.0, "RelativeTolerance must be > 0 (current: %s)", relativeTolerance);
+        Preconditions.checkArgument(maxSteps > 0, "MaxSteps must be > 0 (current: %s)", maxSteps);
+
+        this.absoluteTolerance = absoluteTolerance;
+        this.relativeTolerance = relativeTolerance;
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * Integrate {@param system} from {@param x} until it is stationary, i.e. until each component of the drift
+     * is within {@param stationaryTolerance} times the component, or 1 for small components.
+     *
+     * @param system to integrate
+     * @param x initial state, replaced by the stationary one
+     * @param initialStep size of the first step
+     * @param stationaryTolerance max relative drift of a stationary state
+     * @return {@param x}
+     * @throws IllegalStateException iif the system is not stationary within max steps
+     */
+    public @Nonnull double[] stationary(@Nonnull IOdeSystem system, @Nonnull double[] x, double initialStep,
+                                        double stationaryTolerance) {
+        Preconditions.checkNotNull(system, "System can not be null (current: %s)", system);
+        Preconditions.checkNotNull(x, "State can not be null (current: %s)", (Object) x);
+        Preconditions.checkArgument(
+                x.length == system.getDimension(),
+                "State must have a value for each dimension (current: %s)",
+                x.length
+        );
+        Preconditions.checkArgument(initialStep > 0.0, "InitialStep must be > 0 (current: %s)", initialStep);
+        Preconditions.checkArgument(stationaryTolerance > 0.0, "StationaryTolerance must be > 0 (current: %s)", stationaryTolerance);
+
+        int n = x.length;
+        double[] k1 = new double[n], k2 = new double[n], k3 = new double[n], k4 = new double[n],
+                k5 = new double[n], k6 = new double[n], k7 = new double[n];
+        double[] stage = new double[n];
+        double[] next = new double[n];
+
+        double h = initialStep;
+        steps = 0;
+        rejectedSteps = 0;
+        time = 0.0;
+        system.project(x);
+        while (steps < maxSteps) {
+            system.drift(x, k1);
+            if (isStationary(x, k1, stationaryTolerance)) {
+                return x;
+            }
+
+            for (int i = 0; i < n; ++i) {
+                stage[i] = x[i] + h * A21 * k1[i];
+            }
+            system.drift(stage, k2);
+            for (int i = 0; i < n; ++i) {
+                stage[i] = x[i] + h * (A31 * k1[i] + A32 * k2[i]);
+            }
+            system.drift(stage, k3);
+            for (int i = 0; i < n; ++i) {
+                stage[i] = x[i] + h * (A41 * k1[i] + A42 * k2[i] + A43 * k3[i]);
+            }
+            system.drift(stage, k4);
+            for (int i = 0; i < n; ++i) {
+                stage[i] = x[i] + h * (A51 * k1[i] + A52 * k2[i] + A53 * k3[i] + A54 * k4[i]);
+            }
+            system.drift(stage, k5);
+            for (int i = 0; i < n; ++i) {
+                stage[i] = x[i] + h * (A61 * k1[i] + A62 * k2[i] + A63 * k3[i] + A64 * k4[i] + A65 * k5[i]);
+            }
+            system.drift(stage, k6);
+            for (int i = 0; i < n; ++i) {
+                next[i] = x[i] + h * (A71 * k1[i] + A73 * k3[i] + A74 * k4[i] + A75 * k5[i] + A76 * k6[i]);
+            }
+            system.drift(next, k7);
+
+            // root mean square of the local error, scaled by tolerances
+            double error = 0.0;
+            for (int i = 0; i < n; ++i) {
+                double local = h * (E1 * k1[i] + E3 * k3[i] + E4 * k4[i] + E5 * k5[i] + E6 * k6[i] + E7 * k7[i]);
+                double scale = absoluteTolerance + relativeTolerance * Math.max(Math.abs(x[i]), Math.abs(next[i]));
+                error += (local / scale) * (local / scale);
+            }
+            error = Math.sqrt(error / n);
+
+            ++steps;
+            if (error <= 1.0) {
+                time += h;
+                system.project(next);
+                System.arraycopy(next, 0, x, 0, n);
+            } else {
+                ++rejectedSteps;
+            }
+            h *= error == 0.0 ?
+                    MAX_FACTOR :
+                    Math.min(MAX_FACTOR, Math.max(MIN_FACTOR, SAFETY * Math.pow(error, -1.0 / 5.0)));
+        }
+        throw new IllegalStateException(String.format("Integration is not stationary in %s steps", maxSteps));
+    }
+
+    private static boolean isStationary(@Nonnull double[] x, @Nonnull double[] dx, double tolerance) {
+        for (int i = 0; i < x.length; ++i) {
+            if (Math.abs(dx[i]) > tolerance * Math.max(1.0, Math.abs(x[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return number of steps of the last integration, including rejected ones
+     */
+    public long getSteps() {
+        return steps;
+    }
+
+    public long getRejectedSteps() {
+        return rejectedSteps;
+    }
+
+    /**
+     * @return time reached by the last integration
+     */
+    public double getTime() {
+        return time;
+    }
+
+}
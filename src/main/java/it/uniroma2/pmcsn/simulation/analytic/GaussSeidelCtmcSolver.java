@@ -0,0 +1,103 @@
+package it.uniroma2.pmcsn.simulation.analytic;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+
+/**
+ * Gauss-Seidel iteration: each state is updated in place, using the values already
+ * updated in the same sweep, so it usually needs far less sweeps than {@link PowerCtmcSolver}.
+ */
+class GaussSeidelCtmcSolver implements ICtmcSolver {
+
+    private final double tolerance;
+    private final int maxIterations;
+
+    private long iterations = 0;
+
+    public GaussSeidelCtmcSolver() {
+        this(TOLERANCE, MAX_ITERATIONS);
+    }
+
+    public GaussSeidelCtmcSolver(double tolerance, int maxIterations) {
+        Preconditions.checkArgument(tolerance > 0.0, "Tolerance must be > 0 (current: %s)", tolerance);
+        Preconditions.checkArgument(maxIterations > 0, "MaxIterations must be > 0 (current: %s)", maxIterations);
+
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+    }
+
+    @Override
+    public @Nonnull double[] stationary(@Nonnull SparseGenerator generator) {
+        Preconditions.checkNotNull(generator, "Generator can not be null (current: %s)", generator);
+
+        int states = generator.getStates();
+        double[] pi = new double[states];
+        double[] previous = new double[states];
+        Arrays.fill(pi, 1.0 / states);
+
+        for (iterations = 1; iterations <= maxIterations; ++iterations) {
+            System.arraycopy(pi, 0, previous, 0, states);
+
+            double sum = 0.0;
+            for (int j = 0; j < states; ++j) {
+                double inflow = 0.0;
+                for (int t = generator.inStart[j]; t < generator.inStart[j + 1]; ++t) {
+                    inflow += pi[generator.inSource[t]] * generator.inRate[t];
+                }
+                pi[j] = inflow / generator.exitRate[j];
+                sum += pi[j];
+            }
+
+            double delta = 0.0;
+            for (int j = 0; j < states; ++j) {
+                pi[j] /= sum;
+                delta = Math.max(delta, Math.abs(pi[j] - previous[j]));
+            }
+            if (delta <= tolerance) {
+                return pi;
+            }
+        }
+        throw new IllegalStateException(String.format("Gauss-Seidel did not converge in %s iterations", maxIterations));
+    }
+
+    @Override
+    public @Nonnull double[] accumulated(@Nonnull SparseGenerator generator, @Nonnull double[] reward) {
+        Preconditions.checkNotNull(generator, "Generator can not be null (current: %s)", generator);
+        Preconditions.checkNotNull(reward, "Reward can not be null (current: %s)", (Object) reward);
+        Preconditions.checkArgument(
+                reward.length == generator.getStates(),
+                "Reward must have a value for each state (current: %s)",
+                reward.length
+        );
+
+        int states = generator.getStates();
+        double[] x = new double[states];
+
+        for (iterations = 1; iterations <= maxIterations; ++iterations) {
+            double delta = 0.0;
+            double max = 0.0;
+            for (int i = 0; i < states; ++i) {
+                double value = reward[i];
+                for (int t = generator.outStart[i]; t < generator.outStart[i + 1]; ++t) {
+                    value += generator.outRate[t] * x[generator.outTarget[t]];
+                }
+                value /= generator.exitRate[i];
+                delta = Math.max(delta, Math.abs(value - x[i]));
+                max = Math.max(max, Math.abs(value));
+                x[i] = value;
+            }
+            if (delta <= tolerance * max) {
+                return x;
+            }
+        }
+        throw new IllegalStateException(String.format("Gauss-Seidel did not converge in %s iterations", maxIterations));
+    }
+
+    @Override
+    public long getIterations() {
+        return iterations;
+    }
+
+}
@@ -0,0 +1,35 @@
+package it.uniroma2.pmcsn.simulation.analytic;
+
+import javax.annotation.Nonnull;
+
+public interface ICtmcSolver {
+
+    double TOLERANCE = 1e-12;
+    int MAX_ITERATIONS = 10_000_000;
+
+    /**
+     * Solve pi * Q = 0, with pi summing to 1.
+     *
+     * @param generator of an irreducible CTMC, without exits
+     * @return stationary distribution, indexed as states
+     * @throws IllegalStateException iif the solution does not converge
+     */
+    @Nonnull double[] stationary(@Nonnull SparseGenerator generator);
+
+    /**
+     * Solve x(i) = (reward(i) + sum of q(i, j) * x(j)) / q(i), with q(i) the total rate out of state i,
+     * i.e. the expected reward accumulated until absorption, starting from each state.
+     *
+     * @param generator of the transient states of an absorbing CTMC
+     * @param reward rate earned in each state
+     * @return accumulated reward, indexed as states
+     * @throws IllegalStateException iif the solution does not converge
+     */
+    @Nonnull double[] accumulated(@Nonnull SparseGenerator generator, @Nonnull double[] reward);
+
+    /**
+     * @return number of iterations of the last solution
+     */
+    long getIterations();
+
+}
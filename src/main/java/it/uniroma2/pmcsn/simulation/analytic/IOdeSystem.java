@@ -0,0 +1,29 @@
+package it.uniroma2.pmcsn.simulation.analytic;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Autonomous system of ordinary differential equations dx/dt = f(x).
+ */
+public interface IOdeSystem {
+
+    int getDimension();
+
+    /**
+     * Compute f({@param x}) into {@param dx}.
+     *
+     * @param x current state
+     * @param dx derivative of the state
+     */
+    void drift(@Nonnull double[] x, @Nonnull double[] dx);
+
+    /**
+     * Move {@param x} back into the domain of the system, after a step of the integrator crossed a boundary.
+     *
+     * @param x state to project, in place
+     */
+    default void project(@Nonnull double[] x) {
+
+    }
+
+}
@@ -0,0 +1,232 @@
+package it.uniroma2.pmcsn.simulation.analytic;
+
+import com.google.common.base.Preconditions;
+import it.uniroma2.pmcsn.simulation.model.SimulationConfig;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.Statistics;
+import it.uniroma2.pmcsn.simulation.system.cloudlet.access_control.AccessControlFactory;
+import it.uniroma2.pmcsn.simulation.system.cloudlet.task_interrupt.TaskInterruptFactory;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * Fluid approximation of the model, for exponential arrivals and services: populations are continuous and
+ * evolve as the expected drift of the CTMC, which is exact for large N, S and arrival rates scaled together.
+ *
+ * State is (x1, x2) on the cloudlet, (y1, y2) on the cloud and z interrupted class 2 tasks on the cloud.
+ * On a threshold the state slides along it: arrivals are admitted in the fraction of time spent just below
+ * the threshold which keeps the occupancy constant, the others are sent to the cloud or, with
+ * {@link AccessControlFactory.Algorithm#ALGORITHM2}, class 1 tasks interrupt class 2 ones.
+ *
+ * Interrupted tasks leave the cloud at rate z / (setup + 1 / mu-2-cloud), which gives the exact stationary
+ * mean, by Little's law. Time spent in the cloudlet by interrupted tasks is computed on the fluid of class 2
+ * tasks ordered by arrival: interrupting the oldest cuts it at the age T where the surviving fluid
+ * a2 * exp(-mu2 * T) equals the interruption rate, interrupting the youngest takes tasks just arrived.
+ */
+public class MeanFieldModel implements IOdeSystem {
+
+    // Components of the state
+    public static final int C1_CLOUDLET = 0;
+    public static final int C2_CLOUDLET = 1;
+    public static final int C1_CLOUD = 2;
+    public static final int C2_CLOUD = 3;
+    public static final int C2_INTERRUPTED = 4;
+    public static final int DIMENSION = 5;
+
+    // Relative distance from a threshold within which the state is on it, since projection is not exact
+    private static final double THRESHOLD_TOLERANCE = 1e-9;
+
+    private final int thresholdN;
+    private final int thresholdS;
+    private final double lambda1;
+    private final double lambda2;
+    private final double mu1Cloudlet;
+    private final double mu2Cloudlet;
+    private final double mu1Cloud;
+    private final double mu2Cloud;
+    private final double meanSetupTime;
+    private final AccessControlFactory.Algorithm accessControlAlgorithm;
+    private final TaskInterruptFactory.Algorithm taskInterruptAlgorithm;
+
+    // Rates of class 1 and class 2 arrivals admitted by the cloudlet and of interruptions, in last state
+    private double c1Admitted;
+    private double c2Admitted;
+    private double c2Interrupted;
+
+    public MeanFieldModel(@Nonnull SimulationConfig simulationConfig) {
+        this(
+                simulationConfig.getThresholdN(),
+                simulationConfig.getThresholdS(),
+                simulationConfig.getLambda1(),
+                simulationConfig.getLambda2(),
+                simulationConfig.getMu1Cloudlet(),
+                simulationConfig.getMu2Cloudlet(),
+                simulationConfig.getMu1Cloud(),
+                simulationConfig.getMu2Cloud(),
+                simulationConfig.getMeanSetupTime(),
+                AccessControlFactory.Algorithm.from(simulationConfig.getCloudletAccessControlAlgorithm()),
+                TaskInterruptFactory.Algorithm.from(simulationConfig.getCloudletTaskInterruptAlgorithm())
+        );
+    }
+
+    public MeanFieldModel(@Nonnegative int thresholdN, @Nonnegative int thresholdS, double lambda1, double lambda2,
+                          double mu1Cloudlet, double mu2Cloudlet, double mu1Cloud, double mu2Cloud,
+                          @Nonnegative double meanSetupTime,
+                          @Nonnull AccessControlFactory.Algorithm accessControlAlgorithm,
+                          @Nonnull TaskInterruptFactory.Algorithm taskInterruptAlgorithm) {
+        Preconditions.checkArgument(thresholdN > 0, "ThresholdN must be > 0 (current: %s)", thresholdN);
+        Preconditions.checkNotNull(accessControlAlgorithm, "AccessControlAlgorithm can not be null (current: %s)", accessControlAlgorithm);
+        Preconditions.checkNotNull(taskInterruptAlgorithm, "TaskInterruptAlgorithm can not be null (current: %s)", taskInterruptAlgorithm);
+        Preconditions.checkArgument(
+                thresholdS >= 0 && (thresholdS <= thresholdN || accessControlAlgorithm != AccessControlFactory.Algorithm.ALGORITHM2),
+                "ThresholdS must be in range [0, %s] (current: %s)",
+                thresholdN,
+                thresholdS
+        );
+        Preconditions.checkArgument(
+                accessControlAlgorithm != AccessControlFactory.Algorithm.ALGORITHM2 || taskInterruptAlgorithm.isByArrivalTime(),
+                "TaskInterruptAlgorithm must choose by arrival time to model the cloudlet by its populations (current: %s)",
+                taskInterruptAlgorithm
+        );
+        Preconditions.checkArgument(lambda1 > 0, "Lambda1 must be > 0 (current: %s)", lambda1);
+        Preconditions.checkArgument(lambda2 > 0, "Lambda2 must be > 0 (current: %s)", lambda2);
+        Preconditions.checkArgument(mu1Cloudlet > 0, "Mu1Cloudlet must be > 0 (current: %s)", mu1Cloudlet);
+        Preconditions.checkArgument(mu2Cloudlet > 0, "Mu2Cloudlet must be > 0 (current: %s)", mu2Cloudlet);
+        Preconditions.checkArgument(mu1Cloud > 0, "Mu1Cloud must be > 0 (current: %s)", mu1Cloud);
+        Preconditions.checkArgument(mu2Cloud > 0, "Mu2Cloud must be > 0 (current: %s)", mu2Cloud);
+        Preconditions.checkArgument(meanSetupTime >= 0, "MeanSetupTime must be >= 0 (current: %s)", meanSetupTime);
+
+        this.thresholdN = thresholdN;
+        this.thresholdS = thresholdS;
+        this.lambda1 = lambda1;
+        this.lambda2 = lambda2;
+        this.mu1Cloudlet = mu1Cloudlet;
+        this.mu2Cloudlet = mu2Cloudlet;
+        this.mu1Cloud = mu1Cloud;
+        this.mu2Cloud = mu2Cloud;
+        this.meanSetupTime = meanSetupTime;
+        this.accessControlAlgorithm = accessControlAlgorithm;
+        this.taskInterruptAlgorithm = taskInterruptAlgorithm;
+    }
+
+    @Override
+    public int getDimension() {
+        return DIMENSION;
+    }
+
+    @Override
+    public void drift(@Nonnull double[] x, @Nonnull double[] dx) {
+        updateRates(x);
+
+        dx[C1_CLOUDLET] = c1Admitted - mu1Cloudlet * x[C1_CLOUDLET];
+        dx[C2_CLOUDLET] = c2Admitted - mu2Cloudlet * x[C2_CLOUDLET] - c2Interrupted;
+        dx[C1_CLOUD] = lambda1 - c1Admitted - mu1Cloud * x[C1_CLOUD];
+        dx[C2_CLOUD] = lambda2 - c2Admitted - mu2Cloud * x[C2_CLOUD];
+        dx[C2_INTERRUPTED] = c2Interrupted - x[C2_INTERRUPTED] / getInterruptedCloudTime();
+    }
+
+    @Override
+    public void project(@Nonnull double[] x) {
+        for (int i = 0; i < DIMENSION; ++i) {
+            x[i] = Math.max(0.0, x[i]);
+        }
+
+        if (accessControlAlgorithm == AccessControlFactory.Algorithm.ALGORITHM2) {
+            x[C1_CLOUDLET] = Math.min(x[C1_CLOUDLET], thresholdN);
+            // class 2 tasks are interrupted as long as cloudlet occupancy exceeds S
+            if (x[C1_CLOUDLET] + x[C2_CLOUDLET] > thresholdS) {
+                x[C2_CLOUDLET] = Math.max(0.0, thresholdS - x[C1_CLOUDLET]);
+            }
+        } else {
+            double occupancy = x[C1_CLOUDLET] + x[C2_CLOUDLET];
+            if (occupancy > thresholdN) {
+                x[C1_CLOUDLET] *= thresholdN / occupancy;
+                x[C2_CLOUDLET] *= thresholdN / occupancy;
+            }
+        }
+    }
+
+    /**
+     * Compute rates of admitted arrivals and interruptions in state {@param x}.
+     *
+     * @param x current state
+     */
+    private void updateRates(@Nonnull double[] x) {
+        double x1 = x[C1_CLOUDLET];
+        double x2 = x[C2_CLOUDLET];
+        // rate of tasks leaving the cloudlet, i.e. of free servers
+        double departures = mu1Cloudlet * x1 + mu2Cloudlet * x2;
+
+        c2Interrupted = 0.0;
+        if (accessControlAlgorithm == AccessControlFactory.Algorithm.ALGORITHM2) {
+            // on threshold N, class 1 tasks are admitted only to replace completed ones
+            c1Admitted = isBelow(x1, thresholdN) ? lambda1 : Math.min(lambda1, mu1Cloudlet * x1);
+            if (isBelow(x1 + x2, thresholdS)) {
+                c2Admitted = lambda2;
+            } else if (x2 > 0.0) {
+                // on threshold S, class 2 tasks enter in the fraction of time below it,
+                //  class 1 tasks arriving in the remaining time interrupt class 2 tasks
+                double below = Math.min(1.0, departures / (c1Admitted + lambda2));
+                c2Admitted = below * lambda2;
+                c2Interrupted = (1.0 - below) * c1Admitted;
+            } else {
+                c2Admitted = 0.0;
+            }
+        } else {
+            double below = isBelow(x1 + x2, thresholdN) ? 1.0 : Math.min(1.0, departures / (lambda1 + lambda2));
+            c1Admitted = below * lambda1;
+            c2Admitted = below * lambda2;
+        }
+    }
+
+    private static boolean isBelow(double occupancy, int threshold) {
+        return occupancy < threshold * (1.0 - THRESHOLD_TOLERANCE);
+    }
+
+    private double getInterruptedCloudTime() {
+        return meanSetupTime + 1.0 / mu2Cloud;
+    }
+
+    /**
+     * Integrate the model from an empty system until it is stationary.
+     *
+     * @param integrator of the model
+     * @return stationary values of the metrics
+     * @throws IllegalStateException iif {@param integrator} does not reach a stationary state
+     */
+    public @Nonnull AnalyticStatistics solve(@Nonnull DormandPrinceIntegrator integrator) {
+        Preconditions.checkNotNull(integrator, "Integrator can not be null (current: %s)", integrator);
+
+        double[] x = integrator.stationary(
+                this,
+                new double[DIMENSION],
+                // small enough for the first arrivals, then the integrator adapts it
+                1e-3 / (lambda1 + lambda2),
+                DormandPrinceIntegrator.STATIONARY_TOLERANCE
+        );
+        updateRates(x);
+
+        // time spent in the cloudlet by interrupted tasks, per unit of time
+        double c2InterruptedCletArea = 0.0;
+        if (c2Interrupted > 0.0 && taskInterruptAlgorithm == TaskInterruptFactory.Algorithm.MIN_ARRIVAL_TIME) {
+            c2InterruptedCletArea = c2Interrupted * Math.log(c2Admitted / c2Interrupted) / mu2Cloudlet;
+        }
+
+        double c2InterruptedCompletion = x[C2_INTERRUPTED] / getInterruptedCloudTime();
+        return new AnalyticStatistics(
+                x[C1_CLOUDLET],
+                x[C2_CLOUDLET] - c2InterruptedCletArea,
+                x[C1_CLOUD],
+                x[C2_CLOUD] + x[C2_INTERRUPTED],
+                mu1Cloudlet * x[C1_CLOUDLET],
+                mu2Cloudlet * x[C2_CLOUDLET],
+                mu1Cloud * x[C1_CLOUD],
+                mu2Cloud * x[C2_CLOUD] + c2InterruptedCompletion,
+                c2InterruptedCletArea + x[C2_INTERRUPTED],
+                c2InterruptedCompletion,
+                "Stationary values of the mean-field model, integrated up to time " +
+                        Statistics.DF.format(integrator.getTime()) + " in " + integrator.getSteps() + " steps"
+        );
+    }
+
+}
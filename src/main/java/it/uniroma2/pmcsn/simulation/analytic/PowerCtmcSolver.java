@@ -0,0 +1,123 @@
+package it.uniroma2.pmcsn.simulation.analytic;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Power iteration on the uniformized chain P = I + Q / L, with L greater than every exit rate,
+ * and Jacobi iteration for accumulated rewards.
+ *
+ * Each iteration only reads the values of the previous one, so states are updated in parallel
+ * once there are at least {@link #PARALLEL_STATES} of them.
+ */
+class PowerCtmcSolver implements ICtmcSolver {
+
+    // Min number of states to update them in parallel
+    public static final int PARALLEL_STATES = 1 << 14;
+
+    // Uniformization rate is this factor times the max exit rate, so the uniformized chain is aperiodic
+    private static final double UNIFORMIZATION_FACTOR = 1.01;
+
+    private final double tolerance;
+    private final int maxIterations;
+
+    private long iterations = 0;
+
+    public PowerCtmcSolver() {
+        this(TOLERANCE, MAX_ITERATIONS);
+    }
+
+    public PowerCtmcSolver(double tolerance, int maxIterations) {
+        Preconditions.checkArgument(tolerance > 0.0, "Tolerance must be > 0 (current: %s)", tolerance);
+        Preconditions.checkArgument(maxIterations > 0, "MaxIterations must be > 0 (current: %s)", maxIterations);
+
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+    }
+
+    @Override
+    public @Nonnull double[] stationary(@Nonnull SparseGenerator generator) {
+        Preconditions.checkNotNull(generator, "Generator can not be null (current: %s)", generator);
+
+        int states = generator.getStates();
+        double uniformization = UNIFORMIZATION_FACTOR * Arrays.stream(generator.exitRate).max().orElse(1.0);
+        double[] pi = new double[states];
+        double[] next = new double[states];
+        Arrays.fill(pi, 1.0 / states);
+
+        for (iterations = 1; iterations <= maxIterations; ++iterations) {
+            double[] current = pi;
+            double[] updated = next;
+            range(states).forEach(j -> {
+                double inflow = 0.0;
+                for (int t = generator.inStart[j]; t < generator.inStart[j + 1]; ++t) {
+                    inflow += current[generator.inSource[t]] * generator.inRate[t];
+                }
+                updated[j] = current[j] + (inflow - current[j] * generator.exitRate[j]) / uniformization;
+            });
+
+            double sum = range(states).mapToDouble(j -> updated[j]).sum();
+            double delta = range(states).mapToDouble(j -> {
+                updated[j] /= sum;
+                return Math.abs(updated[j] - current[j]);
+            }).max().orElse(0.0);
+
+            pi = updated;
+            next = current;
+            if (delta <= tolerance) {
+                return pi;
+            }
+        }
+        throw new IllegalStateException(String.format("Power iteration did not converge in %s iterations", maxIterations));
+    }
+
+    @Override
+    public @Nonnull double[] accumulated(@Nonnull SparseGenerator generator, @Nonnull double[] reward) {
+        Preconditions.checkNotNull(generator, "Generator can not be null (current: %s)", generator);
+        Preconditions.checkNotNull(reward, "Reward can not be null (current: %s)", (Object) reward);
+        Preconditions.checkArgument(
+                reward.length == generator.getStates(),
+                "Reward must have a value for each state (current: %s)",
+                reward.length
+        );
+
+        int states = generator.getStates();
+        double[] x = new double[states];
+        double[] next = new double[states];
+
+        for (iterations = 1; iterations <= maxIterations; ++iterations) {
+            double[] current = x;
+            double[] updated = next;
+            double delta = range(states).mapToDouble(i -> {
+                double value = reward[i];
+                for (int t = generator.outStart[i]; t < generator.outStart[i + 1]; ++t) {
+                    value += generator.outRate[t] * current[generator.outTarget[t]];
+                }
+                updated[i] = value / generator.exitRate[i];
+                return Math.abs(updated[i] - current[i]);
+            }).max().orElse(0.0);
+            double max = range(states).mapToDouble(i -> Math.abs(updated[i])).max().orElse(0.0);
+
+            x = updated;
+            next = current;
+            if (delta <= tolerance * max) {
+                return x;
+            }
+        }
+        throw new IllegalStateException(String.format("Jacobi iteration did not converge in %s iterations", maxIterations));
+    }
+
+    @Override
+    public long getIterations() {
+        return iterations;
+    }
+
+    private static @Nonnull IntStream range(int states) {
+        IntStream range = IntStream.range(0, states);
+        return states >= PARALLEL_STATES ? range.parallel() : range;
+    }
+
+}
@@ -0,0 +1,158 @@
+package it.uniroma2.pmcsn.simulation.analytic;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+
+/**
+ * Infinitesimal generator of a CTMC, stored as compressed sparse rows.
+ *
+ * Off-diagonal rates are indexed both by source state, to iterate over the transitions out of a state,
+ * and by target state, to iterate over the transitions into a state. The diagonal is stored as the
+ * total rate out of each state, which can also include exits towards absorbing states not represented
+ * in the generator.
+ */
+public class SparseGenerator {
+
+    // Number of states
+    private final int states;
+    // Total rate out of each state, i.e. -q(i, i)
+    final double[] exitRate;
+
+    // Transitions out of state i are in range [outStart[i], outStart[i + 1])
+    final int[] outStart;
+    final int[] outTarget;
+    final double[] outRate;
+
+    // Transitions into state j are in range [inStart[j], inStart[j + 1])
+    final int[] inStart;
+    final int[] inSource;
+    final double[] inRate;
+
+    private SparseGenerator(@Nonnull Builder builder) {
+        this.states = builder.states;
+        this.exitRate = builder.exitRate.clone();
+
+        int transitions = builder.transitions;
+        this.outStart = new int[states + 1];
+        this.outTarget = new int[transitions];
+        this.outRate = new double[transitions];
+        this.inStart = new int[states + 1];
+        this.inSource = new int[transitions];
+        this.inRate = new double[transitions];
+
+        for (int t = 0; t < transitions; ++t) {
+            ++outStart[builder.from[t] + 1];
+            ++inStart[builder.to[t] + 1];
+        }
+        for (int s = 0; s < states; ++s) {
+            outStart[s + 1] += outStart[s];
+            inStart[s + 1] += inStart[s];
+        }
+        int[] outNext = Arrays.copyOf(outStart, states);
+        int[] inNext = Arrays.copyOf(inStart, states);
+        for (int t = 0; t < transitions; ++t) {
+            int from = builder.from[t];
+            int to = builder.to[t];
+            outTarget[outNext[from]] = to;
+            outRate[outNext[from]++] = builder.rate[t];
+            inSource[inNext[to]] = from;
+            inRate[inNext[to]++] = builder.rate[t];
+        }
+    }
+
+    public int getStates() {
+        return states;
+    }
+
+    public int getTransitions() {
+        return outTarget.length;
+    }
+
+    /**
+     * @param state index of the state
+     * @return total rate out of {@param state}
+     */
+    public double getExitRate(@Nonnegative int state) {
+        Preconditions.checkElementIndex(state, states, "State");
+
+        return exitRate[state];
+    }
+
+    public static class Builder {
+
+        private static final int INITIAL_CAPACITY = 64;
+
+        private final int states;
+        private final double[] exitRate;
+
+        private int transitions = 0;
+        private int[] from = new int[INITIAL_CAPACITY];
+        private int[] to = new int[INITIAL_CAPACITY];
+        private double[] rate = new double[INITIAL_CAPACITY];
+
+        public Builder(@Nonnegative int states) {
+            Preconditions.checkArgument(states > 0, "States must be > 0 (current: %s)", states);
+
+            this.states = states;
+            this.exitRate = new double[states];
+        }
+
+        /**
+         * Add a transition between two states. Transitions with zero rate are ignored,
+         * while self loops do not change the generator.
+         *
+         * @param from source state
+         * @param to target state
+         * @param rate of the transition
+         * @return this builder
+         */
+        public @Nonnull Builder add(@Nonnegative int from, @Nonnegative int to, @Nonnegative double rate) {
+            Preconditions.checkElementIndex(from, states, "From");
+            Preconditions.checkElementIndex(to, states, "To");
+            Preconditions.checkArgument(rate >= 0.0, "Rate must be >= 0 (current: %s)", rate);
+
+            if (rate == 0.0 || from == to) {
+                return this;
+            }
+            if (transitions == this.from.length) {
+                this.from = Arrays.copyOf(this.from, transitions << 1);
+                this.to = Arrays.copyOf(this.to, transitions << 1);
+                this.rate = Arrays.copyOf(this.rate, transitions << 1);
+            }
+            this.from[transitions] = from;
+            this.to[transitions] = to;
+            this.rate[transitions] = rate;
+            ++transitions;
+            exitRate[from] += rate;
+            return this;
+        }
+
+        /**
+         * Add a transition from a state towards an absorbing state, not represented in the generator.
+         *
+         * @param from source state
+         * @param rate of the transition
+         * @return this builder
+         */
+        public @Nonnull Builder exit(@Nonnegative int from, @Nonnegative double rate) {
+            Preconditions.checkElementIndex(from, states, "From");
+            Preconditions.checkArgument(rate >= 0.0, "Rate must be >= 0 (current: %s)", rate);
+
+            exitRate[from] += rate;
+            return this;
+        }
+
+        public @Nonnull SparseGenerator build() {
+            for (int s = 0; s < states; ++s) {
+                Preconditions.checkState(exitRate[s] > 0.0, "State %s has no transitions out", s);
+            }
+
+            return new SparseGenerator(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,121 @@
+package it.uniroma2.pmcsn.simulation.analytic;
+
+import com.google.common.base.Preconditions;
+import it.uniroma2.pmcsn.simulation.util.Distribution;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+
+/**
+ * Stationary distribution of the model state, used to start a simulation without initial transient.
+ *
+ * Cloudlet states (n1, n2) are drawn from their probabilities, e.g. the stationary distribution of
+ * {@link CloudletCtmc} or the time-weighted frequencies recorded by a previous run. The cloud is an infinite
+ * server station, so its populations are drawn as independent Poisson variates with their stationary means:
+ * this is exact for Poisson arrivals, while arrivals sent by the cloudlet controller make the populations
+ * slightly more dispersed and correlated with the cloudlet state.
+ *
+ * Only populations are sampled: with exponential services, ages and residual service times of the tasks
+ * in a stationary state are exponential too, so each engine samples them as service times.
+ */
+public class StationaryDistribution {
+
+    // Components of a sampled state
+    public static final int C1_CLOUDLET = 0;
+    public static final int C2_CLOUDLET = 1;
+    public static final int C1_CLOUD = 2;
+    public static final int C2_CLOUD = 3;
+    public static final int C2_INTERRUPTED = 4;
+    public static final int DIMENSION = 5;
+
+    // Cloudlet states, with cumulative probabilities
+    private final int[] c1Cloudlet;
+    private final int[] c2Cloudlet;
+    private final double[] cumulative;
+    // Mean populations on the cloud
+    private final double c1CloudMean;
+    private final double c2CloudMean;
+    private final double c2InterruptedMean;
+
+    public StationaryDistribution(@Nonnull int[] c1Cloudlet, @Nonnull int[] c2Cloudlet,
+                                  @Nonnull double[] probabilities, double c1CloudMean, double c2CloudMean,
+                                  double c2InterruptedMean) {
+        Preconditions.checkNotNull(c1Cloudlet, "C1Cloudlet can not be null (current: %s)", (Object) c1Cloudlet);
+        Preconditions.checkNotNull(c2Cloudlet, "C2Cloudlet can not be null (current: %s)", (Object) c2Cloudlet);
+        Preconditions.checkNotNull(probabilities, "Probabilities can not be null (current: %s)", (Object) probabilities);
+        Preconditions.checkArgument(
+                c1Cloudlet.length == probabilities.length && c2Cloudlet.length == probabilities.length,
+                "Each cloudlet state must have a probability (current: %s)",
+                probabilities.length
+        );
+        Preconditions.checkArgument(c1CloudMean >= 0, "C1CloudMean must be >= 0 (current: %s)", c1CloudMean);
+        Preconditions.checkArgument(c2CloudMean >= 0, "C2CloudMean must be >= 0 (current: %s)", c2CloudMean);
+        Preconditions.checkArgument(c2InterruptedMean >= 0, "C2InterruptedMean must be >= 0 (current: %s)", c2InterruptedMean);
+
+        this.c1Cloudlet = c1Cloudlet.clone();
+        this.c2Cloudlet = c2Cloudlet.clone();
+        this.cumulative = new double[probabilities.length];
+        double sum = 0.0;
+        for (int i = 0; i < probabilities.length; ++i) {
+            Preconditions.checkArgument(
+                    c1Cloudlet[i] >= 0 && c2Cloudlet[i] >= 0,
+                    "Cloudlet populations must be >= 0 (current: %s, %s)",
+                    c1Cloudlet[i],
+                    c2Cloudlet[i]
+            );
+            Preconditions.checkArgument(probabilities[i] >= 0, "Probabilities must be >= 0 (current: %s)", probabilities[i]);
+            sum += probabilities[i];
+            this.cumulative[i] = sum;
+        }
+        Preconditions.checkArgument(sum > 0, "Probabilities must have positive sum (current: %s)", sum);
+        // normalized, so that the last state is chosen also when probabilities do not sum exactly to 1
+        for (int i = 0; i < cumulative.length; ++i) {
+            this.cumulative[i] /= sum;
+        }
+        this.c1CloudMean = c1CloudMean;
+        this.c2CloudMean = c2CloudMean;
+        this.c2InterruptedMean = c2InterruptedMean;
+    }
+
+    /**
+     * Sample a state of the model into {@param state}, indexed by {@link #C1_CLOUDLET}, {@link #C2_CLOUDLET},
+     * {@link #C1_CLOUD}, {@link #C2_CLOUD} and {@link #C2_INTERRUPTED}.
+     *
+     * @param distribution of the simulation
+     * @param stream Rngs stream
+     * @param state filled with the number of tasks of each component
+     * @return {@param state}
+     */
+    public @Nonnull int[] sample(@Nonnull Distribution distribution, int stream, @Nonnull int[] state) {
+        Preconditions.checkNotNull(distribution, "Distribution can not be null (current: %s)", distribution);
+        Preconditions.checkArgument(state.length == DIMENSION, "State must have %s components (current: %s)", DIMENSION, state.length);
+
+        int index = Arrays.binarySearch(cumulative, distribution.fromUniform(stream, 0.0, 1.0));
+        // insertion point is the first state whose cumulative probability exceeds the sample
+        index = Math.min(index < 0 ? -index - 1 : index + 1, cumulative.length - 1);
+
+        state[C1_CLOUDLET] = c1Cloudlet[index];
+        state[C2_CLOUDLET] = c2Cloudlet[index];
+        state[C1_CLOUD] = (int) distribution.fromPoisson(stream, c1CloudMean);
+        state[C2_CLOUD] = (int) distribution.fromPoisson(stream, c2CloudMean);
+        state[C2_INTERRUPTED] = (int) distribution.fromPoisson(stream, c2InterruptedMean);
+        return state;
+    }
+
+    public int getStates() {
+        return cumulative.length;
+    }
+
+    public double getC1CloudMean() {
+        return c1CloudMean;
+    }
+
+    public double getC2CloudMean() {
+        return c2CloudMean;
+    }
+
+    public double getC2InterruptedMean() {
+        return c2InterruptedMean;
+    }
+
+}
@@ -0,0 +1,140 @@
+package it.uniroma2.pmcsn.simulation.mobile_set;
+
+import com.google.common.base.Preconditions;
+import it.uniroma2.pmcsn.simulation.model.Task;
+import it.uniroma2.pmcsn.simulation.util.Distribution;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+
+/**
+ * Interarrival times and works of tasks of each class, drawn once and shared by the {@link MobileSet}s
+ * of simulations running side by side, so that they all see the same tasks.
+ *
+ * Values are drawn from the streams used by {@link MobileSet} with common random numbers, so each
+ * consumer sees the same tasks of a simulation with common random numbers and the same seed.
+ * Each consumer reads the values of a class in order, from its own cursor: values read by all
+ * the consumers are released, so memory is bounded by the distance between the first and the last consumer.
+ */
+public class ArrivalPool {
+
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private static final int CLASSES = Task.Class.values().length;
+
+    private final Distribution distribution;
+    private final double lambda1;
+    private final double lambda2;
+
+    // Values of each class, indexed by class ordinal, slot 0 holds the value of index base
+    private final double[][] interarrival = new double[CLASSES][DEFAULT_CAPACITY];
+    private final double[][] work = new double[CLASSES][DEFAULT_CAPACITY];
+    private final int[] size = new int[CLASSES];
+    private final long[] base = new long[CLASSES];
+    // Index of the next value of each class read by each consumer
+    private long[][] cursor = new long[0][];
+
+    public ArrivalPool(@Nonnull Distribution distribution, @Nonnegative double lambda1, @Nonnegative double lambda2) {
+        Preconditions.checkNotNull(distribution, "Distribution can not be null (current: %s)", distribution);
+        Preconditions.checkArgument(lambda1 >= 0, "Lambda1 must be >= 0 (current: %s)", lambda1);
+        Preconditions.checkArgument(lambda2 >= 0, "Lambda2 must be >= 0 (current: %s)", lambda2);
+
+        this.distribution = distribution;
+        this.lambda1 = lambda1;
+        this.lambda2 = lambda2;
+    }
+
+    /**
+     * Add a consumer, which reads values from the first one.
+     *
+     * @return consumer id
+     */
+    public int register() {
+        Preconditions.checkState(
+                Arrays.stream(base).allMatch(b -> b == 0),
+                "Consumers must be registered before values are released"
+        );
+
+        cursor = Arrays.copyOf(cursor, cursor.length + 1);
+        cursor[cursor.length - 1] = new long[CLASSES];
+        return cursor.length - 1;
+    }
+
+    public int getConsumers() {
+        return cursor.length;
+    }
+
+    /**
+     * Move {@param consumer} to the next task of {@param taskClass}, drawing it if no consumer has read it yet.
+     *
+     * @param consumer id of the consumer
+     * @param taskClass class of the task
+     * @return slot of the task, valid until the next call
+     */
+    public int next(int consumer, @Nonnull Task.Class taskClass) {
+        int c = taskClass.ordinal();
+        long index = cursor[consumer][c]++;
+        int slot = (int) (index - base[c]);
+        if (slot < size[c]) {
+            return slot;
+        }
+
+        if (size[c] == interarrival[c].length) {
+            release(c, index);
+            slot = (int) (index - base[c]);
+            if (size[c] == interarrival[c].length) {
+                interarrival[c] = Arrays.copyOf(interarrival[c], size[c] << 1);
+                work[c] = Arrays.copyOf(work[c], size[c] << 1);
+            }
+        }
+        draw(taskClass, slot);
+        ++size[c];
+        return slot;
+    }
+
+    public double getInterarrival(@Nonnull Task.Class taskClass, int slot) {
+        return interarrival[taskClass.ordinal()][slot];
+    }
+
+    public double getWork(@Nonnull Task.Class taskClass, int slot) {
+        return work[taskClass.ordinal()][slot];
+    }
+
+    /**
+     * Release values of class {@param c} read by all the consumers, up to {@param index} excluded.
+     */
+    private void release(int c, long index) {
+        long min = index;
+        for (long[] consumerCursor : cursor) {
+            min = Math.min(min, consumerCursor[c]);
+        }
+
+        int released = (int) (min - base[c]);
+        if (released > 0) {
+            System.arraycopy(interarrival[c], released, interarrival[c], 0, size[c] - released);
+            System.arraycopy(work[c], released, work[c], 0, size[c] - released);
+            size[c] -= released;
+            base[c] = min;
+        }
+    }
+
+    private void draw(@Nonnull Task.Class taskClass, int slot) {
+        int c = taskClass.ordinal();
+        switch (taskClass) {
+            case CLASS1:
+                interarrival[c][slot] = distribution.fromExponential(MobileSet.TASK_CLASS1_RNG_STREAM, 1 / lambda1);
+                work[c][slot] = distribution.fromExponential(MobileSet.TASK_CLASS1_WORK_RNG_STREAM, 1.0);
+                break;
+
+            case CLASS2:
+                interarrival[c][slot] = distribution.fromExponential(MobileSet.TASK_CLASS2_RNG_STREAM, 1 / lambda2);
+                work[c][slot] = distribution.fromExponential(MobileSet.TASK_CLASS2_WORK_RNG_STREAM, 1.0);
+                break;
+
+            default:
+                throw new TypeNotPresentException(taskClass.name(), new Throwable("Task class not supported"));
+        }
+    }
+
+}
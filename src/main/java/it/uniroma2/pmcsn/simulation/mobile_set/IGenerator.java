@@ -11,6 +11,6 @@ public interface IGenerator {
 
     void generate(@Nonnull Task.Class taskClass, @Nonnegative double timeOffset);
 
-    void receive(@Nonnull Task taskResult);
+    void receive(int taskResult);
 
 }
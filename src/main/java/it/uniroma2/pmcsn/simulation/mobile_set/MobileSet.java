@@ -4,15 +4,19 @@ import com.google.common.base.Preconditions;
 import it.uniroma2.pmcsn.simulation.mobile_set.model.MobileSetConfig;
 import it.uniroma2.pmcsn.simulation.mobile_set.model.MobileSetState;
 import it.uniroma2.pmcsn.simulation.model.Task;
+import it.uniroma2.pmcsn.simulation.model.TaskTable;
+import it.uniroma2.pmcsn.simulation.system.cloudlet.Cloudlet;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
-import java.util.UUID;
 
 public class MobileSet implements IGenerator {
 
     public static final int TASK_CLASS1_RNG_STREAM = 0;
     public static final int TASK_CLASS2_RNG_STREAM = 1;
+    // Streams of the work of tasks, which replaces the cloudlet service times
+    public static final int TASK_CLASS1_WORK_RNG_STREAM = Cloudlet.TASK_CLASS1_RNG_STREAM;
+    public static final int TASK_CLASS2_WORK_RNG_STREAM = Cloudlet.TASK_CLASS2_RNG_STREAM;
 
     public static final double TIME_OFFSET = 0.0;
 
@@ -20,12 +24,21 @@ public class MobileSet implements IGenerator {
     private final MobileSetConfig mobileSetConfig;
     // Mobile set state
     private final MobileSetState mobileSetState;
+    // Store of the tasks
+    private final TaskTable taskTable;
+    // Tasks shared with other simulations, null to draw them
+    private final ArrivalPool arrivalPool;
+    // Id of this mobile set as consumer of the pool
+    private final int consumer;
 
     public MobileSet(@Nonnull MobileSetConfig mobileSetConfig) {
         Preconditions.checkNotNull(mobileSetConfig, "MobileSetConfig can not be null (current: %s)", mobileSetConfig);
 
         this.mobileSetConfig = mobileSetConfig;
-        this.mobileSetState = new MobileSetState();
+        this.taskTable = mobileSetConfig.getTaskTable();
+        this.mobileSetState = new MobileSetState(mobileSetConfig.getFutureEventList(), taskTable);
+        this.arrivalPool = mobileSetConfig.getArrivalPool();
+        this.consumer = arrivalPool == null ? -1 : arrivalPool.register();
     }
 
     public MobileSetState getMobileSetState() {
@@ -42,22 +55,32 @@ public class MobileSet implements IGenerator {
     @Override
     public void generate(@Nonnull Task.Class taskClass, @Nonnegative double timeOffset) {
         Preconditions.checkNotNull(taskClass, "TaskClass must be not null (current: %s)", taskClass);
-        Preconditions.checkArgument(timeOffset >= 0, "Time offset can not be less than 0 (current: %s)", timeOffset);
+        // explicit check, to avoid boxing the argument on each arrival
+        if (timeOffset < 0) {
+            throw new IllegalArgumentException(String.format("Time offset can not be less than 0 (current: %s)", timeOffset));
+        }
+
+        if (arrivalPool != null) {
+            int slot = arrivalPool.next(consumer, taskClass);
+            int task = taskTable.add(taskClass, timeOffset + arrivalPool.getInterarrival(taskClass, slot));
+            taskTable.setWork(task, arrivalPool.getWork(taskClass, slot));
+            mobileSetState.add(task);
+            return;
+        }
 
         double arrivalTime = timeOffset + computeArrivalTimeFor(taskClass);
-        mobileSetState.add(
-                Task.TaskBuilder.builder()
-                        .uuid(UUID.randomUUID())
-                        .taskClass(taskClass)
-                        .arrival(arrivalTime)
-                        .build()
-        );
+        // reuse the slot of a task which left the system, with a new id
+        int task = taskTable.add(taskClass, arrivalTime);
+        if (mobileSetConfig.isCommonRandomNumbers()) {
+            // the n-th task of each class has the same work in every run with the same streams
+            taskTable.setWork(task, computeWorkFor(taskClass));
+        }
+        mobileSetState.add(task);
     }
 
     @Override
-    public void receive(@Nonnull Task taskResult) {
-        Preconditions.checkNotNull(taskResult, "TaskResult must be not null (current: %s)", taskResult);
-        Preconditions.checkState(taskResult.isCompleted(), "Task must be completed to retrieve its results (current: %s)", taskResult);
+    public void receive(int taskResult) {
+        Preconditions.checkState(taskTable.isCompleted(taskResult), "Task must be completed to retrieve its results (current: %s)", taskResult);
 
         mobileSetState.remove(taskResult);
     }
@@ -77,4 +100,17 @@ public class MobileSet implements IGenerator {
         }
     }
 
+    private double computeWorkFor(@Nonnull Task.Class taskClass) {
+        switch (taskClass) {
+            case CLASS1:
+                return mobileSetConfig.getDistribution().fromExponential(TASK_CLASS1_WORK_RNG_STREAM, 1.0);
+
+            case CLASS2:
+                return mobileSetConfig.getDistribution().fromExponential(TASK_CLASS2_WORK_RNG_STREAM, 1.0);
+
+            default:
+                throw new TypeNotPresentException(taskClass.name(), new Throwable("Task class not supported"));
+        }
+    }
+
 }
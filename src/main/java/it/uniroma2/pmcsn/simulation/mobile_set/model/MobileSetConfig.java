@@ -1,32 +1,68 @@
 package it.uniroma2.pmcsn.simulation.mobile_set.model;
 
 import com.google.common.base.Preconditions;
+import it.uniroma2.pmcsn.simulation.mobile_set.ArrivalPool;
+import it.uniroma2.pmcsn.simulation.model.TaskTable;
+import it.uniroma2.pmcsn.simulation.simulator.fel.IFutureEventList;
 import it.uniroma2.pmcsn.simulation.util.Distribution;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 public final class MobileSetConfig {
 
     private final Distribution distribution;
+    private final IFutureEventList futureEventList;
+    private final TaskTable taskTable;
     private final double lambda1;
     private final double lambda2;
+    // Draw the work of each task on arrival, so that it does not depend on where the task is executed
+    private final boolean commonRandomNumbers;
+    // Tasks shared with other simulations, null to draw them
+    private final ArrivalPool arrivalPool;
+
+    public MobileSetConfig(@Nonnull Distribution distribution, @Nonnull IFutureEventList futureEventList,
+                           @Nonnull TaskTable taskTable, @Nonnegative double lambda1, @Nonnegative double lambda2) {
+        this(distribution, futureEventList, taskTable, lambda1, lambda2, false);
+    }
+
+    public MobileSetConfig(@Nonnull Distribution distribution, @Nonnull IFutureEventList futureEventList,
+                           @Nonnull TaskTable taskTable, @Nonnegative double lambda1, @Nonnegative double lambda2,
+                           boolean commonRandomNumbers) {
+        this(distribution, futureEventList, taskTable, lambda1, lambda2, commonRandomNumbers, null);
+    }
 
-    public MobileSetConfig(@Nonnull Distribution distribution, @Nonnegative double lambda1,
-                           @Nonnegative double lambda2) {
+    public MobileSetConfig(@Nonnull Distribution distribution, @Nonnull IFutureEventList futureEventList,
+                           @Nonnull TaskTable taskTable, @Nonnegative double lambda1, @Nonnegative double lambda2,
+                           boolean commonRandomNumbers, @Nullable ArrivalPool arrivalPool) {
         Preconditions.checkNotNull(distribution, "Distribution can not be null (current: %s)", distribution);
+        Preconditions.checkNotNull(futureEventList, "FutureEventList can not be null (current: %s)", futureEventList);
+        Preconditions.checkNotNull(taskTable, "TaskTable can not be null (current: %s)", taskTable);
         Preconditions.checkArgument(lambda1 >= 0, "Lambda1 must be >= 0 (current: %s)", lambda1);
         Preconditions.checkArgument(lambda2 >= 0, "Lambda2 must be >= 0 (current: %s)", lambda2);
 
         this.distribution = distribution;
+        this.futureEventList = futureEventList;
+        this.taskTable = taskTable;
         this.lambda1 = lambda1;
         this.lambda2 = lambda2;
+        this.commonRandomNumbers = commonRandomNumbers;
+        this.arrivalPool = arrivalPool;
     }
 
     public Distribution getDistribution() {
         return distribution;
     }
 
+    public IFutureEventList getFutureEventList() {
+        return futureEventList;
+    }
+
+    public TaskTable getTaskTable() {
+        return taskTable;
+    }
+
     public double getLambda1() {
         return lambda1;
     }
@@ -35,25 +71,64 @@ public final class MobileSetConfig {
         return lambda2;
     }
 
+    public boolean isCommonRandomNumbers() {
+        return commonRandomNumbers;
+    }
+
+    public @Nullable ArrivalPool getArrivalPool() {
+        return arrivalPool;
+    }
+
     public static class MobileSetConfigBuilder {
 
         private final Distribution distribution;
+        private final IFutureEventList futureEventList;
+        private final TaskTable taskTable;
         private final double lambda1;
         private final double lambda2;
+        private boolean commonRandomNumbers;
+        private ArrivalPool arrivalPool;
 
-        public MobileSetConfigBuilder(Distribution distribution, double lambda1, double lambda2) {
+        public MobileSetConfigBuilder(Distribution distribution, IFutureEventList futureEventList,
+                                      TaskTable taskTable, double lambda1, double lambda2) {
             this.distribution = distribution;
+            this.futureEventList = futureEventList;
+            this.taskTable = taskTable;
             this.lambda1 = lambda1;
             this.lambda2 = lambda2;
+            this.commonRandomNumbers = false;
+            this.arrivalPool = null;
         }
 
         public MobileSetConfig build() {
-            return new MobileSetConfig(distribution, lambda1, lambda2);
+            return new MobileSetConfig(
+                    distribution, futureEventList, taskTable, lambda1, lambda2, commonRandomNumbers, arrivalPool
+            );
+        }
+
+        public MobileSetConfigBuilder commonRandomNumbers(boolean commonRandomNumbers) {
+            this.commonRandomNumbers = commonRandomNumbers;
+            return this;
+        }
+
+        public MobileSetConfigBuilder arrivalPool(ArrivalPool arrivalPool) {
+            this.arrivalPool = arrivalPool;
+            return this;
         }
 
         @FunctionalInterface
         public interface DistributionBuilder {
-            Lambda1Builder distribution(Distribution distribution);
+            FutureEventListBuilder distribution(Distribution distribution);
+        }
+
+        @FunctionalInterface
+        public interface FutureEventListBuilder {
+            TaskTableBuilder futureEventList(IFutureEventList futureEventList);
+        }
+
+        @FunctionalInterface
+        public interface TaskTableBuilder {
+            Lambda1Builder taskTable(TaskTable taskTable);
         }
 
         @FunctionalInterface
@@ -67,7 +142,8 @@ public final class MobileSetConfig {
         }
 
         public static DistributionBuilder builder() {
-            return distribution -> lambda1 -> lambda2 -> new MobileSetConfigBuilder(distribution, lambda1, lambda2);
+            return distribution -> futureEventList -> taskTable -> lambda1 -> lambda2 ->
+                    new MobileSetConfigBuilder(distribution, futureEventList, taskTable, lambda1, lambda2);
         }
 
     }
@@ -3,22 +3,38 @@ package it.uniroma2.pmcsn.simulation.mobile_set.model;
 import com.google.common.base.Preconditions;
 import it.uniroma2.pmcsn.simulation.model.IState;
 import it.uniroma2.pmcsn.simulation.model.Task;
+import it.uniroma2.pmcsn.simulation.model.TaskHeap;
+import it.uniroma2.pmcsn.simulation.model.TaskTable;
+import it.uniroma2.pmcsn.simulation.simulator.Event;
+import it.uniroma2.pmcsn.simulation.simulator.fel.IFutureEventList;
 
 import javax.annotation.Nonnull;
-import javax.annotation.Nullable;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.function.Predicate;
 
 public final class MobileSetState implements IState {
 
-    private List<Task> tasksClass1;
-    private List<Task> tasksClass2;
+    // Future event list on which arrivals are scheduled
+    private final IFutureEventList futureEventList;
+    // Store of the tasks
+    private final TaskTable taskTable;
 
-    public MobileSetState() {
-        this.tasksClass1 = new ArrayList<>();
-        this.tasksClass2 = new ArrayList<>();
+    // Tasks ordered by arrival time
+    private final TaskHeap tasksClass1;
+    private final TaskHeap tasksClass2;
+
+    public MobileSetState(@Nonnull IFutureEventList futureEventList, @Nonnull TaskTable taskTable) {
+        Preconditions.checkNotNull(futureEventList, "FutureEventList can not be null (current: %s)", futureEventList);
+        Preconditions.checkNotNull(taskTable, "TaskTable can not be null (current: %s)", taskTable);
+
+        this.futureEventList = futureEventList;
+        this.taskTable = taskTable;
+        this.tasksClass1 = new TaskHeap(taskTable::getArrival);
+        this.tasksClass2 = new TaskHeap(taskTable::getArrival);
+    }
+
+    public @Nonnull TaskTable getTaskTable() {
+        return taskTable;
     }
 
     public int getSizeTasksClass1() {
@@ -30,42 +46,34 @@ public final class MobileSetState implements IState {
     }
 
     public @Nonnull List<Task> getTasksClass1() {
-        return new ArrayList<>(tasksClass1);
+        return getViewsOf(tasksClass1);
     }
 
     public @Nonnull List<Task> getTasksClass2() {
-        return new ArrayList<>(tasksClass2);
-    }
-
-    public @Nullable Task getTaskFrom(@Nonnull List<Task> taskList, @Nonnull Predicate<Task> predicate,
-                                       @Nonnull Comparator<Task> comparator) {
-        return taskList.parallelStream()
-                .filter(predicate)
-                .min(comparator)
-                .orElse(null);
+        return getViewsOf(tasksClass2);
     }
 
-    public @Nullable Task getNextArrivalClass1() {
-        return getTaskFrom(tasksClass1, Task::isArrived, Task.minArrivalTime);
+    public int getNextArrivalClass1() {
+        return tasksClass1.first();
     }
 
-    public @Nullable Task getNextArrivalClass2() {
-        return getTaskFrom(tasksClass2, Task::isArrived, Task.minArrivalTime);
+    public int getNextArrivalClass2() {
+        return tasksClass2.first();
     }
 
     /**
      * Get next {@link Task} from {@link it.uniroma2.pmcsn.simulation.mobile_set.MobileSet} population.
      *
-     * @return the {@link Task} with the shortest **arrival** time. If no completed task is found, return null.
+     * @return the {@link Task} with the shortest **arrival** time. If no task is found, return {@link TaskTable#NULL}.
      */
     @Override
-    public @Nullable Task getNextEvent() {
-        Task taskClass1 = getNextArrivalClass1();
-        Task taskClass2 = getNextArrivalClass2();
+    public int getNextEvent() {
+        int taskClass1 = getNextArrivalClass1();
+        int taskClass2 = getNextArrivalClass2();
 
-        if (taskClass1 != null && taskClass2 != null) {
-            return taskClass1.getArrival() > taskClass2.getArrival() ? taskClass2 : taskClass1;
-        } else if (taskClass1 != null) {
+        if (taskClass1 != TaskTable.NULL && taskClass2 != TaskTable.NULL) {
+            return taskTable.getArrival(taskClass1) > taskTable.getArrival(taskClass2) ? taskClass2 : taskClass1;
+        } else if (taskClass1 != TaskTable.NULL) {
             return taskClass1;
         } else {
             return taskClass2;
@@ -73,58 +81,60 @@ public final class MobileSetState implements IState {
     }
 
     @Override
-    public void add(@Nonnull Task task) {
-        Preconditions.checkNotNull(task, "Task can not be null (current: %s)", task);
+    public void add(int task) {
+        Preconditions.checkArgument(taskTable.contains(task), "Task not found (current: %s)", task);
+
+        TaskHeap tasks = getTasksOf(taskTable.getTaskClass(task));
+        Preconditions.checkState(
+                !tasks.contains(task),
+                "Mobile set already contains %s (current: %s)",
+                task,
+                tasks
+        );
+        // address handles up to the table capacity, so the index grows with the table and not with handles seen
+        tasks.ensureCapacity(taskTable.capacity());
+        tasks.add(task);
+
+        // schedule offloading request at task arrival time
+        futureEventList.schedule(Event.Type.OFFLOAD_REQUEST, task, taskTable.getArrival(task));
+    }
 
-        Task.Class taskClass = task.getTaskClass();
-        switch (taskClass) {
-            case CLASS1:
-                Preconditions.checkState(
-                        !tasksClass1.contains(task),
-                        "Cloud already contains %s (current: %s)",
-                        task,
-                        tasksClass1
-                );
-                tasksClass1.add(task);
-                break;
+    @Override
+    public void remove(int task) {
+        Preconditions.checkArgument(taskTable.contains(task), "Task not found (current: %s)", task);
 
-            case CLASS2:
-                Preconditions.checkState(
-                        !tasksClass2.contains(task),
-                        "Cloud already contains %s (current: %s)",
-                        task,
-                        tasksClass2
-                );
-                tasksClass2.add(task);
-                break;
+        getTasksOf(taskTable.getTaskClass(task)).remove(task);
 
-            default:
-                throw new TypeNotPresentException(taskClass.name(), new Throwable("Task type not supported"));
-        }
+        futureEventList.cancel(Event.Type.OFFLOAD_REQUEST, task);
     }
 
     @Override
-    public void remove(@Nonnull Task task) {
-        Preconditions.checkNotNull(task, "Task can not be null (current: %s)", task);
+    public boolean isEmpty() {
+        return getSizeTasksClass1() == 0 && getSizeTasksClass2() == 0;
+    }
+
+    private @Nonnull TaskHeap getTasksOf(@Nonnull Task.Class taskClass) {
+        Preconditions.checkNotNull(taskClass, "Task class must be not null (current: %s)", taskClass);
 
-        Task.Class taskClass = task.getTaskClass();
         switch (taskClass) {
             case CLASS1:
-                tasksClass1.remove(task);
-                break;
+                return tasksClass1;
 
             case CLASS2:
-                tasksClass2.remove(task);
-                break;
+                return tasksClass2;
 
             default:
                 throw new TypeNotPresentException(taskClass.name(), new Throwable("Task type not supported"));
         }
     }
 
-    @Override
-    public boolean isEmpty() {
-        return getSizeTasksClass1() == 0 && getSizeTasksClass2() == 0;
+    private @Nonnull List<Task> getViewsOf(@Nonnull TaskHeap tasks) {
+        int[] handles = tasks.toArray();
+        List<Task> views = new ArrayList<>(handles.length);
+        for (int task : handles) {
+            views.add(taskTable.view(task));
+        }
+        return views;
     }
 
 }
@@ -0,0 +1,30 @@
+package it.uniroma2.pmcsn.simulation.model;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Way the metrics of the model are computed.
+ */
+public enum Engine {
+
+    // Next-event simulation
+    NEXT_EVENT,
+    // Simulation of the number of tasks, sampling the next event from total rates, for exponential distributions
+    MARKOVIAN,
+    // Simulation of the number of tasks in leaps, drawing counts of cloud events, for exponential distributions
+    TAU_LEAPING,
+    // Stationary solution of the cloudlet CTMC, for exponential arrivals and services
+    ANALYTIC,
+    // Stationary solution of the fluid approximation, for exponential distributions and large N
+    MEAN_FIELD;
+
+    public static @Nonnull Engine from(@Nonnull String engine) {
+        for (Engine e : Engine.values()) {
+            if (engine.equalsIgnoreCase(e.name())) {
+                return e;
+            }
+        }
+        throw new TypeNotPresentException(engine, new Throwable("Selected engine not yet implemented"));
+    }
+
+}
@@ -1,34 +1,32 @@
 package it.uniroma2.pmcsn.simulation.model;
 
-import javax.annotation.Nonnull;
-import javax.annotation.Nullable;
-
 /**
  * Represents the state of a system or sub-system.
+ * Tasks are referred by their handle in the {@link TaskTable} of the simulation.
  */
 public interface IState {
 
     /**
      * Get next {@link Task} from system or sub-system population.
      *
-     * @return the {@link Task} with the shortest **completion** (if present) or **arrival** time.
-     * If no completed task is found, return null.
+     * @return handle of the {@link Task} with the shortest **completion** (if present) or **arrival** time.
+     * If no completed task is found, return {@link TaskTable#NULL}.
      */
-    @Nullable Task getNextEvent();
+    int getNextEvent();
 
     /**
      * Add task to the system's population
      *
-     * @param task to add to the system
+     * @param task handle of the task to add to the system
      */
-    void add(@Nonnull Task task);
+    void add(int task);
 
     /**
      * Remove {@link Task} from the system's population.
      *
-     * @param task to remove to the system
+     * @param task handle of the task to remove to the system
      */
-    void remove(@Nonnull Task task);
+    void remove(int task);
 
     /**
      * Check if the system is empty.
@@ -1,14 +1,20 @@
 package it.uniroma2.pmcsn.simulation.model;
 
 import com.google.common.base.Preconditions;
+import it.uniroma2.pmcsn.simulation.analytic.CtmcSolverFactory;
+import it.uniroma2.pmcsn.simulation.simulator.fel.FutureEventListFactory;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.StoppingRule;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.series.BatchSeriesFactory;
 import it.uniroma2.pmcsn.simulation.system.cloudlet.access_control.AccessControlFactory;
 import it.uniroma2.pmcsn.simulation.system.cloudlet.task_interrupt.TaskInterruptFactory;
+import it.uniroma2.pmcsn.simulation.util.generator.GeneratorFactory;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.*;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 
 public final class SimulationConfig extends HashMap<String, Object> {
@@ -69,10 +75,18 @@ public final class SimulationConfig extends HashMap<String, Object> {
     public static final String CLOUDLET_TASK_INTERRUPT_ALGORITHM = "cloudlet-ti";
     public static final String DEFAULT_CLOUDLET_TASK_INTERRUPT_ALGORITHM = TaskInterruptFactory.Algorithm.MIN_ARRIVAL_TIME.name();
 
+    // Future event list implementation
+    public static final String FUTURE_EVENT_LIST = "fel";
+    public static final String DEFAULT_FUTURE_EVENT_LIST = FutureEventListFactory.Algorithm.BINARY_HEAP.name();
+
     // Seed for Rngs
     public static final String RNGS_SEED = "rngs-seed";
     public static final Long DEFAULT_RNGS_SEED = 123456789L;
 
+    // Generator of the streams, split from the seed
+    public static final String RNGS_GENERATOR = "rngs-generator";
+    public static final String DEFAULT_RNGS_GENERATOR = GeneratorFactory.Algorithm.LEHMER.name();
+
     // Compute statistics using batch means
     public static final String BATCH_MEANS = "batch-means";
     public static final boolean DEFAULT_BATCH_MEANS = true;
@@ -85,7 +99,113 @@ public final class SimulationConfig extends HashMap<String, Object> {
     public static final String LEVEL_OF_CONFIDENCE = "loc";
     public static final double DEFAULT_LEVEL_OF_CONFIDENCE = 0.95;
 
+    // Batches tested for lag-1 autocorrelation, doubling batch size while significant (0 to keep batch size fixed)
+    public static final String ADAPTIVE_BATCHES = "adaptive-batches";
+    public static final int DEFAULT_ADAPTIVE_BATCHES = 0;
+
+    // Delete initial transient from batch means, with truncation point found by MSER-5
+    public static final String WARM_UP_DETECTION = "warm-up-detection";
+    public static final boolean DEFAULT_WARM_UP_DETECTION = false;
+
+    // Metrics estimated with batch means, comma separated (empty for all)
+    public static final String BATCH_METRICS = "batch-metrics";
+    public static final String DEFAULT_BATCH_METRICS = "";
+
+    // Storage of batch means: only mean and variance or whole series
+    public static final String BATCH_SERIES = "batch-series";
+    public static final String DEFAULT_BATCH_SERIES = BatchSeriesFactory.Algorithm.WELFORD.name();
+
+    // Metrics whose precision ends the run, comma separated (empty to always run until stop time)
+    public static final String STOP_METRICS = "stop-metrics";
+    public static final String DEFAULT_STOP_METRICS = "";
+
+    // Target confidence interval half width of stop metrics
+    public static final String STOP_HALF_WIDTH = "stop-half-width";
+    public static final double DEFAULT_STOP_HALF_WIDTH = 0.01;
+
+    // Target half width is absolute or relative to the estimated mean
+    public static final String STOP_PRECISION = "stop-precision";
+    public static final String DEFAULT_STOP_PRECISION = StoppingRule.Precision.RELATIVE.name();
+
+    // Min number of batches before checking precision
+    public static final String STOP_MIN_BATCHES = "stop-min-batches";
+    public static final long DEFAULT_STOP_MIN_BATCHES = StoppingRule.MIN_BATCHES;
+
+    // Max number of batches, 0 for no limit
+    public static final String STOP_MAX_BATCHES = "stop-max-batches";
+    public static final long DEFAULT_STOP_MAX_BATCHES = 0;
+
+    // Run event loop without progress output, measuring allocations per event
+    public static final String PRODUCTION_MODE = "production-mode";
+    public static final boolean DEFAULT_PRODUCTION_MODE = false;
+
+    // First Rngs stream used by the simulation
+    public static final String RNGS_STREAM_OFFSET = "rngs-stream-offset";
+    public static final int DEFAULT_RNGS_STREAM_OFFSET = 0;
+
+    // Number of independent replications
+    public static final String REPLICATIONS = "replications";
+    public static final int DEFAULT_REPLICATIONS = 1;
+
+    // Number of threads running replications, 0 to use all available processors
+    public static final String REPLICATION_THREADS = "replication-threads";
+    public static final int DEFAULT_REPLICATION_THREADS = 0;
+
+    // Number of replications advanced side by side by a thread with the markovian engine, 1 to run them one by one
+    public static final String REPLICATION_LANES = "replication-lanes";
+    public static final int DEFAULT_REPLICATION_LANES = 1;
+
+    // Number of cloudlets offloading to the cloud, each one with its own mobile set
+    public static final String CLOUDLETS = "cloudlets";
+    public static final int DEFAULT_CLOUDLETS = 1;
+
+    // Number of threads simulating cloudlets, 0 to use all available processors
+    public static final String CLOUDLET_THREADS = "cloudlet-threads";
+    public static final int DEFAULT_CLOUDLET_THREADS = 0;
+
+    // Engine computing the metrics: simulation or stationary solution of the CTMC
+    public static final String ENGINE = "engine";
+    public static final String DEFAULT_ENGINE = Engine.NEXT_EVENT.name();
+
+    // Solver of the CTMC stationary distribution
+    public static final String CTMC_SOLVER = "ctmc-solver";
+    public static final String DEFAULT_CTMC_SOLVER = CtmcSolverFactory.Algorithm.GAUSS_SEIDEL.name();
+
+    // Max expected relative change of cloud populations in a leap of the tau-leaping engine
+    public static final String TAU_LEAPING_ERROR = "tau-leaping-error";
+    public static final double DEFAULT_TAU_LEAPING_ERROR = 0.03;
+
+    // Start simulations from a state sampled from the stationary distribution of the cloudlet CTMC
+    public static final String WARM_START = "warm-start";
+    public static final boolean DEFAULT_WARM_START = false;
+
+    // Draw the work of each task on arrival, so that runs of different systems use common random numbers
+    public static final String COMMON_RANDOM_NUMBERS = "common-random-numbers";
+    public static final boolean DEFAULT_COMMON_RANDOM_NUMBERS = false;
+
+    // Run each replication as a pair of antithetic runs
+    public static final String ANTITHETIC = "antithetic";
+    public static final boolean DEFAULT_ANTITHETIC = false;
+
+    // Replace each uniform u drawn from the streams with 1 - u, set by replications for antithetic runs
+    public static final String RNGS_ANTITHETIC = "rngs-antithetic";
+    public static final boolean DEFAULT_RNGS_ANTITHETIC = false;
+
+    // Adjust estimates of replications with control variates on the arrivals of each class
+    public static final String CONTROL_VARIATES = "control-variates";
+    public static final boolean DEFAULT_CONTROL_VARIATES = false;
 
+    // Configuration file of an alternative system, compared by paired replications
+    public static final String COMPARE_CONFIG = "compare-config";
+    public static final String DEFAULT_COMPARE_CONFIG = "";
+
+    // Values of threshold S simulated side by side on the same tasks, comma separated values or ranges
+    public static final String SWEEP_S = "sweep-s";
+    public static final String DEFAULT_SWEEP_S = "";
+
+
+    // Snapshots can not be modified after creation
+    private boolean frozen = false;
 
     // Singleton with static initialization is thread-safe iff there is one
     //  JVM and one Class Loader
@@ -109,16 +229,61 @@ public final class SimulationConfig extends HashMap<String, Object> {
         put(MEAN_SETUP_TIME, DEFAULT_MEAN_SETUP_TIME);
         put(CLOUDLET_ACCESS_CONTROL_ALGORITHM, DEFAULT_CLOUDLET_ACCESS_CONTROL_ALGORITHM);
         put(CLOUDLET_TASK_INTERRUPT_ALGORITHM, DEFAULT_CLOUDLET_TASK_INTERRUPT_ALGORITHM);
+        put(FUTURE_EVENT_LIST, DEFAULT_FUTURE_EVENT_LIST);
         put(RNGS_SEED, DEFAULT_RNGS_SEED);
+        put(RNGS_GENERATOR, DEFAULT_RNGS_GENERATOR);
         put(BATCH_MEANS, DEFAULT_BATCH_MEANS);
         put(BATCH_SIZE, DEFAULT_BATCH_SIZE);
         put(LEVEL_OF_CONFIDENCE, DEFAULT_LEVEL_OF_CONFIDENCE);
+        put(ADAPTIVE_BATCHES, DEFAULT_ADAPTIVE_BATCHES);
+        put(WARM_UP_DETECTION, DEFAULT_WARM_UP_DETECTION);
+        put(BATCH_METRICS, DEFAULT_BATCH_METRICS);
+        put(BATCH_SERIES, DEFAULT_BATCH_SERIES);
+        put(STOP_METRICS, DEFAULT_STOP_METRICS);
+        put(STOP_HALF_WIDTH, DEFAULT_STOP_HALF_WIDTH);
+        put(STOP_PRECISION, DEFAULT_STOP_PRECISION);
+        put(STOP_MIN_BATCHES, DEFAULT_STOP_MIN_BATCHES);
+        put(STOP_MAX_BATCHES, DEFAULT_STOP_MAX_BATCHES);
+        put(PRODUCTION_MODE, DEFAULT_PRODUCTION_MODE);
+        put(RNGS_STREAM_OFFSET, DEFAULT_RNGS_STREAM_OFFSET);
+        put(REPLICATIONS, DEFAULT_REPLICATIONS);
+        put(REPLICATION_THREADS, DEFAULT_REPLICATION_THREADS);
+        put(REPLICATION_LANES, DEFAULT_REPLICATION_LANES);
+        put(CLOUDLETS, DEFAULT_CLOUDLETS);
+        put(CLOUDLET_THREADS, DEFAULT_CLOUDLET_THREADS);
+        put(ENGINE, DEFAULT_ENGINE);
+        put(CTMC_SOLVER, DEFAULT_CTMC_SOLVER);
+        put(TAU_LEAPING_ERROR, DEFAULT_TAU_LEAPING_ERROR);
+        put(WARM_START, DEFAULT_WARM_START);
+        put(COMMON_RANDOM_NUMBERS, DEFAULT_COMMON_RANDOM_NUMBERS);
+        put(ANTITHETIC, DEFAULT_ANTITHETIC);
+        put(RNGS_ANTITHETIC, DEFAULT_RNGS_ANTITHETIC);
+        put(CONTROL_VARIATES, DEFAULT_CONTROL_VARIATES);
+        put(COMPARE_CONFIG, DEFAULT_COMPARE_CONFIG);
+        put(SWEEP_S, DEFAULT_SWEEP_S);
+    }
+
+    private SimulationConfig(@Nonnull SimulationConfig simulationConfig) {
+        super(simulationConfig);
     }
 
     public static SimulationConfig getInstance() {
         return SingletonContainer.INSTANCE;
     }
 
+    /**
+     * Load a configuration independent from the singleton one, e.g. of a system to compare with.
+     *
+     * @param configurationFilename complete configuration file
+     * @return loaded configuration
+     * @throws IOException if the file can not be read
+     */
+    public static @Nonnull SimulationConfig from(@Nonnull String configurationFilename) throws IOException {
+        SimulationConfig simulationConfig = new SimulationConfig();
+        simulationConfig.load(configurationFilename);
+        return simulationConfig;
+    }
+
     public void load() throws IOException {
         InputStream configInputStream = SimulationConfig.class
                 .getClassLoader()
@@ -167,10 +332,89 @@ public final class SimulationConfig extends HashMap<String, Object> {
         putDouble(MEAN_SETUP_TIME, properties.get(MEAN_SETUP_TIME), null);
         putString(CLOUDLET_ACCESS_CONTROL_ALGORITHM, properties.get(CLOUDLET_ACCESS_CONTROL_ALGORITHM), null);
         putString(CLOUDLET_TASK_INTERRUPT_ALGORITHM, properties.get(CLOUDLET_TASK_INTERRUPT_ALGORITHM), null);
+        putString(FUTURE_EVENT_LIST, properties.get(FUTURE_EVENT_LIST), DEFAULT_FUTURE_EVENT_LIST);
         putLong(RNGS_SEED, properties.get(RNGS_SEED), DEFAULT_RNGS_SEED);
+        putString(RNGS_GENERATOR, properties.get(RNGS_GENERATOR), DEFAULT_RNGS_GENERATOR);
         putBoolean(BATCH_MEANS, properties.get(BATCH_MEANS), DEFAULT_BATCH_MEANS);
         putLong(BATCH_SIZE, properties.get(BATCH_SIZE), DEFAULT_BATCH_SIZE);
         putDouble(LEVEL_OF_CONFIDENCE, properties.get(LEVEL_OF_CONFIDENCE), DEFAULT_LEVEL_OF_CONFIDENCE);
+        putInteger(ADAPTIVE_BATCHES, properties.get(ADAPTIVE_BATCHES), DEFAULT_ADAPTIVE_BATCHES);
+        putBoolean(WARM_UP_DETECTION, properties.get(WARM_UP_DETECTION), DEFAULT_WARM_UP_DETECTION);
+        putString(BATCH_METRICS, properties.get(BATCH_METRICS), DEFAULT_BATCH_METRICS);
+        putString(BATCH_SERIES, properties.get(BATCH_SERIES), DEFAULT_BATCH_SERIES);
+        putString(STOP_METRICS, properties.get(STOP_METRICS), DEFAULT_STOP_METRICS);
+        putDouble(STOP_HALF_WIDTH, properties.get(STOP_HALF_WIDTH), DEFAULT_STOP_HALF_WIDTH);
+        putString(STOP_PRECISION, properties.get(STOP_PRECISION), DEFAULT_STOP_PRECISION);
+        putLong(STOP_MIN_BATCHES, properties.get(STOP_MIN_BATCHES), DEFAULT_STOP_MIN_BATCHES);
+        putLong(STOP_MAX_BATCHES, properties.get(STOP_MAX_BATCHES), DEFAULT_STOP_MAX_BATCHES);
+        putBoolean(PRODUCTION_MODE, properties.get(PRODUCTION_MODE), DEFAULT_PRODUCTION_MODE);
+        putInteger(RNGS_STREAM_OFFSET, properties.get(RNGS_STREAM_OFFSET), DEFAULT_RNGS_STREAM_OFFSET);
+        putInteger(REPLICATIONS, properties.get(REPLICATIONS), DEFAULT_REPLICATIONS);
+        putInteger(REPLICATION_THREADS, properties.get(REPLICATION_THREADS), DEFAULT_REPLICATION_THREADS);
+        putInteger(REPLICATION_LANES, properties.get(REPLICATION_LANES), DEFAULT_REPLICATION_LANES);
+        putInteger(CLOUDLETS, properties.get(CLOUDLETS), DEFAULT_CLOUDLETS);
+        putInteger(CLOUDLET_THREADS, properties.get(CLOUDLET_THREADS), DEFAULT_CLOUDLET_THREADS);
+        putString(ENGINE, properties.get(ENGINE), DEFAULT_ENGINE);
+        putString(CTMC_SOLVER, properties.get(CTMC_SOLVER), DEFAULT_CTMC_SOLVER);
+        putDouble(TAU_LEAPING_ERROR, properties.get(TAU_LEAPING_ERROR), DEFAULT_TAU_LEAPING_ERROR);
+        putBoolean(WARM_START, properties.get(WARM_START), DEFAULT_WARM_START);
+        putBoolean(COMMON_RANDOM_NUMBERS, properties.get(COMMON_RANDOM_NUMBERS), DEFAULT_COMMON_RANDOM_NUMBERS);
+        putBoolean(ANTITHETIC, properties.get(ANTITHETIC), DEFAULT_ANTITHETIC);
+        putBoolean(RNGS_ANTITHETIC, properties.get(RNGS_ANTITHETIC), DEFAULT_RNGS_ANTITHETIC);
+        putBoolean(CONTROL_VARIATES, properties.get(CONTROL_VARIATES), DEFAULT_CONTROL_VARIATES);
+        putString(COMPARE_CONFIG, properties.get(COMPARE_CONFIG), DEFAULT_COMPARE_CONFIG);
+        putString(SWEEP_S, properties.get(SWEEP_S), DEFAULT_SWEEP_S);
+    }
+
+    /**
+     * Create an immutable copy of this configuration, replacing values of {@param overrides}.
+     * Snapshots are not affected by later changes of this configuration, so they can be
+     * safely shared with simulations running on other threads.
+     *
+     * @param overrides values to replace in the snapshot
+     * @return immutable copy of this configuration
+     */
+    public @Nonnull SimulationConfig snapshot(@Nonnull Map<String, Object> overrides) {
+        Preconditions.checkNotNull(overrides, "Overrides can not be null (current: %s)", overrides);
+
+        SimulationConfig snapshot = new SimulationConfig(this);
+        snapshot.putAll(overrides);
+        snapshot.frozen = true;
+        return snapshot;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException("SimulationConfig snapshot can not be modified");
+        }
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        checkNotFrozen();
+        return super.put(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ?> m) {
+        checkNotFrozen();
+        super.putAll(m);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        checkNotFrozen();
+        return super.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        checkNotFrozen();
+        super.clear();
     }
 
     private void putObject(@Nonnull String key, @Nullable Object value, @Nullable Object defaultValue) {
@@ -236,7 +480,7 @@ public final class SimulationConfig extends HashMap<String, Object> {
     private void putDouble(@Nonnull String key, @Nullable Object value, @Nullable Object defaultValue) {
         try {
             put(key, Double.valueOf((String) value));
-        } catch (NumberFormatException e) {
+        } catch (NumberFormatException | NullPointerException e) {
             if (defaultValue != null) {
                 put(key, defaultValue);
             } else {
@@ -329,10 +573,18 @@ public final class SimulationConfig extends HashMap<String, Object> {
         return (String) get(CLOUDLET_TASK_INTERRUPT_ALGORITHM);
     }
 
+    public String getFutureEventList() {
+        return (String) get(FUTURE_EVENT_LIST);
+    }
+
     public long getSeed() {
         return (long) get(RNGS_SEED);
     }
 
+    public String getRngsGenerator() {
+        return (String) get(RNGS_GENERATOR);
+    }
+
     public boolean getBatchMeans() {
         return (boolean) get(BATCH_MEANS);
     }
@@ -345,6 +597,110 @@ public final class SimulationConfig extends HashMap<String, Object> {
         return (double) get(LEVEL_OF_CONFIDENCE);
     }
 
+    public int getAdaptiveBatches() {
+        return (int) get(ADAPTIVE_BATCHES);
+    }
+
+    public boolean getWarmUpDetection() {
+        return (boolean) get(WARM_UP_DETECTION);
+    }
+
+    public String getBatchMetrics() {
+        return (String) get(BATCH_METRICS);
+    }
+
+    public String getBatchSeries() {
+        return (String) get(BATCH_SERIES);
+    }
+
+    public String getStopMetrics() {
+        return (String) get(STOP_METRICS);
+    }
+
+    public double getStopHalfWidth() {
+        return (double) get(STOP_HALF_WIDTH);
+    }
+
+    public String getStopPrecision() {
+        return (String) get(STOP_PRECISION);
+    }
+
+    public long getStopMinBatches() {
+        return (long) get(STOP_MIN_BATCHES);
+    }
+
+    public long getStopMaxBatches() {
+        return (long) get(STOP_MAX_BATCHES);
+    }
+
+    public boolean getProductionMode() {
+        return (boolean) get(PRODUCTION_MODE);
+    }
+
+    public int getStreamOffset() {
+        return (int) get(RNGS_STREAM_OFFSET);
+    }
+
+    public int getReplications() {
+        return (int) get(REPLICATIONS);
+    }
+
+    public int getReplicationThreads() {
+        return (int) get(REPLICATION_THREADS);
+    }
+
+    public int getReplicationLanes() {
+        return (int) get(REPLICATION_LANES);
+    }
+
+    public int getCloudlets() {
+        return (int) get(CLOUDLETS);
+    }
+
+    public int getCloudletThreads() {
+        return (int) get(CLOUDLET_THREADS);
+    }
+
+    public String getEngine() {
+        return (String) get(ENGINE);
+    }
+
+    public String getCtmcSolver() {
+        return (String) get(CTMC_SOLVER);
+    }
+
+    public double getTauLeapingError() {
+        return (double) get(TAU_LEAPING_ERROR);
+    }
+
+    public boolean getWarmStart() {
+        return (boolean) get(WARM_START);
+    }
+
+    public boolean getCommonRandomNumbers() {
+        return (boolean) get(COMMON_RANDOM_NUMBERS);
+    }
+
+    public boolean getAntithetic() {
+        return (boolean) get(ANTITHETIC);
+    }
+
+    public boolean getRngsAntithetic() {
+        return (boolean) get(RNGS_ANTITHETIC);
+    }
+
+    public boolean getControlVariates() {
+        return (boolean) get(CONTROL_VARIATES);
+    }
+
+    public String getCompareConfig() {
+        return (String) get(COMPARE_CONFIG);
+    }
+
+    public String getSweepS() {
+        return (String) get(SWEEP_S);
+    }
+
     @Override
     public String toString() {
         final StringBuilder stringBuilder = new StringBuilder();
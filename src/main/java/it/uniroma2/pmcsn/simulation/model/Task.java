@@ -2,11 +2,16 @@ package it.uniroma2.pmcsn.simulation.model;
 
 import com.google.common.base.Preconditions;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import java.util.Comparator;
-import java.util.Objects;
-import java.util.UUID;
 
+/**
+ * View over a task stored in a {@link TaskTable}.
+ *
+ * The simulation refers to tasks through their int handle, so a view is valid only while
+ * the task is in the system: once it leaves, its slot may be reused by another task.
+ */
 public final class Task {
 
     public static final double NOT_ARRIVED = Double.MIN_VALUE;
@@ -17,6 +22,9 @@ public final class Task {
     public static Comparator<Task> maxArrivalTime = Comparator.comparingDouble(Task::getArrival).reversed();
     public static Comparator<Task> minCompletionTime = Comparator.comparingDouble(Task::getCompletion);
     public static Comparator<Task> maxCompletionTime = Comparator.comparingDouble(Task::getCompletion).reversed();
+    // Total orders (ties are broken by id), suitable for sorted collections
+    public static Comparator<Task> arrivalTimeOrder = Comparator.comparingDouble(Task::getArrival).thenComparingLong(Task::getId);
+    public static Comparator<Task> completionTimeOrder = Comparator.comparingDouble(Task::getCompletion).thenComparingLong(Task::getId);
     public static Comparator<Task> absoluteTime = (t1, t2) -> {
         if (!t1.isArrived() || !t2.isArrived()) {
             throw new IllegalArgumentException(
@@ -34,62 +42,81 @@ public final class Task {
 
     }
 
-    private final UUID uuid;
+    // Store holding task attributes
+    private final TaskTable taskTable;
+    // Handle of the task in the store
+    private final int handle;
 
-    // Task class type
-    private Class taskClass;
-    // Task arrival time in the system
-    private double arrival;
-    // Task completion time
-    private double completion;
-    // Task interrupted flag
-    private boolean interrupted;
-
-    public Task(@Nonnull UUID uuid) {
-        this(uuid, null, NOT_ARRIVED, NOT_COMPLETED, false);
+    public Task(@Nonnegative long id) {
+        this(id, null, NOT_ARRIVED, NOT_COMPLETED, false);
     }
 
-    public Task(@Nonnull UUID uuid, Class taskClass, double arrival, double completion, boolean interrupted) {
-        Preconditions.checkNotNull(uuid, "UUID can not be null (current: %s)", uuid);
-        if (isInterrupted()) {
-            Preconditions.checkArgument(isArrived(), "Interrupted task must have arrived (current: %s)", arrival);
-            Preconditions.checkArgument(isCompleted(), "Interrupted task must have partial completed (current: %s)", completion);
+    public Task(@Nonnegative long id, Class taskClass, double arrival, double completion, boolean interrupted) {
+        Preconditions.checkArgument(id >= 0, "Id must be >= 0 (current: %s)", id);
+        if (interrupted) {
+            Preconditions.checkArgument(arrival != NOT_ARRIVED, "Interrupted task must have arrived (current: %s)", arrival);
+            Preconditions.checkArgument(completion != NOT_COMPLETED, "Interrupted task must have partial completed (current: %s)", completion);
+        }
+        // explicit check, to avoid boxing the arguments for each task
+        if (arrival >= completion) {
+            throw new IllegalArgumentException(String.format(
+                    "Arrival time must be less than completion time (current: %s, %s)",
+                    arrival,
+                    completion
+            ));
         }
-        Preconditions.checkArgument(
-                arrival < completion,
-                "Arrival time must be less than completion time (current: %s, %s)",
-                arrival,
-                completion
-        );
-
-        this.uuid = uuid;
 
-        this.taskClass = taskClass;
-        this.arrival = arrival;
-        this.completion = completion;
-        this.interrupted = interrupted;
+        // a task created outside a simulation is kept in its own store
+        this.taskTable = new TaskTable(1);
+        this.handle = taskTable.add(id, taskClass, arrival, completion, interrupted);
     }
 
     public Task(@Nonnull Task task) {
-        Preconditions.checkNotNull(task, "Other task can not be null (current: %s)", task);
+        this(
+                Preconditions.checkNotNull(task, "Other task can not be null (current: %s)", task).getId(),
+                task.getTaskClass(),
+                task.getArrival(),
+                task.getCompletion(),
+                task.isInterrupted()
+        );
+    }
+
+    /**
+     * View over the task with handle {@param handle} in {@param taskTable}.
+     */
+    Task(@Nonnull TaskTable taskTable, int handle) {
+        this.taskTable = taskTable;
+        this.handle = handle;
+    }
 
-        this.uuid = task.uuid;
-        this.taskClass = task.taskClass;
-        this.arrival = task.arrival;
-        this.completion = task.completion;
-        this.interrupted = task.interrupted;
+    public @Nonnull TaskTable getTaskTable() {
+        return taskTable;
     }
 
-    public UUID getUuid() {
-        return uuid;
+    /**
+     * Get handle of this {@link Task} in its {@link TaskTable}.
+     *
+     * @return handle of the task
+     */
+    public int getHandle() {
+        return handle;
+    }
+
+    /**
+     * Get id of the {@link Task}, unique in the simulation.
+     *
+     * @return id of the task
+     */
+    public long getId() {
+        return taskTable.getId(handle);
     }
 
     public Class getTaskClass() {
-        return taskClass;
+        return taskTable.getTaskClass(handle);
     }
 
     public void setTaskClass(Class taskClass) {
-        this.taskClass = taskClass;
+        taskTable.setTaskClass(handle, taskClass);
     }
 
     /**
@@ -98,11 +125,11 @@ public final class Task {
      * @return time instant of arrival in the system
      */
     public double getArrival() {
-        return arrival;
+        return taskTable.getArrival(handle);
     }
 
     public void setArrival(double arrival) {
-        this.arrival = arrival;
+        taskTable.setArrival(handle, arrival);
     }
 
     /**
@@ -111,7 +138,7 @@ public final class Task {
      * @return {@code true} iif arrival time is well-defined.
      */
     public boolean isArrived() {
-        return arrival != NOT_ARRIVED;
+        return taskTable.isArrived(handle);
     }
 
     /**
@@ -120,11 +147,11 @@ public final class Task {
      * @return time instant of completion by the system
      */
     public double getCompletion() {
-        return completion;
+        return taskTable.getCompletion(handle);
     }
 
     public void setCompletion(double completion) {
-        this.completion = completion;
+        taskTable.setCompletion(handle, completion);
     }
 
     /**
@@ -133,11 +160,11 @@ public final class Task {
      * @return {@code true} iif completion time is well-defined.
      */
     public boolean isCompleted() {
-        return completion != NOT_COMPLETED;
+        return taskTable.isCompleted(handle);
     }
 
     public void setInterrupted(boolean interrupted) {
-        this.interrupted = interrupted;
+        taskTable.setInterrupted(handle, interrupted);
     }
 
     /**
@@ -146,20 +173,20 @@ public final class Task {
      * @return {@code true} iif task has been interrupted.
      */
     public boolean isInterrupted() {
-        return interrupted;
+        return taskTable.isInterrupted(handle);
     }
 
     public static class TaskBuilder {
 
-        private final UUID uuid;
+        private final long id;
 
         private Class taskClass;
         private double arrival;
         private double completion;
         private boolean interrupted;
 
-        public TaskBuilder(UUID uuid) {
-            this.uuid = uuid;
+        public TaskBuilder(long id) {
+            this.id = id;
 
             this.taskClass = null;
             this.arrival = NOT_ARRIVED;
@@ -168,12 +195,12 @@ public final class Task {
         }
 
         public Task build() {
-            return new Task(uuid, taskClass, arrival, completion, interrupted);
+            return new Task(id, taskClass, arrival, completion, interrupted);
         }
 
         @FunctionalInterface
-        public interface UuidBuilder {
-            TaskBuilder uuid(UUID uuid);
+        public interface IdBuilder {
+            TaskBuilder id(long id);
         }
 
         public TaskBuilder taskClass(Class taskClass) {
@@ -196,8 +223,8 @@ public final class Task {
             return this;
         }
 
-        public static UuidBuilder builder() {
-            return uuid -> new TaskBuilder(uuid);
+        public static IdBuilder builder() {
+            return id -> new TaskBuilder(id);
         }
 
     }
@@ -207,25 +234,25 @@ public final class Task {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Task task = (Task) o;
-        return uuid.equals(task.uuid);
+        return getId() == task.getId();
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(uuid);
+        return Long.hashCode(getId());
     }
 
     @Override
     public String toString() {
         return String.format(
-                "%s@%s=(UUID=%s, class=%s, arrival=%s, completion=%s, interrupted=%s)",
+                "%s@%s=(id=%s, class=%s, arrival=%s, completion=%s, interrupted=%s)",
                 getClass().getSimpleName(),
                 Integer.toHexString(hashCode()),
-                uuid,
-                taskClass,
-                arrival == NOT_ARRIVED ? null : arrival,
-                completion == NOT_COMPLETED ? null : completion,
-                interrupted
+                getId(),
+                getTaskClass(),
+                isArrived() ? getArrival() : null,
+                isCompleted() ? getCompletion() : null,
+                isInterrupted()
         );
     }
 
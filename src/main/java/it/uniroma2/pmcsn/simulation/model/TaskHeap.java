@@ -0,0 +1,230 @@
+package it.uniroma2.pmcsn.simulation.model;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Set of {@link Task} handles ordered by a key (e.g. arrival or completion time), ties being broken
+ * by handle, from which both the task with minimum key and the one with maximum key can be taken.
+ *
+ * Tasks are kept in a binary min heap and in a binary max heap, each with the position of every handle
+ * in an array indexed by handle, so that first and last task and membership check are O(1), while add and
+ * remove of any task are O(log n). Arrays grow only when size or a handle exceed their capacity, so that,
+ * differently from tree based sets, no node is allocated for each added {@link Task}.
+ *
+ * As for sorted collections, the key of a {@link Task} must not change while it is contained.
+ */
+public final class TaskHeap {
+
+    public static final int DEFAULT_CAPACITY = 16;
+
+    // Position of handles not contained in the heaps
+    private static final int ABSENT = -1;
+
+    // Key of each task, usually read from a TaskTable
+    private final IntToDoubleFunction key;
+    // Heaps of handles, with minimum and maximum key at the root
+    private int[] minHeap;
+    private int[] maxHeap;
+    // Position of each handle in the heaps
+    private int[] minPositions;
+    private int[] maxPositions;
+    private int size;
+
+    public TaskHeap(@Nonnull IntToDoubleFunction key) {
+        this(key, DEFAULT_CAPACITY);
+    }
+
+    public TaskHeap(@Nonnull IntToDoubleFunction key, @Nonnegative int initialCapacity) {
+        Preconditions.checkNotNull(key, "Key can not be null (current: %s)", key);
+        Preconditions.checkArgument(initialCapacity > 0, "InitialCapacity must be > 0 (current: %s)", initialCapacity);
+
+        this.key = key;
+        this.minHeap = new int[initialCapacity];
+        this.maxHeap = new int[initialCapacity];
+        this.minPositions = new int[initialCapacity];
+        this.maxPositions = new int[initialCapacity];
+        Arrays.fill(this.minPositions, ABSENT);
+        Arrays.fill(this.maxPositions, ABSENT);
+        this.size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int task) {
+        return task >= 0 && task < minPositions.length && minPositions[task] != ABSENT;
+    }
+
+    /**
+     * @return handle of the task with minimum key or {@link TaskTable#NULL} if empty
+     */
+    public int first() {
+        return size == 0 ? TaskTable.NULL : minHeap[0];
+    }
+
+    /**
+     * @return handle of the task with maximum key or {@link TaskTable#NULL} if empty
+     */
+    public int last() {
+        return size == 0 ? TaskTable.NULL : maxHeap[0];
+    }
+
+    /**
+     * Grow the arrays indexed by handle, so that handles lower than {@param handles} can be added without
+     * allocating, e.g. up to the capacity of the {@link TaskTable} that assigns them.
+     *
+     * @param handles number of handles to address
+     */
+    public void ensureCapacity(@Nonnegative int handles) {
+        if (handles > minPositions.length) {
+            growPositions(handles);
+        }
+    }
+
+    /**
+     * Add {@param task}.
+     *
+     * @param task to add
+     * @return {@code true} iif {@param task} was not already contained
+     */
+    public boolean add(int task) {
+        Preconditions.checkArgument(task >= 0, "Task must be >= 0 (current: %s)", task);
+        if (task >= minPositions.length) {
+            ensureCapacity(task + 1);
+        }
+        if (minPositions[task] != ABSENT) {
+            return false;
+        }
+
+        if (size == minHeap.length) {
+            minHeap = Arrays.copyOf(minHeap, size << 1);
+            maxHeap = Arrays.copyOf(maxHeap, size << 1);
+        }
+        siftUp(minHeap, minPositions, 1, size, task);
+        siftUp(maxHeap, maxPositions, -1, size, task);
+        ++size;
+        return true;
+    }
+
+    /**
+     * Remove {@param task}.
+     *
+     * @param task to remove
+     * @return {@code true} iif {@param task} was contained
+     */
+    public boolean remove(int task) {
+        if (!contains(task)) {
+            return false;
+        }
+
+        --size;
+        removeAt(minHeap, minPositions, 1, minPositions[task]);
+        removeAt(maxHeap, maxPositions, -1, maxPositions[task]);
+        minPositions[task] = ABSENT;
+        maxPositions[task] = ABSENT;
+        return true;
+    }
+
+    /**
+     * Sort a copy of the contained handles, so it is O(n log n) and allocates.
+     *
+     * @return handles of the contained tasks in key order
+     */
+    public @Nonnull int[] toArray() {
+        return IntStream.of(Arrays.copyOf(minHeap, size))
+                .boxed()
+                .sorted(this::compare)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Fill the hole left in {@param index} with the last element of {@param heap}, which has already
+     * been excluded by size.
+     */
+    private void removeAt(@Nonnull int[] heap, @Nonnull int[] positions, int order, int index) {
+        if (index == size) {
+            return;
+        }
+
+        int moved = heap[size];
+        siftDown(heap, positions, order, index, moved);
+        if (heap[index] == moved) {
+            siftUp(heap, positions, order, index, moved);
+        }
+    }
+
+    /**
+     * Place {@param task} in {@param index} or in one of its ancestors.
+     *
+     * @param order 1 for a min heap, -1 for a max heap
+     */
+    private void siftUp(@Nonnull int[] heap, @Nonnull int[] positions, int order, int index, int task) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (order * compare(task, heap[parent]) >= 0) {
+                break;
+            }
+            heap[index] = heap[parent];
+            positions[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = task;
+        positions[task] = index;
+    }
+
+    /**
+     * Place {@param task} in {@param index} or in one of its descendants.
+     *
+     * @param order 1 for a min heap, -1 for a max heap
+     */
+    private void siftDown(@Nonnull int[] heap, @Nonnull int[] positions, int order, int index, int task) {
+        int half = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if (right < size && order * compare(heap[right], heap[child]) < 0) {
+                child = right;
+            }
+            if (order * compare(task, heap[child]) <= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            positions[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = task;
+        positions[task] = index;
+    }
+
+    private int compare(int task, int other) {
+        int comparison = Double.compare(key.applyAsDouble(task), key.applyAsDouble(other));
+        return comparison == 0 ? Integer.compare(task, other) : comparison;
+    }
+
+    private void growPositions(int handles) {
+        int capacity = Math.max(minPositions.length << 1, handles);
+        int length = minPositions.length;
+        minPositions = Arrays.copyOf(minPositions, capacity);
+        maxPositions = Arrays.copyOf(maxPositions, capacity);
+        Arrays.fill(minPositions, length, capacity, ABSENT);
+        Arrays.fill(maxPositions, length, capacity, ABSENT);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+}
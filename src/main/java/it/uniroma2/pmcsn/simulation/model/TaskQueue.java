@@ -0,0 +1,160 @@
+package it.uniroma2.pmcsn.simulation.model;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnegative;
+import java.util.Arrays;
+
+/**
+ * FIFO queue of {@link Task} handles, linked through arrays indexed by handle.
+ *
+ * Each handle has the handles of the previous and the next task in the queue, so that add, poll,
+ * membership check and removal of any task are O(1). Arrays grow only when a handle exceeds their
+ * capacity, so no node is allocated for each added {@link Task}. A handle can be contained at most once.
+ */
+public final class TaskQueue {
+
+    public static final int DEFAULT_CAPACITY = 16;
+
+    // Mark of handles not contained in the queue
+    private static final int ABSENT = -2;
+
+    // Previous and next task of each handle, TaskTable.NULL at the ends of the queue
+    private int[] previous;
+    private int[] next;
+    private int first;
+    private int last;
+    private int size;
+
+    public TaskQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TaskQueue(@Nonnegative int initialCapacity) {
+        Preconditions.checkArgument(initialCapacity > 0, "InitialCapacity must be > 0 (current: %s)", initialCapacity);
+
+        this.previous = new int[initialCapacity];
+        this.next = new int[initialCapacity];
+        Arrays.fill(this.previous, ABSENT);
+        this.first = TaskTable.NULL;
+        this.last = TaskTable.NULL;
+        this.size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int task) {
+        return task >= 0 && task < previous.length && previous[task] != ABSENT;
+    }
+
+    /**
+     * Grow the arrays indexed by handle, so that handles lower than {@param handles} can be added without
+     * allocating, e.g. up to the capacity of the {@link TaskTable} that assigns them.
+     *
+     * @param handles number of handles to address
+     */
+    public void ensureCapacity(@Nonnegative int handles) {
+        if (handles > previous.length) {
+            grow(handles);
+        }
+    }
+
+    /**
+     * Add {@param task} at the end of the queue.
+     *
+     * @param task to add
+     * @throws IllegalStateException iif {@param task} is already contained
+     */
+    public void addLast(int task) {
+        Preconditions.checkArgument(task >= 0, "Task must be >= 0 (current: %s)", task);
+        if (task >= previous.length) {
+            ensureCapacity(task + 1);
+        }
+        if (previous[task] != ABSENT) {
+            throw new IllegalStateException(String.format("Queue already contains %s", task));
+        }
+
+        previous[task] = last;
+        next[task] = TaskTable.NULL;
+        if (last == TaskTable.NULL) {
+            first = task;
+        } else {
+            next[last] = task;
+        }
+        last = task;
+        ++size;
+    }
+
+    /**
+     * @return handle of the first task or {@link TaskTable#NULL} if empty
+     */
+    public int peekFirst() {
+        return first;
+    }
+
+    /**
+     * Remove the first task.
+     *
+     * @return handle of the removed task or {@link TaskTable#NULL} if empty
+     */
+    public int pollFirst() {
+        int task = first;
+        if (task != TaskTable.NULL) {
+            remove(task);
+        }
+        return task;
+    }
+
+    /**
+     * Remove {@param task}, keeping order of the others.
+     *
+     * @param task to remove
+     * @return {@code true} iif {@param task} was contained
+     */
+    public boolean remove(int task) {
+        if (!contains(task)) {
+            return false;
+        }
+
+        int before = previous[task];
+        int after = next[task];
+        if (before == TaskTable.NULL) {
+            first = after;
+        } else {
+            next[before] = after;
+        }
+        if (after == TaskTable.NULL) {
+            last = before;
+        } else {
+            previous[after] = before;
+        }
+        previous[task] = ABSENT;
+        --size;
+        return true;
+    }
+
+    private void grow(int handles) {
+        int capacity = Math.max(previous.length << 1, handles);
+        int length = previous.length;
+        previous = Arrays.copyOf(previous, capacity);
+        next = Arrays.copyOf(next, capacity);
+        Arrays.fill(previous, length, capacity, ABSENT);
+    }
+
+    @Override
+    public String toString() {
+        int[] content = new int[size];
+        int i = 0;
+        for (int task = first; task != TaskTable.NULL; task = next[task]) {
+            content[i++] = task;
+        }
+        return Arrays.toString(content);
+    }
+
+}
@@ -0,0 +1,234 @@
+package it.uniroma2.pmcsn.simulation.model;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Struct-of-arrays store of the {@link Task}s of a simulation.
+ *
+ * Each task is identified by an int handle, index of its slot in parallel primitive arrays (arrival,
+ * completion, class, work and interrupted flag), so that the simulation does not need an object for each task
+ * and scans over the population are cache-friendly. Slots of tasks which left the system are reused
+ * by new tasks, so handles are valid only while the task is in the system.
+ *
+ * Differently from handles, task ids are never reused: they are assigned in increasing order
+ * from a counter scoped to the table, so to the simulation.
+ *
+ * {@link Task} objects are views over a slot, available to API users through {@link #view(int)}.
+ */
+public final class TaskTable {
+
+    // Handle used to represent the absence of a task
+    public static final int NULL = -1;
+    // Id of free slots
+    public static final long NO_ID = -1;
+    public static final int DEFAULT_CAPACITY = 64;
+
+    // Class stored for tasks without class
+    private static final byte NO_CLASS = -1;
+    private static final Task.Class[] CLASSES = Task.Class.values();
+
+    // Task identifiers, NO_ID for free slots
+    private long[] id;
+    private double[] arrival;
+    private double[] completion;
+    private byte[] taskClass;
+    // Service requirement drawn on arrival, in units of mean service time, NaN if drawn by executors
+    private double[] work;
+    private final BitSet interrupted;
+
+    // Free slots, reused before growing the table
+    private int[] free;
+    private int freeSize;
+    // Number of slots used at least once
+    private int top;
+    // Number of tasks in the table
+    private int size;
+    // Id of next added task
+    private long nextId;
+
+    public TaskTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TaskTable(@Nonnegative int initialCapacity) {
+        Preconditions.checkArgument(initialCapacity > 0, "InitialCapacity must be > 0 (current: %s)", initialCapacity);
+
+        this.id = new long[initialCapacity];
+        this.arrival = new double[initialCapacity];
+        this.completion = new double[initialCapacity];
+        this.taskClass = new byte[initialCapacity];
+        this.work = new double[initialCapacity];
+        this.interrupted = new BitSet(initialCapacity);
+        this.free = new int[initialCapacity];
+        this.freeSize = 0;
+        this.top = 0;
+        this.size = 0;
+        this.nextId = 0;
+    }
+
+    /**
+     * Add a new arrived {@link Task}, not yet completed, with the next id.
+     *
+     * @return handle of the new task
+     */
+    public int add(@Nonnull Task.Class taskClass, double arrival) {
+        Preconditions.checkNotNull(taskClass, "TaskClass can not be null (current: %s)", taskClass);
+
+        return add(nextId, taskClass, arrival, Task.NOT_COMPLETED, false);
+    }
+
+    /**
+     * Add a new {@link Task} with id {@param id}. Next generated ids will be greater than {@param id}.
+     *
+     * @return handle of the new task
+     */
+    public int add(@Nonnegative long id, @Nullable Task.Class taskClass, double arrival, double completion,
+                   boolean interrupted) {
+        Preconditions.checkArgument(id >= 0, "Id must be >= 0 (current: %s)", id);
+
+        int task;
+        if (freeSize > 0) {
+            task = free[--freeSize];
+        } else {
+            if (top == this.id.length) {
+                grow();
+            }
+            task = top++;
+        }
+
+        this.id[task] = id;
+        this.nextId = Math.max(nextId, id + 1);
+        this.taskClass[task] = taskClass == null ? NO_CLASS : (byte) taskClass.ordinal();
+        this.arrival[task] = arrival;
+        this.completion[task] = completion;
+        this.work[task] = Double.NaN;
+        this.interrupted.set(task, interrupted);
+        ++size;
+        return task;
+    }
+
+    /**
+     * Remove the {@link Task} with handle {@param task}, its slot will be reused by next tasks.
+     *
+     * @param task handle of the task leaving the system
+     */
+    public void remove(int task) {
+        Preconditions.checkArgument(contains(task), "Task not found (current: %s)", task);
+
+        id[task] = NO_ID;
+        interrupted.clear(task);
+        free[freeSize++] = task;
+        --size;
+    }
+
+    public boolean contains(int task) {
+        return task >= 0 && task < top && id[task] != NO_ID;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return id.length;
+    }
+
+    public long getId(int task) {
+        return id[task];
+    }
+
+    public @Nullable Task.Class getTaskClass(int task) {
+        byte ordinal = taskClass[task];
+        return ordinal == NO_CLASS ? null : CLASSES[ordinal];
+    }
+
+    public void setTaskClass(int task, @Nullable Task.Class taskClass) {
+        this.taskClass[task] = taskClass == null ? NO_CLASS : (byte) taskClass.ordinal();
+    }
+
+    public double getArrival(int task) {
+        return arrival[task];
+    }
+
+    public void setArrival(int task, double arrival) {
+        this.arrival[task] = arrival;
+    }
+
+    public boolean isArrived(int task) {
+        return arrival[task] != Task.NOT_ARRIVED;
+    }
+
+    public double getCompletion(int task) {
+        return completion[task];
+    }
+
+    public void setCompletion(int task, double completion) {
+        this.completion[task] = completion;
+    }
+
+    public boolean isCompleted(int task) {
+        return completion[task] != Task.NOT_COMPLETED;
+    }
+
+    public boolean hasWork(int task) {
+        return !Double.isNaN(work[task]);
+    }
+
+    public double getWork(int task) {
+        return work[task];
+    }
+
+    public void setWork(int task, double work) {
+        this.work[task] = work;
+    }
+
+    public boolean isInterrupted(int task) {
+        return interrupted.get(task);
+    }
+
+    public void setInterrupted(int task, boolean interrupted) {
+        this.interrupted.set(task, interrupted);
+    }
+
+    /**
+     * Get a {@link Task} view over the slot {@param task}.
+     *
+     * @param task handle of the task
+     * @return view of the task or null if {@param task} is {@link #NULL}
+     */
+    public @Nullable Task view(int task) {
+        if (task == NULL) {
+            return null;
+        }
+        Preconditions.checkArgument(contains(task), "Task not found (current: %s)", task);
+
+        return new Task(this, task);
+    }
+
+    private void grow() {
+        int capacity = id.length << 1;
+        id = Arrays.copyOf(id, capacity);
+        arrival = Arrays.copyOf(arrival, capacity);
+        completion = Arrays.copyOf(completion, capacity);
+        taskClass = Arrays.copyOf(taskClass, capacity);
+        work = Arrays.copyOf(work, capacity);
+        free = Arrays.copyOf(free, capacity);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%s=(size=%s, capacity=%s)",
+                getClass().getSimpleName(),
+                size,
+                capacity()
+        );
+    }
+
+}
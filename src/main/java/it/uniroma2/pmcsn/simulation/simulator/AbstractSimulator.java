@@ -0,0 +1,274 @@
+package it.uniroma2.pmcsn.simulation.simulator;
+
+import com.google.common.base.Preconditions;
+import com.sun.management.ThreadMXBean;
+import it.uniroma2.pmcsn.simulation.analytic.StationaryDistribution;
+import it.uniroma2.pmcsn.simulation.model.SimulationConfig;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.BatchMeansStatistics;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.Metric;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.MetricRegistry;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.Statistics;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.StoppingRule;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.WithinRunCollectorStatistics;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.series.BatchSeriesFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.management.ManagementFactory;
+import java.text.DecimalFormat;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Event loop shared by simulation engines: configuration validation, statistics, stopping rule,
+ * progress output and allocation measurement. Engines only define how the next event is processed.
+ */
+public abstract class AbstractSimulator implements ISimulator {
+
+    private static final Logger LOG = LogManager.getLogger(AbstractSimulator.class.getCanonicalName());
+    private static final DecimalFormat progressFormat = new DecimalFormat("###0.00");
+
+    // Number of events processed before measuring allocations in production mode
+    public static final long WARM_UP_EVENTS = 100000;
+    // HotSpot extension counting bytes allocated by each thread, null if not supported
+    private static final @Nullable ThreadMXBean THREAD_MX_BEAN = getThreadMXBean();
+
+    protected final SimulationConfig simulationConfig;
+    protected final Statistics statistics;
+    // Distribution of the initial state, null to start from an empty system
+    protected final @Nullable StationaryDistribution initialDistribution;
+
+    // In production mode progress is not shown and allocations per event are measured
+    private final boolean productionMode;
+    // Last shown progress, in hundredths of percentage point
+    private long progress = -1;
+    // Bytes allocated per event after warm-up, NaN if not measured
+    private double allocatedBytesPerEvent = Double.NaN;
+
+    protected AbstractSimulator(SimulationConfig simulationConfig) {
+        this(simulationConfig, null);
+    }
+
+    protected AbstractSimulator(SimulationConfig simulationConfig, @Nullable StationaryDistribution initialDistribution) {
+        // Config validation
+        configValidation(simulationConfig);
+        this.simulationConfig = simulationConfig;
+        this.initialDistribution = initialDistribution;
+        this.productionMode = simulationConfig.getProductionMode();
+        this.statistics = simulationConfig.getBatchMeans() ?
+                batchMeansStatisticsFrom(simulationConfig, initialDistribution == null) :
+                new Statistics();
+//                new WithinRunCollectorStatistics();
+    }
+
+    private void configValidation(@Nonnull SimulationConfig simulationConfig) {
+        Preconditions.checkNotNull(simulationConfig, "SimulationConfig must be not null (current: %s)", simulationConfig);
+
+        Preconditions.checkArgument(
+                simulationConfig.getThresholdS() <= simulationConfig.getThresholdN(),
+                "Threshold parameter S can not be greater of max number of accepted tasks in the cloudlet (current: %s)",
+                simulationConfig.getThresholdS()
+        );
+        Preconditions.checkArgument(
+                simulationConfig.getStart() >= 0 && simulationConfig.getStart() < Double.MAX_VALUE,
+                "Start simulation time must be in range [%s, %s) (current: %s)",
+                0,
+                Double.MAX_VALUE,
+                simulationConfig.getStart()
+        );
+        Preconditions.checkArgument(
+                simulationConfig.getStop() >= 1 && simulationConfig.getStop() <= Double.MAX_VALUE,
+                "Stop simulation time must be in range [%s, %s] (current: %s)",
+                1,
+                Double.MAX_VALUE,
+                simulationConfig.getStop()
+        );
+        Preconditions.checkArgument(
+                simulationConfig.getStart() < simulationConfig.getStop(),
+                "Start simulation time must be less than stop simulation time (current: %s, %s)",
+                simulationConfig.getStart(),
+                simulationConfig.getStop()
+        );
+    }
+
+    /**
+     * @param simulationConfig configuration of batch means
+     * @param warmUp {@code false} iif the initial state is stationary, so there is no warm-up to delete
+     * @return batch means statistics
+     */
+    private static @Nonnull BatchMeansStatistics batchMeansStatisticsFrom(@Nonnull SimulationConfig simulationConfig,
+                                                                          boolean warmUp) {
+        StoppingRule stoppingRule = stoppingRuleFrom(simulationConfig);
+        Metric[] metrics = Metric.fromList(simulationConfig.getBatchMetrics(), Metric.values());
+        // metrics of the stopping rule are always estimated
+        Metric[] registered = Stream.concat(Arrays.stream(metrics), Arrays.stream(stoppingRule.getMetrics()))
+                .toArray(Metric[]::new);
+        // batches can be merged or deleted only if batch means are retained
+        boolean warmUpDetection = simulationConfig.getWarmUpDetection() && warmUp;
+        MetricRegistry metricRegistry = new MetricRegistry(
+                simulationConfig.getAdaptiveBatches() > 0 || warmUpDetection ?
+                        BatchSeriesFactory.Algorithm.BUFFER :
+                        BatchSeriesFactory.Algorithm.from(simulationConfig.getBatchSeries()),
+                registered
+        );
+
+        return new BatchMeansStatistics(
+                simulationConfig.getBatchSize(),
+                simulationConfig.getLevelOfConfidence(),
+                metricRegistry,
+                stoppingRule,
+                simulationConfig.getAdaptiveBatches(),
+                warmUpDetection
+        );
+    }
+
+    private static @Nonnull StoppingRule stoppingRuleFrom(@Nonnull SimulationConfig simulationConfig) {
+        Metric[] metrics = Metric.fromList(simulationConfig.getStopMetrics(), new Metric[0]);
+        long maxBatches = simulationConfig.getStopMaxBatches();
+        if (metrics.length == 0 && maxBatches == 0) {
+            return StoppingRule.NONE;
+        }
+
+        return new StoppingRule(
+                StoppingRule.Precision.from(simulationConfig.getStopPrecision()),
+                simulationConfig.getStopHalfWidth(),
+                simulationConfig.getStopMinBatches(),
+                maxBatches > 0 ? maxBatches : StoppingRule.MAX_BATCHES,
+                metrics
+        );
+    }
+
+    private void showProgress(double current, double total) {
+        double percentage = current >= total ? 100.00 : current / total * 100;
+        // print only when shown value changes, instead of formatting a string for each event
+        long progress = (long) (percentage * 100);
+        if (progress == this.progress) {
+            return;
+        }
+        this.progress = progress;
+
+        System.out.print(String.format(
+                "Progress: %s %%\r",
+                progressFormat.format(percentage)
+        ));
+    }
+
+    /**
+     * Get bytes allocated by the simulation thread per event, measured in production mode
+     * after the first {@link #WARM_UP_EVENTS} events.
+     *
+     * @return bytes allocated per event or {@link Double#NaN} if not measured
+     */
+    @Override
+    public double getAllocatedBytesPerEvent() {
+        return allocatedBytesPerEvent;
+    }
+
+    @Override
+    public @Nonnull Statistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Start the simulation.
+     */
+    @Override
+    public final void start() {
+        long events = 0;
+        long allocatedBytes = -1;
+        long readingBytes = 0;
+
+        init();
+        do {
+            beforeEvent();
+
+            step();
+
+            afterEvent();
+
+            if (productionMode && ++events == WARM_UP_EVENTS) {
+                // reading the counter may allocate too, so its cost is measured by two readings and excluded
+                long firstReading = getCurrentThreadAllocatedBytes();
+                allocatedBytes = getCurrentThreadAllocatedBytes();
+                readingBytes = allocatedBytes - firstReading;
+            }
+        } while (!isStopped() && !statistics.isStopRequested());
+
+        if (statistics.isStopRequested()) {
+            LOG.info("Stopping rule ended the run at simulation time {}", getCurrentTime());
+        }
+
+        if (allocatedBytes >= 0 && events > WARM_UP_EVENTS) {
+            allocatedBytesPerEvent = (double) (getCurrentThreadAllocatedBytes() - allocatedBytes - readingBytes) /
+                    (events - WARM_UP_EVENTS);
+            LOG.info("Allocated {} bytes per event after {} events", allocatedBytesPerEvent, WARM_UP_EVENTS);
+        }
+    }
+
+    /**
+     * Get bytes allocated by current thread, using the HotSpot extension of {@link java.lang.management.ThreadMXBean}.
+     *
+     * @return allocated bytes or -1 if measurement is not supported
+     */
+    private static long getCurrentThreadAllocatedBytes() {
+        if (THREAD_MX_BEAN == null) {
+            return -1;
+        }
+
+        return THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Look up the HotSpot extension of {@link java.lang.management.ThreadMXBean} once, since the lookup allocates.
+     *
+     * @return the bean or null if it does not support measurement of allocated bytes
+     */
+    private static @Nullable ThreadMXBean getThreadMXBean() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (!(threadMXBean instanceof ThreadMXBean) ||
+                !((ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+
+        return (ThreadMXBean) threadMXBean;
+    }
+
+    /**
+     * Initialize the state of the model, before the first event.
+     */
+    protected abstract void init();
+
+    /**
+     * Process the next event and update {@link #statistics}.
+     */
+    protected abstract void step();
+
+    /**
+     * @return {@code true} iif there are no more events to process
+     */
+    protected abstract boolean isStopped();
+
+    /**
+     * @return simulation time of the last processed event
+     */
+    protected abstract double getCurrentTime();
+
+    protected void beforeEvent() {
+
+    }
+
+    protected void afterEvent() {
+        // show progress
+        if (!productionMode) {
+            showProgress(getCurrentTime(), simulationConfig.getStop());
+        }
+
+        // to collect within-the-run statistics replace class Statistics with WithinRunCollectorStatistics,
+        //  comment showProgress() method and uncomment following line
+        // make sure to disable batch-means method (config.properties)
+//        ((WithinRunCollectorStatistics) statistics).collect();
+    }
+
+}
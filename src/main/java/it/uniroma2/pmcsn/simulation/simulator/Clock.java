@@ -2,40 +2,52 @@ package it.uniroma2.pmcsn.simulation.simulator;
 
 import com.google.common.base.Preconditions;
 import it.uniroma2.pmcsn.simulation.model.Task;
+import it.uniroma2.pmcsn.simulation.model.TaskTable;
 import it.uniroma2.pmcsn.simulation.simulator.event.OffloadRequestEvent;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.Arrays;
-import java.util.Objects;
 
 public class Clock {
 
     public static final double NULL_INSTANT = 0.0;
 
+    // Store of the tasks
+    private final TaskTable taskTable;
     // Last instant
     private double previousInstant;
     // Next instant
     private double nextInstant;
-    // Last processed event
-    private Task previousEvent;
-    // Event to process
-    private Task nextEvent;
-
-    public Clock() {
-        this.previousInstant = NULL_INSTANT;
-        this.nextInstant = NULL_INSTANT;
-        this.previousEvent = null;
-        this.nextEvent = null;
+    // Handle of last processed event
+    private int previousTask;
+    // Handle of event to process
+    private int nextTask;
+
+    public Clock(@Nonnull TaskTable taskTable) {
+        this(taskTable, NULL_INSTANT);
+    }
+
+    /**
+     * @param taskTable store of the tasks
+     * @param instant initial time instant
+     */
+    public Clock(@Nonnull TaskTable taskTable, double instant) {
+        Preconditions.checkNotNull(taskTable, "TaskTable can not be null (current: %s)", taskTable);
+
+        this.taskTable = taskTable;
+        this.previousInstant = instant;
+        this.nextInstant = instant;
+        this.previousTask = TaskTable.NULL;
+        this.nextTask = TaskTable.NULL;
     }
 
     /**
      * Get previous {@link Task}
      *
-     * @return previous {@link Task}
+     * @return previous {@link Task} or null if it already left the system
      */
     public @Nullable Task getPreviousEvent() {
-        return previousEvent;
+        return taskTable.contains(previousTask) ? taskTable.view(previousTask) : null;
     }
 
     /**
@@ -44,7 +56,21 @@ public class Clock {
      * @return next scheduled {@link Task}
      */
     public @Nullable Task getNextEvent() {
-        return nextEvent;
+        return taskTable.view(nextTask);
+    }
+
+    /**
+     * @return handle of previous {@link Task}, or {@link TaskTable#NULL}
+     */
+    public int getPreviousTask() {
+        return previousTask;
+    }
+
+    /**
+     * @return handle of next scheduled {@link Task}, or {@link TaskTable#NULL}
+     */
+    public int getNextTask() {
+        return nextTask;
     }
 
     public double getNextInstant() {
@@ -64,35 +90,16 @@ public class Clock {
      * - should have a completion time iif previous state
      *   of state machine was {@link OffloadRequestEvent}.
      *
-     * @param nextEvent is the most imminent event to process
+     * @param nextTask handle of the most imminent event to process
      */
-    public void update(@Nonnull Task nextEvent) {
-        Preconditions.checkNotNull(nextEvent, "NextEvent can not be null (current: %s)", nextEvent);
+    public void update(int nextTask) {
+        Preconditions.checkArgument(taskTable.contains(nextTask), "NextEvent not found (current: %s)", nextTask);
 
         this.previousInstant = this.nextInstant;
-        this.nextInstant = nextEvent.isCompleted() ? nextEvent.getCompletion() : nextEvent.getArrival();
+        this.nextInstant = taskTable.isCompleted(nextTask) ? taskTable.getCompletion(nextTask) : taskTable.getArrival(nextTask);
 
-        this.previousEvent = this.nextEvent;
-        this.nextEvent = nextEvent;
-    }
-
-    /**
-     * Choose most imminent event to process.
-     * This method uses {@link Task#absoluteTime} to compare {@link Task}s.
-     * A {@link Task} is considered most imminent compared to another iif both are marked
-     * as arrived ({@link Task#isArrived()}) and it has the shortest completion time
-     * ({@link Task#getCompletion()}), if present, or arrival time ({@link Task#getArrival()}).
-     *
-     * @param tasks to choose from. Null {@link Task} will be ignored.
-     */
-    public void update(Task... tasks) {
-        if (tasks == null)
-            return;
-
-        Arrays.stream(tasks)
-                .filter(Objects::nonNull)
-                .min(Task.absoluteTime)
-                .ifPresent(this::update);
+        this.previousTask = this.nextTask;
+        this.nextTask = nextTask;
     }
 
     @Override
@@ -101,8 +108,8 @@ public class Clock {
                 "NextInstant=%s - PreviousInstant=%s | NextEvent=%s - PreviousEvent=%s",
                 nextInstant,
                 previousInstant,
-                nextEvent,
-                previousEvent
+                getNextEvent(),
+                getPreviousEvent()
         );
     }
 
@@ -2,9 +2,10 @@ package it.uniroma2.pmcsn.simulation.simulator;
 
 import com.google.common.base.Preconditions;
 import it.uniroma2.pmcsn.simulation.mobile_set.model.MobileSetState;
-import it.uniroma2.pmcsn.simulation.model.IState;
-import it.uniroma2.pmcsn.simulation.model.Task;
+import it.uniroma2.pmcsn.simulation.model.TaskTable;
 import it.uniroma2.pmcsn.simulation.simulator.event.*;
+import it.uniroma2.pmcsn.simulation.simulator.fel.EventNotice;
+import it.uniroma2.pmcsn.simulation.simulator.fel.IFutureEventList;
 import it.uniroma2.pmcsn.simulation.simulator.model.Context;
 import it.uniroma2.pmcsn.simulation.simulator.statistics.Statistics;
 import it.uniroma2.pmcsn.simulation.system.cloud.model.CloudState;
@@ -13,7 +14,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import javax.annotation.Nonnull;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
 
 public class Event {
@@ -32,7 +33,7 @@ public class Event {
     }
 
     // Used to map event type with the respective class
-    private final Map<Type, IEvent> events = new HashMap<>() {{
+    private final Map<Type, IEvent> events = new EnumMap<>(Type.class) {{
         put(Type.NULL, new NullEvent());
         put(Type.START, new StartEvent());
         put(Type.OFFLOAD_REQUEST, new OffloadRequestEvent());
@@ -48,8 +49,10 @@ public class Event {
     private final MobileSetState mobileSetState;
     private final CloudletState cloudletState;
     private final CloudState cloudState;
+    private final TaskTable taskTable;
 
     private final Clock clock;
+    private final IFutureEventList futureEventList;
 
     private final Statistics statistics;
 
@@ -60,8 +63,10 @@ public class Event {
         this.mobileSetState = context.getMobileSet().getMobileSetState();
         this.cloudletState = context.getCloudlet().getCloudletState();
         this.cloudState = context.getCloud().getCloudState();
+        this.taskTable = context.getTaskTable();
 
         this.clock = context.getClock();
+        this.futureEventList = context.getFutureEventList();
         this.statistics = context.getStatistics();
     }
 
@@ -88,8 +93,9 @@ public class Event {
     }
 
     /**
-     * Method used to choose next event based on {@link MobileSetState}, {@link CloudletState} and
-     * {@link CloudState}.
+     * Method used to choose next event: the most imminent event is removed from the {@link IFutureEventList},
+     * where {@link MobileSetState}, {@link CloudletState} and {@link CloudState} schedule respectively
+     * arrivals, cloudlet completions and cloud completions.
      */
     public void next() {
         if (areSatesEmpty()) {
@@ -98,49 +104,35 @@ public class Event {
         }
 
         // retrieve most imminent event from all entities (mobile devices, cloudlet and cloud)
-        Task mobileSetNextTask = getNextTaskFrom(mobileSetState);
-        Task cloudletNextTask = getNextTaskFrom(cloudletState);
-        Task cloudNextTask = getNextTaskFrom(cloudState);
-        // set next event to schedule
-        clock.update(mobileSetNextTask, cloudletNextTask, cloudNextTask);
-        LOG.debug(clock.toString());
-
-        Task nextTask = clock.getNextEvent();
-        if (nextTask == null) {
-            eventType = Type.NULL;
-            throw new IllegalStateException(String.format("The next scheduled task is invalid (current: %s)", nextTask));
+        EventNotice notice = futureEventList.pop();
+        // if most imminent task generated from mobile set overcomes stop time simulation,
+        //  discard it
+        while (notice != null && notice.getType() == Type.OFFLOAD_REQUEST && notice.getTime() > context.getStop()) {
+            mobileSetState.remove(notice.getTask());
+            taskTable.remove(notice.getTask());
+            notice = futureEventList.pop();
         }
-        if (nextTask.equals(mobileSetNextTask)) {
-            eventType = Type.OFFLOAD_REQUEST;
-        } else if (nextTask.equals(cloudletNextTask)) {
-            eventType = Type.CLOUDLET_COMPLETION;
-        } else if (nextTask.equals(cloudNextTask)) {
-            eventType = Type.CLOUD_COMPLETION;
-        } else {
-            eventType = Type.NULL;
-            throw new IllegalStateException("NextTask in not null but not belongs to system or mobile set");
+        if (notice == null) {
+            Preconditions.checkState(areSatesEmpty(), "No scheduled events but system is not empty");
+            eventType = Type.STOP;
+            return;
         }
-    }
 
-    private Task getNextTaskFrom(IState state) {
-        if (state instanceof MobileSetState) {
-            Task mobileSetTask = mobileSetState.getNextEvent();
-            // if most imminent task generated from mobile set overcomes stop time simulation,
-            //  mark it as null
-            if (mobileSetTask != null && mobileSetTask.getArrival() > context.getStop()) {
-                mobileSetState.remove(mobileSetTask);
-                mobileSetTask = null;
-            }
-            return mobileSetTask;
-        } else if (state instanceof CloudletState) {
-            return cloudletState.getNextEvent();
-        } else if (state instanceof CloudState) {
-            return cloudState.getNextEvent();
-        } else {
-            throw new TypeNotPresentException(
-                    state.getClass().getSimpleName(),
-                    new Throwable("Impossible to get task from selected state")
-            );
+        // set next event to schedule
+        clock.update(notice.getTask());
+        // parameterized message, so clock is formatted only if debug is enabled
+        LOG.debug("{}", clock);
+
+        switch (notice.getType()) {
+            case OFFLOAD_REQUEST:
+            case CLOUDLET_COMPLETION:
+            case CLOUD_COMPLETION:
+                eventType = notice.getType();
+                break;
+
+            default:
+                eventType = Type.NULL;
+                throw new IllegalStateException(String.format("The next scheduled event is invalid (current: %s)", notice));
         }
     }
 
@@ -148,7 +140,7 @@ public class Event {
      * Trigger current event based on {@link Event#eventType}.
      */
     public void simulate() {
-        LOG.debug(String.format("Simulating %s", eventType.name()));
+        LOG.debug("Simulating {}", eventType);
         events.get(eventType).simulate(context);
     }
 
@@ -0,0 +1,21 @@
+package it.uniroma2.pmcsn.simulation.simulator;
+
+import it.uniroma2.pmcsn.simulation.simulator.statistics.Statistics;
+
+import javax.annotation.Nonnull;
+
+public interface ISimulator {
+
+    /**
+     * Start the simulation.
+     */
+    void start();
+
+    @Nonnull Statistics getStatistics();
+
+    /**
+     * @return bytes allocated per event or {@link Double#NaN} if not measured
+     */
+    double getAllocatedBytesPerEvent();
+
+}
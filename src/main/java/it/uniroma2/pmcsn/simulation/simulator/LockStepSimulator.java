@@ -0,0 +1,174 @@
+package it.uniroma2.pmcsn.simulation.simulator;
+
+import com.google.common.base.Preconditions;
+import it.uniroma2.pmcsn.simulation.mobile_set.ArrivalPool;
+import it.uniroma2.pmcsn.simulation.model.SimulationConfig;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.Statistics;
+import it.uniroma2.pmcsn.simulation.util.Distribution;
+import it.uniroma2.pmcsn.simulation.util.generator.GeneratorFactory;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Next-event simulations of the system with different values of threshold S, run side by side on the same tasks.
+ *
+ * Interarrival times and works of the tasks are drawn once, in an {@link ArrivalPool} shared by the lanes:
+ * one {@link Simulator} for each value of S, with its own cloudlet, cloud, future event list and statistics.
+ * Each lane gives the same results of a simulation run alone with common random numbers, so lanes are
+ * compared on common random numbers.
+ *
+ * Lanes advance in lock-step by windows of simulation time, each one processing all its events in the window
+ * before the next one: a lane works on its own state for many events, which stays in cache, and values of the
+ * pool are released at most two windows after being drawn.
+ */
+public class LockStepSimulator extends AbstractSimulator {
+
+    // Expected arrivals in a window of simulation time
+    public static final int WINDOW_ARRIVALS = 4096;
+
+    // Values of threshold S of the lanes
+    private final int[] thresholds;
+    private final Simulator[] lanes;
+    // Lanes which processed their last event
+    private final boolean[] stopped;
+    private int running;
+    private final double window;
+    // End of the current window and lane processing it
+    private double horizon;
+    private int current;
+    private double currentTime;
+
+    public LockStepSimulator(@Nonnull SimulationConfig simulationConfig) {
+        this(simulationConfig, thresholdsFrom(simulationConfig.getSweepS()));
+    }
+
+    public LockStepSimulator(@Nonnull SimulationConfig simulationConfig, @Nonnull int[] thresholds) {
+        super(simulationConfig);
+        Preconditions.checkNotNull(thresholds, "Thresholds can not be null (current: %s)", (Object) thresholds);
+        Preconditions.checkArgument(thresholds.length > 0, "Thresholds must be not empty (current: %s)", thresholds.length);
+
+        Distribution distribution = new Distribution(
+                simulationConfig.getSeed(),
+                simulationConfig.getStreamOffset(),
+                simulationConfig.getRngsAntithetic(),
+                GeneratorFactory.Algorithm.from(simulationConfig.getRngsGenerator())
+        );
+        ArrivalPool arrivalPool = new ArrivalPool(distribution, simulationConfig.getLambda1(), simulationConfig.getLambda2());
+
+        this.thresholds = thresholds.clone();
+        this.lanes = new Simulator[thresholds.length];
+        this.stopped = new boolean[thresholds.length];
+        this.window = WINDOW_ARRIVALS / (simulationConfig.getLambda1() + simulationConfig.getLambda2());
+        for (int lane = 0; lane < thresholds.length; ++lane) {
+            Map<String, Object> overrides = new HashMap<>();
+            overrides.put(SimulationConfig.THRESHOLD_S, thresholds[lane]);
+            SimulationConfig laneConfig = simulationConfig.snapshot(overrides);
+            lanes[lane] = new Simulator(laneConfig, SimulatorFactory.getInitialDistribution(laneConfig), arrivalPool);
+        }
+    }
+
+    /**
+     * Parse values of threshold S, e.g. "1-4, 8, 12" for 1, 2, 3, 4, 8 and 12.
+     *
+     * @param thresholds comma separated values or ranges, with bounds included
+     * @return values of threshold S, in order
+     * @throws IllegalArgumentException iif {@param thresholds} is not well formed or is empty
+     */
+    public static @Nonnull int[] thresholdsFrom(@Nonnull String thresholds) {
+        Preconditions.checkNotNull(thresholds, "Thresholds can not be null (current: %s)", thresholds);
+
+        int[] parsed = Arrays.stream(thresholds.split(","))
+                .map(String::trim)
+                .filter(t -> !t.isEmpty())
+                .flatMapToInt(t -> {
+                    int separator = t.indexOf('-', 1);
+                    if (separator < 0) {
+                        return IntStream.of(Integer.parseInt(t));
+                    }
+                    int from = Integer.parseInt(t.substring(0, separator).trim());
+                    int to = Integer.parseInt(t.substring(separator + 1).trim());
+                    Preconditions.checkArgument(from <= to, "Range of thresholds must be not empty (current: %s)", t);
+                    return IntStream.rangeClosed(from, to);
+                })
+                .toArray();
+        Preconditions.checkArgument(parsed.length > 0, "Thresholds must be not empty (current: %s)", thresholds);
+        return parsed;
+    }
+
+    @Override
+    protected void init() {
+        for (Simulator lane : lanes) {
+            lane.init();
+        }
+        Arrays.fill(stopped, false);
+        running = lanes.length;
+        currentTime = simulationConfig.getStart();
+        horizon = currentTime + window;
+        current = 0;
+    }
+
+    @Override
+    protected void step() {
+        Simulator lane = lanes[current];
+        lane.step();
+        currentTime = lane.getCurrentTime();
+        if (lane.isStopped() || lane.getStatistics().isStopRequested()) {
+            stopped[current] = true;
+            --running;
+            nextLane();
+        } else if (currentTime >= horizon) {
+            nextLane();
+        }
+    }
+
+    /**
+     * Move to the next running lane, and to the next window after the last lane.
+     */
+    private void nextLane() {
+        while (running > 0) {
+            if (++current == lanes.length) {
+                current = 0;
+                horizon += window;
+            }
+            if (!stopped[current]) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    protected boolean isStopped() {
+        return running == 0;
+    }
+
+    @Override
+    protected double getCurrentTime() {
+        return currentTime;
+    }
+
+    public int getLanes() {
+        return lanes.length;
+    }
+
+    public int getThreshold(@Nonnegative int lane) {
+        return thresholds[lane];
+    }
+
+    public @Nonnull Statistics getStatistics(@Nonnegative int lane) {
+        return lanes[lane].getStatistics();
+    }
+
+    /**
+     * @return statistics of the first lane, see {@link #getStatistics(int)}
+     */
+    @Override
+    public @Nonnull Statistics getStatistics() {
+        return getStatistics(0);
+    }
+
+}
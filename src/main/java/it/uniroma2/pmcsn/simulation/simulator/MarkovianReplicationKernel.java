@@ -0,0 +1,97 @@
+package it.uniroma2.pmcsn.simulation.simulator;
+
+import com.google.common.base.Preconditions;
+import it.uniroma2.pmcsn.simulation.analytic.StationaryDistribution;
+import it.uniroma2.pmcsn.simulation.model.SimulationConfig;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.Statistics;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Replications of {@link MarkovianSimulator} advanced side by side by a single thread, one lane for each replication.
+ *
+ * Each lane is a {@link MarkovianSimulator} with the configuration of its replication, so events are processed by
+ * the same code of a replication run alone and each lane gives the same statistics of its run alone: a kernel of
+ * one lane is a {@link MarkovianSimulator}. Lanes process one event each in turn, so the independent events of
+ * different lanes overlap in the processor pipeline.
+ */
+public class MarkovianReplicationKernel {
+
+    private final MarkovianSimulator[] simulators;
+
+    // Lanes with more events, first running are valid
+    private final int[] active;
+    private int running;
+
+    /**
+     * @param laneConfigs configuration of each lane: lanes simulate the system of the first one, each one with its
+     *                    own seed, stream offset and antithetic values
+     */
+    public MarkovianReplicationKernel(@Nonnull SimulationConfig... laneConfigs) {
+        this(null, laneConfigs);
+    }
+
+    /**
+     * @param initialDistribution distribution of the initial state of each lane, null to start from an empty system
+     * @param laneConfigs configuration of each lane: lanes simulate the system of the first one, each one with its
+     *                    own seed, stream offset and antithetic values
+     */
+    public MarkovianReplicationKernel(@Nullable StationaryDistribution initialDistribution,
+                                      @Nonnull SimulationConfig... laneConfigs) {
+        Preconditions.checkArgument(laneConfigs.length > 0, "LaneConfigs must be not empty (current: %s)", laneConfigs.length);
+
+        this.simulators = new MarkovianSimulator[laneConfigs.length];
+        for (int lane = 0; lane < laneConfigs.length; ++lane) {
+            simulators[lane] = new MarkovianSimulator(laneConfigs[lane], initialDistribution);
+        }
+        this.active = new int[laneConfigs.length];
+    }
+
+    public int getLanes() {
+        return simulators.length;
+    }
+
+    /**
+     * Run all the lanes until their last event.
+     *
+     * @return statistics of each lane, indexed as the lane configurations
+     */
+    public @Nonnull Statistics[] run() {
+        init();
+        while (running > 0) {
+            for (int i = 0; i < running; ) {
+                if (step(simulators[active[i]])) {
+                    ++i;
+                } else {
+                    active[i] = active[--running];
+                }
+            }
+        }
+
+        Statistics[] statistics = new Statistics[simulators.length];
+        for (int lane = 0; lane < simulators.length; ++lane) {
+            statistics[lane] = simulators[lane].getStatistics();
+        }
+        return statistics;
+    }
+
+    private void init() {
+        for (int lane = 0; lane < simulators.length; ++lane) {
+            simulators[lane].init();
+            active[lane] = lane;
+        }
+        running = simulators.length;
+    }
+
+    /**
+     * Process the next event of {@param simulator}, as {@link AbstractSimulator#start()} does.
+     *
+     * @return false iif {@param simulator} has no more events
+     */
+    private static boolean step(@Nonnull MarkovianSimulator simulator) {
+        simulator.step();
+        return !simulator.isStopped() && !simulator.getStatistics().isStopRequested();
+    }
+
+}
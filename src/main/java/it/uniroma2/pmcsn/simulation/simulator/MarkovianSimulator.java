@@ -0,0 +1,306 @@
+package it.uniroma2.pmcsn.simulation.simulator;
+
+import com.google.common.base.Preconditions;
+import it.uniroma2.pmcsn.simulation.analytic.StationaryDistribution;
+import it.uniroma2.pmcsn.simulation.model.SimulationConfig;
+import it.uniroma2.pmcsn.simulation.model.Task;
+import it.uniroma2.pmcsn.simulation.simulator.model.CompletionTimes;
+import it.uniroma2.pmcsn.simulation.system.cloudlet.access_control.AccessControlFactory;
+import it.uniroma2.pmcsn.simulation.system.cloudlet.access_control.IAccessControl;
+import it.uniroma2.pmcsn.simulation.system.cloudlet.task_interrupt.TaskInterruptFactory;
+import it.uniroma2.pmcsn.simulation.util.Distribution;
+import it.uniroma2.pmcsn.simulation.util.generator.GeneratorFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Simulation of the number of tasks in cloudlet and cloud, for exponential arrivals and services.
+ *
+ * No task is created: the time of the next event is sampled from the total rate of the current state and
+ * its type is chosen proportionally to the rate of each event, so each event takes O(1) time.
+ *
+ * Two things still need more than counters, with {@link AccessControlFactory.Algorithm#ALGORITHM2}:
+ * the arrival times of class 2 tasks in the cloudlet, to know which task is interrupted and how long it
+ * has been in the cloudlet, and the completion times of interrupted tasks in the cloud, since setup plus
+ * service time is not memoryless. Both are kept in primitive arrays, the first one bounded by N.
+ *
+ * Interrupted tasks must be chosen by arrival time, see {@link #isMarkovian(SimulationConfig)}.
+ *
+ * A warm-started simulation begins from a state sampled from its initial distribution: populations need no
+ * residual times, except for arrival times of class 2 tasks on the cloudlet and completion times of interrupted
+ * tasks, which are sampled as ages and residual times in stationary state.
+ *
+ * Random numbers are not bound to tasks, so common random numbers do not apply: paired runs share
+ * streams, but they diverge at the first event whose type differs.
+ */
+public class MarkovianSimulator extends AbstractSimulator {
+
+    public static final int EVENT_TIME_RNG_STREAM = 0;
+    public static final int EVENT_TYPE_RNG_STREAM = 1;
+    public static final int TASK_CLASS2_RNG_STREAM = 2;
+    public static final int SETUP_RNG_STREAM = 3;
+    public static final int INTERRUPTED_SERVICE_RNG_STREAM = 4;
+
+    protected final Distribution distribution;
+    protected final IAccessControl accessControl;
+    private final TaskInterruptFactory.Algorithm taskInterruptAlgorithm;
+    protected final int thresholdN;
+    protected final int thresholdS;
+    protected final double lambda1;
+    protected final double lambda2;
+    protected final double mu1Cloudlet;
+    protected final double mu2Cloudlet;
+    protected final double mu1Cloud;
+    protected final double mu2Cloud;
+    private final double meanSetupTime;
+    // Class 2 tasks can be interrupted, so their arrival times are kept
+    private final boolean preemption;
+
+    // Simulation time
+    protected double time;
+    // Arrivals are generated until stop time
+    protected boolean arrivals;
+    // No more events
+    protected boolean stopped;
+
+    // Tasks of each class on cloudlet and cloud, except interrupted ones on the cloud
+    protected int c1Cloudlet;
+    protected int c2Cloudlet;
+    protected int c1Cloud;
+    protected int c2Cloud;
+
+    // Arrival times of class 2 tasks on the cloudlet, first c2Cloudlet are valid, in arrival order
+    private final double[] c2CloudletArrivals;
+    // Completion times of interrupted tasks on the cloud
+    protected final CompletionTimes interruptedCompletions = new CompletionTimes();
+
+    public MarkovianSimulator(@Nonnull SimulationConfig simulationConfig) {
+        this(simulationConfig, SimulatorFactory.getInitialDistribution(simulationConfig));
+    }
+
+    public MarkovianSimulator(@Nonnull SimulationConfig simulationConfig,
+                              @Nullable StationaryDistribution initialDistribution) {
+        super(simulationConfig, initialDistribution);
+        Preconditions.checkArgument(
+                isMarkovian(simulationConfig),
+                "Interrupted tasks must be chosen by arrival time (current: %s)",
+                simulationConfig.getCloudletTaskInterruptAlgorithm()
+        );
+
+        AccessControlFactory.Algorithm accessControlAlgorithm =
+                AccessControlFactory.Algorithm.from(simulationConfig.getCloudletAccessControlAlgorithm());
+        this.distribution = new Distribution(
+                simulationConfig.getSeed(),
+                simulationConfig.getStreamOffset(),
+                simulationConfig.getRngsAntithetic(),
+                GeneratorFactory.Algorithm.from(simulationConfig.getRngsGenerator())
+        );
+        this.accessControl = AccessControlFactory.get(accessControlAlgorithm);
+        this.taskInterruptAlgorithm = TaskInterruptFactory.Algorithm.from(simulationConfig.getCloudletTaskInterruptAlgorithm());
+        this.thresholdN = simulationConfig.getThresholdN();
+        this.thresholdS = simulationConfig.getThresholdS();
+        this.lambda1 = simulationConfig.getLambda1();
+        this.lambda2 = simulationConfig.getLambda2();
+        this.mu1Cloudlet = simulationConfig.getMu1Cloudlet();
+        this.mu2Cloudlet = simulationConfig.getMu2Cloudlet();
+        this.mu1Cloud = simulationConfig.getMu1Cloud();
+        this.mu2Cloud = simulationConfig.getMu2Cloud();
+        this.meanSetupTime = simulationConfig.getMeanSetupTime();
+        this.preemption = accessControlAlgorithm == AccessControlFactory.Algorithm.ALGORITHM2;
+        this.c2CloudletArrivals = new double[preemption ? thresholdN : 0];
+    }
+
+    /**
+     * With exponential arrivals and services the number of tasks is a Markov chain, unless interrupted
+     * tasks are chosen by completion time: in that case the tasks left in the cloudlet have longer residual
+     * service times, which are not exponential anymore.
+     *
+     * @param simulationConfig configuration to check
+     * @return {@code true} iif the configuration can be simulated by {@link MarkovianSimulator}
+     */
+    public static boolean isMarkovian(@Nonnull SimulationConfig simulationConfig) {
+        Preconditions.checkNotNull(simulationConfig, "SimulationConfig must be not null (current: %s)", simulationConfig);
+
+        return AccessControlFactory.Algorithm.from(simulationConfig.getCloudletAccessControlAlgorithm()) !=
+                AccessControlFactory.Algorithm.ALGORITHM2 ||
+                TaskInterruptFactory.Algorithm.from(simulationConfig.getCloudletTaskInterruptAlgorithm()).isByArrivalTime();
+    }
+
+    @Override
+    protected void init() {
+        time = simulationConfig.getStart();
+        arrivals = true;
+        stopped = false;
+        c1Cloudlet = 0;
+        c2Cloudlet = 0;
+        c1Cloud = 0;
+        c2Cloud = 0;
+        interruptedCompletions.clear();
+        if (initialDistribution != null) {
+            resume(initialDistribution.sample(distribution, SETUP_RNG_STREAM, new int[StationaryDistribution.DIMENSION]));
+        }
+    }
+
+    /**
+     * Start from {@param state}, sampling ages of class 2 tasks on the cloudlet and residual times of interrupted
+     * tasks on the cloud: services and setup are exponential, so both are distributed as whole service times
+     * and an interrupted task is in setup with probability proportional to the mean setup time.
+     *
+     * @param state tasks of each component, indexed as in {@link StationaryDistribution}
+     */
+    private void resume(@Nonnull int[] state) {
+        c1Cloudlet = state[StationaryDistribution.C1_CLOUDLET];
+        c2Cloudlet = state[StationaryDistribution.C2_CLOUDLET];
+        c1Cloud = state[StationaryDistribution.C1_CLOUD];
+        c2Cloud = state[StationaryDistribution.C2_CLOUD];
+
+        if (preemption) {
+            for (int task = 0; task < c2Cloudlet; ++task) {
+                c2CloudletArrivals[task] = time - distribution.fromExponential(TASK_CLASS2_RNG_STREAM, 1.0 / mu2Cloudlet);
+            }
+            Arrays.sort(c2CloudletArrivals, 0, c2Cloudlet);
+        }
+        for (int task = 0; task < state[StationaryDistribution.C2_INTERRUPTED]; ++task) {
+            double cloudTime = distribution.fromExponential(INTERRUPTED_SERVICE_RNG_STREAM, 1.0 / mu2Cloud);
+            if (distribution.fromUniform(SETUP_RNG_STREAM, 0.0, meanSetupTime + 1.0 / mu2Cloud) < meanSetupTime) {
+                cloudTime += distribution.fromExponential(SETUP_RNG_STREAM, meanSetupTime);
+            }
+            interruptedCompletions.add(time + cloudTime);
+        }
+    }
+
+    @Override
+    protected void step() {
+        double arrivalRate = arrivals ? lambda1 + lambda2 : 0.0;
+        double rate = arrivalRate +
+                c1Cloudlet * mu1Cloudlet + c2Cloudlet * mu2Cloudlet +
+                c1Cloud * mu1Cloud + c2Cloud * mu2Cloud;
+        double next = rate > 0.0 ?
+                time + distribution.fromExponential(EVENT_TIME_RNG_STREAM, 1.0 / rate) :
+                Double.POSITIVE_INFINITY;
+
+        // arrivals after stop time are discarded, then the system is emptied
+        if (arrivals && Math.min(next, interruptedCompletions.peek()) > simulationConfig.getStop()) {
+            advanceTo(simulationConfig.getStop());
+            arrivals = false;
+            return;
+        }
+        // other events are memoryless, so they can be sampled again after an interrupted task completion
+        if (!interruptedCompletions.isEmpty() && interruptedCompletions.peek() <= next) {
+            advanceTo(interruptedCompletions.peek());
+            interruptedCompletions.poll();
+            statistics.updateCloudCompletion(Task.Class.CLASS2);
+            return;
+        }
+        if (rate == 0.0) {
+            stopped = true;
+            return;
+        }
+
+        advanceTo(next);
+        double event = distribution.fromUniform(EVENT_TYPE_RNG_STREAM, 0.0, rate);
+        if (arrivals) {
+            if ((event -= lambda1) < 0.0) {
+                arrival(Task.Class.CLASS1);
+                return;
+            }
+            if ((event -= lambda2) < 0.0) {
+                arrival(Task.Class.CLASS2);
+                return;
+            }
+        }
+        if ((event -= c1Cloudlet * mu1Cloudlet) < 0.0) {
+            cloudletCompletion(Task.Class.CLASS1);
+        } else if ((event -= c2Cloudlet * mu2Cloudlet) < 0.0) {
+            cloudletCompletion(Task.Class.CLASS2);
+        } else if ((event -= c1Cloud * mu1Cloud) < 0.0 || c2Cloud == 0) {
+            --c1Cloud;
+            statistics.updateCloudCompletion(Task.Class.CLASS1);
+        } else {
+            --c2Cloud;
+            statistics.updateCloudCompletion(Task.Class.CLASS2);
+        }
+    }
+
+    protected void cloudletCompletion(@Nonnull Task.Class taskClass) {
+        if (taskClass == Task.Class.CLASS1) {
+            --c1Cloudlet;
+        } else {
+            if (preemption) {
+                // each class 2 task is equally likely to complete
+                int task = Math.min(
+                        (int) distribution.fromUniform(TASK_CLASS2_RNG_STREAM, 0.0, c2Cloudlet),
+                        c2Cloudlet - 1
+                );
+                removeC2CloudletArrival(task);
+            }
+            --c2Cloudlet;
+        }
+        statistics.updateCletCompletion(taskClass);
+    }
+
+    protected void arrival(@Nonnull Task.Class taskClass) {
+        statistics.updateArrival(taskClass);
+        switch (accessControl.accessControl(taskClass, c1Cloudlet, c2Cloudlet, thresholdN, thresholdS)) {
+            case SEND_CLOUDLET:
+                if (taskClass == Task.Class.CLASS1) {
+                    ++c1Cloudlet;
+                } else {
+                    if (preemption) {
+                        c2CloudletArrivals[c2Cloudlet] = time;
+                    }
+                    ++c2Cloudlet;
+                }
+                break;
+
+            case SEND_CLOUDLET_PREEMPTION_CLASS2:
+                int task = taskInterruptAlgorithm == TaskInterruptFactory.Algorithm.MIN_ARRIVAL_TIME ? 0 : c2Cloudlet - 1;
+                double cloudletTime = time - c2CloudletArrivals[task];
+                removeC2CloudletArrival(task);
+                --c2Cloudlet;
+                ++c1Cloudlet;
+
+                // residual service time is exponential, so the heuristic of the cloud gives an exponential service time
+                double cloudTime = distribution.fromExponential(SETUP_RNG_STREAM, meanSetupTime) +
+                        distribution.fromExponential(INTERRUPTED_SERVICE_RNG_STREAM, 1.0 / mu2Cloud);
+                interruptedCompletions.add(time + cloudTime);
+                statistics.updateCletInterrupted(cloudletTime, cloudletTime + cloudTime);
+                break;
+
+            case SEND_CLOUD:
+                if (taskClass == Task.Class.CLASS1) {
+                    ++c1Cloud;
+                } else {
+                    ++c2Cloud;
+                }
+                break;
+
+            default:
+                throw new IllegalStateException("Unknown action of the access control");
+        }
+    }
+
+    private void advanceTo(double instant) {
+        double delta = instant - time;
+        statistics.updateArea(delta, c1Cloudlet, c2Cloudlet, c1Cloud, c2Cloud + interruptedCompletions.size());
+        statistics.updateTime(delta);
+        time = instant;
+    }
+
+    private void removeC2CloudletArrival(int task) {
+        System.arraycopy(c2CloudletArrivals, task + 1, c2CloudletArrivals, task, c2Cloudlet - task - 1);
+    }
+
+    @Override
+    protected boolean isStopped() {
+        return stopped;
+    }
+
+    @Override
+    protected double getCurrentTime() {
+        return time;
+    }
+
+}
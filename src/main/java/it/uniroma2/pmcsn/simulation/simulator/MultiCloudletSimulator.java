@@ -0,0 +1,186 @@
+package it.uniroma2.pmcsn.simulation.simulator;
+
+import com.google.common.base.Preconditions;
+import it.uniroma2.pmcsn.simulation.analytic.StationaryDistribution;
+import it.uniroma2.pmcsn.simulation.model.SimulationConfig;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.Statistics;
+import it.uniroma2.pmcsn.simulation.util.StreamRegistry;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Next-event simulation of many cloudlets offloading to the same cloud, each one with its own mobile set,
+ * as logical processes run in parallel on a pool of threads.
+ *
+ * Each logical process is a {@link Simulator} of a cloudlet, with its own future event list, task table and
+ * Rngs streams, the ones of a replication (see {@link StreamRegistry}), and with the shard of the cloud
+ * executing the tasks it offloads: the cloud is an infinite server, so tasks of a cloudlet never delay tasks
+ * of another one and the cloud is split by task, each task in the shard of the cloudlet which created it.
+ *
+ * Since no event is ever sent from a logical process to another one, they need no synchronization:
+ * each one runs to its last event without waiting for the others.
+ *
+ * Statistics are the ones of the whole system, merged from the statistics of the cloudlets at the end of the run.
+ * Cloudlets are simulated without batch means, so statistics have no confidence intervals.
+ */
+public class MultiCloudletSimulator extends AbstractSimulator {
+
+    private final Simulator[] cloudlets;
+    private final int threads;
+    private final List<Callable<Void>> runs;
+
+    private ExecutorService executorService;
+    private double currentTime;
+    private int running;
+    private Statistics mergedStatistics = new Statistics();
+
+    public MultiCloudletSimulator(@Nonnull SimulationConfig simulationConfig) {
+        this(
+                simulationConfig,
+                simulationConfig.getCloudlets(),
+                simulationConfig.getCloudletThreads() > 0 ?
+                        simulationConfig.getCloudletThreads() :
+                        Runtime.getRuntime().availableProcessors()
+        );
+    }
+
+    /**
+     * @param simulationConfig configuration of each cloudlet
+     * @param cloudlets number of cloudlets
+     * @param threads simulating the cloudlets
+     */
+    public MultiCloudletSimulator(@Nonnull SimulationConfig simulationConfig, @Nonnegative int cloudlets,
+                                  @Nonnegative int threads) {
+        super(simulationConfig);
+        Preconditions.checkArgument(cloudlets > 0, "Cloudlets must be > 0 (current: %s)", cloudlets);
+        Preconditions.checkArgument(threads > 0, "Threads must be > 0 (current: %s)", threads);
+
+        // cloudlets start from states sampled from the same distribution, computed once
+        StationaryDistribution initialDistribution = SimulatorFactory.getInitialDistribution(simulationConfig);
+        StreamRegistry streamRegistry = new StreamRegistry(simulationConfig.getSeed(), cloudlets, Simulator.RNG_STREAMS);
+        this.cloudlets = new Simulator[cloudlets];
+        this.runs = new ArrayList<>(cloudlets);
+        for (int cloudlet = 0; cloudlet < cloudlets; ++cloudlet) {
+            Simulator simulator = new Simulator(
+                    getCloudletConfig(simulationConfig, streamRegistry.assign(cloudlet)),
+                    initialDistribution
+            );
+            this.cloudlets[cloudlet] = simulator;
+            this.runs.add(() -> {
+                run(simulator);
+                return null;
+            });
+        }
+        this.threads = Math.min(threads, cloudlets);
+    }
+
+    /**
+     * Get the configuration of a cloudlet, with the streams of {@param assignment}.
+     *
+     * Statistics are computed on the whole run, without batch means, and progress is not shown,
+     * since cloudlets run concurrently.
+     */
+    private static @Nonnull SimulationConfig getCloudletConfig(@Nonnull SimulationConfig simulationConfig,
+                                                             @Nonnull StreamRegistry.Assignment assignment) {
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put(SimulationConfig.RNGS_SEED, assignment.getSeed());
+        overrides.put(SimulationConfig.RNGS_STREAM_OFFSET, assignment.getStreamOffset());
+        overrides.put(SimulationConfig.BATCH_MEANS, false);
+        overrides.put(SimulationConfig.PRODUCTION_MODE, true);
+        return simulationConfig.snapshot(overrides);
+    }
+
+    public int getCloudlets() {
+        return cloudlets.length;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    @Override
+    protected void init() {
+        for (Simulator cloudlet : cloudlets) {
+            cloudlet.init();
+        }
+        executorService = Executors.newFixedThreadPool(threads);
+        currentTime = simulationConfig.getStart();
+        running = cloudlets.length;
+        mergedStatistics = new Statistics();
+    }
+
+    /**
+     * Run all the cloudlets to their last event.
+     */
+    @Override
+    protected void step() {
+        try {
+            for (Future<Void> future : executorService.invokeAll(runs)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while simulating cloudlets", e);
+        } catch (ExecutionException e) {
+            executorService.shutdownNow();
+            throw new IllegalStateException("Simulation of a cloudlet failed", e.getCause());
+        }
+
+        running = 0;
+        for (Simulator cloudlet : cloudlets) {
+            currentTime = Math.max(currentTime, cloudlet.getCurrentTime());
+            if (!cloudlet.isStopped()) {
+                ++running;
+            }
+        }
+        if (running == 0) {
+            executorService.shutdown();
+            for (Simulator cloudlet : cloudlets) {
+                mergedStatistics.merge(cloudlet.getStatistics());
+            }
+        }
+    }
+
+    /**
+     * Process all the events of {@param cloudlet}.
+     */
+    private static void run(@Nonnull Simulator cloudlet) {
+        while (!cloudlet.isStopped()) {
+            cloudlet.step();
+        }
+    }
+
+    @Override
+    protected boolean isStopped() {
+        return running == 0;
+    }
+
+    @Override
+    protected double getCurrentTime() {
+        return currentTime;
+    }
+
+    public @Nonnull Statistics getStatistics(@Nonnegative int cloudlet) {
+        return cloudlets[cloudlet].getStatistics();
+    }
+
+    /**
+     * @return statistics of the whole system, available at the end of the run
+     */
+    @Override
+    public @Nonnull Statistics getStatistics() {
+        return mergedStatistics;
+    }
+
+}
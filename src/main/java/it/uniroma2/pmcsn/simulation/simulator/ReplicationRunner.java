@@ -0,0 +1,387 @@
+package it.uniroma2.pmcsn.simulation.simulator;
+
+import com.google.common.base.Preconditions;
+import it.uniroma2.pmcsn.simulation.analytic.StationaryDistribution;
+import it.uniroma2.pmcsn.simulation.model.Engine;
+import it.uniroma2.pmcsn.simulation.model.SimulationConfig;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.ComparisonStatistics;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.ReplicationStatistics;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.Statistics;
+import it.uniroma2.pmcsn.simulation.util.Distribution;
+import it.uniroma2.pmcsn.simulation.util.StreamRegistry;
+import it.uniroma2.pmcsn.simulation.util.generator.GeneratorFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Run independent replications of the simulation on a pool of threads.
+ *
+ * Each replication runs on an immutable snapshot of the configuration, with Rngs streams
+ * disjoint from the ones of every other replication, assigned by a {@link StreamRegistry} of the configured seed.
+ * Rngs provides {@link Distribution#STREAMS} streams and a simulation uses {@link Simulator#RNG_STREAMS}
+ * of them, so replications are grouped in blocks, each one using a different set of streams,
+ * and replications in the same block start from different states of those streams.
+ * Streams of different replications do not overlap as long as each replication draws less
+ * than {@link StreamRegistry#getCapacity()} values from each stream (more than 8 millions up to
+ * B = 36 replications). With a generator other than Lehmer (see {@link SimulationConfig#RNGS_GENERATOR}),
+ * streams of a replication are splits of the generator of its seed, with no capacity nor period ceiling.
+ *
+ * Estimates do not depend on the number of threads, since results are reduced in replication order.
+ * With the markovian engine, runs can be grouped in lanes of a
+ * {@link MarkovianReplicationKernel}, which gives the same results of runs simulated one by one.
+ *
+ * Variance reduction:
+ *  - with antithetic replications each replication is a pair of runs on the same streams, the second one
+ *      drawing 1 - u for each uniform u of the first one, reduced as the mean of the two runs;
+ *  - with control variates estimates are adjusted by the arrivals of each class, see {@link ReplicationStatistics};
+ *  - two systems are compared by paired replications, see {@link #compare(SimulationConfig)}: replication r
+ *      of both systems uses the same streams, so arrivals are the same and, with common random numbers,
+ *      each task has the same work in both systems.
+ */
+public class ReplicationRunner {
+
+    private static final Logger LOG = LogManager.getLogger(ReplicationRunner.class.getCanonicalName());
+
+    private final SimulationConfig simulationConfig;
+    private final int replications;
+    private final int threads;
+    // Streams of each replication
+    private final StreamRegistry streamRegistry;
+    // Runs advanced side by side by a thread, with the markovian engine
+    private final int lanes;
+    // Runs of each replication, 2 for antithetic replications
+    private final int runs;
+
+    public ReplicationRunner(@Nonnull SimulationConfig simulationConfig) {
+        this(
+                simulationConfig,
+                simulationConfig.getReplications(),
+                simulationConfig.getReplicationThreads() > 0 ?
+                        simulationConfig.getReplicationThreads() :
+                        Runtime.getRuntime().availableProcessors()
+        );
+    }
+
+    public ReplicationRunner(@Nonnull SimulationConfig simulationConfig, @Nonnegative int replications,
+                             @Nonnegative int threads) {
+        this(simulationConfig, replications, threads, simulationConfig.getReplicationLanes());
+    }
+
+    /**
+     * @param simulationConfig simulated system
+     * @param replications number of replications
+     * @param threads running the replications
+     * @param lanes runs advanced side by side by a thread with the markovian engine, 1 to run them one by one
+     */
+    public ReplicationRunner(@Nonnull SimulationConfig simulationConfig, @Nonnegative int replications,
+                             @Nonnegative int threads, @Nonnegative int lanes) {
+        Preconditions.checkNotNull(simulationConfig, "SimulationConfig can not be null (current: %s)", simulationConfig);
+        Preconditions.checkArgument(replications > 0, "Replications must be > 0 (current: %s)", replications);
+        Preconditions.checkArgument(threads > 0, "Threads must be > 0 (current: %s)", threads);
+        Preconditions.checkArgument(lanes > 0, "Lanes must be > 0 (current: %s)", lanes);
+        Preconditions.checkArgument(
+                simulationConfig.getSeed() > 0,
+                "Replications require a seed > 0 (current: %s)",
+                simulationConfig.getSeed()
+        );
+
+        this.simulationConfig = simulationConfig;
+        this.replications = replications;
+        this.threads = threads;
+        this.streamRegistry = new StreamRegistry(simulationConfig.getSeed(), replications, Simulator.RNG_STREAMS);
+        this.lanes = lanes;
+        this.runs = simulationConfig.getAntithetic() ? 2 : 1;
+        checkCapacity(simulationConfig);
+    }
+
+    /**
+     * Warn if replications are expected to draw more values from a Lehmer stream than
+     * {@link StreamRegistry#getCapacity()}, so that their streams overlap.
+     *
+     * With the next event engine each arrival stream draws an interarrival time for each arrival of its class,
+     * and no stream draws more values than the arrival stream of its class.
+     * With the markovian and tau leaping engines the event time and event type streams draw once for each event,
+     * and each task is an arrival and a completion, so they draw about 2 * (lambda1 + lambda2) values per unit
+     * of time.
+     */
+    private void checkCapacity(@Nonnull SimulationConfig simulationConfig) {
+        if (GeneratorFactory.Algorithm.from(simulationConfig.getRngsGenerator()) != GeneratorFactory.Algorithm.LEHMER) {
+            return;
+        }
+
+        double drawRate;
+        switch (Engine.from(simulationConfig.getEngine())) {
+            case MARKOVIAN:
+            case TAU_LEAPING:
+                drawRate = 2.0 * (simulationConfig.getLambda1() + simulationConfig.getLambda2());
+                break;
+            default:
+                drawRate = Math.max(simulationConfig.getLambda1(), simulationConfig.getLambda2());
+        }
+        double expectedDraws = drawRate * (simulationConfig.getStop() - simulationConfig.getStart());
+        if (expectedDraws > streamRegistry.getCapacity()) {
+            LOG.warn(
+                    "Replications draw about {} values from each stream, but streams overlap after {} values: " +
+                            "reduce stop time or replications, or set a 64 bits {}",
+                    String.format("%.0f", expectedDraws),
+                    streamRegistry.getCapacity(),
+                    SimulationConfig.RNGS_GENERATOR
+            );
+        } else {
+            LOG.debug(
+                    "Replications draw disjoint sequences while drawing less than {} values from each stream",
+                    streamRegistry.getCapacity()
+            );
+        }
+    }
+
+    public int getReplications() {
+        return replications;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getLanes() {
+        return lanes;
+    }
+
+    public @Nonnull StreamRegistry getStreamRegistry() {
+        return streamRegistry;
+    }
+
+    /**
+     * Get the configuration of a replication.
+     *
+     * Statistics are computed on the whole run and progress is not shown,
+     * since replications run concurrently.
+     *
+     * @param replication index of the replication, in range [0, replications)
+     * @return immutable configuration of the replication
+     */
+    public @Nonnull SimulationConfig getReplicationConfig(@Nonnegative int replication) {
+        return getReplicationConfig(simulationConfig, replication, false);
+    }
+
+    /**
+     * Get the configuration of a run of {@param config}, with the streams of replication {@param replication}
+     * of the configured seed, so that runs of different systems in the same replication are paired.
+     *
+     * @param config simulated system
+     * @param replication index of the replication, in range [0, replications)
+     * @param antithetic iif true, the run draws antithetic values
+     * @return immutable configuration of the run
+     */
+    public @Nonnull SimulationConfig getReplicationConfig(@Nonnull SimulationConfig config,
+                                                          @Nonnegative int replication, boolean antithetic) {
+        Preconditions.checkNotNull(config, "Config can not be null (current: %s)", config);
+
+        StreamRegistry.Assignment assignment = streamRegistry.assign(replication);
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put(SimulationConfig.RNGS_SEED, assignment.getSeed());
+        overrides.put(SimulationConfig.RNGS_STREAM_OFFSET, assignment.getStreamOffset());
+        overrides.put(SimulationConfig.RNGS_ANTITHETIC, antithetic);
+        overrides.put(SimulationConfig.BATCH_MEANS, false);
+        overrides.put(SimulationConfig.PRODUCTION_MODE, true);
+        return config.snapshot(overrides);
+    }
+
+    /**
+     * Run all the replications and reduce their estimates.
+     *
+     * @return estimates across replications
+     * @throws InterruptedException if interrupted while waiting for replications
+     */
+    public @Nonnull ReplicationStatistics run() throws InterruptedException {
+        ReplicationStatistics replicationStatistics = newReplicationStatistics(simulationConfig);
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Statistics>> futures = submit(executorService, simulationConfig);
+            for (int replication = 0; replication < replications; ++replication) {
+                Statistics[] statistics = get(futures, replication);
+                replicationStatistics.add(
+                        ReplicationStatistics.valuesOf(statistics),
+                        ReplicationStatistics.controlsOf(statistics)
+                );
+                LOG.debug("Reduced replication {} of {}", replication + 1, replications);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        return replicationStatistics;
+    }
+
+    /**
+     * Run all the replications of the configured system and of {@param alternative}, pairing replications
+     * with the same index, and reduce their estimates and the differences of their estimates.
+     *
+     * @param alternative system compared to the configured one
+     * @return estimates of both systems and of their differences
+     * @throws InterruptedException if interrupted while waiting for replications
+     */
+    public @Nonnull ComparisonStatistics compare(@Nonnull SimulationConfig alternative) throws InterruptedException {
+        Preconditions.checkNotNull(alternative, "Alternative can not be null (current: %s)", alternative);
+
+        ReplicationStatistics first = newReplicationStatistics(simulationConfig);
+        ReplicationStatistics second = newReplicationStatistics(alternative);
+        // arrivals of the first system are controls of the differences too
+        ReplicationStatistics difference = newReplicationStatistics(simulationConfig);
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Statistics>> firstFutures = submit(executorService, simulationConfig);
+            List<Future<Statistics>> secondFutures = submit(executorService, alternative);
+            for (int replication = 0; replication < replications; ++replication) {
+                Statistics[] firstStatistics = get(firstFutures, replication);
+                Statistics[] secondStatistics = get(secondFutures, replication);
+                double[] firstValues = ReplicationStatistics.valuesOf(firstStatistics);
+                double[] secondValues = ReplicationStatistics.valuesOf(secondStatistics);
+                double[] firstControls = ReplicationStatistics.controlsOf(firstStatistics);
+                first.add(firstValues, firstControls);
+                second.add(secondValues, ReplicationStatistics.controlsOf(secondStatistics));
+
+                double[] differences = new double[firstValues.length];
+                for (int i = 0; i < differences.length; ++i) {
+                    differences[i] = firstValues[i] - secondValues[i];
+                }
+                difference.add(differences, firstControls);
+                LOG.debug("Reduced paired replication {} of {}", replication + 1, replications);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        return new ComparisonStatistics(
+                simulationConfig.getConfigurationFilename(),
+                alternative.getConfigurationFilename(),
+                first,
+                second,
+                difference
+        );
+    }
+
+    /**
+     * @param config simulated system
+     * @return estimates with control variates if configured, whose means are the expected arrivals of
+     * each class from start to stop time
+     */
+    private @Nonnull ReplicationStatistics newReplicationStatistics(@Nonnull SimulationConfig config) {
+        if (!config.getControlVariates()) {
+            return new ReplicationStatistics(config.getLevelOfConfidence());
+        }
+
+        double observationTime = config.getStop() - config.getStart();
+        return new ReplicationStatistics(
+                config.getLevelOfConfidence(),
+                new double[]{config.getLambda1() * observationTime, config.getLambda2() * observationTime}
+        );
+    }
+
+    /**
+     * Submit the runs of all the replications of {@param config}.
+     *
+     * @param executorService running the replications
+     * @param config simulated system
+     * @return results of the runs, {@link #runs} for each replication
+     */
+    private @Nonnull List<Future<Statistics>> submit(@Nonnull ExecutorService executorService,
+                                                     @Nonnull SimulationConfig config) {
+        // replications start from states sampled from the same distribution, computed once
+        StationaryDistribution initialDistribution = SimulatorFactory.getInitialDistribution(config);
+        SimulationConfig[] runConfigs = new SimulationConfig[replications * runs];
+        for (int replication = 0; replication < replications; ++replication) {
+            for (int run = 0; run < runs; ++run) {
+                runConfigs[replication * runs + run] = getReplicationConfig(config, replication, run == 1);
+            }
+        }
+
+        List<Future<Statistics>> futures = new ArrayList<>(runConfigs.length);
+        if (lanes > 1 &&
+                Engine.from(config.getEngine()) == Engine.MARKOVIAN && MarkovianSimulator.isMarkovian(config)) {
+            for (int first = 0; first < runConfigs.length; first += lanes) {
+                futures.addAll(submitLanes(executorService, initialDistribution, Arrays.copyOfRange(
+                        runConfigs,
+                        first,
+                        Math.min(first + lanes, runConfigs.length)
+                )));
+            }
+            return futures;
+        }
+
+        for (SimulationConfig runConfig : runConfigs) {
+            futures.add(executorService.submit(() -> {
+                ISimulator simulator = SimulatorFactory.get(runConfig, initialDistribution);
+                simulator.start();
+                return simulator.getStatistics();
+            }));
+        }
+        return futures;
+    }
+
+    /**
+     * Submit runs as the lanes of a {@link MarkovianReplicationKernel}.
+     *
+     * @param executorService running the replications
+     * @param initialDistribution distribution of the initial state of the runs, null to start from an empty system
+     * @param laneConfigs configurations of the runs
+     * @return results of the runs, completed together
+     */
+    private @Nonnull List<CompletableFuture<Statistics>> submitLanes(
+            @Nonnull ExecutorService executorService,
+            @Nullable StationaryDistribution initialDistribution,
+            @Nonnull SimulationConfig[] laneConfigs) {
+        List<CompletableFuture<Statistics>> futures = new ArrayList<>(laneConfigs.length);
+        for (int lane = 0; lane < laneConfigs.length; ++lane) {
+            futures.add(new CompletableFuture<>());
+        }
+        executorService.execute(() -> {
+            try {
+                Statistics[] statistics = new MarkovianReplicationKernel(initialDistribution, laneConfigs).run();
+                for (int lane = 0; lane < laneConfigs.length; ++lane) {
+                    futures.get(lane).complete(statistics[lane]);
+                }
+            } catch (Throwable t) {
+                futures.forEach(f -> f.completeExceptionally(t));
+            }
+        });
+        return futures;
+    }
+
+    /**
+     * Wait for the runs of {@param replication} and release them.
+     *
+     * @param futures results of the runs
+     * @param replication index of the replication
+     * @return statistics of the runs of {@param replication}
+     * @throws InterruptedException if interrupted while waiting for replications
+     */
+    private @Nonnull Statistics[] get(@Nonnull List<Future<Statistics>> futures, int replication)
+            throws InterruptedException {
+        Statistics[] statistics = new Statistics[runs];
+        for (int run = 0; run < runs; ++run) {
+            int index = replication * runs + run;
+            try {
+                statistics[run] = futures.get(index).get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(String.format("Replication %s failed", replication), e.getCause());
+            }
+            // release statistics of the reduced run
+            futures.set(index, null);
+        }
+        return statistics;
+    }
+
+}
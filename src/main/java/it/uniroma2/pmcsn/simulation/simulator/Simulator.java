@@ -1,13 +1,14 @@
 package it.uniroma2.pmcsn.simulation.simulator;
 
-import com.google.common.base.Preconditions;
+import it.uniroma2.pmcsn.simulation.analytic.StationaryDistribution;
+import it.uniroma2.pmcsn.simulation.mobile_set.ArrivalPool;
 import it.uniroma2.pmcsn.simulation.mobile_set.MobileSet;
 import it.uniroma2.pmcsn.simulation.mobile_set.model.MobileSetConfig;
 import it.uniroma2.pmcsn.simulation.model.SimulationConfig;
+import it.uniroma2.pmcsn.simulation.model.TaskTable;
+import it.uniroma2.pmcsn.simulation.simulator.fel.FutureEventListFactory;
+import it.uniroma2.pmcsn.simulation.simulator.fel.IFutureEventList;
 import it.uniroma2.pmcsn.simulation.simulator.model.Context;
-import it.uniroma2.pmcsn.simulation.simulator.statistics.BatchMeansStatistics;
-import it.uniroma2.pmcsn.simulation.simulator.statistics.Statistics;
-import it.uniroma2.pmcsn.simulation.simulator.statistics.WithinRunCollectorStatistics;
 import it.uniroma2.pmcsn.simulation.system.cloud.Cloud;
 import it.uniroma2.pmcsn.simulation.system.cloud.model.CloudConfig;
 import it.uniroma2.pmcsn.simulation.system.cloudlet.Cloudlet;
@@ -15,43 +16,65 @@ import it.uniroma2.pmcsn.simulation.system.cloudlet.access_control.AccessControl
 import it.uniroma2.pmcsn.simulation.system.cloudlet.model.CloudletConfig;
 import it.uniroma2.pmcsn.simulation.system.cloudlet.task_interrupt.TaskInterruptFactory;
 import it.uniroma2.pmcsn.simulation.util.Distribution;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import it.uniroma2.pmcsn.simulation.util.generator.GeneratorFactory;
 
-import javax.annotation.Nonnull;
-import java.text.DecimalFormat;
+import javax.annotation.Nullable;
 
 import static it.uniroma2.pmcsn.simulation.simulator.Event.Type.STOP;
 
-public class Simulator {
+/**
+ * Next-event simulation of each task, with completion times scheduled on a future event list.
+ */
+public class Simulator extends AbstractSimulator {
 
-    private static final Logger LOG = LogManager.getLogger(Simulator.class.getCanonicalName());
-    private static final DecimalFormat progressFormat = new DecimalFormat("###0.00");
+    // Number of Rngs streams used by mobile set, cloudlet and cloud
+    public static final int RNG_STREAMS = Cloud.SETUP_RNG_STREAM + 1;
+    // Rngs stream of the initial state, shared with setup times which are drawn only on interruptions
+    public static final int INITIAL_STATE_RNG_STREAM = Cloud.SETUP_RNG_STREAM;
 
-    private final SimulationConfig simulationConfig;
     private final Event event;
-    private final Statistics statistics;
 
     public Simulator(SimulationConfig simulationConfig) {
-        // Config validation
-        configValidation(simulationConfig);
-        this.simulationConfig = simulationConfig;
-        this.statistics = simulationConfig.getBatchMeans() ?
-                new BatchMeansStatistics(simulationConfig.getBatchSize(), simulationConfig.getLevelOfConfidence()) :
-                new Statistics();
-//                new WithinRunCollectorStatistics();
+        this(simulationConfig, SimulatorFactory.getInitialDistribution(simulationConfig));
+    }
+
+    public Simulator(SimulationConfig simulationConfig, @Nullable StationaryDistribution initialDistribution) {
+        this(simulationConfig, initialDistribution, null);
+    }
 
-        Distribution distribution = new Distribution(simulationConfig.getSeed());
+    /**
+     * @param simulationConfig configuration of the simulation
+     * @param initialDistribution distribution of the initial state, null to start from an empty system
+     * @param arrivalPool tasks shared with other simulations, null to draw them
+     */
+    public Simulator(SimulationConfig simulationConfig, @Nullable StationaryDistribution initialDistribution,
+                     @Nullable ArrivalPool arrivalPool) {
+        super(simulationConfig, initialDistribution);
+
+        Distribution distribution = new Distribution(
+                simulationConfig.getSeed(),
+                simulationConfig.getStreamOffset(),
+                simulationConfig.getRngsAntithetic(),
+                GeneratorFactory.Algorithm.from(simulationConfig.getRngsGenerator())
+        );
+        TaskTable taskTable = new TaskTable();
+        IFutureEventList futureEventList = FutureEventListFactory.get(simulationConfig.getFutureEventList(), taskTable);
 
         MobileSetConfig mobileSetConfig = MobileSetConfig.MobileSetConfigBuilder.builder()
                 .distribution(distribution)
+                .futureEventList(futureEventList)
+                .taskTable(taskTable)
                 .lambda1(simulationConfig.getLambda1())
                 .lambda2(simulationConfig.getLambda2())
+                .commonRandomNumbers(simulationConfig.getCommonRandomNumbers())
+                .arrivalPool(arrivalPool)
                 .build();
         MobileSet mobileSet = new MobileSet(mobileSetConfig);
 
         CloudConfig cloudConfig = CloudConfig.CloudConfigBuilder.builder()
                 .distribution(distribution)
+                .futureEventList(futureEventList)
+                .taskTable(taskTable)
                 .mu1(simulationConfig.getMu1Cloud())
                 .mu2(simulationConfig.getMu2Cloud())
                 .meanSetupTime(simulationConfig.getMeanSetupTime())
@@ -61,6 +84,8 @@ public class Simulator {
         CloudletConfig cloudletConfig = CloudletConfig.CloudletConfigBuilder.builder()
                 .cloud(cloud)
                 .distribution(distribution)
+                .futureEventList(futureEventList)
+                .taskTable(taskTable)
                 .mu1(simulationConfig.getMu1Cloudlet())
                 .mu2(simulationConfig.getMu2Cloudlet())
                 .thresholdN(simulationConfig.getThresholdN())
@@ -77,84 +102,45 @@ public class Simulator {
                 .mobileSet(mobileSet)
                 .cloudlet(cloudlet)
                 .cloud(cloud)
-                .clock(new Clock())
+                // a warm-started system is observed from start time, instead of being empty until then
+                .clock(new Clock(taskTable, initialDistribution == null ? Clock.NULL_INSTANT : simulationConfig.getStart()))
+                .futureEventList(futureEventList)
+                .taskTable(taskTable)
+                .initialState(initialDistribution == null ?
+                        null :
+                        initialDistribution.sample(
+                                distribution,
+                                INITIAL_STATE_RNG_STREAM,
+                                new int[StationaryDistribution.DIMENSION]
+                        ))
                 .build();
         this.event = new Event(context);
     }
 
-    private void configValidation(@Nonnull SimulationConfig simulationConfig) {
-        Preconditions.checkNotNull(simulationConfig, "SimulationConfig must be not null (current: %s)", simulationConfig);
-
-        Preconditions.checkArgument(
-                simulationConfig.getThresholdS() <= simulationConfig.getThresholdN(),
-                "Threshold parameter S can not be greater of max number of accepted tasks in the cloudlet (current: %s)",
-                simulationConfig.getThresholdS()
-        );
-        Preconditions.checkArgument(
-                simulationConfig.getStart() >= 0 && simulationConfig.getStart() < Double.MAX_VALUE,
-                "Start simulation time must be in range [%s, %s) (current: %s)",
-                0,
-                Double.MAX_VALUE,
-                simulationConfig.getStart()
-        );
-        Preconditions.checkArgument(
-                simulationConfig.getStop() >= 1 && simulationConfig.getStop() <= Double.MAX_VALUE,
-                "Stop simulation time must be in range [%s, %s] (current: %s)",
-                1,
-                Double.MAX_VALUE,
-                simulationConfig.getStop()
-        );
-        Preconditions.checkArgument(
-                simulationConfig.getStart() < simulationConfig.getStop(),
-                "Start simulation time must be less than stop simulation time (current: %s, %s)",
-                simulationConfig.getStart(),
-                simulationConfig.getStop()
-        );
-    }
-
-    private void showProgress(double current, double total) {
-        System.out.print(String.format(
-                "Progress: %s %%\r",
-                progressFormat.format(current >= total ? 100.00 : current / total * 100)
-        ));
-    }
-
-    public Statistics getStatistics() {
-        return statistics;
-    }
-
-    /**
-     * Start the simulation.
-     */
-    public final void start() {
+    @Override
+    protected void init() {
         // initialize event
         event.init();
-        do {
-            beforeEvent();
-
-            // schedule next event
-            event.next();
-            // execute next event
-            event.simulate();
-            // update statistics
-            event.updateStatistics();
-
-            afterEvent();
-        } while (event.getEventType() != STOP);
     }
 
-    protected void beforeEvent() {
-
+    @Override
+    protected void step() {
+        // schedule next event
+        event.next();
+        // execute next event
+        event.simulate();
+        // update statistics
+        event.updateStatistics();
     }
 
-    protected void afterEvent() {
-        // show progress
-        showProgress(event.getClock().getNextInstant(), simulationConfig.getStop());
+    @Override
+    protected boolean isStopped() {
+        return event.getEventType() == STOP;
+    }
 
-        // to collect within-the-run statistics replace class Statistics with WithinRunCollectorStatistics,
-        //  comment showProgress() method and uncomment following line
-        // make sure to disable batch-means method (config.properties)
-//        ((WithinRunCollectorStatistics) statistics).collect();
+    @Override
+    protected double getCurrentTime() {
+        return event.getClock().getNextInstant();
     }
 
 }
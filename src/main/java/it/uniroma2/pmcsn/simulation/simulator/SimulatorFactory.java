@@ -0,0 +1,104 @@
+package it.uniroma2.pmcsn.simulation.simulator;
+
+import com.google.common.base.Preconditions;
+import it.uniroma2.pmcsn.simulation.analytic.CloudletCtmc;
+import it.uniroma2.pmcsn.simulation.analytic.CtmcSolverFactory;
+import it.uniroma2.pmcsn.simulation.analytic.StationaryDistribution;
+import it.uniroma2.pmcsn.simulation.model.Engine;
+import it.uniroma2.pmcsn.simulation.model.SimulationConfig;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+public class SimulatorFactory {
+
+    private static final Logger LOG = LogManager.getLogger(SimulatorFactory.class.getCanonicalName());
+
+    public static @Nonnull ISimulator get(@Nonnull SimulationConfig simulationConfig) {
+        Preconditions.checkNotNull(simulationConfig, "SimulationConfig can not be null");
+
+        return get(simulationConfig, getInitialDistribution(simulationConfig));
+    }
+
+    /**
+     * Get the simulator selected by {@param simulationConfig}, starting from a state sampled from
+     * {@param initialDistribution}, so that replications can share it.
+     */
+    public static @Nonnull ISimulator get(@Nonnull SimulationConfig simulationConfig,
+                                          @Nullable StationaryDistribution initialDistribution) {
+        Preconditions.checkNotNull(simulationConfig, "SimulationConfig can not be null");
+
+        return get(Engine.from(simulationConfig.getEngine()), simulationConfig, initialDistribution);
+    }
+
+    public static @Nonnull ISimulator get(@Nonnull Engine engine, @Nonnull SimulationConfig simulationConfig) {
+        Preconditions.checkNotNull(simulationConfig, "SimulationConfig can not be null");
+
+        return get(engine, simulationConfig, getInitialDistribution(simulationConfig));
+    }
+
+    public static @Nonnull ISimulator get(@Nonnull Engine engine, @Nonnull SimulationConfig simulationConfig,
+                                          @Nullable StationaryDistribution initialDistribution) {
+        Preconditions.checkNotNull(engine, "Engine can not be null");
+        Preconditions.checkNotNull(simulationConfig, "SimulationConfig can not be null");
+
+        switch (engine) {
+            case NEXT_EVENT:
+                return new Simulator(simulationConfig, initialDistribution);
+
+            case MARKOVIAN:
+                if (MarkovianSimulator.isMarkovian(simulationConfig)) {
+                    return new MarkovianSimulator(simulationConfig, initialDistribution);
+                }
+                return fallback(simulationConfig, initialDistribution);
+
+            case TAU_LEAPING:
+                if (MarkovianSimulator.isMarkovian(simulationConfig)) {
+                    return new TauLeapingSimulator(simulationConfig, initialDistribution);
+                }
+                return fallback(simulationConfig, initialDistribution);
+
+            default:
+                throw new TypeNotPresentException(engine.name(), new Throwable("Simulator not yet implemented"));
+        }
+    }
+
+    /**
+     * Get the distribution of the initial state selected by {@param simulationConfig}: the stationary
+     * distribution of {@link CloudletCtmc} if warm start is enabled, otherwise simulations start empty.
+     *
+     * @param simulationConfig configuration of the simulation
+     * @return distribution of the initial state or null to start from an empty system
+     * @throws IllegalStateException iif the CTMC solver does not converge
+     */
+    public static @Nullable StationaryDistribution getInitialDistribution(@Nonnull SimulationConfig simulationConfig) {
+        Preconditions.checkNotNull(simulationConfig, "SimulationConfig can not be null");
+
+        if (!simulationConfig.getWarmStart()) {
+            return null;
+        }
+        if (!MarkovianSimulator.isMarkovian(simulationConfig)) {
+            LOG.warn(
+                    "Task interrupt algorithm {} is not memoryless, starting from an empty system",
+                    simulationConfig.getCloudletTaskInterruptAlgorithm()
+            );
+            return null;
+        }
+
+        return new CloudletCtmc(simulationConfig)
+                .getStationaryDistribution(CtmcSolverFactory.get(simulationConfig.getCtmcSolver()));
+    }
+
+    private static @Nonnull ISimulator fallback(@Nonnull SimulationConfig simulationConfig,
+                                                @Nullable StationaryDistribution initialDistribution) {
+        LOG.warn(
+                "Task interrupt algorithm {} is not memoryless, falling back to {} engine",
+                simulationConfig.getCloudletTaskInterruptAlgorithm(),
+                Engine.NEXT_EVENT
+        );
+        return new Simulator(simulationConfig, initialDistribution);
+    }
+
+}
@@ -0,0 +1,189 @@
+package it.uniroma2.pmcsn.simulation.simulator;
+
+import com.google.common.base.Preconditions;
+import it.uniroma2.pmcsn.simulation.analytic.StationaryDistribution;
+import it.uniroma2.pmcsn.simulation.model.SimulationConfig;
+import it.uniroma2.pmcsn.simulation.model.Task;
+import it.uniroma2.pmcsn.simulation.system.cloudlet.access_control.Action;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Approximate simulation of the number of tasks, advancing time in leaps, for exponential arrivals and services.
+ *
+ * Events changing the cloudlet state, that is arrivals admitted by access control and cloudlet completions,
+ * are simulated exactly as in {@link MarkovianSimulator}: their rate is bounded by the cloudlet capacity,
+ * so admission at thresholds N and S is not approximated. Between two of them, arrivals sent to the cloud
+ * and cloud completions, whose rates grow with the load, are drawn as Poisson counts over a leap of size tau.
+ *
+ * Tau is selected as in Cao, Gillespie and Petzold (2006): expected change and standard deviation of
+ * each cloud population in a leap are bounded by {@link SimulationConfig#getTauLeapingError()} times
+ * the population, or by one task for small populations. Areas of cloud populations are approximated
+ * by trapezoids, and each leap is one event for batch means.
+ */
+public class TauLeapingSimulator extends MarkovianSimulator {
+
+    public static final int CLOUD_ARRIVAL_RNG_STREAM = 5;
+    public static final int CLOUD_COMPLETION_RNG_STREAM = 6;
+
+    // Max expected relative change of cloud populations in a leap
+    private final double error;
+
+    // Rates of arrivals admitted by the cloudlet and sent to the cloud, in current cloudlet state
+    private double c1AdmittedRate;
+    private double c2AdmittedRate;
+    private double c1CloudArrivalRate;
+    private double c2CloudArrivalRate;
+    // Total rate of events changing the cloudlet state
+    private double cloudletRate;
+    // Time of next event changing the cloudlet state
+    private double nextCloudletEvent;
+
+    public TauLeapingSimulator(@Nonnull SimulationConfig simulationConfig) {
+        this(simulationConfig, SimulatorFactory.getInitialDistribution(simulationConfig));
+    }
+
+    public TauLeapingSimulator(@Nonnull SimulationConfig simulationConfig,
+                               @Nullable StationaryDistribution initialDistribution) {
+        super(simulationConfig, initialDistribution);
+        Preconditions.checkArgument(
+                simulationConfig.getTauLeapingError() > 0.0 && simulationConfig.getTauLeapingError() < 1.0,
+                "Tau-leaping error must be in range (0, 1) (current: %s)",
+                simulationConfig.getTauLeapingError()
+        );
+
+        this.error = simulationConfig.getTauLeapingError();
+    }
+
+    @Override
+    protected void init() {
+        super.init();
+        updateCloudletRates();
+    }
+
+    @Override
+    protected void step() {
+        double horizon = Math.min(nextCloudletEvent, interruptedCompletions.peek());
+        if (arrivals) {
+            horizon = Math.min(horizon, simulationConfig.getStop());
+        }
+        if (horizon == Double.POSITIVE_INFINITY && c1Cloud == 0 && c2Cloud == 0) {
+            stopped = true;
+            return;
+        }
+
+        double tau = Math.min(
+                getTau(c1Cloud, c1CloudArrivalRate, mu1Cloud),
+                getTau(c2Cloud, c2CloudArrivalRate, mu2Cloud)
+        );
+        if (time + tau < horizon) {
+            leap(tau);
+            time += tau;
+            return;
+        }
+
+        leap(horizon - time);
+        time = horizon;
+        if (interruptedCompletions.peek() == horizon) {
+            interruptedCompletions.poll();
+            statistics.updateCloudCompletion(Task.Class.CLASS2);
+        } else if (nextCloudletEvent == horizon) {
+            cloudletEvent();
+            updateCloudletRates();
+        } else {
+            // arrivals after stop time are discarded, then the system is emptied
+            arrivals = false;
+            updateCloudletRates();
+        }
+    }
+
+    /**
+     * Get leap size bounding expected change and standard deviation of a cloud population.
+     *
+     * @param population tasks on cloud
+     * @param arrivalRate rate of arrivals sent to cloud
+     * @param mu service rate on cloud
+     * @return leap size, {@link Double#POSITIVE_INFINITY} if population can not change
+     */
+    private double getTau(long population, double arrivalRate, double mu) {
+        double completionRate = population * mu;
+        double rate = arrivalRate + completionRate;
+        if (rate == 0.0) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        double bound = Math.max(error * population, 1.0);
+        return Math.min(bound / Math.abs(arrivalRate - completionRate), bound * bound / rate);
+    }
+
+    private void leap(double tau) {
+        long c1Arrivals = distribution.fromPoisson(CLOUD_ARRIVAL_RNG_STREAM, c1CloudArrivalRate * tau);
+        long c2Arrivals = distribution.fromPoisson(CLOUD_ARRIVAL_RNG_STREAM, c2CloudArrivalRate * tau);
+        // tasks arrived during the leap are not completed in it, the error is bounded by tau
+        long c1Completions = Math.min(c1Cloud, distribution.fromPoisson(CLOUD_COMPLETION_RNG_STREAM, c1Cloud * mu1Cloud * tau));
+        long c2Completions = Math.min(c2Cloud, distribution.fromPoisson(CLOUD_COMPLETION_RNG_STREAM, c2Cloud * mu2Cloud * tau));
+        int c1CloudAfter = (int) (c1Cloud + c1Arrivals - c1Completions);
+        int c2CloudAfter = (int) (c2Cloud + c2Arrivals - c2Completions);
+
+        statistics.updateMeanArea(
+                tau,
+                c1Cloudlet,
+                c2Cloudlet,
+                (c1Cloud + c1CloudAfter) / 2.0,
+                (c2Cloud + c2CloudAfter) / 2.0 + interruptedCompletions.size()
+        );
+        statistics.updateTime(tau);
+        statistics.updateArrival(Task.Class.CLASS1, c1Arrivals);
+        statistics.updateArrival(Task.Class.CLASS2, c2Arrivals);
+        statistics.updateCloudCompletion(Task.Class.CLASS1, c1Completions);
+        statistics.updateCloudCompletion(Task.Class.CLASS2, c2Completions);
+
+        c1Cloud = c1CloudAfter;
+        c2Cloud = c2CloudAfter;
+    }
+
+    private void cloudletEvent() {
+        double event = distribution.fromUniform(EVENT_TYPE_RNG_STREAM, 0.0, cloudletRate);
+        if ((event -= c1AdmittedRate) < 0.0) {
+            arrival(Task.Class.CLASS1);
+        } else if ((event -= c2AdmittedRate) < 0.0) {
+            arrival(Task.Class.CLASS2);
+        } else if ((event -= c1Cloudlet * mu1Cloudlet) < 0.0 || c2Cloudlet == 0) {
+            cloudletCompletion(Task.Class.CLASS1);
+        } else {
+            cloudletCompletion(Task.Class.CLASS2);
+        }
+    }
+
+    /**
+     * Split arrivals by access control in current cloudlet state and sample the next event changing it.
+     * Cloud events do not change rates of cloudlet events, so the sample is kept across leaps.
+     */
+    private void updateCloudletRates() {
+        c1AdmittedRate = 0.0;
+        c2AdmittedRate = 0.0;
+        c1CloudArrivalRate = 0.0;
+        c2CloudArrivalRate = 0.0;
+        if (arrivals) {
+            if (accessControl.accessControl(Task.Class.CLASS1, c1Cloudlet, c2Cloudlet, thresholdN, thresholdS) ==
+                    Action.SEND_CLOUD) {
+                c1CloudArrivalRate = lambda1;
+            } else {
+                c1AdmittedRate = lambda1;
+            }
+            if (accessControl.accessControl(Task.Class.CLASS2, c1Cloudlet, c2Cloudlet, thresholdN, thresholdS) ==
+                    Action.SEND_CLOUD) {
+                c2CloudArrivalRate = lambda2;
+            } else {
+                c2AdmittedRate = lambda2;
+            }
+        }
+
+        cloudletRate = c1AdmittedRate + c2AdmittedRate + c1Cloudlet * mu1Cloudlet + c2Cloudlet * mu2Cloudlet;
+        nextCloudletEvent = cloudletRate > 0.0 ?
+                time + distribution.fromExponential(EVENT_TIME_RNG_STREAM, 1.0 / cloudletRate) :
+                Double.POSITIVE_INFINITY;
+    }
+
+}
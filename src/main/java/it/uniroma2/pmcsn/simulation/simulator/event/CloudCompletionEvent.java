@@ -2,6 +2,7 @@ package it.uniroma2.pmcsn.simulation.simulator.event;
 
 import com.google.common.base.Preconditions;
 import it.uniroma2.pmcsn.simulation.model.Task;
+import it.uniroma2.pmcsn.simulation.model.TaskTable;
 import it.uniroma2.pmcsn.simulation.simulator.model.Context;
 import it.uniroma2.pmcsn.simulation.simulator.statistics.Statistics;
 import it.uniroma2.pmcsn.simulation.system.cloud.Cloud;
@@ -16,16 +17,24 @@ public class CloudCompletionEvent implements IEvent {
     @Override
     public void simulate(@Nonnull Context context) {
         Preconditions.checkNotNull(context, "Context can not be null (current: %s)", context);
-        Preconditions.checkNotNull(context.getClock().getNextEvent(), "Task can not be null (current: %s)", context.getClock().getNextEvent());
+        Preconditions.checkState(
+                context.getClock().getNextTask() != TaskTable.NULL,
+                "Task can not be null (current: %s)",
+                context.getClock().getNextTask()
+        );
 
         Cloud cloud = context.getCloud();
-        Task task = context.getClock().getNextEvent();
+        TaskTable taskTable = context.getTaskTable();
+        int task = context.getClock().getNextTask();
         Statistics statistics = context.getStatistics();
 
         cloud.result(task);
 
         // statistics update
-        statistics.updateCloudCompletion(task);
+        statistics.updateCloudCompletion(taskTable.getTaskClass(task));
+
+        // task left the system, so its slot can be reused
+        taskTable.remove(task);
     }
 
 }
@@ -3,6 +3,7 @@ package it.uniroma2.pmcsn.simulation.simulator.event;
 import com.google.common.base.Preconditions;
 import it.uniroma2.pmcsn.simulation.mobile_set.MobileSet;
 import it.uniroma2.pmcsn.simulation.model.Task;
+import it.uniroma2.pmcsn.simulation.model.TaskTable;
 import it.uniroma2.pmcsn.simulation.simulator.model.Context;
 import it.uniroma2.pmcsn.simulation.simulator.statistics.Statistics;
 import it.uniroma2.pmcsn.simulation.system.cloud.Cloud;
@@ -17,7 +18,7 @@ import javax.annotation.Nonnull;
  * The request may be processed on the cloudlet or the cloud based on
  * {@link it.uniroma2.pmcsn.simulation.system.cloudlet.model.CloudletState}.
  * The {@link Task} associated with the offloading request, is received, executed
- * and associated with a completion time {@link Task#setCompletion(double)} based on
+ * and associated with a completion time {@link TaskTable#setCompletion(int, double)} based on
  * service time on the execution layer.
  */
 public class OffloadRequestEvent implements IEvent {
@@ -26,17 +27,19 @@ public class OffloadRequestEvent implements IEvent {
     public void simulate(@Nonnull Context context) {
         Preconditions.checkNotNull(context, "Context can not be null (current: %s)", context);
         Preconditions.checkState(
-                context.getClock().getNextEvent() != null,
+                context.getClock().getNextTask() != TaskTable.NULL,
                 "Processing offloading request of a null task (current: %s)",
-                context.getClock().getNextEvent()
+                context.getClock().getNextTask()
         );
 
         MobileSet mobileSet = context.getMobileSet();
         Cloudlet cloudlet = context.getCloudlet();
         Cloud cloud = context.getCloud();
-        Task task = context.getClock().getNextEvent();
+        TaskTable taskTable = context.getTaskTable();
+        int task = context.getClock().getNextTask();
         Statistics statistics = context.getStatistics();
 
+        statistics.updateArrival(taskTable.getTaskClass(task));
         // simulate task arrival on cloudlet or cloud
         Action action = cloudlet.accept(task);
         switch (action) {
@@ -46,14 +49,14 @@ public class OffloadRequestEvent implements IEvent {
                 break;
 
             case SEND_CLOUDLET_PREEMPTION_CLASS2:
-                Task taskInterruptedClass2 = cloud.getCloudState().getNextInterruptedClass2();
-                Preconditions.checkState(taskInterruptedClass2 != null, "No interrupted class 2 task found to execute");
+                int taskInterruptedClass2 = cloud.getCloudState().getNextInterruptedClass2();
+                Preconditions.checkState(taskInterruptedClass2 != TaskTable.NULL, "No interrupted class 2 task found to execute");
 
-                double taskInterruptedClass2Arrival = taskInterruptedClass2.getArrival();
+                double taskInterruptedClass2Arrival = taskTable.getArrival(taskInterruptedClass2);
                 // set arrival of interrupted class 2 task to current time instant
                 //  because the cloud executor, to compute cloud completion time, need to know
                 //  current time instant (so need to know arrival time in the cloud)
-                taskInterruptedClass2.setArrival(task.getArrival());
+                taskTable.setArrival(taskInterruptedClass2, taskTable.getArrival(task));
 
                 // simulate task execution on cloudlet (completion time is assigned to task)
                 cloudlet.execute(task);
@@ -62,8 +65,8 @@ public class OffloadRequestEvent implements IEvent {
 
                 // statistics update
                 statistics.updateCletInterrupted(
-                        task.getArrival() - taskInterruptedClass2Arrival,
-                        taskInterruptedClass2.getCompletion() - taskInterruptedClass2Arrival
+                        taskTable.getArrival(task) - taskInterruptedClass2Arrival,
+                        taskTable.getCompletion(taskInterruptedClass2) - taskInterruptedClass2Arrival
                 );
                 break;
 
@@ -82,7 +85,7 @@ public class OffloadRequestEvent implements IEvent {
         // for the simulation purpose it is assumed that the task is completed, so remove it from mobile set
         mobileSet.receive(task);
         // generate new task of the same class as the one just processed
-        mobileSet.generate(task.getTaskClass(), task.getArrival());
+        mobileSet.generate(taskTable.getTaskClass(task), taskTable.getArrival(task));
     }
 
 }
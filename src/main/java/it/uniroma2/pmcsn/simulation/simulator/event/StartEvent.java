@@ -1,9 +1,12 @@
 package it.uniroma2.pmcsn.simulation.simulator.event;
 
 import com.google.common.base.Preconditions;
+import it.uniroma2.pmcsn.simulation.analytic.StationaryDistribution;
 import it.uniroma2.pmcsn.simulation.mobile_set.MobileSet;
 import it.uniroma2.pmcsn.simulation.model.Task;
 import it.uniroma2.pmcsn.simulation.simulator.model.Context;
+import it.uniroma2.pmcsn.simulation.system.cloud.Cloud;
+import it.uniroma2.pmcsn.simulation.system.cloudlet.Cloudlet;
 
 import javax.annotation.Nonnull;
 
@@ -13,6 +16,9 @@ import javax.annotation.Nonnull;
  * {@link it.uniroma2.pmcsn.simulation.mobile_set.model.MobileSetState},
  * {@link it.uniroma2.pmcsn.simulation.system.cloudlet.model.CloudletState} and
  * {@link it.uniroma2.pmcsn.simulation.system.cloud.model.CloudState}.
+ *
+ * If {@link Context#getInitialState()} is defined, cloudlet and cloud are filled with tasks already
+ * in execution at start time, so statistics are collected in stationary state from the first event.
  */
 public class StartEvent implements IEvent {
 
@@ -22,8 +28,35 @@ public class StartEvent implements IEvent {
 
         MobileSet mobileSet = context.getMobileSet();
 
+        int[] initialState = context.getInitialState();
+        if (initialState != null) {
+            resume(context, initialState);
+        }
+
         mobileSet.generate(Task.Class.CLASS1, context.getStart());
         mobileSet.generate(Task.Class.CLASS2, context.getStart());
     }
 
+    private void resume(@Nonnull Context context, @Nonnull int[] initialState) {
+        Cloudlet cloudlet = context.getCloudlet();
+        Cloud cloud = context.getCloud();
+        double start = context.getStart();
+
+        for (int i = 0; i < initialState[StationaryDistribution.C1_CLOUDLET]; ++i) {
+            cloudlet.resume(Task.Class.CLASS1, start);
+        }
+        for (int i = 0; i < initialState[StationaryDistribution.C2_CLOUDLET]; ++i) {
+            cloudlet.resume(Task.Class.CLASS2, start);
+        }
+        for (int i = 0; i < initialState[StationaryDistribution.C1_CLOUD]; ++i) {
+            cloud.resume(Task.Class.CLASS1, start);
+        }
+        for (int i = 0; i < initialState[StationaryDistribution.C2_CLOUD]; ++i) {
+            cloud.resume(Task.Class.CLASS2, start);
+        }
+        for (int i = 0; i < initialState[StationaryDistribution.C2_INTERRUPTED]; ++i) {
+            cloud.resumeInterrupted(start);
+        }
+    }
+
 }
@@ -0,0 +1,152 @@
+package it.uniroma2.pmcsn.simulation.simulator.fel;
+
+import com.google.common.base.Preconditions;
+import it.uniroma2.pmcsn.simulation.model.Task;
+import it.uniroma2.pmcsn.simulation.model.TaskTable;
+import it.uniroma2.pmcsn.simulation.simulator.Event;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Base class for {@link IFutureEventList} implementations: keeps track of pending
+ * {@link EventNotice} for each {@link Task}, indexed by its {@link TaskTable} handle, so implementations
+ * only have to provide priority queue operations.
+ *
+ * Removed notices are recycled, so that in steady state scheduling does not allocate. Since each handle has
+ * at most one pending notice, notices are created for all handles of the table at once, so scheduling allocates
+ * only after the table grows and not at each new peak of pending notices.
+ *
+ * @param <N> type of the notice used by the implementation
+ */
+public abstract class AbstractFutureEventList<N extends EventNotice> implements IFutureEventList {
+
+    // Store of the scheduled tasks
+    private final TaskTable taskTable;
+    // Pending notice for each scheduled task, indexed by handle
+    private EventNotice[] pending;
+    // Number of pending notices
+    private int size = 0;
+    // Insertion counter
+    private long sequence = 0;
+    // Stack of notices available for reuse, able to hold all the notices created
+    private EventNotice[] released = new EventNotice[0];
+    private int releasedSize = 0;
+    // Number of notices created, either pending, popped or released
+    private int notices = 0;
+    // Last notice returned by pop(), released on next pop()
+    private N popped = null;
+
+    protected AbstractFutureEventList(@Nonnull TaskTable taskTable) {
+        Preconditions.checkNotNull(taskTable, "TaskTable can not be null (current: %s)", taskTable);
+
+        this.taskTable = taskTable;
+        this.pending = new EventNotice[taskTable.capacity()];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public final void schedule(@Nonnull Event.Type type, int task, @Nonnegative double time) {
+        Preconditions.checkNotNull(type, "Type can not be null (current: %s)", type);
+        Preconditions.checkArgument(taskTable.contains(task), "Task not found (current: %s)", task);
+
+        if (task >= pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pending.length << 1, taskTable.capacity()));
+        }
+        Preconditions.checkState(pending[task] == null, "Task already scheduled (current: %s)", task);
+
+        if (releasedSize == 0) {
+            int capacity = Math.max(notices + 1, pending.length);
+            released = Arrays.copyOf(released, capacity);
+            while (notices < capacity) {
+                released[releasedSize++] = newNotice();
+                ++notices;
+            }
+        }
+        N notice = (N) released[--releasedSize];
+        released[releasedSize] = null;
+        notice.type = type;
+        notice.task = task;
+        notice.taskClass = taskTable.getTaskClass(task).ordinal();
+        notice.time = time;
+        notice.sequence = sequence++;
+        pending[task] = notice;
+        ++size;
+        insert(notice);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public final boolean cancel(@Nonnull Event.Type type, int task) {
+        Preconditions.checkNotNull(type, "Type can not be null (current: %s)", type);
+
+        if (task < 0 || task >= pending.length) {
+            return false;
+        }
+        N notice = (N) pending[task];
+        if (notice == null || notice.type != type) {
+            return false;
+        }
+
+        pending[task] = null;
+        --size;
+        delete(notice);
+        release(notice);
+        return true;
+    }
+
+    @Override
+    public final @Nullable EventNotice peek() {
+        return findMin();
+    }
+
+    @Override
+    public final @Nullable EventNotice pop() {
+        if (popped != null) {
+            release(popped);
+            popped = null;
+        }
+
+        N notice = deleteMin();
+        if (notice != null) {
+            pending[notice.task] = null;
+            --size;
+            popped = notice;
+        }
+        return notice;
+    }
+
+    @Override
+    public final int size() {
+        return size;
+    }
+
+    @Override
+    public final boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void release(@Nonnull N notice) {
+        // handle may be reused by another task once the notice is no longer pending
+        notice.task = TaskTable.NULL;
+        released[releasedSize++] = notice;
+    }
+
+    /**
+     * Create a new notice, fields will be set by the caller.
+     *
+     * @return new notice
+     */
+    protected abstract @Nonnull N newNotice();
+
+    protected abstract void insert(@Nonnull N notice);
+
+    protected abstract void delete(@Nonnull N notice);
+
+    protected abstract @Nullable N findMin();
+
+    protected abstract @Nullable N deleteMin();
+
+}
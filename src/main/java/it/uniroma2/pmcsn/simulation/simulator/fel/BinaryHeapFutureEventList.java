@@ -0,0 +1,122 @@
+package it.uniroma2.pmcsn.simulation.simulator.fel;
+
+import it.uniroma2.pmcsn.simulation.model.TaskTable;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * {@link IFutureEventList} backed by an array-based binary heap.
+ * Each notice knows its position in the heap, so cancellation does not need a search.
+ * Insert, pop and cancel are O(log n).
+ */
+class BinaryHeapFutureEventList extends AbstractFutureEventList<BinaryHeapFutureEventList.HeapNotice> {
+
+    public static final int INITIAL_CAPACITY = 64;
+
+    static final class HeapNotice extends EventNotice {
+
+        // Position in the heap array
+        private int index;
+
+    }
+
+    private HeapNotice[] heap;
+    private int size;
+
+    BinaryHeapFutureEventList(@Nonnull TaskTable taskTable) {
+        super(taskTable);
+        this.heap = new HeapNotice[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    @Override
+    protected @Nonnull HeapNotice newNotice() {
+        return new HeapNotice();
+    }
+
+    @Override
+    protected void insert(@Nonnull HeapNotice notice) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size << 1);
+        }
+        notice.index = size;
+        heap[size++] = notice;
+        siftUp(notice.index);
+    }
+
+    @Override
+    protected void delete(@Nonnull HeapNotice notice) {
+        int index = notice.index;
+        HeapNotice last = heap[--size];
+        heap[size] = null;
+        notice.index = -1;
+        if (last == notice) {
+            return;
+        }
+
+        heap[index] = last;
+        last.index = index;
+        if (index > 0 && EventNotice.compare(last, heap[(index - 1) >>> 1]) < 0) {
+            siftUp(index);
+        } else {
+            siftDown(index);
+        }
+    }
+
+    @Override
+    protected @Nullable HeapNotice findMin() {
+        return size == 0 ? null : heap[0];
+    }
+
+    @Override
+    protected @Nullable HeapNotice deleteMin() {
+        if (size == 0) {
+            return null;
+        }
+
+        HeapNotice min = heap[0];
+        delete(min);
+        return min;
+    }
+
+    private void siftUp(int index) {
+        HeapNotice notice = heap[index];
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            HeapNotice parent = heap[parentIndex];
+            if (EventNotice.compare(notice, parent) >= 0) {
+                break;
+            }
+            heap[index] = parent;
+            parent.index = index;
+            index = parentIndex;
+        }
+        heap[index] = notice;
+        notice.index = index;
+    }
+
+    private void siftDown(int index) {
+        HeapNotice notice = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int childIndex = (index << 1) + 1;
+            HeapNotice child = heap[childIndex];
+            int rightIndex = childIndex + 1;
+            if (rightIndex < size && EventNotice.compare(heap[rightIndex], child) < 0) {
+                childIndex = rightIndex;
+                child = heap[rightIndex];
+            }
+            if (EventNotice.compare(notice, child) <= 0) {
+                break;
+            }
+            heap[index] = child;
+            child.index = index;
+            index = childIndex;
+        }
+        heap[index] = notice;
+        notice.index = index;
+    }
+
+}
@@ -0,0 +1,236 @@
+package it.uniroma2.pmcsn.simulation.simulator.fel;
+
+import it.uniroma2.pmcsn.simulation.model.TaskTable;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * {@link IFutureEventList} backed by a calendar queue (R. Brown, "Calendar queues: a fast O(1) priority
+ * queue implementation for the simulation event set problem", Communications of the ACM, October 1988).
+ *
+ * Time is divided in slots of fixed width, and slot k is stored in bucket (k mod number of buckets),
+ * each bucket being a sorted doubly-linked list. Number of buckets and width are recomputed
+ * when the population doubles or halves, so insert, pop and cancel are O(1) on average.
+ */
+class CalendarQueueFutureEventList extends AbstractFutureEventList<CalendarQueueFutureEventList.CalendarNotice> {
+
+    public static final int MIN_BUCKETS = 2;
+    public static final double DEFAULT_WIDTH = 1.0;
+    // Number of notices sampled to estimate bucket width
+    public static final int WIDTH_SAMPLES = 25;
+
+    static final class CalendarNotice extends EventNotice {
+
+        private CalendarNotice next;
+        private CalendarNotice previous;
+        // Index of the bucket containing this notice
+        private int bucket;
+
+    }
+
+    private CalendarNotice[] buckets;
+    // Width of a slot
+    private double width;
+    // Number of notices in the queue
+    private int size;
+    // Slot currently scanned, all the notices in previous slots have been removed
+    private long currentSlot;
+    // Population thresholds which trigger a resize
+    private int topThreshold;
+    private int bottomThreshold;
+    // Disable resize while the queue is rebuilt
+    private boolean resizeEnabled;
+    // Reusable buffer used to sample notices during resize
+    private final CalendarNotice[] samples = new CalendarNotice[WIDTH_SAMPLES];
+
+    CalendarQueueFutureEventList(@Nonnull TaskTable taskTable) {
+        super(taskTable);
+        this.size = 0;
+        this.resizeEnabled = true;
+        init(MIN_BUCKETS, DEFAULT_WIDTH, 0);
+    }
+
+    private void init(int bucketsNumber, double width, long currentSlot) {
+        this.buckets = new CalendarNotice[bucketsNumber];
+        this.width = width;
+        this.currentSlot = currentSlot;
+        this.topThreshold = 2 * bucketsNumber;
+        this.bottomThreshold = bucketsNumber / 2 - 2;
+    }
+
+    @Override
+    protected @Nonnull CalendarNotice newNotice() {
+        return new CalendarNotice();
+    }
+
+    @Override
+    protected void insert(@Nonnull CalendarNotice notice) {
+        long slot = slotOf(notice.time);
+        if (slot < currentSlot) {
+            currentSlot = slot;
+        }
+
+        int bucket = (int) (slot % buckets.length);
+        notice.bucket = bucket;
+        CalendarNotice head = buckets[bucket];
+        if (head == null || EventNotice.compare(notice, head) < 0) {
+            notice.previous = null;
+            notice.next = head;
+            if (head != null) {
+                head.previous = notice;
+            }
+            buckets[bucket] = notice;
+        } else {
+            CalendarNotice current = head;
+            while (current.next != null && EventNotice.compare(current.next, notice) <= 0) {
+                current = current.next;
+            }
+            notice.previous = current;
+            notice.next = current.next;
+            if (current.next != null) {
+                current.next.previous = notice;
+            }
+            current.next = notice;
+        }
+
+        if (++size > topThreshold && resizeEnabled) {
+            resize(2 * buckets.length);
+        }
+    }
+
+    @Override
+    protected void delete(@Nonnull CalendarNotice notice) {
+        unlink(notice);
+
+        if (--size < bottomThreshold && resizeEnabled) {
+            resize(buckets.length / 2);
+        }
+    }
+
+    @Override
+    protected @Nullable CalendarNotice findMin() {
+        if (size == 0) {
+            return null;
+        }
+
+        // scan a whole year starting from current slot
+        int bucket = (int) (currentSlot % buckets.length);
+        for (int i = 0; i < buckets.length; ++i) {
+            CalendarNotice head = buckets[bucket];
+            if (head != null && slotOf(head.time) == currentSlot + i) {
+                return head;
+            }
+            if (++bucket == buckets.length) {
+                bucket = 0;
+            }
+        }
+
+        // no notice in the current year: direct search among all the buckets
+        CalendarNotice min = null;
+        for (CalendarNotice head : buckets) {
+            if (head != null && (min == null || EventNotice.compare(head, min) < 0)) {
+                min = head;
+            }
+        }
+        return min;
+    }
+
+    @Override
+    protected @Nullable CalendarNotice deleteMin() {
+        CalendarNotice min = findMin();
+        if (min == null) {
+            return null;
+        }
+
+        currentSlot = slotOf(min.time);
+        delete(min);
+        return min;
+    }
+
+    private long slotOf(double time) {
+        return (long) (time / width);
+    }
+
+    private void unlink(@Nonnull CalendarNotice notice) {
+        if (notice.previous == null) {
+            buckets[notice.bucket] = notice.next;
+        } else {
+            notice.previous.next = notice.next;
+        }
+        if (notice.next != null) {
+            notice.next.previous = notice.previous;
+        }
+        notice.next = null;
+        notice.previous = null;
+    }
+
+    /**
+     * Rebuild the calendar with {@param bucketsNumber} buckets and a width estimated
+     * from the separation of the most imminent notices.
+     *
+     * @param bucketsNumber new number of buckets
+     */
+    private void resize(int bucketsNumber) {
+        if (bucketsNumber < MIN_BUCKETS) {
+            return;
+        }
+
+        resizeEnabled = false;
+        double newWidth = computeWidth();
+        CalendarNotice[] oldBuckets = buckets;
+        // current slot must be measured in the new width, which is installed only by init()
+        double currentTime = currentSlot * width;
+        init(bucketsNumber, newWidth, (long) (currentTime / newWidth));
+
+        size = 0;
+        for (CalendarNotice head : oldBuckets) {
+            CalendarNotice notice = head;
+            while (notice != null) {
+                CalendarNotice next = notice.next;
+                insert(notice);
+                notice = next;
+            }
+        }
+        resizeEnabled = true;
+    }
+
+    /**
+     * Estimate width as three times the average separation of the most imminent notices,
+     * ignoring separations greater than twice the average.
+     *
+     * @return new width
+     */
+    private double computeWidth() {
+        int samplesNumber = Math.min(size, WIDTH_SAMPLES);
+        if (samplesNumber < 2) {
+            return width;
+        }
+
+        long savedSlot = currentSlot;
+        for (int i = 0; i < samplesNumber; ++i) {
+            samples[i] = deleteMin();
+        }
+
+        double averageSeparation = (samples[samplesNumber - 1].time - samples[0].time) / (samplesNumber - 1);
+        double separationSum = 0.0;
+        int separationCount = 0;
+        for (int i = 1; i < samplesNumber; ++i) {
+            double separation = samples[i].time - samples[i - 1].time;
+            if (separation < 2.0 * averageSeparation) {
+                separationSum += separation;
+                ++separationCount;
+            }
+        }
+
+        for (int i = 0; i < samplesNumber; ++i) {
+            insert(samples[i]);
+            samples[i] = null;
+        }
+        currentSlot = savedSlot;
+
+        double newWidth = separationCount > 0 ? 3.0 * separationSum / separationCount : 0.0;
+        return newWidth > 0.0 ? newWidth : width;
+    }
+
+}
@@ -0,0 +1,75 @@
+package it.uniroma2.pmcsn.simulation.simulator.fel;
+
+import it.uniroma2.pmcsn.simulation.model.Task;
+import it.uniroma2.pmcsn.simulation.simulator.Event;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Entry of an {@link IFutureEventList}: the {@link Task} which will trigger an event of
+ * type {@link Event.Type} at time instant {@link EventNotice#getTime()}.
+ */
+public class EventNotice {
+
+    // Type of the scheduled event
+    Event.Type type;
+    // Handle of the task associated with the scheduled event
+    int task;
+    // Class of the task, used to break ties
+    int taskClass;
+    // Time instant of the scheduled event
+    double time;
+    // Insertion order, used to break ties between simultaneous events
+    long sequence;
+
+    EventNotice() {
+
+    }
+
+    public @Nonnull Event.Type getType() {
+        return type;
+    }
+
+    /**
+     * @return handle of the {@link Task} in its {@link it.uniroma2.pmcsn.simulation.model.TaskTable}
+     */
+    public int getTask() {
+        return task;
+    }
+
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * Compare two {@link EventNotice}s by time. Simultaneous events are ordered by event type
+     * (offloading requests, then cloudlet completions, then cloud completions), then by task class
+     * and finally by insertion order, so the order of the events is always deterministic.
+     *
+     * @param n1 first notice
+     * @param n2 second notice
+     * @return a negative integer, zero, or a positive integer as the first notice is more,
+     * equally or less imminent than the second
+     */
+    static int compare(@Nonnull EventNotice n1, @Nonnull EventNotice n2) {
+        int result = Double.compare(n1.time, n2.time);
+        if (result != 0) return result;
+        result = Integer.compare(n1.type.ordinal(), n2.type.ordinal());
+        if (result != 0) return result;
+        result = Integer.compare(n1.taskClass, n2.taskClass);
+        if (result != 0) return result;
+        return Long.compare(n1.sequence, n2.sequence);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%s=(type=%s, time=%s, task=%s)",
+                getClass().getSimpleName(),
+                type,
+                time,
+                task
+        );
+    }
+
+}
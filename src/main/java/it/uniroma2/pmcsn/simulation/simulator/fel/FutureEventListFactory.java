@@ -0,0 +1,52 @@
+package it.uniroma2.pmcsn.simulation.simulator.fel;
+
+import com.google.common.base.Preconditions;
+import it.uniroma2.pmcsn.simulation.model.TaskTable;
+
+import javax.annotation.Nonnull;
+
+public class FutureEventListFactory {
+
+    public enum Algorithm {
+
+        BINARY_HEAP,
+        PAIRING_HEAP,
+        CALENDAR_QUEUE;
+
+        public static @Nonnull Algorithm from(@Nonnull String algorithm) {
+            for (Algorithm a : Algorithm.values()) {
+                if (algorithm.equalsIgnoreCase(a.name())) {
+                    return a;
+                }
+            }
+            throw new TypeNotPresentException(algorithm, new Throwable("Selected future event list not yet implemented"));
+        }
+
+    }
+
+    public static @Nonnull IFutureEventList get(@Nonnull String algorithm, @Nonnull TaskTable taskTable) {
+        Preconditions.checkNotNull(algorithm, "Algorithm can not be null");
+
+        return get(Algorithm.from(algorithm), taskTable);
+    }
+
+    public static @Nonnull IFutureEventList get(@Nonnull Algorithm algorithm, @Nonnull TaskTable taskTable) {
+        Preconditions.checkNotNull(algorithm, "Algorithm can not be null");
+        Preconditions.checkNotNull(taskTable, "TaskTable can not be null");
+
+        switch (algorithm) {
+            case BINARY_HEAP:
+                return new BinaryHeapFutureEventList(taskTable);
+
+            case PAIRING_HEAP:
+                return new PairingHeapFutureEventList(taskTable);
+
+            case CALENDAR_QUEUE:
+                return new CalendarQueueFutureEventList(taskTable);
+
+            default:
+                throw new TypeNotPresentException(algorithm.name(), new Throwable("Future event list not yet implemented"));
+        }
+    }
+
+}
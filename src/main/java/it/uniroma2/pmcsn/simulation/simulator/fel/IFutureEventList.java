@@ -0,0 +1,64 @@
+package it.uniroma2.pmcsn.simulation.simulator.fel;
+
+import it.uniroma2.pmcsn.simulation.model.Task;
+import it.uniroma2.pmcsn.simulation.simulator.Event;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Future event list: set of scheduled events ordered by time instant.
+ * Each {@link Task} can have at most one pending event at a time.
+ */
+public interface IFutureEventList {
+
+    /**
+     * Schedule an event of type {@param type} for {@param task} at time instant {@param time}.
+     *
+     * @param type of the event
+     * @param task handle of the task associated with the event
+     * @param time instant of the event
+     * @throws IllegalStateException iif {@param task} has already a pending event
+     */
+    void schedule(@Nonnull Event.Type type, int task, @Nonnegative double time);
+
+    /**
+     * Remove pending event of type {@param type} associated with {@param task}, if present.
+     *
+     * @param type of the event
+     * @param task handle of the task associated with the event
+     * @return {@code true} iif an event has been removed
+     */
+    boolean cancel(@Nonnull Event.Type type, int task);
+
+    /**
+     * Get most imminent event without removing it.
+     *
+     * @return most imminent {@link EventNotice} or null if there are no pending events
+     */
+    @Nullable EventNotice peek();
+
+    /**
+     * Remove and get most imminent event.
+     * Returned notice is owned by the list and may be reused after the next call to this method.
+     *
+     * @return most imminent {@link EventNotice} or null if there are no pending events
+     */
+    @Nullable EventNotice pop();
+
+    /**
+     * Get number of pending events.
+     *
+     * @return number of pending events
+     */
+    int size();
+
+    /**
+     * Check if there are pending events.
+     *
+     * @return {@code true} iif there are no pending events
+     */
+    boolean isEmpty();
+
+}
@@ -0,0 +1,160 @@
+package it.uniroma2.pmcsn.simulation.simulator.fel;
+
+import it.uniroma2.pmcsn.simulation.model.TaskTable;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * {@link IFutureEventList} backed by a two-pass pairing heap.
+ * Insert is O(1), pop and cancel are O(log n) amortized.
+ */
+class PairingHeapFutureEventList extends AbstractFutureEventList<PairingHeapFutureEventList.PairingNotice> {
+
+    public static final int INITIAL_CAPACITY = 64;
+
+    static final class PairingNotice extends EventNotice {
+
+        // Leftmost child
+        private PairingNotice child;
+        // Right sibling
+        private PairingNotice next;
+        // Left sibling or parent, if this notice is the leftmost child
+        private PairingNotice previous;
+
+    }
+
+    private PairingNotice root;
+    // Reusable buffer used while merging siblings
+    private PairingNotice[] siblings;
+
+    PairingHeapFutureEventList(@Nonnull TaskTable taskTable) {
+        super(taskTable);
+        this.root = null;
+        this.siblings = new PairingNotice[INITIAL_CAPACITY];
+    }
+
+    @Override
+    protected @Nonnull PairingNotice newNotice() {
+        return new PairingNotice();
+    }
+
+    @Override
+    protected void insert(@Nonnull PairingNotice notice) {
+        notice.child = null;
+        notice.next = null;
+        notice.previous = null;
+        root = root == null ? notice : link(root, notice);
+    }
+
+    @Override
+    protected void delete(@Nonnull PairingNotice notice) {
+        if (notice == root) {
+            deleteMin();
+            return;
+        }
+
+        // detach subtree rooted in notice
+        if (notice.previous.child == notice) {
+            notice.previous.child = notice.next;
+        } else {
+            notice.previous.next = notice.next;
+        }
+        if (notice.next != null) {
+            notice.next.previous = notice.previous;
+        }
+        notice.next = null;
+        notice.previous = null;
+
+        // merge children of notice and put them back into the heap
+        PairingNotice subtree = mergeSiblings(notice.child);
+        notice.child = null;
+        if (subtree != null) {
+            root = link(root, subtree);
+        }
+    }
+
+    @Override
+    protected @Nullable PairingNotice findMin() {
+        return root;
+    }
+
+    @Override
+    protected @Nullable PairingNotice deleteMin() {
+        if (root == null) {
+            return null;
+        }
+
+        PairingNotice min = root;
+        root = mergeSiblings(min.child);
+        min.child = null;
+        return min;
+    }
+
+    /**
+     * Link two heap-ordered trees, the root with the greatest notice becomes
+     * the leftmost child of the other.
+     *
+     * @return root of the resulting tree
+     */
+    private @Nonnull PairingNotice link(@Nonnull PairingNotice first, @Nonnull PairingNotice second) {
+        if (EventNotice.compare(second, first) < 0) {
+            PairingNotice tmp = first;
+            first = second;
+            second = tmp;
+        }
+
+        second.previous = first;
+        second.next = first.child;
+        if (first.child != null) {
+            first.child.previous = second;
+        }
+        first.child = second;
+        first.next = null;
+        first.previous = null;
+        return first;
+    }
+
+    /**
+     * Merge a list of siblings using two passes: first left to right linking pairs,
+     * then right to left linking the results.
+     *
+     * @param first leftmost sibling
+     * @return root of the resulting tree
+     */
+    private @Nullable PairingNotice mergeSiblings(@Nullable PairingNotice first) {
+        if (first == null) {
+            return null;
+        }
+
+        int count = 0;
+        for (PairingNotice sibling = first; sibling != null; ) {
+            if (count == siblings.length) {
+                siblings = Arrays.copyOf(siblings, count << 1);
+            }
+            PairingNotice next = sibling.next;
+            sibling.next = null;
+            sibling.previous = null;
+            siblings[count++] = sibling;
+            sibling = next;
+        }
+
+        int pairs = 0;
+        for (int i = 0; i + 1 < count; i += 2) {
+            siblings[pairs++] = link(siblings[i], siblings[i + 1]);
+        }
+        if ((count & 1) == 1) {
+            siblings[pairs++] = siblings[count - 1];
+        }
+
+        PairingNotice result = siblings[pairs - 1];
+        for (int i = pairs - 2; i >= 0; --i) {
+            result = link(siblings[i], result);
+        }
+
+        Arrays.fill(siblings, 0, count, null);
+        return result;
+    }
+
+}
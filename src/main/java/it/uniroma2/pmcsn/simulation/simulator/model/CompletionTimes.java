@@ -0,0 +1,80 @@
+package it.uniroma2.pmcsn.simulation.simulator.model;
+
+import java.util.Arrays;
+
+/**
+ * Completion times of tasks whose service is not memoryless, as a binary min-heap of primitive values.
+ */
+public final class CompletionTimes {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private double[] heap = new double[INITIAL_CAPACITY];
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return earliest completion time or {@link Double#POSITIVE_INFINITY} if there are no completions
+     */
+    public double peek() {
+        return size > 0 ? heap[0] : Double.POSITIVE_INFINITY;
+    }
+
+    public void add(double completion) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size << 1);
+        }
+        // sift up
+        int child = size++;
+        while (child > 0) {
+            int parent = (child - 1) >>> 1;
+            if (heap[parent] <= completion) {
+                break;
+            }
+            heap[child] = heap[parent];
+            child = parent;
+        }
+        heap[child] = completion;
+    }
+
+    /**
+     * Remove earliest completion time.
+     *
+     * @return removed completion time
+     */
+    public double poll() {
+        if (size == 0) {
+            throw new IllegalStateException("There are no completions");
+        }
+
+        double first = heap[0];
+        double last = heap[--size];
+        // sift down
+        int parent = 0;
+        int child;
+        while ((child = 2 * parent + 1) < size) {
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                ++child;
+            }
+            if (last <= heap[child]) {
+                break;
+            }
+            heap[parent] = heap[child];
+            parent = child;
+        }
+        heap[parent] = last;
+        return first;
+    }
+
+}
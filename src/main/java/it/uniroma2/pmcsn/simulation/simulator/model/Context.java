@@ -2,13 +2,16 @@ package it.uniroma2.pmcsn.simulation.simulator.model;
 
 import com.google.common.base.Preconditions;
 import it.uniroma2.pmcsn.simulation.mobile_set.MobileSet;
+import it.uniroma2.pmcsn.simulation.model.TaskTable;
 import it.uniroma2.pmcsn.simulation.simulator.Clock;
+import it.uniroma2.pmcsn.simulation.simulator.fel.IFutureEventList;
 import it.uniroma2.pmcsn.simulation.simulator.statistics.Statistics;
 import it.uniroma2.pmcsn.simulation.system.cloud.Cloud;
 import it.uniroma2.pmcsn.simulation.system.cloudlet.Cloudlet;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 public final class Context {
 
@@ -19,10 +22,23 @@ public final class Context {
     private final Cloudlet cloudlet;
     private final Cloud cloud;
     private final Clock clock;
+    private final IFutureEventList futureEventList;
+    private final TaskTable taskTable;
+    // Tasks of each component in the initial state, indexed as in StationaryDistribution,
+    //  null to start from an empty system
+    private final int[] initialState;
 
     public Context(@Nonnull Statistics statistics, @Nonnegative double start,
                    @Nonnegative double stop, @Nonnull MobileSet mobileSet,
-                   Cloudlet cloudlet, Cloud cloud, Clock clock) {
+                   Cloudlet cloudlet, Cloud cloud, Clock clock, IFutureEventList futureEventList,
+                   TaskTable taskTable) {
+        this(statistics, start, stop, mobileSet, cloudlet, cloud, clock, futureEventList, taskTable, null);
+    }
+
+    public Context(@Nonnull Statistics statistics, @Nonnegative double start,
+                   @Nonnegative double stop, @Nonnull MobileSet mobileSet,
+                   Cloudlet cloudlet, Cloud cloud, Clock clock, IFutureEventList futureEventList,
+                   TaskTable taskTable, @Nullable int[] initialState) {
         Preconditions.checkNotNull(statistics, "Statistics object can not be null (current: %s)", statistics);
         Preconditions.checkArgument(
                 start >= 0 && start < Double.MAX_VALUE,
@@ -48,6 +64,8 @@ public final class Context {
         Preconditions.checkNotNull(cloudlet, "Cloudlet can not be null (current: %s)", cloudlet);
         Preconditions.checkNotNull(cloud, "Cloud can not be null (current: %s)", cloud);
         Preconditions.checkNotNull(clock, "Clock can not be null (current: %s)", clock);
+        Preconditions.checkNotNull(futureEventList, "FutureEventList can not be null (current: %s)", futureEventList);
+        Preconditions.checkNotNull(taskTable, "TaskTable can not be null (current: %s)", taskTable);
 
         this.statistics = statistics;
         this.start = start;
@@ -56,6 +74,9 @@ public final class Context {
         this.cloudlet = cloudlet;
         this.cloud = cloud;
         this.clock = clock;
+        this.futureEventList = futureEventList;
+        this.taskTable = taskTable;
+        this.initialState = initialState;
     }
 
     public Statistics getStatistics() {
@@ -86,6 +107,18 @@ public final class Context {
         return clock;
     }
 
+    public IFutureEventList getFutureEventList() {
+        return futureEventList;
+    }
+
+    public TaskTable getTaskTable() {
+        return taskTable;
+    }
+
+    public @Nullable int[] getInitialState() {
+        return initialState;
+    }
+
     public static class ContextBuilder {
 
         private final Statistics statistics;
@@ -95,9 +128,13 @@ public final class Context {
         private final Cloudlet cloudlet;
         private final Cloud cloud;
         private final Clock clock;
+        private final IFutureEventList futureEventList;
+        private final TaskTable taskTable;
+        private int[] initialState;
 
-        public ContextBuilder(Statistics statistics, double start, double stop,
-                              MobileSet mobileSet, Cloudlet cloudlet, Cloud cloud, Clock clock) {
+        public ContextBuilder(Statistics statistics, double start, double stop, MobileSet mobileSet,
+                              Cloudlet cloudlet, Cloud cloud, Clock clock, IFutureEventList futureEventList,
+                              TaskTable taskTable) {
             this.statistics = statistics;
             this.start = start;
             this.stop = stop;
@@ -105,11 +142,19 @@ public final class Context {
             this.cloudlet = cloudlet;
             this.cloud = cloud;
             this.clock = clock;
+            this.futureEventList = futureEventList;
+            this.taskTable = taskTable;
+            this.initialState = null;
         }
 
         public Context build() {
             return new Context(statistics, start, stop, mobileSet,
-                    cloudlet, cloud, clock);
+                    cloudlet, cloud, clock, futureEventList, taskTable, initialState);
+        }
+
+        public ContextBuilder initialState(int[] initialState) {
+            this.initialState = initialState;
+            return this;
         }
 
         @FunctionalInterface
@@ -144,12 +189,22 @@ public final class Context {
 
         @FunctionalInterface
         public interface ClockBuilder {
-            ContextBuilder clock(Clock clock);
+            FutureEventListBuilder clock(Clock clock);
+        }
+
+        @FunctionalInterface
+        public interface FutureEventListBuilder {
+            TaskTableBuilder futureEventList(IFutureEventList futureEventList);
+        }
+
+        @FunctionalInterface
+        public interface TaskTableBuilder {
+            ContextBuilder taskTable(TaskTable taskTable);
         }
 
         public static StatisticsBuilder builder() {
-            return statistics -> start -> stop -> mobileSet -> cloudlet -> cloud -> clock ->
-                    new ContextBuilder(statistics, start, stop, mobileSet, cloudlet, cloud, clock);
+            return statistics -> start -> stop -> mobileSet -> cloudlet -> cloud -> clock -> futureEventList -> taskTable ->
+                    new ContextBuilder(statistics, start, stop, mobileSet, cloudlet, cloud, clock, futureEventList, taskTable);
         }
 
     }
@@ -1,12 +1,13 @@
 package it.uniroma2.pmcsn.simulation.simulator.statistics;
 
 import com.google.common.base.Preconditions;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.series.BatchSeriesFactory;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.series.BufferBatchSeries;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.series.IBatchSeries;
 import it.uniroma2.pmcsn.util.random.Rvms;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
-import java.util.ArrayList;
-import java.util.List;
 
 public class BatchMeansStatistics extends Statistics {
 
@@ -14,51 +15,49 @@ public class BatchMeansStatistics extends Statistics {
 
     public static final long BATCH_SIZE = 10000;
     public static final double LEVEL_OF_CONFIDENCE = 0.95;
+    // Min number of batches before evaluating truncation point of initial transient
+    public static final long MIN_WARM_UP_BATCHES = 20 * WarmUpDetector.BLOCK_SIZE;
 
     // Library to evaluate pdf, cdf and idf for a variety of discrete and
     //  continuous random variables
     private final Rvms rvms;
-    // Batch size
-    private final long batchSize;
+    // Batch size, doubled while batch means are correlated in adaptive mode
+    private long batchSize;
     // Alpha value for level of confidence
     private final double levelOfConfidence;
 
+    // Batch values of the metrics selected for the run
+    private final MetricRegistry metricRegistry;
+    // Rule to stop the run once estimates are precise enough
+    private final StoppingRule stoppingRule;
+
     // Batch counter
     private long batchCounter = 1;
-
-    // Batch values
-    private final List<Double> systemResponseTime = new ArrayList<>();
-    private final List<Double> systemC1ResponseTime = new ArrayList<>();
-    private final List<Double> systemC2ResponseTime = new ArrayList<>();
-    private final List<Double> cletResponseTime = new ArrayList<>();
-    private final List<Double> cletC1ResponseTime = new ArrayList<>();
-    private final List<Double> cletC2ResponseTime = new ArrayList<>();
-    private final List<Double> cloudResponseTime = new ArrayList<>();
-    private final List<Double> cloudC1ResponseTime = new ArrayList<>();
-    private final List<Double> cloudC2ResponseTime = new ArrayList<>();
-
-    private final List<Double> systemThroughput = new ArrayList<>();
-    private final List<Double> systemC1Throughput = new ArrayList<>();
-    private final List<Double> systemC2Throughput = new ArrayList<>();
-    private final List<Double> cletThroughput = new ArrayList<>();
-    private final List<Double> cletC1Throughput = new ArrayList<>();
-    private final List<Double> cletC2Throughput = new ArrayList<>();
-    private final List<Double> cloudThroughput = new ArrayList<>();
-    private final List<Double> cloudC1Throughput = new ArrayList<>();
-    private final List<Double> cloudC2Throughput = new ArrayList<>();
-
-    private final List<Double> systemPopulation = new ArrayList<>();
-    private final List<Double> systemC1Population = new ArrayList<>();
-    private final List<Double> systemC2Population = new ArrayList<>();
-    private final List<Double> cletPopulation = new ArrayList<>();
-    private final List<Double> cletC1Population = new ArrayList<>();
-    private final List<Double> cletC2Population = new ArrayList<>();
-    private final List<Double> cloudPopulation = new ArrayList<>();
-    private final List<Double> cloudC1Population = new ArrayList<>();
-    private final List<Double> cloudC2Population = new ArrayList<>();
-
-    private final List<Double> c2InterruptedResponseTime = new ArrayList<>();
-    private final List<Double> c2InterruptedFraction = new ArrayList<>();
+    // Number of completed batches
+    private long batches = 0;
+    // Set when the stopping rule is satisfied
+    private boolean stopRequested = false;
+
+    // Number of batches on which autocorrelation is tested, 0 if batch size is fixed
+    private final int adaptiveBatches;
+    // Metrics whose batch means are tested for initial transient and autocorrelation
+    private final Metric[] diagnosticMetrics;
+    // Number of batches of next autocorrelation test
+    private long nextTest;
+    // Set when batch means were not correlated at last test, always set if batch size is fixed
+    private boolean batchSizeAccepted;
+    // Max lag-1 autocorrelation of the batch means at last test
+    private double autocorrelation = Double.NaN;
+
+    // Detector of initial transient, null if warm-up is not deleted
+    private final WarmUpDetector warmUpDetector;
+    // Number of batches of next truncation point evaluation
+    private long nextWarmUpTest = MIN_WARM_UP_BATCHES;
+    // Set once warm-up has been deleted, always set if warm-up is not deleted
+    private boolean warmUpDeleted;
+    // Deleted batches and events of the initial transient
+    private long warmUpBatches = 0;
+    private long warmUpEvents = 0;
 
     public BatchMeansStatistics() {
         this(BATCH_SIZE, LEVEL_OF_CONFIDENCE);
@@ -69,6 +68,37 @@ public class BatchMeansStatistics extends Statistics {
     }
 
     public BatchMeansStatistics(long batchSize, double levelOfConfidence, Rvms rvms) {
+        this(batchSize, levelOfConfidence, rvms, new MetricRegistry(), StoppingRule.NONE, 0, false);
+    }
+
+    public BatchMeansStatistics(long batchSize, double levelOfConfidence, @Nonnull MetricRegistry metricRegistry,
+                                @Nonnull StoppingRule stoppingRule) {
+        this(batchSize, levelOfConfidence, new Rvms(), metricRegistry, stoppingRule, 0, false);
+    }
+
+    public BatchMeansStatistics(long batchSize, double levelOfConfidence, @Nonnull MetricRegistry metricRegistry,
+                                @Nonnull StoppingRule stoppingRule, @Nonnegative int adaptiveBatches,
+                                boolean warmUpDetection) {
+        this(batchSize, levelOfConfidence, new Rvms(), metricRegistry, stoppingRule, adaptiveBatches, warmUpDetection);
+    }
+
+    /**
+     * With {@param adaptiveBatches} > 0, {@param batchSize} is the initial batch size: once
+     * {@param adaptiveBatches} batches have been completed, if lag-1 autocorrelation of the batch means
+     * is significant, adjacent batches are merged and the batch size doubled, otherwise batch size is accepted.
+     * The test is repeated each time the number of batches doubles, as in LBatch method.
+     *
+     * With {@param warmUpDetection}, initial batches are deleted up to the truncation point found by
+     * {@link WarmUpDetector}, evaluated after {@link #MIN_WARM_UP_BATCHES} batches and then each time
+     * the number of batches doubles, until it falls in the first half of the run. Batch size is not
+     * changed and the run is not stopped before warm-up has been deleted.
+     *
+     * Initial transient and autocorrelation are tested on the metrics of {@param stoppingRule},
+     * or on every registered metric if the rule has none.
+     */
+    public BatchMeansStatistics(long batchSize, double levelOfConfidence, Rvms rvms,
+                                @Nonnull MetricRegistry metricRegistry, @Nonnull StoppingRule stoppingRule,
+                                @Nonnegative int adaptiveBatches, boolean warmUpDetection) {
         super();
 
         Preconditions.checkArgument(batchSize > 0, "BatchSize must be > 0 (current: %s)", batchSize);
@@ -77,10 +107,131 @@ public class BatchMeansStatistics extends Statistics {
                 "LevelOfConfidence must be in range (0.0, 1.0) (current: %s)",
                 levelOfConfidence
         );
+        Preconditions.checkNotNull(metricRegistry, "MetricRegistry can not be null (current: %s)", metricRegistry);
+        Preconditions.checkNotNull(stoppingRule, "StoppingRule can not be null (current: %s)", stoppingRule);
+        for (Metric metric : stoppingRule.getMetrics()) {
+            Preconditions.checkArgument(
+                    metricRegistry.contains(metric),
+                    "Metrics of StoppingRule must be registered (current: %s)",
+                    metric
+            );
+        }
+        Preconditions.checkArgument(
+                adaptiveBatches == 0 || adaptiveBatches >= 4 && adaptiveBatches % 2 == 0,
+                "AdaptiveBatches must be 0 or an even number >= 4 (current: %s)",
+                adaptiveBatches
+        );
+        Preconditions.checkArgument(
+                adaptiveBatches == 0 || metricRegistry.getAlgorithm() == BatchSeriesFactory.Algorithm.BUFFER,
+                "Adaptive batch size requires %s batch series (current: %s)",
+                BatchSeriesFactory.Algorithm.BUFFER,
+                metricRegistry.getAlgorithm()
+        );
+        Preconditions.checkArgument(
+                !warmUpDetection || metricRegistry.getAlgorithm() == BatchSeriesFactory.Algorithm.BUFFER,
+                "Warm-up detection requires %s batch series (current: %s)",
+                BatchSeriesFactory.Algorithm.BUFFER,
+                metricRegistry.getAlgorithm()
+        );
 
         this.batchSize = batchSize;
         this.levelOfConfidence = levelOfConfidence;
         this.rvms = rvms;
+        this.metricRegistry = metricRegistry;
+        this.stoppingRule = stoppingRule;
+        this.adaptiveBatches = adaptiveBatches;
+        this.diagnosticMetrics = stoppingRule.getMetricsCount() > 0 ?
+                stoppingRule.getMetrics() :
+                metricRegistry.getMetrics();
+        this.nextTest = adaptiveBatches;
+        this.batchSizeAccepted = adaptiveBatches == 0;
+        this.warmUpDetector = warmUpDetection ? new WarmUpDetector(diagnosticMetrics) : null;
+        this.warmUpDeleted = !warmUpDetection;
+    }
+
+    public @Nonnull MetricRegistry getMetricRegistry() {
+        return metricRegistry;
+    }
+
+    public @Nonnull StoppingRule getStoppingRule() {
+        return stoppingRule;
+    }
+
+    /**
+     * @return number of completed batches, of current batch size
+     */
+    public long getBatches() {
+        return batches;
+    }
+
+    /**
+     * @return current batch size, in events
+     */
+    public long getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @return {@code true} iif initial transient has been deleted, or it is not detected
+     */
+    public boolean isWarmUpDeleted() {
+        return warmUpDeleted;
+    }
+
+    /**
+     * @return number of deleted batches of the initial transient
+     */
+    public long getWarmUpBatches() {
+        return warmUpBatches;
+    }
+
+    /**
+     * @return number of deleted events of the initial transient
+     */
+    public long getWarmUpEvents() {
+        return warmUpEvents;
+    }
+
+    public boolean isAdaptiveBatchSize() {
+        return adaptiveBatches > 0;
+    }
+
+    /**
+     * @return {@code true} iif batch means are not correlated, or batch size is fixed
+     */
+    public boolean isBatchSizeAccepted() {
+        return batchSizeAccepted;
+    }
+
+    @Override
+    public boolean isStopRequested() {
+        return stopRequested;
+    }
+
+    /**
+     * Get mean of the batch means of a registered {@param metric}.
+     *
+     * @param metric registered metric
+     * @return mean of the batch means
+     */
+    public double getMean(@Nonnull Metric metric) {
+        return metricRegistry.getSeries(metric).getMean();
+    }
+
+    /**
+     * Get half width of the confidence interval of a registered {@param metric},
+     * at level {@link #levelOfConfidence}.
+     *
+     * @param metric registered metric
+     * @return interval half width or {@link Double#NaN} if less than 2 batches have been completed
+     */
+    public double getHalfWidth(@Nonnull Metric metric) {
+        IBatchSeries series = metricRegistry.getSeries(metric);
+        if (series.getCount() < 2) {
+            return Double.NaN;
+        }
+
+        return computeHalfWidth(series.getStandardDeviation(), series.getCount());
     }
 
     @Override
@@ -97,175 +248,121 @@ public class BatchMeansStatistics extends Statistics {
             batchCounter = 1;
             // compute statistics for current batch mean
             addBatch();
+            if (!warmUpDeleted) {
+                updateWarmUp();
+            }
+            // transient makes batch means look correlated
+            if (warmUpDeleted && isAdaptiveBatchSize()) {
+                updateBatchSize();
+            }
+            // check stopping rule before the statistics of the batch are lost
+            updateStoppingRule();
             // reset variables in order to compute new batch mean
             resetStatistics();
         }
     }
 
     private void addBatch() {
-        // Update system response time
-        systemResponseTime.add(getSystemResponseTime());
-        systemC1ResponseTime.add(getSystemC1ResponseTime());
-        systemC2ResponseTime.add(getSystemC2ResponseTime());
-
-        // Update cloudlet response time
-        cletResponseTime.add(getCletResponseTime());
-        cletC1ResponseTime.add(getCletC1ResponseTime());
-        cletC2ResponseTime.add(getCletC2ResponseTime());
-
-        // Update cloud response time
-        cloudResponseTime.add(getCloudResponseTime());
-        cloudC1ResponseTime.add(getCloudC1ResponseTime());
-        cloudC2ResponseTime.add(getCloudC2ResponseTime());
-
-        // Update system throughput
-        systemThroughput.add(getSystemThroughput());
-        systemC1Throughput.add(getSystemC1Throughput());
-        systemC2Throughput.add(getSystemC2Throughput());
-
-        // Update cloudlet throughput
-        cletThroughput.add(getCletThroughput());
-        cletC1Throughput.add(getCletC1Throughput());
-        cletC2Throughput.add(getCletC2Throughput());
-
-        // Update cloud throughput
-        cloudThroughput.add(getCloudThroughput());
-        cloudC1Throughput.add(getCloudC1Throughput());
-        cloudC2Throughput.add(getCloudC2Throughput());
-
-        // Update system population
-        systemPopulation.add(getSystemPopulation());
-        systemC1Population.add(getSystemC1Population());
-        systemC2Population.add(getSystemC2Population());
-
-        // Update cloudlet population
-        cletPopulation.add(getCletPopulation());
-        cletC1Population.add(getCletC1Population());
-        cletC2Population.add(getCletC2Population());
-
-        // Update cloud population
-        cloudPopulation.add(getCloudPopulation());
-        cloudC1Population.add(getCloudC1Population());
-        cloudC2Population.add(getCloudC2Population());
-
-        // Update class 2 interrupted tasks response time
-        c2InterruptedResponseTime.add(getC2InterruptedResponseTime());
-        // Update percentage interrupted class 2 tasks
-        c2InterruptedFraction.add(getC2InterruptedFraction());
+        metricRegistry.addBatch(this);
+        ++batches;
+    }
+
+    private void updateWarmUp() {
+        warmUpDetector.add(this);
+        if (batches < nextWarmUpTest) {
+            return;
+        }
+
+        long truncation = warmUpDetector.getTruncation();
+        if (truncation < 0) {
+            // run is still too short to tell the transient apart
+            nextWarmUpTest = 2 * batches;
+            return;
+        }
+
+        // delete batches of the initial transient
+        metricRegistry.truncate((int) truncation);
+        batches -= truncation;
+        warmUpBatches = truncation;
+        warmUpEvents = truncation * batchSize;
+        warmUpDeleted = true;
+    }
+
+    private void updateBatchSize() {
+        // test is repeated each time the number of batches doubles, since its power grows with it
+        if (batches < nextTest) {
+            return;
+        }
+
+        // under independence, lag-1 autocorrelation of k batch means is approximately
+        //  normal with mean 0 and variance 1/k
+        double u = 1.0 - 1.0 / 2.0 * (1.0 - levelOfConfidence);
+        double criticalValue = rvms.idfStandard(u) / Math.sqrt(batches);
+        autocorrelation = 0.0;
+        for (Metric metric : diagnosticMetrics) {
+            double r = ((BufferBatchSeries) metricRegistry.getSeries(metric)).getLag1Autocorrelation();
+            // constant series have no correlation
+            if (!Double.isNaN(r)) {
+                autocorrelation = Math.max(autocorrelation, Math.abs(r));
+            }
+        }
+
+        batchSizeAccepted = autocorrelation <= criticalValue;
+        if (batchSizeAccepted) {
+            nextTest = 2 * batches;
+        } else {
+            // merge adjacent batches, doubling batch size
+            metricRegistry.merge();
+            batches /= 2;
+            batchSize *= 2;
+            nextTest = Math.max(adaptiveBatches, 2 * batches);
+        }
     }
 
-    private @Nonnull double[] computeBatchMeansFrom(@Nonnull List<Double> batchList) {
-        Preconditions.checkNotNull(batchList, "BatchList can not be null (current: %s)", batchList);
-
-        // Calculate the mean and the standard deviation of all the batch means
-        // One pass Welford algorithm is used
-        double mean = 0.0;
-        double standardDeviation;
-        double difference;
-        double sum = 0.0;
-        int index = 0;
-
-        for (Double value : batchList) {
-            ++index;
-            difference = value - mean;
-            sum += difference * difference * (index - 1.0) / index;
-            mean += difference / index;
+    private void updateStoppingRule() {
+        // estimates are checked only once batch means are not correlated
+        boolean precise = warmUpDeleted && batchSizeAccepted && stoppingRule.getMetricsCount() > 0 &&
+                batches >= stoppingRule.getMinBatches();
+        // skip critical value computation once an estimate is not precise enough
+        for (int i = 0; precise && i < stoppingRule.getMetricsCount(); ++i) {
+            Metric metric = stoppingRule.getMetric(i);
+            precise = stoppingRule.isPrecise(getMean(metric), getHalfWidth(metric));
         }
-        standardDeviation = Math.sqrt(sum / index);
 
-        // level of confidence obtained from configuration file
+        stopRequested = precise || batches >= stoppingRule.getMaxBatches();
+    }
 
+    private double computeHalfWidth(double standardDeviation, long batches) {
         // compute critical value and the interval endpoints
         // interval parameter: 1 - 1/2 * alpha, with alpha = 1.0 - levelOfConfidence
         double u = 1.0 - 1.0 / 2.0 * (1.0 - levelOfConfidence);
         // compute critical value of T
-        double criticalValue = rvms.idfStudent(batchList.size() - 1, u);
+        double criticalValue = rvms.idfStudent(batches - 1, u);
         // interval half width
-        double intervalWidth = criticalValue * standardDeviation / Math.sqrt(batchList.size() - 1);
-
-        return new double[]{mean, intervalWidth};
+        return criticalValue * standardDeviation / Math.sqrt(batches - 1);
     }
 
     @Override
     public String toString() {
-        double[] systemResponseTime = computeBatchMeansFrom(this.systemResponseTime);
-        double[] systemC1ResponseTime = computeBatchMeansFrom(this.systemC1ResponseTime);
-        double[] systemC2ResponseTime = computeBatchMeansFrom(this.systemC2ResponseTime);
-        double[] cletResponseTime = computeBatchMeansFrom(this.cletResponseTime);
-        double[] cletC1ResponseTime = computeBatchMeansFrom(this.cletC1ResponseTime);
-        double[] cletC2ResponseTime = computeBatchMeansFrom(this.cletC2ResponseTime);
-        double[] cloudResponseTime = computeBatchMeansFrom(this.cloudResponseTime);
-        double[] cloudC1ResponseTime = computeBatchMeansFrom(this.cloudC1ResponseTime);
-        double[] cloudC2ResponseTime = computeBatchMeansFrom(this.cloudC2ResponseTime);
-
-        double[] systemThroughput = computeBatchMeansFrom(this.systemThroughput);
-        double[] systemC1Throughput = computeBatchMeansFrom(this.systemC1Throughput);
-        double[] systemC2Throughput = computeBatchMeansFrom(this.systemC2Throughput);
-        double[] cletThroughput = computeBatchMeansFrom(this.cletThroughput);
-        double[] cletC1Throughput = computeBatchMeansFrom(this.cletC1Throughput);
-        double[] cletC2Throughput = computeBatchMeansFrom(this.cletC2Throughput);
-        double[] cloudThroughput = computeBatchMeansFrom(this.cloudThroughput);
-        double[] cloudC1Throughput = computeBatchMeansFrom(this.cloudC1Throughput);
-        double[] cloudC2Throughput = computeBatchMeansFrom(this.cloudC2Throughput);
-
-        double[] systemPopulation = computeBatchMeansFrom(this.systemPopulation);
-        double[] systemC1Population = computeBatchMeansFrom(this.systemC1Population);
-        double[] systemC2Population = computeBatchMeansFrom(this.systemC2Population);
-        double[] cletPopulation = computeBatchMeansFrom(this.cletPopulation);
-        double[] cletC1Population = computeBatchMeansFrom(this.cletC1Population);
-        double[] cletC2Population = computeBatchMeansFrom(this.cletC2Population);
-        double[] cloudPopulation = computeBatchMeansFrom(this.cloudPopulation);
-        double[] cloudC1Population = computeBatchMeansFrom(this.cloudC1Population);
-        double[] cloudC2Population = computeBatchMeansFrom(this.cloudC2Population);
-
-        double[] c2InterruptedResponseTime = computeBatchMeansFrom(this.c2InterruptedResponseTime);
-        double[] c2InterruptedPercentage = computeBatchMeansFrom(this.c2InterruptedFraction);
-
         return generateTitle("Simulation statistics", "#", 5, 3, 0) +
                 String.format(H_TEMPLATE, "Values obtained using batch means method with level of confidence of " + PER.format(levelOfConfidence * 100) + " [%]") +
+                (isAdaptiveBatchSize() ?
+                        String.format(
+                                H_TEMPLATE,
+                                "Batch size " + batchSize + " events, " + batches + " batches, lag-1 autocorrelation " +
+                                        DF.format(autocorrelation) + (batchSizeAccepted ? "" : " (not accepted, still significant)")
+                        ) :
+                        "") +
+                (warmUpDetector != null ?
+                        String.format(
+                                H_TEMPLATE,
+                                warmUpDeleted ?
+                                        "Warm-up of " + warmUpBatches + " batches (" + warmUpEvents + " events) deleted by MSER-5" :
+                                        "Warm-up not deleted, truncation point not in the first half of the run"
+                        ) :
+                        "") +
                 NL +
-                String.format(H_TEMPLATE, "Response time") +
-                String.format(P_TEMPLATE, "Average global response time", DF.format(systemResponseTime[0]), DF.format(systemResponseTime[1]), "s") +
-                String.format(P_TEMPLATE, "Average global response time tasks class 1", DF.format(systemC1ResponseTime[0]), DF.format(systemC1ResponseTime[1]), "s") +
-                String.format(P_TEMPLATE, "Average global response time tasks class 2", DF.format(systemC2ResponseTime[0]), DF.format(systemC2ResponseTime[1]), "s") +
-                NL +
-                String.format(P_TEMPLATE, "Average cloudlet response time", DF.format(cletResponseTime[0]), DF.format(cletResponseTime[1]), "s") +
-                String.format(P_TEMPLATE, "Average cloudlet response time tasks class 1", DF.format(cletC1ResponseTime[0]), DF.format(cletC1ResponseTime[1]), "s") +
-                String.format(P_TEMPLATE, "Average cloudlet response time tasks class 2", DF.format(cletC2ResponseTime[0]), DF.format(cletC2ResponseTime[1]), "s") +
-                NL +
-                String.format(P_TEMPLATE, "Average cloud response time", DF.format(cloudResponseTime[0]), DF.format(cloudResponseTime[1]), "s") +
-                String.format(P_TEMPLATE, "Average cloud response time tasks class 1", DF.format(cloudC1ResponseTime[0]), DF.format(cloudC1ResponseTime[1]), "s") +
-                String.format(P_TEMPLATE, "Average cloud response time tasks class 2", DF.format(cloudC2ResponseTime[0]), DF.format(cloudC2ResponseTime[1]), "s") +
-                NL +
-                String.format(H_TEMPLATE, "Throughput") +
-                String.format(P_TEMPLATE, "Average global throughput", DF.format(systemThroughput[0]), DF.format(systemThroughput[1]), "task/s") +
-                String.format(P_TEMPLATE, "Average global throughput tasks class 1", DF.format(systemC1Throughput[0]), DF.format(systemC1Throughput[1]), "task/s") +
-                String.format(P_TEMPLATE, "Average global throughput tasks class 2", DF.format(systemC2Throughput[0]), DF.format(systemC2Throughput[1]), "task/s") +
-                NL +
-                String.format(P_TEMPLATE, "Average cloudlet throughput", DF.format(cletThroughput[0]), DF.format(cletThroughput[1]), "task/s") +
-                String.format(P_TEMPLATE, "Average cloudlet throughput tasks class 1", DF.format(cletC1Throughput[0]), DF.format(cletC1Throughput[1]), "task/s") +
-                String.format(P_TEMPLATE, "Average cloudlet throughput tasks class 2", DF.format(cletC2Throughput[0]), DF.format(cletC2Throughput[1]), "task/s") +
-                NL +
-                String.format(P_TEMPLATE, "Average cloud throughput", DF.format(cloudThroughput[0]), DF.format(cloudThroughput[1]), "task/s") +
-                String.format(P_TEMPLATE, "Average cloud throughput tasks class 1", DF.format(cloudC1Throughput[0]), DF.format(cloudC1Throughput[1]), "task/s") +
-                String.format(P_TEMPLATE, "Average cloud throughput tasks class 2", DF.format(cloudC2Throughput[0]), DF.format(cloudC2Throughput[1]), "task/s") +
-                NL +
-                String.format(H_TEMPLATE, "Population") +
-                String.format(P_TEMPLATE, "Average global population", DF.format(systemPopulation[0]), DF.format(systemPopulation[1]), "task") +
-                String.format(P_TEMPLATE, "Average global population tasks class 1", DF.format(systemC1Population[0]), DF.format(systemC1Population[1]), "task") +
-                String.format(P_TEMPLATE, "Average global population tasks class 2", DF.format(systemC2Population[0]), DF.format(systemC2Population[1]), "task") +
-                NL +
-                String.format(P_TEMPLATE, "Average cloudlet population", DF.format(cletPopulation[0]), DF.format(cletPopulation[1]), "task") +
-                String.format(P_TEMPLATE, "Average cloudlet population tasks class 1", DF.format(cletC1Population[0]), DF.format(cletC1Population[1]), "task") +
-                String.format(P_TEMPLATE, "Average cloudlet population tasks class 2", DF.format(cletC2Population[0]), DF.format(cletC2Population[1]), "task") +
-                NL +
-                String.format(P_TEMPLATE, "Average cloud population", DF.format(cloudPopulation[0]), DF.format(cloudPopulation[1]), "task") +
-                String.format(P_TEMPLATE, "Average cloud population tasks class 1", DF.format(cloudC1Population[0]), DF.format(cloudC1Population[1]), "task") +
-                String.format(P_TEMPLATE, "Average cloud population tasks class 2", DF.format(cloudC2Population[0]), DF.format(cloudC2Population[1]), "task") +
-                NL +
-                String.format(H_TEMPLATE, "Others") +
-                String.format(P_TEMPLATE, "Average response time interrupted tasks class 2", DF.format(c2InterruptedResponseTime[0]), DF.format(c2InterruptedResponseTime[1]), "s") +
-                String.format(P_TEMPLATE, "Percentage of class 2 interrupted tasks", PER.format(getPercentageFrom(c2InterruptedPercentage[0])), PER.format(getPercentageFrom(c2InterruptedPercentage[1])), "%");
+                formatEstimates(metricRegistry.getMetrics(), this::getMean, this::getHalfWidth);
     }
 
 }
@@ -0,0 +1,73 @@
+package it.uniroma2.pmcsn.simulation.simulator.statistics;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnull;
+
+import static it.uniroma2.pmcsn.simulation.simulator.statistics.Statistics.NL;
+
+/**
+ * Estimates of two systems simulated by paired replications, and of the differences of their metrics.
+ *
+ * Replication r of both systems uses the same streams, so the difference of their values in
+ * replication r is an observation of the difference of the means: with common random numbers the
+ * two values are positively correlated and the variance of the difference is less than the sum of
+ * their variances. A difference is significant at the level of confidence iif its interval does not contain 0.
+ */
+public class ComparisonStatistics {
+
+    private final String firstName;
+    private final String secondName;
+    private final ReplicationStatistics first;
+    private final ReplicationStatistics second;
+    private final ReplicationStatistics difference;
+
+    public ComparisonStatistics(@Nonnull String firstName, @Nonnull String secondName,
+                                @Nonnull ReplicationStatistics first, @Nonnull ReplicationStatistics second,
+                                @Nonnull ReplicationStatistics difference) {
+        Preconditions.checkNotNull(firstName, "FirstName can not be null (current: %s)", firstName);
+        Preconditions.checkNotNull(secondName, "SecondName can not be null (current: %s)", secondName);
+        Preconditions.checkNotNull(first, "First can not be null (current: %s)", first);
+        Preconditions.checkNotNull(second, "Second can not be null (current: %s)", second);
+        Preconditions.checkNotNull(difference, "Difference can not be null (current: %s)", difference);
+
+        this.firstName = firstName;
+        this.secondName = secondName;
+        this.first = first;
+        this.second = second;
+        this.difference = difference;
+    }
+
+    public ReplicationStatistics getFirst() {
+        return first;
+    }
+
+    public ReplicationStatistics getSecond() {
+        return second;
+    }
+
+    /**
+     * @return estimates of the differences between metrics of the first and the second system
+     */
+    public ReplicationStatistics getDifference() {
+        return difference;
+    }
+
+    /**
+     * @param metric to compare
+     * @return true iif the confidence interval of the difference of {@param metric} does not contain 0
+     */
+    public boolean isSignificant(@Nonnull Metric metric) {
+        return Math.abs(difference.getMean(metric)) > difference.getHalfWidth(metric);
+    }
+
+    @Override
+    public String toString() {
+        return first.toString("Simulation statistics of " + firstName) +
+                NL + NL +
+                second.toString("Simulation statistics of " + secondName) +
+                NL + NL +
+                difference.toString("Paired differences (" + firstName + ") - (" + secondName + ")");
+    }
+
+}
@@ -0,0 +1,154 @@
+package it.uniroma2.pmcsn.simulation.simulator.statistics;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Metrics estimated by {@link Statistics}, in the order they are reported.
+ */
+public enum Metric {
+
+    SYSTEM_RESPONSE_TIME(Section.RESPONSE_TIME, Group.SYSTEM, "Average global response time", "s", Statistics::getSystemResponseTime),
+    SYSTEM_C1_RESPONSE_TIME(Section.RESPONSE_TIME, Group.SYSTEM, "Average global response time tasks class 1", "s", Statistics::getSystemC1ResponseTime),
+    SYSTEM_C2_RESPONSE_TIME(Section.RESPONSE_TIME, Group.SYSTEM, "Average global response time tasks class 2", "s", Statistics::getSystemC2ResponseTime),
+    CLET_RESPONSE_TIME(Section.RESPONSE_TIME, Group.CLOUDLET, "Average cloudlet response time", "s", Statistics::getCletResponseTime),
+    CLET_C1_RESPONSE_TIME(Section.RESPONSE_TIME, Group.CLOUDLET, "Average cloudlet response time tasks class 1", "s", Statistics::getCletC1ResponseTime),
+    CLET_C2_RESPONSE_TIME(Section.RESPONSE_TIME, Group.CLOUDLET, "Average cloudlet response time tasks class 2", "s", Statistics::getCletC2ResponseTime),
+    CLOUD_RESPONSE_TIME(Section.RESPONSE_TIME, Group.CLOUD, "Average cloud response time", "s", Statistics::getCloudResponseTime),
+    CLOUD_C1_RESPONSE_TIME(Section.RESPONSE_TIME, Group.CLOUD, "Average cloud response time tasks class 1", "s", Statistics::getCloudC1ResponseTime),
+    CLOUD_C2_RESPONSE_TIME(Section.RESPONSE_TIME, Group.CLOUD, "Average cloud response time tasks class 2", "s", Statistics::getCloudC2ResponseTime),
+
+    SYSTEM_THROUGHPUT(Section.THROUGHPUT, Group.SYSTEM, "Average global throughput", "task/s", Statistics::getSystemThroughput),
+    SYSTEM_C1_THROUGHPUT(Section.THROUGHPUT, Group.SYSTEM, "Average global throughput tasks class 1", "task/s", Statistics::getSystemC1Throughput),
+    SYSTEM_C2_THROUGHPUT(Section.THROUGHPUT, Group.SYSTEM, "Average global throughput tasks class 2", "task/s", Statistics::getSystemC2Throughput),
+    CLET_THROUGHPUT(Section.THROUGHPUT, Group.CLOUDLET, "Average cloudlet throughput", "task/s", Statistics::getCletThroughput),
+    CLET_C1_THROUGHPUT(Section.THROUGHPUT, Group.CLOUDLET, "Average cloudlet throughput tasks class 1", "task/s", Statistics::getCletC1Throughput),
+    CLET_C2_THROUGHPUT(Section.THROUGHPUT, Group.CLOUDLET, "Average cloudlet throughput tasks class 2", "task/s", Statistics::getCletC2Throughput),
+    CLOUD_THROUGHPUT(Section.THROUGHPUT, Group.CLOUD, "Average cloud throughput", "task/s", Statistics::getCloudThroughput),
+    CLOUD_C1_THROUGHPUT(Section.THROUGHPUT, Group.CLOUD, "Average cloud throughput tasks class 1", "task/s", Statistics::getCloudC1Throughput),
+    CLOUD_C2_THROUGHPUT(Section.THROUGHPUT, Group.CLOUD, "Average cloud throughput tasks class 2", "task/s", Statistics::getCloudC2Throughput),
+
+    SYSTEM_POPULATION(Section.POPULATION, Group.SYSTEM, "Average global population", "task", Statistics::getSystemPopulation),
+    SYSTEM_C1_POPULATION(Section.POPULATION, Group.SYSTEM, "Average global population tasks class 1", "task", Statistics::getSystemC1Population),
+    SYSTEM_C2_POPULATION(Section.POPULATION, Group.SYSTEM, "Average global population tasks class 2", "task", Statistics::getSystemC2Population),
+    CLET_POPULATION(Section.POPULATION, Group.CLOUDLET, "Average cloudlet population", "task", Statistics::getCletPopulation),
+    CLET_C1_POPULATION(Section.POPULATION, Group.CLOUDLET, "Average cloudlet population tasks class 1", "task", Statistics::getCletC1Population),
+    CLET_C2_POPULATION(Section.POPULATION, Group.CLOUDLET, "Average cloudlet population tasks class 2", "task", Statistics::getCletC2Population),
+    CLOUD_POPULATION(Section.POPULATION, Group.CLOUD, "Average cloud population", "task", Statistics::getCloudPopulation),
+    CLOUD_C1_POPULATION(Section.POPULATION, Group.CLOUD, "Average cloud population tasks class 1", "task", Statistics::getCloudC1Population),
+    CLOUD_C2_POPULATION(Section.POPULATION, Group.CLOUD, "Average cloud population tasks class 2", "task", Statistics::getCloudC2Population),
+
+    C2_INTERRUPTED_RESPONSE_TIME(Section.OTHERS, Group.OTHERS, "Average response time interrupted tasks class 2", "s", Statistics::getC2InterruptedResponseTime),
+    C2_INTERRUPTED_FRACTION(Section.OTHERS, Group.OTHERS, "Percentage of class 2 interrupted tasks", "%", Statistics::getC2InterruptedFraction);
+
+    public enum Section {
+
+        RESPONSE_TIME("Response time"),
+        THROUGHPUT("Throughput"),
+        POPULATION("Population"),
+        OTHERS("Others");
+
+        private final String title;
+
+        Section(@Nonnull String title) {
+            this.title = title;
+        }
+
+        public @Nonnull String getTitle() {
+            return title;
+        }
+
+    }
+
+    // Metrics of the same group are reported together, inside a section
+    public enum Group {
+
+        SYSTEM,
+        CLOUDLET,
+        CLOUD,
+        OTHERS
+
+    }
+
+    private final Section section;
+    private final Group group;
+    private final String description;
+    private final String unit;
+    private final ToDoubleFunction<Statistics> getter;
+
+    Metric(@Nonnull Section section, @Nonnull Group group, @Nonnull String description, @Nonnull String unit,
+           @Nonnull ToDoubleFunction<Statistics> getter) {
+        this.section = section;
+        this.group = group;
+        this.description = description;
+        this.unit = unit;
+        this.getter = getter;
+    }
+
+    public static @Nonnull Metric from(@Nonnull String metric) {
+        for (Metric m : Metric.values()) {
+            if (metric.equalsIgnoreCase(m.name())) {
+                return m;
+            }
+        }
+        throw new TypeNotPresentException(metric, new Throwable("Selected metric not yet implemented"));
+    }
+
+    /**
+     * Parse a comma separated list of metric names.
+     *
+     * @param metrics comma separated names
+     * @param defaultMetrics returned if {@param metrics} is empty
+     * @return parsed metrics
+     */
+    public static @Nonnull Metric[] fromList(@Nonnull String metrics, @Nonnull Metric[] defaultMetrics) {
+        Preconditions.checkNotNull(metrics, "Metrics can not be null (current: %s)", metrics);
+        Preconditions.checkNotNull(defaultMetrics, "DefaultMetrics can not be null (current: %s)", (Object) defaultMetrics);
+
+        Metric[] parsed = Arrays.stream(metrics.split(","))
+                .map(String::trim)
+                .filter(m -> !m.isEmpty())
+                .map(Metric::from)
+                .toArray(Metric[]::new);
+        return parsed.length > 0 ? parsed : defaultMetrics.clone();
+    }
+
+    public @Nonnull Section getSection() {
+        return section;
+    }
+
+    public @Nonnull Group getGroup() {
+        return group;
+    }
+
+    public @Nonnull String getDescription() {
+        return description;
+    }
+
+    public @Nonnull String getUnit() {
+        return unit;
+    }
+
+    /**
+     * Metrics expressed as fraction are reported as percentage.
+     *
+     * @return {@code true} iif the metric is a fraction
+     */
+    public boolean isPercentage() {
+        return "%".equals(unit);
+    }
+
+    /**
+     * Get current value of this metric from {@param statistics}.
+     *
+     * @param statistics from which to read the value
+     * @return value of the metric
+     */
+    public double valueOf(@Nonnull Statistics statistics) {
+        return getter.applyAsDouble(statistics);
+    }
+
+}
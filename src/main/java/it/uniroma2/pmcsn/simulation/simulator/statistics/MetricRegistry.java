@@ -0,0 +1,129 @@
+package it.uniroma2.pmcsn.simulation.simulator.statistics;
+
+import com.google.common.base.Preconditions;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.series.BatchSeriesFactory;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.series.BufferBatchSeries;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.series.IBatchSeries;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+
+/**
+ * Batch series of the {@link Metric}s selected for a run.
+ *
+ * Only registered metrics are read from {@link Statistics} at batch boundaries,
+ * the others cost neither memory nor time.
+ */
+public class MetricRegistry {
+
+    private static final Metric[] METRICS = Metric.values();
+
+    // Type of batch series
+    private final BatchSeriesFactory.Algorithm algorithm;
+    // Registered metrics, in report order
+    private final Metric[] metrics;
+    // Series of registered metrics, indexed by ordinal, null for not registered ones
+    private final IBatchSeries[] series = new IBatchSeries[METRICS.length];
+
+    public MetricRegistry() {
+        this(BatchSeriesFactory.Algorithm.WELFORD);
+    }
+
+    public MetricRegistry(@Nonnull BatchSeriesFactory.Algorithm algorithm) {
+        this(algorithm, METRICS);
+    }
+
+    public MetricRegistry(@Nonnull BatchSeriesFactory.Algorithm algorithm, @Nonnull Metric... metrics) {
+        Preconditions.checkNotNull(algorithm, "Algorithm can not be null (current: %s)", algorithm);
+        Preconditions.checkNotNull(metrics, "Metrics can not be null (current: %s)", (Object) metrics);
+
+        this.algorithm = algorithm;
+        for (Metric metric : metrics) {
+            Preconditions.checkNotNull(metric, "Metric can not be null (current: %s)", metric);
+            if (series[metric.ordinal()] == null) {
+                series[metric.ordinal()] = BatchSeriesFactory.get(algorithm);
+            }
+        }
+        this.metrics = Arrays.stream(METRICS)
+                .filter(m -> series[m.ordinal()] != null)
+                .toArray(Metric[]::new);
+    }
+
+    /**
+     * Add current value of each registered metric as a batch mean.
+     *
+     * @param statistics of the completed batch
+     */
+    public void addBatch(@Nonnull Statistics statistics) {
+        for (Metric metric : metrics) {
+            series[metric.ordinal()].add(metric.valueOf(statistics));
+        }
+    }
+
+    /**
+     * Merge adjacent batches of each registered metric, doubling the batch size.
+     *
+     * @throws IllegalStateException iif batch series do not retain batch means
+     * @see BufferBatchSeries#merge()
+     */
+    public void merge() {
+        checkBuffer();
+
+        for (Metric metric : metrics) {
+            ((BufferBatchSeries) series[metric.ordinal()]).merge();
+        }
+    }
+
+    /**
+     * Delete first batches of each registered metric.
+     *
+     * @param count number of batches to delete
+     * @throws IllegalStateException iif batch series do not retain batch means
+     * @see BufferBatchSeries#truncate(int)
+     */
+    public void truncate(int count) {
+        checkBuffer();
+
+        for (Metric metric : metrics) {
+            ((BufferBatchSeries) series[metric.ordinal()]).truncate(count);
+        }
+    }
+
+    private void checkBuffer() {
+        Preconditions.checkState(
+                algorithm == BatchSeriesFactory.Algorithm.BUFFER,
+                "Batches can be modified only with %s series (current: %s)",
+                BatchSeriesFactory.Algorithm.BUFFER,
+                algorithm
+        );
+    }
+
+    public @Nonnull BatchSeriesFactory.Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public boolean contains(@Nonnull Metric metric) {
+        return series[metric.ordinal()] != null;
+    }
+
+    /**
+     * @return registered metrics, in report order
+     */
+    public @Nonnull Metric[] getMetrics() {
+        return metrics.clone();
+    }
+
+    /**
+     * Get the batch series of a registered metric.
+     *
+     * @param metric registered metric
+     * @return series of batch means
+     * @throws IllegalArgumentException iif {@param metric} is not registered
+     */
+    public @Nonnull IBatchSeries getSeries(@Nonnull Metric metric) {
+        Preconditions.checkArgument(contains(metric), "Metric not registered (current: %s)", metric);
+
+        return series[metric.ordinal()];
+    }
+
+}
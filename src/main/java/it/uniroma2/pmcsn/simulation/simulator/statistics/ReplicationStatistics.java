@@ -0,0 +1,317 @@
+package it.uniroma2.pmcsn.simulation.simulator.statistics;
+
+import com.google.common.base.Preconditions;
+import it.uniroma2.pmcsn.util.random.Rvms;
+
+import javax.annotation.Nonnull;
+
+import static it.uniroma2.pmcsn.simulation.simulator.statistics.Statistics.*;
+
+/**
+ * Estimates of each {@link Metric} across independent replications.
+ *
+ * The {@link Statistics} of each replication are reduced online, one pass Welford algorithm,
+ * so results of the replications are not retained. Values are added in replication order,
+ * so estimates do not depend on how replications are scheduled.
+ *
+ * A replication may be a group of correlated runs, e.g. a pair of antithetic runs, reduced as the mean
+ * of their values, or the difference between the values of two systems simulated with common random numbers.
+ *
+ * With control variates, estimates are adjusted by the regression of each metric on the arrivals of each
+ * class, whose expected values are known: the adjusted mean is the mean of the metric minus the regression
+ * coefficients times the error of the mean arrivals, and its confidence interval has one degree of freedom
+ * less for each control (Lavenberg and Welch, 1981).
+ */
+public class ReplicationStatistics {
+
+    public static final double LEVEL_OF_CONFIDENCE = 0.95;
+    // Controls are the arrivals of each class
+    public static final int CONTROLS = 2;
+
+    private static final Metric[] METRICS = Metric.values();
+    private static final double[] NO_CONTROLS = new double[0];
+
+    // Library to evaluate pdf, cdf and idf for a variety of discrete and
+    //  continuous random variables
+    private final Rvms rvms;
+    // Alpha value for level of confidence
+    private final double levelOfConfidence;
+    // Expected value of each control in a replication, empty without control variates
+    private final double[] controlMeans;
+
+    // Number of reduced replications
+    private long replications = 0;
+    // Running mean of each metric, indexed by ordinal
+    private final double[] mean = new double[METRICS.length];
+    // Running sum of squared differences from the mean of each metric, indexed by ordinal
+    private final double[] sum = new double[METRICS.length];
+    // Running mean of each control
+    private final double[] controlMean;
+    // Running sum of products of differences from the means of two controls
+    private final double[][] controlSum;
+    // Running sum of products of differences from the means of a metric and a control
+    private final double[][] crossSum;
+
+    public ReplicationStatistics() {
+        this(LEVEL_OF_CONFIDENCE);
+    }
+
+    public ReplicationStatistics(double levelOfConfidence) {
+        this(levelOfConfidence, new Rvms());
+    }
+
+    public ReplicationStatistics(double levelOfConfidence, @Nonnull Rvms rvms) {
+        this(levelOfConfidence, NO_CONTROLS, rvms);
+    }
+
+    public ReplicationStatistics(double levelOfConfidence, @Nonnull double[] controlMeans) {
+        this(levelOfConfidence, controlMeans, new Rvms());
+    }
+
+    /**
+     * @param levelOfConfidence of confidence intervals
+     * @param controlMeans expected arrivals of each class in a replication, empty without control variates
+     * @param rvms to compute critical values
+     */
+    public ReplicationStatistics(double levelOfConfidence, @Nonnull double[] controlMeans, @Nonnull Rvms rvms) {
+        Preconditions.checkArgument(
+                levelOfConfidence > 0.0 && levelOfConfidence < 1.0,
+                "LevelOfConfidence must be in range (0.0, 1.0) (current: %s)",
+                levelOfConfidence
+        );
+        Preconditions.checkNotNull(controlMeans, "ControlMeans can not be null (current: %s)", (Object) controlMeans);
+        Preconditions.checkArgument(
+                controlMeans.length == 0 || controlMeans.length == CONTROLS,
+                "ControlMeans must be empty or have %s values (current: %s)",
+                CONTROLS,
+                controlMeans.length
+        );
+        Preconditions.checkNotNull(rvms, "Rvms can not be null (current: %s)", rvms);
+
+        this.levelOfConfidence = levelOfConfidence;
+        this.controlMeans = controlMeans.clone();
+        this.rvms = rvms;
+        this.controlMean = new double[controlMeans.length];
+        this.controlSum = new double[controlMeans.length][controlMeans.length];
+        this.crossSum = new double[METRICS.length][controlMeans.length];
+    }
+
+    /**
+     * Reduce the estimates of a replication.
+     *
+     * @param statistics of a completed replication
+     */
+    public void add(@Nonnull Statistics statistics) {
+        Preconditions.checkNotNull(statistics, "Statistics can not be null (current: %s)", statistics);
+
+        add(valuesOf(statistics), controlsOf(statistics));
+    }
+
+    /**
+     * Reduce a replication given its values.
+     *
+     * @param values of each metric, indexed by ordinal
+     * @param controls arrivals of each class, indexed by ordinal
+     */
+    public void add(@Nonnull double[] values, @Nonnull double[] controls) {
+        Preconditions.checkArgument(values.length == METRICS.length, "Values must have %s elements (current: %s)", METRICS.length, values.length);
+        Preconditions.checkArgument(controls.length == CONTROLS, "Controls must have %s elements (current: %s)", CONTROLS, controls.length);
+
+        ++replications;
+        // co-moments are updated with differences from the previous and the updated mean
+        double[] controlDifference = new double[controlMean.length];
+        for (int i = 0; i < controlMean.length; ++i) {
+            controlDifference[i] = controls[i] - controlMean[i];
+            controlMean[i] += controlDifference[i] / replications;
+        }
+        for (int i = 0; i < controlMean.length; ++i) {
+            for (int j = 0; j < controlMean.length; ++j) {
+                controlSum[i][j] += controlDifference[i] * (controls[j] - controlMean[j]);
+            }
+        }
+        for (Metric metric : METRICS) {
+            int index = metric.ordinal();
+            double difference = values[index] - mean[index];
+            sum[index] += difference * difference * (replications - 1.0) / replications;
+            mean[index] += difference / replications;
+            for (int j = 0; j < controlMean.length; ++j) {
+                crossSum[index][j] += difference * (controls[j] - controlMean[j]);
+            }
+        }
+    }
+
+    /**
+     * Get values of each metric, averaged over correlated runs.
+     *
+     * @param statistics of the runs of a replication
+     * @return mean value of each metric, indexed by ordinal
+     */
+    public static @Nonnull double[] valuesOf(@Nonnull Statistics... statistics) {
+        Preconditions.checkArgument(statistics.length > 0, "Statistics must be not empty (current: %s)", statistics.length);
+
+        double[] values = new double[METRICS.length];
+        for (Statistics s : statistics) {
+            for (Metric metric : METRICS) {
+                values[metric.ordinal()] += metric.valueOf(s) / statistics.length;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Get arrivals of each class, averaged over correlated runs.
+     *
+     * @param statistics of the runs of a replication
+     * @return mean arrivals of each class, indexed by ordinal
+     */
+    public static @Nonnull double[] controlsOf(@Nonnull Statistics... statistics) {
+        Preconditions.checkArgument(statistics.length > 0, "Statistics must be not empty (current: %s)", statistics.length);
+
+        double[] controls = new double[CONTROLS];
+        for (Statistics s : statistics) {
+            controls[0] += (double) s.getC1Arrivals() / statistics.length;
+            controls[1] += (double) s.getC2Arrivals() / statistics.length;
+        }
+        return controls;
+    }
+
+    public long getReplications() {
+        return replications;
+    }
+
+    public double getLevelOfConfidence() {
+        return levelOfConfidence;
+    }
+
+    public boolean isControlVariates() {
+        return controlMeans.length > 0;
+    }
+
+    public double getMean(@Nonnull Metric metric) {
+        Preconditions.checkNotNull(metric, "Metric can not be null (current: %s)", metric);
+
+        if (!isControlVariates() || replications <= controlMeans.length + 1) {
+            return mean[metric.ordinal()];
+        }
+
+        double[] coefficients = getCoefficients(metric);
+        double adjusted = mean[metric.ordinal()];
+        for (int j = 0; j < controlMeans.length; ++j) {
+            adjusted -= coefficients[j] * (controlMean[j] - controlMeans[j]);
+        }
+        return adjusted;
+    }
+
+    /**
+     * Get half width of the confidence interval of {@param metric}, at level {@link #getLevelOfConfidence()}.
+     *
+     * @param metric to estimate
+     * @return interval half width or {@link Double#NaN} if less than 2 replications, plus one for each control,
+     * have been reduced
+     */
+    public double getHalfWidth(@Nonnull Metric metric) {
+        Preconditions.checkNotNull(metric, "Metric can not be null (current: %s)", metric);
+
+        int index = metric.ordinal();
+        long degrees = replications - 1 - controlMeans.length;
+        if (degrees < 1) {
+            return Double.NaN;
+        }
+
+        // interval parameter: 1 - 1/2 * alpha, with alpha = 1.0 - levelOfConfidence
+        double u = 1.0 - 1.0 / 2.0 * (1.0 - levelOfConfidence);
+        // compute critical value of T
+        double criticalValue = rvms.idfStudent(degrees, u);
+        if (!isControlVariates()) {
+            double standardDeviation = Math.sqrt(sum[index] / replications);
+            return criticalValue * standardDeviation / Math.sqrt(replications - 1);
+        }
+
+        // residual variance of the regression and variance factor of the error of the mean controls
+        double[] coefficients = getCoefficients(metric);
+        double residual = sum[index];
+        double[] error = new double[controlMeans.length];
+        for (int j = 0; j < controlMeans.length; ++j) {
+            residual -= coefficients[j] * crossSum[index][j];
+            error[j] = controlMean[j] - controlMeans[j];
+        }
+        double[] scaledError = solve(controlSum, error);
+        double factor = 1.0 / replications;
+        for (int j = 0; j < controlMeans.length; ++j) {
+            factor += error[j] * scaledError[j];
+        }
+        return criticalValue * Math.sqrt(Math.max(0.0, residual) / degrees * factor);
+    }
+
+    /**
+     * @param metric to estimate
+     * @return coefficients of the regression of {@param metric} on the controls
+     */
+    private @Nonnull double[] getCoefficients(@Nonnull Metric metric) {
+        return solve(controlSum, crossSum[metric.ordinal()]);
+    }
+
+    /**
+     * Solve the symmetric system {@param a} x = {@param b} by Gaussian elimination. Controls without variance,
+     * e.g. arrivals of a class which never arrives, get a null coefficient.
+     *
+     * @param a positive semi-definite matrix
+     * @param b known terms
+     * @return solution x
+     */
+    private static @Nonnull double[] solve(@Nonnull double[][] a, @Nonnull double[] b) {
+        int n = b.length;
+        double[][] m = new double[n][];
+        for (int i = 0; i < n; ++i) {
+            m[i] = a[i].clone();
+        }
+        double[] x = b.clone();
+        boolean[] singular = new boolean[n];
+        for (int k = 0; k < n; ++k) {
+            if (m[k][k] <= 1e-12 * Math.max(1.0, Math.abs(a[k][k]))) {
+                singular[k] = true;
+                continue;
+            }
+            for (int i = k + 1; i < n; ++i) {
+                double factor = m[i][k] / m[k][k];
+                for (int j = k; j < n; ++j) {
+                    m[i][j] -= factor * m[k][j];
+                }
+                x[i] -= factor * x[k];
+            }
+        }
+        for (int k = n - 1; k >= 0; --k) {
+            if (singular[k]) {
+                x[k] = 0.0;
+                continue;
+            }
+            for (int j = k + 1; j < n; ++j) {
+                x[k] -= m[k][j] * x[j];
+            }
+            x[k] /= m[k][k];
+        }
+        return x;
+    }
+
+    /**
+     * @param title of the estimates
+     * @return estimates formatted as {@link #toString()}, with title {@param title}
+     */
+    public @Nonnull String toString(@Nonnull String title) {
+        return generateTitle(title, "#", 5, 3, 0) +
+                String.format(
+                        H_TEMPLATE,
+                        "Values obtained using " + replications + " replications with level of confidence of " +
+                                PER.format(levelOfConfidence * 100) + " [%]"
+                ) +
+                (isControlVariates() ? String.format(H_TEMPLATE, "Values adjusted by control variates on arrivals of each class") : "") +
+                NL +
+                formatEstimates(METRICS, this::getMean, this::getHalfWidth);
+    }
+
+    @Override
+    public String toString() {
+        return toString("Simulation statistics");
+    }
+
+}
@@ -6,6 +6,7 @@ import it.uniroma2.pmcsn.simulation.model.Task;
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import java.text.DecimalFormat;
+import java.util.function.ToDoubleFunction;
 
 public class Statistics {
 
@@ -37,6 +38,11 @@ public class Statistics {
     // Completion class 1 tasks on cloudlet
     protected long tasksC2CloudCompletion;
 
+    // Arrivals of class 1 tasks
+    protected long tasksC1Arrival;
+    // Arrivals of class 2 tasks
+    protected long tasksC2Arrival;
+
     // Total class 2 interrupted tasks response time
     protected double tasksC2InterruptedResponseTime;
     // Number of class 2 interrupted tasks on cloudlet
@@ -59,12 +65,18 @@ public class Statistics {
         tasksC1CloudCompletion = 0;
         tasksC2CloudCompletion = 0;
 
+        tasksC1Arrival = 0;
+        tasksC2Arrival = 0;
+
         tasksC2InterruptedResponseTime = 0.0;
         tasksC2CletInterrupted = 0;
     }
 
     public void updateTime(@Nonnegative double increment) {
-        Preconditions.checkArgument(increment >= 0, "Increment must be >= 0 (current: %s)", increment);
+        // explicit check, to avoid boxing the argument on each event
+        if (increment < 0) {
+            throw new IllegalArgumentException(String.format("Increment must be >= 0 (current: %s)", increment));
+        }
 
         time += increment;
     }
@@ -72,7 +84,9 @@ public class Statistics {
     public void updateArea(@Nonnegative double deltaTime, @Nonnegative long c1CletPopulation,
                            @Nonnegative long c2CletPopulation, @Nonnegative long c1CloudPopulation,
                            @Nonnegative long c2CloudPopulation) {
-        Preconditions.checkArgument(deltaTime >= 0, "Increment must be >= 0 (current: %s)", deltaTime);
+        if (deltaTime < 0) {
+            throw new IllegalArgumentException(String.format("Increment must be >= 0 (current: %s)", deltaTime));
+        }
         Preconditions.checkArgument(c1CletPopulation >= 0, "C1CletPopulation must be >= 0 (current: %s)", c1CletPopulation);
         Preconditions.checkArgument(c2CletPopulation >= 0, "C2CletPopulation must be >= 0 (current: %s)", c2CletPopulation);
         Preconditions.checkArgument(c1CloudPopulation >= 0, "C1CloudPopulation must be >= 0 (current: %s)", c1CloudPopulation);
@@ -84,11 +98,43 @@ public class Statistics {
         updateC2CloudArea(deltaTime, c2CloudPopulation);
     }
 
+    /**
+     * Update areas with the mean populations over {@param deltaTime}, for engines which do not
+     * track each change of population.
+     *
+     * @param deltaTime time elapsed
+     * @param c1CletPopulation mean class 1 tasks on cloudlet
+     * @param c2CletPopulation mean class 2 tasks on cloudlet
+     * @param c1CloudPopulation mean class 1 tasks on cloud
+     * @param c2CloudPopulation mean class 2 tasks on cloud
+     */
+    public void updateMeanArea(@Nonnegative double deltaTime, @Nonnegative double c1CletPopulation,
+                               @Nonnegative double c2CletPopulation, @Nonnegative double c1CloudPopulation,
+                               @Nonnegative double c2CloudPopulation) {
+        if (deltaTime < 0) {
+            throw new IllegalArgumentException(String.format("Increment must be >= 0 (current: %s)", deltaTime));
+        }
+        Preconditions.checkArgument(c1CletPopulation >= 0, "C1CletPopulation must be >= 0 (current: %s)", c1CletPopulation);
+        Preconditions.checkArgument(c2CletPopulation >= 0, "C2CletPopulation must be >= 0 (current: %s)", c2CletPopulation);
+        Preconditions.checkArgument(c1CloudPopulation >= 0, "C1CloudPopulation must be >= 0 (current: %s)", c1CloudPopulation);
+        Preconditions.checkArgument(c2CloudPopulation >= 0, "C2CloudPopulation must be >= 0 (current: %s)", c2CloudPopulation);
+
+        tasksC1CletArea += deltaTime * c1CletPopulation;
+        tasksC2CletArea += deltaTime * c2CletPopulation;
+        tasksC1CloudArea += deltaTime * c1CloudPopulation;
+        tasksC2CloudArea += deltaTime * c2CloudPopulation;
+    }
+
     public void updateCletCompletion(@Nonnull Task task) {
         Preconditions.checkNotNull(task, "Task can not be null (current: %s)", task);
 
-        Task.Class taskClass = task.getTaskClass();
-        switch (task.getTaskClass()) {
+        updateCletCompletion(task.getTaskClass());
+    }
+
+    public void updateCletCompletion(@Nonnull Task.Class taskClass) {
+        Preconditions.checkNotNull(taskClass, "TaskClass can not be null (current: %s)", taskClass);
+
+        switch (taskClass) {
             case CLASS1:
                 this.tasksC1CletCompletion += 1;
                 break;
@@ -108,14 +154,53 @@ public class Statistics {
     public void updateCloudCompletion(@Nonnull Task task) {
         Preconditions.checkNotNull(task, "Task can not be null (current: %s)", task);
 
-        Task.Class taskClass = task.getTaskClass();
+        updateCloudCompletion(task.getTaskClass());
+    }
+
+    public void updateCloudCompletion(@Nonnull Task.Class taskClass) {
+        updateCloudCompletion(taskClass, 1);
+    }
+
+    public void updateCloudCompletion(@Nonnull Task.Class taskClass, @Nonnegative long completions) {
+        Preconditions.checkNotNull(taskClass, "TaskClass can not be null (current: %s)", taskClass);
+        if (completions < 0) {
+            throw new IllegalArgumentException(String.format("Completions must be >= 0 (current: %s)", completions));
+        }
+
+        switch (taskClass) {
+            case CLASS1:
+                this.tasksC1CloudCompletion += completions;
+                break;
+
+            case CLASS2:
+                this.tasksC2CloudCompletion += completions;
+                break;
+
+            default:
+                throw new TypeNotPresentException(
+                        taskClass.name(),
+                        new Throwable("Type not supported for statistical purpose")
+                );
+        }
+    }
+
+    public void updateArrival(@Nonnull Task.Class taskClass) {
+        updateArrival(taskClass, 1);
+    }
+
+    public void updateArrival(@Nonnull Task.Class taskClass, @Nonnegative long arrivals) {
+        Preconditions.checkNotNull(taskClass, "TaskClass can not be null (current: %s)", taskClass);
+        if (arrivals < 0) {
+            throw new IllegalArgumentException(String.format("Arrivals must be >= 0 (current: %s)", arrivals));
+        }
+
         switch (taskClass) {
             case CLASS1:
-                this.tasksC1CloudCompletion += 1;
+                this.tasksC1Arrival += arrivals;
                 break;
 
             case CLASS2:
-                this.tasksC2CloudCompletion += 1;
+                this.tasksC2Arrival += arrivals;
                 break;
 
             default:
@@ -139,14 +224,43 @@ public class Statistics {
      * @param deltaResponseTime response time of class 2 interrupted task
      */
     public void updateCletInterrupted(@Nonnegative double deltaArea, @Nonnegative double deltaResponseTime) {
-        Preconditions.checkArgument(deltaArea >= 0, "DeltaArea must be >= 0 (current: %s)", deltaArea);
-        Preconditions.checkArgument(deltaResponseTime >= 0, "DeltaResponseTime must be >= 0 (current: %s)", deltaResponseTime);
+        if (deltaArea < 0) {
+            throw new IllegalArgumentException(String.format("DeltaArea must be >= 0 (current: %s)", deltaArea));
+        }
+        if (deltaResponseTime < 0) {
+            throw new IllegalArgumentException(String.format("DeltaResponseTime must be >= 0 (current: %s)", deltaResponseTime));
+        }
 
         tasksC2CletInterrupted += 1;
         tasksC2CletArea -= deltaArea;
         tasksC2InterruptedResponseTime += deltaResponseTime;
     }
 
+    /**
+     * Add areas and counters of {@param statistics}, collected on another part of the system over the same time,
+     * so that metrics are the ones of the whole system: populations and throughputs are summed and response
+     * times are weighted by completions. Simulation time is the latest one.
+     *
+     * @param statistics of another part of the system
+     */
+    public void merge(@Nonnull Statistics statistics) {
+        Preconditions.checkNotNull(statistics, "Statistics can not be null (current: %s)", statistics);
+
+        time = Math.max(time, statistics.time);
+        tasksC1CletArea += statistics.tasksC1CletArea;
+        tasksC2CletArea += statistics.tasksC2CletArea;
+        tasksC1CloudArea += statistics.tasksC1CloudArea;
+        tasksC2CloudArea += statistics.tasksC2CloudArea;
+        tasksC1CletCompletion += statistics.tasksC1CletCompletion;
+        tasksC2CletCompletion += statistics.tasksC2CletCompletion;
+        tasksC1CloudCompletion += statistics.tasksC1CloudCompletion;
+        tasksC2CloudCompletion += statistics.tasksC2CloudCompletion;
+        tasksC1Arrival += statistics.tasksC1Arrival;
+        tasksC2Arrival += statistics.tasksC2Arrival;
+        tasksC2InterruptedResponseTime += statistics.tasksC2InterruptedResponseTime;
+        tasksC2CletInterrupted += statistics.tasksC2CletInterrupted;
+    }
+
     protected void updateC1CletArea(double deltaTime, long currentPopulation) {
         tasksC1CletArea += deltaTime * currentPopulation;
     }
@@ -163,7 +277,7 @@ public class Statistics {
         tasksC2CloudArea += deltaTime * currentPopulation;
     }
 
-    protected double getPercentageFrom(double fraction) {
+    protected static double getPercentageFrom(double fraction) {
         return fraction * 100;
     }
 
@@ -171,6 +285,20 @@ public class Statistics {
         return divider != 0 ? numerator / divider : defaultValue;
     }
 
+    /**
+     * @return class 1 tasks arrived, up to stop time
+     */
+    public long getC1Arrivals() {
+        return tasksC1Arrival;
+    }
+
+    /**
+     * @return class 2 tasks arrived, up to stop time
+     */
+    public long getC2Arrivals() {
+        return tasksC2Arrival;
+    }
+
     public long getSystemCompletion() {
         return tasksC1CletCompletion + tasksC2CletCompletion +
                 tasksC1CloudCompletion + tasksC2CloudCompletion;
@@ -344,8 +472,53 @@ public class Statistics {
         );
     }
 
-    protected String generateTitle(@Nonnull String title, @Nonnull String cchar,
-                                int nCChar, int nSpaces, int initialSpaces) {
+    /**
+     * Check if the run can end before its stop time, since estimates are already precise enough.
+     *
+     * @return {@code true} iif the run can end
+     */
+    public boolean isStopRequested() {
+        return false;
+    }
+
+    /**
+     * Format estimates of {@param metrics}, grouped by section and group.
+     *
+     * @param metrics to format, in report order
+     * @param mean estimated mean of a metric
+     * @param halfWidth confidence interval half width of a metric
+     * @return formatted estimates
+     */
+    protected static String formatEstimates(@Nonnull Metric[] metrics, @Nonnull ToDoubleFunction<Metric> mean,
+                                            @Nonnull ToDoubleFunction<Metric> halfWidth) {
+        final StringBuilder stringBuilder = new StringBuilder();
+        Metric previous = null;
+        for (Metric metric : metrics) {
+            if (previous == null || previous.getSection() != metric.getSection()) {
+                if (previous != null) {
+                    stringBuilder.append(NL);
+                }
+                stringBuilder.append(String.format(H_TEMPLATE, metric.getSection().getTitle()));
+            } else if (previous.getGroup() != metric.getGroup()) {
+                stringBuilder.append(NL);
+            }
+            previous = metric;
+
+            double m = mean.applyAsDouble(metric);
+            double h = halfWidth.applyAsDouble(metric);
+            stringBuilder.append(String.format(
+                    BatchMeansStatistics.P_TEMPLATE,
+                    metric.getDescription(),
+                    metric.isPercentage() ? PER.format(getPercentageFrom(m)) : DF.format(m),
+                    metric.isPercentage() ? PER.format(getPercentageFrom(h)) : DF.format(h),
+                    metric.getUnit()
+            ));
+        }
+        return stringBuilder.toString();
+    }
+
+    public static String generateTitle(@Nonnull String title, @Nonnull String cchar,
+                                       int nCChar, int nSpaces, int initialSpaces) {
         final String frame = cchar.repeat(title.length() + 2 * (nCChar + nSpaces));
         return " ".repeat(initialSpaces) + frame +
                 NL +
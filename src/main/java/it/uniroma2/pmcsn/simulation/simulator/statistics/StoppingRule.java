@@ -0,0 +1,122 @@
+package it.uniroma2.pmcsn.simulation.simulator.statistics;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+
+/**
+ * Sequential stopping rule for {@link BatchMeansStatistics}: the run can stop as soon as the confidence
+ * interval of every selected {@link Metric} is not wider than the target half width, or when the maximum
+ * number of batches has been reached.
+ *
+ * With {@link Precision#RELATIVE} precision the target half width is a fraction of the absolute value of
+ * the estimated mean, e.g. 0.01 for +/- 1%.
+ */
+public class StoppingRule {
+
+    public static final long MIN_BATCHES = 10;
+    public static final long MAX_BATCHES = Long.MAX_VALUE;
+
+    public enum Precision {
+
+        ABSOLUTE,
+        RELATIVE;
+
+        public static @Nonnull Precision from(@Nonnull String precision) {
+            for (Precision p : Precision.values()) {
+                if (precision.equalsIgnoreCase(p.name())) {
+                    return p;
+                }
+            }
+            throw new TypeNotPresentException(precision, new Throwable("Selected precision not yet implemented"));
+        }
+
+    }
+
+    // Rule which never stops the run
+    public static final StoppingRule NONE = new StoppingRule(Precision.ABSOLUTE, 0.0, MIN_BATCHES, MAX_BATCHES);
+
+    private final Precision precision;
+    private final double halfWidth;
+    private final long minBatches;
+    private final long maxBatches;
+    private final Metric[] metrics;
+
+    public StoppingRule(@Nonnull Precision precision, @Nonnegative double halfWidth, @Nonnegative long minBatches,
+                        @Nonnegative long maxBatches, @Nonnull Metric... metrics) {
+        Preconditions.checkNotNull(precision, "Precision can not be null (current: %s)", precision);
+        Preconditions.checkArgument(halfWidth >= 0.0, "HalfWidth must be >= 0 (current: %s)", halfWidth);
+        Preconditions.checkArgument(minBatches >= 2, "MinBatches must be >= 2 (current: %s)", minBatches);
+        Preconditions.checkArgument(maxBatches >= 2, "MaxBatches must be >= 2 (current: %s)", maxBatches);
+        Preconditions.checkNotNull(metrics, "Metrics can not be null (current: %s)", (Object) metrics);
+
+        this.precision = precision;
+        this.halfWidth = halfWidth;
+        this.minBatches = minBatches;
+        this.maxBatches = maxBatches;
+        this.metrics = Arrays.stream(metrics).distinct().toArray(Metric[]::new);
+    }
+
+    public @Nonnull Precision getPrecision() {
+        return precision;
+    }
+
+    public double getHalfWidth() {
+        return halfWidth;
+    }
+
+    public long getMinBatches() {
+        return minBatches;
+    }
+
+    public long getMaxBatches() {
+        return maxBatches;
+    }
+
+    public @Nonnull Metric[] getMetrics() {
+        return metrics.clone();
+    }
+
+    int getMetricsCount() {
+        return metrics.length;
+    }
+
+    @Nonnull Metric getMetric(int index) {
+        return metrics[index];
+    }
+
+    /**
+     * Check if an estimate is precise enough.
+     *
+     * @param mean estimated mean
+     * @param halfWidth half width of the confidence interval of the estimate
+     * @return {@code true} iif the half width does not exceed the target one
+     */
+    public boolean isPrecise(double mean, double halfWidth) {
+        switch (precision) {
+            case ABSOLUTE:
+                return halfWidth <= this.halfWidth;
+
+            case RELATIVE:
+                return halfWidth <= this.halfWidth * Math.abs(mean);
+
+            default:
+                throw new TypeNotPresentException(precision.name(), new Throwable("Selected precision not yet implemented"));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%s half width %s on %s, batches in range [%s, %s]",
+                precision,
+                halfWidth,
+                Arrays.toString(metrics),
+                minBatches,
+                maxBatches
+        );
+    }
+
+}
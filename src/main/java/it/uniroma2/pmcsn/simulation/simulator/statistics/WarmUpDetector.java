@@ -0,0 +1,132 @@
+package it.uniroma2.pmcsn.simulation.simulator.statistics;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+
+/**
+ * Initial transient detection with MSER-5 rule, applied to the batch means of some {@link Metric}s.
+ *
+ * Batch means are grouped in blocks of {@link #BLOCK_SIZE}: truncating the first d blocks, the
+ * MSER statistic is the variance of the remaining block means divided by their number, and the
+ * truncation point is the d which minimizes it. Prefix sums of block means and of their squares
+ * are updated as batches are added, so each evaluation takes O(blocks) time.
+ *
+ * As usual for MSER, the truncation point is accepted only if it falls in the first half of the
+ * series, otherwise the run is too short to tell the transient apart. Once accepted, the truncation
+ * point of a metric is kept, so the metrics do not need to settle at the same evaluation.
+ */
+public class WarmUpDetector {
+
+    // Number of batch means in a block
+    public static final int BLOCK_SIZE = 5;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Metric[] metrics;
+
+    // Number of completed blocks
+    private int blocks = 0;
+    // Number of batch means in current block
+    private int blockCount = 0;
+    // Sum of batch means of current block, indexed as metrics
+    private final double[] blockSum;
+    // Sum of first i block means, at index i, indexed as metrics
+    private final double[][] prefixSum;
+    // Sum of squares of first i block means, at index i, indexed as metrics
+    private final double[][] prefixSquares;
+    // Accepted truncation point, in blocks, indexed as metrics, -1 if not yet accepted
+    private final int[] truncations;
+
+    public WarmUpDetector(@Nonnull Metric... metrics) {
+        Preconditions.checkNotNull(metrics, "Metrics can not be null (current: %s)", (Object) metrics);
+        Preconditions.checkArgument(metrics.length > 0, "Metrics can not be empty (current: %s)", metrics.length);
+
+        this.metrics = metrics.clone();
+        this.blockSum = new double[metrics.length];
+        this.prefixSum = new double[metrics.length][INITIAL_CAPACITY];
+        this.prefixSquares = new double[metrics.length][INITIAL_CAPACITY];
+        this.truncations = new int[metrics.length];
+        Arrays.fill(this.truncations, -1);
+    }
+
+    /**
+     * Add current value of each metric as a batch mean.
+     *
+     * @param statistics of the completed batch
+     */
+    public void add(@Nonnull Statistics statistics) {
+        for (int i = 0; i < metrics.length; ++i) {
+            blockSum[i] += metrics[i].valueOf(statistics);
+        }
+        if (++blockCount < BLOCK_SIZE) {
+            return;
+        }
+
+        if (blocks + 1 == prefixSum[0].length) {
+            for (int i = 0; i < metrics.length; ++i) {
+                prefixSum[i] = Arrays.copyOf(prefixSum[i], prefixSum[i].length << 1);
+                prefixSquares[i] = Arrays.copyOf(prefixSquares[i], prefixSquares[i].length << 1);
+            }
+        }
+        for (int i = 0; i < metrics.length; ++i) {
+            double blockMean = blockSum[i] / BLOCK_SIZE;
+            prefixSum[i][blocks + 1] = prefixSum[i][blocks] + blockMean;
+            prefixSquares[i][blocks + 1] = prefixSquares[i][blocks] + blockMean * blockMean;
+            blockSum[i] = 0.0;
+        }
+        ++blocks;
+        blockCount = 0;
+    }
+
+    /**
+     * @return number of batch means added
+     */
+    public long getCount() {
+        return (long) blocks * BLOCK_SIZE + blockCount;
+    }
+
+    /**
+     * Get truncation point, as the max of the truncation points of the metrics.
+     *
+     * @return number of initial batch means to delete, or -1 if the truncation point of some
+     * metric has not been accepted yet
+     */
+    public long getTruncation() {
+        int truncation = 0;
+        boolean accepted = true;
+        for (int i = 0; i < metrics.length; ++i) {
+            if (truncations[i] < 0) {
+                truncations[i] = getTruncation(i);
+            }
+            accepted = accepted && truncations[i] >= 0;
+            truncation = Math.max(truncation, truncations[i]);
+        }
+        return accepted ? (long) truncation * BLOCK_SIZE : -1;
+    }
+
+    private int getTruncation(int metric) {
+        if (blocks < 2) {
+            return -1;
+        }
+
+        double totalSum = prefixSum[metric][blocks];
+        double totalSquares = prefixSquares[metric][blocks];
+        int truncation = 0;
+        double min = Double.POSITIVE_INFINITY;
+        // at least 2 block means are left to estimate the variance
+        for (int d = 0; d <= blocks - 2; ++d) {
+            double n = blocks - d;
+            double sum = totalSum - prefixSum[metric][d];
+            double squares = totalSquares - prefixSquares[metric][d];
+            double mser = Math.max(squares - sum * sum / n, 0.0) / (n * n);
+            if (mser < min) {
+                min = mser;
+                truncation = d;
+            }
+        }
+        return truncation <= blocks / 2 ? truncation : -1;
+    }
+
+}
@@ -0,0 +1,46 @@
+package it.uniroma2.pmcsn.simulation.simulator.statistics.series;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnull;
+
+public class BatchSeriesFactory {
+
+    public enum Algorithm {
+
+        WELFORD,
+        BUFFER;
+
+        public static @Nonnull Algorithm from(@Nonnull String algorithm) {
+            for (Algorithm a : Algorithm.values()) {
+                if (algorithm.equalsIgnoreCase(a.name())) {
+                    return a;
+                }
+            }
+            throw new TypeNotPresentException(algorithm, new Throwable("Selected batch series not yet implemented"));
+        }
+
+    }
+
+    public static @Nonnull IBatchSeries get(@Nonnull String algorithm) {
+        Preconditions.checkNotNull(algorithm, "Algorithm can not be null");
+
+        return get(Algorithm.from(algorithm));
+    }
+
+    public static @Nonnull IBatchSeries get(@Nonnull Algorithm algorithm) {
+        Preconditions.checkNotNull(algorithm, "Algorithm can not be null");
+
+        switch (algorithm) {
+            case WELFORD:
+                return new WelfordBatchSeries();
+
+            case BUFFER:
+                return new BufferBatchSeries();
+
+            default:
+                throw new TypeNotPresentException(algorithm.name(), new Throwable("Batch series not yet implemented"));
+        }
+    }
+
+}
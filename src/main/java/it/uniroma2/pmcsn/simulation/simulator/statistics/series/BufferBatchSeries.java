@@ -0,0 +1,122 @@
+package it.uniroma2.pmcsn.simulation.simulator.statistics.series;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * Batch series which also retains each batch mean in a growable primitive array,
+ * for methods that need the whole series.
+ *
+ * Lag-1 autocorrelation of the batch means is tracked online, and adjacent batches
+ * can be merged to double the batch size.
+ */
+public class BufferBatchSeries extends WelfordBatchSeries {
+
+    public static final int INITIAL_CAPACITY = 64;
+
+    // Batch means, first getCount() are valid
+    private double[] values = new double[INITIAL_CAPACITY];
+
+    // Sum of batch means
+    private double sum = 0.0;
+    // Sum of products of adjacent batch means
+    private double lagSum = 0.0;
+
+    @Override
+    public void add(double value) {
+        int count = (int) getCount();
+        if (count == values.length) {
+            values = Arrays.copyOf(values, count << 1);
+        }
+        if (count > 0) {
+            lagSum += values[count - 1] * value;
+        }
+        values[count] = value;
+        sum += value;
+
+        super.add(value);
+    }
+
+    /**
+     * Get a batch mean.
+     *
+     * @param index of the batch, in range [0, {@link #getCount()})
+     * @return batch mean
+     */
+    public double get(int index) {
+        Preconditions.checkElementIndex(index, (int) getCount(), "Index");
+
+        return values[index];
+    }
+
+    /**
+     * @return copy of the batch means
+     */
+    public double[] toArray() {
+        return Arrays.copyOf(values, (int) getCount());
+    }
+
+    /**
+     * Get lag-1 autocorrelation of the batch means, from running sums.
+     *
+     * @return lag-1 autocorrelation or {@link Double#NaN} if there are less than 2 batch means,
+     * or they are all equal
+     */
+    public double getLag1Autocorrelation() {
+        long count = getCount();
+        if (count < 2) {
+            return Double.NaN;
+        }
+
+        double mean = getMean();
+        double variance = getStandardDeviation() * getStandardDeviation();
+        if (variance == 0.0) {
+            return Double.NaN;
+        }
+
+        // sum of (x[i] - mean) * (x[i + 1] - mean), for i in [0, count - 1)
+        double first = values[0];
+        double last = values[(int) count - 1];
+        double covariance = lagSum - mean * (2.0 * sum - first - last) + (count - 1) * mean * mean;
+        return covariance / count / variance;
+    }
+
+    /**
+     * Merge adjacent batch means, so each batch mean is the mean of a batch with double size.
+     * If the number of batch means is odd, the last one is discarded.
+     */
+    public void merge() {
+        int count = (int) getCount();
+
+        clear();
+        // merged values are written before the ones still to be read
+        for (int i = 0; i < count / 2; ++i) {
+            add((values[2 * i] + values[2 * i + 1]) / 2.0);
+        }
+    }
+
+    /**
+     * Delete first batch means, e.g. the ones of the initial transient.
+     *
+     * @param count number of batch means to delete, in range [0, {@link #getCount()}]
+     */
+    public void truncate(int count) {
+        int size = (int) getCount();
+        Preconditions.checkPositionIndex(count, size, "Count");
+
+        clear();
+        // kept values are moved before the ones still to be read
+        for (int i = count; i < size; ++i) {
+            add(values[i]);
+        }
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        sum = 0.0;
+        lagSum = 0.0;
+    }
+
+}
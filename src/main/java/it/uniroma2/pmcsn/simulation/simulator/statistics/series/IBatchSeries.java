@@ -0,0 +1,37 @@
+package it.uniroma2.pmcsn.simulation.simulator.statistics.series;
+
+/**
+ * Series of batch means of a single metric.
+ */
+public interface IBatchSeries {
+
+    /**
+     * Add the mean of a completed batch.
+     *
+     * @param value batch mean
+     */
+    void add(double value);
+
+    /**
+     * @return number of batch means added
+     */
+    long getCount();
+
+    /**
+     * @return mean of the batch means, 0.0 if the series is empty
+     */
+    double getMean();
+
+    /**
+     * Get standard deviation of the batch means, computed dividing by the number of batch means.
+     *
+     * @return standard deviation, {@link Double#NaN} if the series is empty
+     */
+    double getStandardDeviation();
+
+    /**
+     * Remove all batch means.
+     */
+    void clear();
+
+}
@@ -0,0 +1,46 @@
+package it.uniroma2.pmcsn.simulation.simulator.statistics.series;
+
+/**
+ * Batch series which keeps only mean and sum of squared differences, updated
+ * with one pass Welford algorithm, so it takes constant memory.
+ */
+public class WelfordBatchSeries implements IBatchSeries {
+
+    // Number of batch means
+    private long count = 0;
+    // Running mean
+    private double mean = 0.0;
+    // Running sum of squared differences from the mean
+    private double sum = 0.0;
+
+    @Override
+    public void add(double value) {
+        ++count;
+        double difference = value - mean;
+        sum += difference * difference * (count - 1.0) / count;
+        mean += difference / count;
+    }
+
+    @Override
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public double getMean() {
+        return mean;
+    }
+
+    @Override
+    public double getStandardDeviation() {
+        return Math.sqrt(sum / count);
+    }
+
+    @Override
+    public void clear() {
+        count = 0;
+        mean = 0.0;
+        sum = 0.0;
+    }
+
+}
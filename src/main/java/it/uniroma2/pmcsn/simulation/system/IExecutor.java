@@ -9,32 +9,42 @@ public interface IExecutor {
     /**
      * Simulates the arrival of a task in the execution node.
      *
-     * @param task to receive
+     * @param task handle of the task to receive
      */
-    void receive(@Nonnull Task task);
+    void receive(int task);
 
     /**
      * Simulates the arrival of a task in the execution node with preemption.
      * When a task is received, a task of class {@param preemptionClass}
      * will be interrupted.
      *
-     * @param task to receive
+     * @param task handle of the task to receive
      * @param preemptionClass of the task to interrupt
      */
-    void receive(@Nonnull Task task, @Nonnull Task.Class preemptionClass);
+    void receive(int task, @Nonnull Task.Class preemptionClass);
 
     /**
      * Simulates task execution.
      *
-     * @param task to execute
+     * @param task handle of the task to execute
      */
-    void execute(@Nonnull Task task);
+    void execute(int task);
+
+    /**
+     * Simulates a task of class {@param taskClass} already in execution at {@param time}, as in a stationary
+     * state: service times are exponential, so its age and residual service time are sampled as service times.
+     *
+     * @param taskClass of the task to resume
+     * @param time current time instant
+     * @return handle of the resumed task
+     */
+    int resume(@Nonnull Task.Class taskClass, double time);
 
     /**
      * Simulates the sending of the results obtained from the processing of a task.
      *
-     * @param task from which to get results
+     * @param task handle of the task from which to get results
      */
-    void result(@Nonnull Task task);
+    void result(int task);
 
 }
@@ -2,6 +2,7 @@ package it.uniroma2.pmcsn.simulation.system.cloud;
 
 import com.google.common.base.Preconditions;
 import it.uniroma2.pmcsn.simulation.model.Task;
+import it.uniroma2.pmcsn.simulation.model.TaskTable;
 import it.uniroma2.pmcsn.simulation.system.IExecutor;
 import it.uniroma2.pmcsn.simulation.system.cloud.model.CloudConfig;
 import it.uniroma2.pmcsn.simulation.system.cloud.model.CloudState;
@@ -17,12 +18,15 @@ public class Cloud implements IExecutor {
     private final CloudConfig cloudConfig;
 
     private final CloudState cloudState;
+    // Store of the tasks
+    private final TaskTable taskTable;
 
     public Cloud(@Nonnull CloudConfig cloudConfig)  {
         Preconditions.checkNotNull(cloudConfig, "CloudConfig can not be null (current: %s)", cloudConfig);
 
         this.cloudConfig = cloudConfig;
-        this.cloudState = new CloudState();
+        this.taskTable = cloudConfig.getTaskTable();
+        this.cloudState = new CloudState(cloudConfig.getFutureEventList(), taskTable);
     }
 
     public CloudState getCloudState() {
@@ -30,42 +34,94 @@ public class Cloud implements IExecutor {
     }
 
     @Override
-    public void receive(@Nonnull Task task) {
-        Preconditions.checkNotNull(task, "Task can not be null (current: %s)", task);
-
+    public void receive(int task) {
         cloudState.add(task);
     }
 
     @Override
-    public void receive(@Nonnull Task task, @Nonnull Task.Class preemptionClass) {
+    public void receive(int task, @Nonnull Task.Class preemptionClass) {
         throw new UnsupportedOperationException("Cloud layer does not allow tasks preemption");
     }
 
     @Override
-    public void execute(@Nonnull Task task) {
-        Preconditions.checkNotNull(task, "Task can not be null (current: %s)", task);
-
-        if (task.isInterrupted()) {
+    public void execute(int task) {
+        if (taskTable.isInterrupted(task)) {
             // using heuristic for generation of interrupted task completion time
             //  residualCloudletServiceTime = scheduledCloudletCompletion - currentTime
             //  timeSpentOnExecutionInCloudlet = residualCloudletServiceTime * mu2Cloudlet
             //  timeSpentOnExecutionInCloudlet = task.getCompletion()
-            double residualCloudServiceTime = task.getCompletion() / cloudConfig.getMu2();
-            double completionTime = task.getArrival() + computeSetupTimeForInterruptedTaskClass2() + residualCloudServiceTime;
-            task.setInterrupted(false);
+            double residualCloudServiceTime = taskTable.getCompletion(task) / cloudConfig.getMu2();
+            double completionTime = taskTable.getArrival(task) +
+                    computeSetupTimeForInterruptedTaskClass2(taskTable.getId(task)) + residualCloudServiceTime;
+            taskTable.setInterrupted(task, false);
             cloudState.setCompletionOf(task, completionTime);
         } else {
-            cloudState.setCompletionOf(task, task.getArrival() + computeServiceTimeFor(task.getTaskClass()));
+            cloudState.setCompletionOf(task, taskTable.getArrival(task) + computeServiceTimeFor(task));
         }
     }
 
     @Override
-    public void result(@Nonnull Task task) {
-        Preconditions.checkNotNull(task, "Task can not be null (current: %s)", task);
+    public int resume(@Nonnull Task.Class taskClass, double time) {
+        Preconditions.checkNotNull(taskClass, "TaskClass can not be null (current: %s)", taskClass);
+
+        int task = taskTable.add(taskClass, time - computeServiceTimeFor(taskClass));
+        cloudState.add(task);
+        cloudState.setCompletionOf(task, time + computeServiceTimeFor(taskClass));
+        return task;
+    }
+
+    /**
+     * Simulates a class 2 interrupted task already in execution at {@param time}, as in a stationary state:
+     * setup and service times are exponential, so the task is in setup with probability proportional
+     * to the mean setup time and then it has a whole service time left.
+     *
+     * @param time current time instant
+     * @return handle of the resumed task
+     */
+    public int resumeInterrupted(double time) {
+        double meanServiceTime = 1 / cloudConfig.getMu2();
+        double residualTime = computeServiceTimeFor(Task.Class.CLASS2);
+        if (cloudConfig.getDistribution().fromUniform(SETUP_RNG_STREAM, 0.0, cloudConfig.getMeanSetupTime() + meanServiceTime) <
+                cloudConfig.getMeanSetupTime()) {
+            residualTime += computeSetupTimeForInterruptedTaskClass2();
+        }
+
+        // interrupted task has already been executed, so its completion is scheduled right away
+        int task = taskTable.add(Task.Class.CLASS2, time);
+        cloudState.add(task);
+        cloudState.setCompletionOf(task, time + residualTime);
+        return task;
+    }
 
+    @Override
+    public void result(int task) {
         cloudState.remove(task);
     }
 
+    /**
+     * Get service time of {@param task}, scaling its work if it has been drawn on arrival.
+     *
+     * @param task handle of the task
+     * @return service time
+     */
+    private double computeServiceTimeFor(int task) {
+        Task.Class taskClass = taskTable.getTaskClass(task);
+        if (!taskTable.hasWork(task)) {
+            return computeServiceTimeFor(taskClass, taskTable.getId(task));
+        }
+
+        switch (taskClass) {
+            case CLASS1:
+                return taskTable.getWork(task) / cloudConfig.getMu1();
+
+            case CLASS2:
+                return taskTable.getWork(task) / cloudConfig.getMu2();
+
+            default:
+                throw new TypeNotPresentException(taskClass.name(), new Throwable("Task class not supported"));
+        }
+    }
+
     private double computeServiceTimeFor(@Nonnull Task.Class taskClass) {
         Preconditions.checkNotNull(taskClass, "Task class must be not null (current: %s)", taskClass);
 
@@ -83,9 +139,35 @@ public class Cloud implements IExecutor {
         }
     }
 
+    /**
+     * Get service time of the task with id {@param id}, drawn from its id with a counter-based generator,
+     * see {@link it.uniroma2.pmcsn.simulation.util.Distribution#fromExponential(int, long, double)}.
+     */
+    private double computeServiceTimeFor(@Nonnull Task.Class taskClass, long id) {
+        Preconditions.checkNotNull(taskClass, "Task class must be not null (current: %s)", taskClass);
+
+        switch (taskClass) {
+            case CLASS1:
+                return cloudConfig.getDistribution()
+                        .fromExponential(TASK_CLASS1_RNG_STREAM, id, 1 / cloudConfig.getMu1());
+
+            case CLASS2:
+                return cloudConfig.getDistribution()
+                        .fromExponential(TASK_CLASS2_RNG_STREAM, id, 1 / cloudConfig.getMu2());
+
+            default:
+                throw new TypeNotPresentException(taskClass.name(), new Throwable("Task class not supported"));
+        }
+    }
+
     private double computeSetupTimeForInterruptedTaskClass2() {
         return cloudConfig.getDistribution()
                 .fromExponential(SETUP_RNG_STREAM, cloudConfig.getMeanSetupTime());
     }
 
+    private double computeSetupTimeForInterruptedTaskClass2(long id) {
+        return cloudConfig.getDistribution()
+                .fromExponential(SETUP_RNG_STREAM, id, cloudConfig.getMeanSetupTime());
+    }
+
 }
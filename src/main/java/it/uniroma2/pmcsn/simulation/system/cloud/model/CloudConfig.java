@@ -1,6 +1,8 @@
 package it.uniroma2.pmcsn.simulation.system.cloud.model;
 
 import com.google.common.base.Preconditions;
+import it.uniroma2.pmcsn.simulation.model.TaskTable;
+import it.uniroma2.pmcsn.simulation.simulator.fel.IFutureEventList;
 import it.uniroma2.pmcsn.simulation.util.Distribution;
 
 import javax.annotation.Nonnegative;
@@ -9,19 +11,26 @@ import javax.annotation.Nonnull;
 public final class CloudConfig {
 
     private final Distribution distribution;
+    private final IFutureEventList futureEventList;
+    private final TaskTable taskTable;
     private final double mu1;
     private final double mu2;
 
     private final double meanSetupTime;
 
-    public CloudConfig(@Nonnull Distribution distribution, @Nonnegative double mu1,
-                       @Nonnegative double mu2, @Nonnegative double meanSetupTime) {
+    public CloudConfig(@Nonnull Distribution distribution, @Nonnull IFutureEventList futureEventList,
+                       @Nonnull TaskTable taskTable, @Nonnegative double mu1, @Nonnegative double mu2,
+                       @Nonnegative double meanSetupTime) {
         Preconditions.checkNotNull(distribution, "Distribution can not be null (current: %s)", distribution);
+        Preconditions.checkNotNull(futureEventList, "FutureEventList can not be null (current: %s)", futureEventList);
+        Preconditions.checkNotNull(taskTable, "TaskTable can not be null (current: %s)", taskTable);
         Preconditions.checkArgument(mu1 >= 0, "Mu1 must be >= 0 (current: %s)", mu1);
         Preconditions.checkArgument(mu2 >= 0, "Mu2 must be >= 0 (current: %s)", mu2);
         Preconditions.checkArgument(meanSetupTime >= 0, "MeanSetupTime must be >= 0 (cuurent: %s)", meanSetupTime);
 
         this.distribution = distribution;
+        this.futureEventList = futureEventList;
+        this.taskTable = taskTable;
         this.mu1 = mu1;
         this.mu2 = mu2;
         this.meanSetupTime = meanSetupTime;
@@ -31,6 +40,14 @@ public final class CloudConfig {
         return distribution;
     }
 
+    public IFutureEventList getFutureEventList() {
+        return futureEventList;
+    }
+
+    public TaskTable getTaskTable() {
+        return taskTable;
+    }
+
     public double getMu1() {
         return mu1;
     }
@@ -46,24 +63,39 @@ public final class CloudConfig {
     public static class CloudConfigBuilder {
 
         private final Distribution distribution;
+        private final IFutureEventList futureEventList;
+        private final TaskTable taskTable;
         private final double mu1;
         private final double mu2;
 
         private double meanSetupTime;
 
-        public CloudConfigBuilder(Distribution distribution, double mu1, double mu2) {
+        public CloudConfigBuilder(Distribution distribution, IFutureEventList futureEventList, TaskTable taskTable,
+                                  double mu1, double mu2) {
             this.distribution = distribution;
+            this.futureEventList = futureEventList;
+            this.taskTable = taskTable;
             this.mu1 = mu1;
             this.mu2 = mu2;
         }
 
         public CloudConfig build() {
-            return new CloudConfig(distribution, mu1, mu2, meanSetupTime);
+            return new CloudConfig(distribution, futureEventList, taskTable, mu1, mu2, meanSetupTime);
         }
 
         @FunctionalInterface
         public interface DistributionBuilder {
-            Mu1Builder distribution(Distribution distribution);
+            FutureEventListBuilder distribution(Distribution distribution);
+        }
+
+        @FunctionalInterface
+        public interface FutureEventListBuilder {
+            TaskTableBuilder futureEventList(IFutureEventList futureEventList);
+        }
+
+        @FunctionalInterface
+        public interface TaskTableBuilder {
+            Mu1Builder taskTable(TaskTable taskTable);
         }
 
         @FunctionalInterface
@@ -82,7 +114,8 @@ public final class CloudConfig {
         }
 
         public static DistributionBuilder builder() {
-            return distribution -> mu1 -> mu2 -> new CloudConfigBuilder(distribution, mu1, mu2);
+            return distribution -> futureEventList -> taskTable -> mu1 -> mu2 ->
+                    new CloudConfigBuilder(distribution, futureEventList, taskTable, mu1, mu2);
         }
 
     }
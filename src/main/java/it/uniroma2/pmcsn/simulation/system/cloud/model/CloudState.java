@@ -3,90 +3,127 @@ package it.uniroma2.pmcsn.simulation.system.cloud.model;
 import com.google.common.base.Preconditions;
 import it.uniroma2.pmcsn.simulation.model.IState;
 import it.uniroma2.pmcsn.simulation.model.Task;
+import it.uniroma2.pmcsn.simulation.model.TaskQueue;
+import it.uniroma2.pmcsn.simulation.model.TaskTable;
+import it.uniroma2.pmcsn.simulation.simulator.Event;
+import it.uniroma2.pmcsn.simulation.simulator.fel.IFutureEventList;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
-import javax.annotation.Nullable;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.BitSet;
 import java.util.List;
-import java.util.function.Predicate;
 
+/**
+ * Population of the {@link it.uniroma2.pmcsn.simulation.system.cloud.Cloud}.
+ *
+ * Membership is a bit set over {@link TaskTable} handles and tasks interrupted on the cloudlet, waiting
+ * to be executed, are kept in arrival order in a {@link TaskQueue} linked by handle, so that add,
+ * completion and removal of a task are O(1) and allocate no node for each task added. The cloud
+ * population grows without bound with the arrival rates, so it is not kept ordered: completions are
+ * scheduled on the future event list, and next arrival or completion of a class is found by a scan
+ * of the population, which the event loop never does.
+ */
 public final class CloudState implements IState {
 
-    private List<Task> tasksClass1;
-    private List<Task> tasksClass2;
+    // Future event list on which completions are scheduled
+    private final IFutureEventList futureEventList;
+    // Store of the tasks
+    private final TaskTable taskTable;
+
+    // Handles of the tasks in the cloud
+    private final BitSet tasksClass1;
+    private final BitSet tasksClass2;
+    private int sizeTasksClass1;
+    private int sizeTasksClass2;
+    // Interrupted tasks not yet executed, in arrival order
+    private final TaskQueue interruptedClass1;
+    private final TaskQueue interruptedClass2;
+
+    public CloudState(@Nonnull IFutureEventList futureEventList, @Nonnull TaskTable taskTable) {
+        Preconditions.checkNotNull(futureEventList, "FutureEventList can not be null (current: %s)", futureEventList);
+        Preconditions.checkNotNull(taskTable, "TaskTable can not be null (current: %s)", taskTable);
+
+        this.futureEventList = futureEventList;
+        this.taskTable = taskTable;
+        this.tasksClass1 = new BitSet();
+        this.tasksClass2 = new BitSet();
+        this.sizeTasksClass1 = 0;
+        this.sizeTasksClass2 = 0;
+        this.interruptedClass1 = new TaskQueue();
+        this.interruptedClass2 = new TaskQueue();
+    }
 
-    public CloudState() {
-        this.tasksClass1 = new ArrayList<>();
-        this.tasksClass2 = new ArrayList<>();
+    public @Nonnull TaskTable getTaskTable() {
+        return taskTable;
     }
 
     public int getSizeTasksClass1() {
-        return tasksClass1.size();
+        return sizeTasksClass1;
     }
 
     public int getSizeTasksClass2() {
-        return tasksClass2.size();
+        return sizeTasksClass2;
     }
 
     public @Nonnull List<Task> getTasksClass1() {
-        return new ArrayList<>(tasksClass1);
+        return getViewsOf(tasksClass1);
     }
 
     public @Nonnull List<Task> getTasksClass2() {
-        return new ArrayList<>(tasksClass2);
-    }
-
-    public @Nullable Task getTaskFrom(@Nonnull List<Task> taskList, @Nonnull Predicate<Task> predicate,
-                                       @Nonnull Comparator<Task> comparator) {
-        Preconditions.checkNotNull(taskList, "TaskList can not be null (current: %s)", taskList);
-        Preconditions.checkNotNull(predicate, "Predicate can not be null (current: %s)", predicate);
-        Preconditions.checkNotNull(comparator, "Comparator can not be null (current: %s)", comparator);
-
-        return taskList.parallelStream()
-                .filter(predicate)
-                .min(comparator)
-                .orElse(null);
+        return getViewsOf(tasksClass2);
     }
 
-    public @Nullable Task getNextArrivalClass1() {
-        return getTaskFrom(tasksClass1, Task::isArrived, Task.minArrivalTime);
+    /**
+     * @return handle of the class 1 task with min arrival time, scanning the population
+     */
+    public int getNextArrivalClass1() {
+        return getTaskWithMinArrival(tasksClass1);
     }
 
-    public @Nullable Task getNextArrivalClass2() {
-        return getTaskFrom(tasksClass2, Task::isArrived, Task.minArrivalTime);
+    /**
+     * @return handle of the class 2 task with min arrival time, scanning the population
+     */
+    public int getNextArrivalClass2() {
+        return getTaskWithMinArrival(tasksClass2);
     }
 
-    public @Nullable Task getNextInterruptedClass1() {
-        return getTaskFrom(tasksClass1, Task::isInterrupted, Task.minCompletionTime);
+    public int getNextInterruptedClass1() {
+        return interruptedClass1.peekFirst();
     }
 
-    public @Nullable Task getNextInterruptedClass2() {
-        return getTaskFrom(tasksClass2, Task::isInterrupted, Task.minCompletionTime);
+    public int getNextInterruptedClass2() {
+        return interruptedClass2.peekFirst();
     }
 
-    public @Nullable Task getNextCompletionClass1() {
-        return getTaskFrom(tasksClass1, Task::isCompleted, Task.minCompletionTime);
+    /**
+     * @return handle of the executed class 1 task with min completion time, scanning the population
+     */
+    public int getNextCompletionClass1() {
+        return getTaskWithMinCompletion(tasksClass1, interruptedClass1);
     }
 
-    public @Nullable Task getNextCompletionClass2() {
-        return getTaskFrom(tasksClass2, Task::isCompleted, Task.minCompletionTime);
+    /**
+     * @return handle of the executed class 2 task with min completion time, scanning the population
+     */
+    public int getNextCompletionClass2() {
+        return getTaskWithMinCompletion(tasksClass2, interruptedClass2);
     }
 
     /**
      * Get next {@link Task} from {@link it.uniroma2.pmcsn.simulation.system.cloud.Cloud} population.
      *
-     * @return the {@link Task} with the shortest **completion** time. If no completed task is found, return null.
+     * @return the {@link Task} with the shortest **completion** time. If no completed task is found,
+     * return {@link TaskTable#NULL}.
      */
     @Override
-    public @Nullable Task getNextEvent() {
-        Task taskClass1 = getNextCompletionClass1();
-        Task taskClass2 = getNextCompletionClass2();
+    public int getNextEvent() {
+        int taskClass1 = getNextCompletionClass1();
+        int taskClass2 = getNextCompletionClass2();
 
-        if (taskClass1 != null && taskClass2 != null) {
-            return taskClass1.getCompletion() > taskClass2.getCompletion() ? taskClass2 : taskClass1;
-        } else if (taskClass1 != null) {
+        if (taskClass1 != TaskTable.NULL && taskClass2 != TaskTable.NULL) {
+            return taskTable.getCompletion(taskClass1) > taskTable.getCompletion(taskClass2) ? taskClass2 : taskClass1;
+        } else if (taskClass1 != TaskTable.NULL) {
             return taskClass1;
         } else {
             return taskClass2;
@@ -97,32 +134,115 @@ public final class CloudState implements IState {
      * The {@link it.uniroma2.pmcsn.simulation.system.cloud.Cloud} has infinite virtual
      * resources, so adding new {@link Task} is always permitted.
      *
+     * Interrupted {@link Task}s carry the residual service time in place of the completion time,
+     * so they wait in arrival order until executed.
+     *
      * @param task to add to the system
      */
     @Override
-    public void add(@Nonnull Task task) {
-        Preconditions.checkNotNull(task, "Task can not be null (current: %s)", task);
+    public void add(int task) {
+        Preconditions.checkArgument(taskTable.contains(task), "Task not found (current: %s)", task);
+
+        Task.Class taskClass = taskTable.getTaskClass(task);
+        BitSet tasks = getTasksOf(taskClass);
+        Preconditions.checkState(
+                !tasks.get(task),
+                "Cloud already contains %s (current: %s)",
+                task,
+                tasks
+        );
+        // address handles up to the table capacity, so indices grow with the table and not with handles seen
+        TaskQueue interrupted = getInterruptedOf(taskClass);
+        ensureCapacity(tasks, taskTable.capacity());
+        interrupted.ensureCapacity(taskTable.capacity());
+        tasks.set(task);
+        updateSizeOf(taskClass, 1);
+        if (taskTable.isInterrupted(task)) {
+            interrupted.addLast(task);
+        }
+    }
+
+    public void setCompletionOf(int task, @Nonnegative double completion) {
+        // explicit checks, to avoid boxing the arguments on each event
+        if (completion <= 0) {
+            throw new IllegalArgumentException(String.format("Completion can not be negative (current: %s)", completion));
+        }
+        if (taskTable.getArrival(task) >= completion) {
+            throw new IllegalStateException(String.format(
+                    "Task completion time must be greater than task arrival time (current: %s, %s)",
+                    taskTable.getArrival(task),
+                    completion
+            ));
+        }
+
+        Task.Class taskClass = taskTable.getTaskClass(task);
+        BitSet tasks = getTasksOf(taskClass);
+        Preconditions.checkState(
+                tasks.get(task),
+                "Expected to find task %s in tasks of class %s (current: %s)",
+                task,
+                taskClass,
+                tasks
+        );
+
+        // once executed, the task is no longer waiting as interrupted
+        getInterruptedOf(taskClass).remove(task);
+        taskTable.setCompletion(task, completion);
+
+        futureEventList.schedule(Event.Type.CLOUD_COMPLETION, task, completion);
+    }
+
+    @Override
+    public void remove(int task) {
+        Preconditions.checkArgument(taskTable.contains(task), "Task not found (current: %s)", task);
+
+        Task.Class taskClass = taskTable.getTaskClass(task);
+        BitSet tasks = getTasksOf(taskClass);
+        if (tasks.get(task)) {
+            tasks.clear(task);
+            updateSizeOf(taskClass, -1);
+            getInterruptedOf(taskClass).remove(task);
+        }
 
-        Task.Class taskClass = task.getTaskClass();
+        futureEventList.cancel(Event.Type.CLOUD_COMPLETION, task);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getSizeTasksClass1() == 0 && getSizeTasksClass2() == 0;
+    }
+
+    private int getTaskWithMinArrival(@Nonnull BitSet tasks) {
+        int next = TaskTable.NULL;
+        for (int task = tasks.nextSetBit(0); task >= 0; task = tasks.nextSetBit(task + 1)) {
+            if (taskTable.isArrived(task) &&
+                    (next == TaskTable.NULL || taskTable.getArrival(task) < taskTable.getArrival(next))) {
+                next = task;
+            }
+        }
+        return next;
+    }
+
+    private int getTaskWithMinCompletion(@Nonnull BitSet tasks, @Nonnull TaskQueue interrupted) {
+        int next = TaskTable.NULL;
+        for (int task = tasks.nextSetBit(0); task >= 0; task = tasks.nextSetBit(task + 1)) {
+            // interrupted tasks carry the residual service time in place of the completion time
+            if (taskTable.isCompleted(task) && !interrupted.contains(task) &&
+                    (next == TaskTable.NULL || taskTable.getCompletion(task) < taskTable.getCompletion(next))) {
+                next = task;
+            }
+        }
+        return next;
+    }
+
+    private void updateSizeOf(@Nonnull Task.Class taskClass, int delta) {
         switch (taskClass) {
             case CLASS1:
-                Preconditions.checkState(
-                        !tasksClass1.contains(task),
-                        "Cloud already contains %s (current: %s)",
-                        task,
-                        tasksClass1
-                );
-                tasksClass1.add(task);
+                sizeTasksClass1 += delta;
                 break;
 
             case CLASS2:
-                Preconditions.checkState(
-                        !tasksClass2.contains(task),
-                        "Cloud already contains %s (current: %s)",
-                        task,
-                        tasksClass2
-                );
-                tasksClass2.add(task);
+                sizeTasksClass2 += delta;
                 break;
 
             default:
@@ -130,73 +250,53 @@ public final class CloudState implements IState {
         }
     }
 
-    public void setCompletionOf(@Nonnull Task task, @Nonnegative double completion) {
-        Preconditions.checkNotNull(task, "Task must be not null (current: %s)", task);
-        Preconditions.checkArgument(completion > 0, "Completion can not be negative (current: %s)", completion);
-        Preconditions.checkState(
-                task.getArrival() < completion,
-                "Task completion time must be greater than task arrival time (current: %s, %s)",
-                task.getArrival(),
-                completion
-        );
+    /**
+     * Grow {@param tasks} to address {@param handles} bits, since bit sets do not expose their capacity:
+     * clearing the highest bit does not shrink the words already allocated.
+     */
+    private static void ensureCapacity(@Nonnull BitSet tasks, int handles) {
+        if (tasks.size() < handles) {
+            tasks.set(handles - 1);
+            tasks.clear(handles - 1);
+        }
+    }
+
+    private @Nonnull BitSet getTasksOf(@Nonnull Task.Class taskClass) {
+        Preconditions.checkNotNull(taskClass, "Task class must be not null (current: %s)", taskClass);
 
-        Task.Class taskClass = task.getTaskClass();
         switch (taskClass) {
             case CLASS1:
-                Task taskClass1ToUpdate = tasksClass1.parallelStream()
-                        .filter(t -> t.equals(task))
-                        .findFirst()
-                        .orElse(null);
-                Preconditions.checkNotNull(
-                        taskClass1ToUpdate,
-                        "Expected to find task %s in list tasksClass1 (current: %s)",
-                        task.toString(),
-                        tasksClass1
-                );
-                taskClass1ToUpdate.setCompletion(completion);
-                break;
+                return tasksClass1;
 
             case CLASS2:
-                Task taskClass2ToUpdate = tasksClass2.parallelStream()
-                        .filter(t -> t.equals(task))
-                        .findFirst()
-                        .orElse(null);
-                Preconditions.checkNotNull(
-                        taskClass2ToUpdate,
-                        "Expected to find task %s in list tasksClass2 (current: %s)",
-                        task.toString(),
-                        tasksClass2
-                );
-                taskClass2ToUpdate.setCompletion(completion);
-                break;
+                return tasksClass2;
 
             default:
                 throw new TypeNotPresentException(taskClass.name(), new Throwable("Task type not supported"));
         }
     }
 
-    @Override
-    public void remove(@Nonnull Task task) {
-        Preconditions.checkNotNull(task, "Task can not be null (current: %s)", task);
+    private @Nonnull TaskQueue getInterruptedOf(@Nonnull Task.Class taskClass) {
+        Preconditions.checkNotNull(taskClass, "Task class must be not null (current: %s)", taskClass);
 
-        Task.Class taskClass = task.getTaskClass();
         switch (taskClass) {
             case CLASS1:
-                tasksClass1.remove(task);
-                break;
+                return interruptedClass1;
 
             case CLASS2:
-                tasksClass2.remove(task);
-                break;
+                return interruptedClass2;
 
             default:
                 throw new TypeNotPresentException(taskClass.name(), new Throwable("Task type not supported"));
         }
     }
 
-    @Override
-    public boolean isEmpty() {
-        return getSizeTasksClass1() == 0 && getSizeTasksClass2() == 0;
+    private @Nonnull List<Task> getViewsOf(@Nonnull BitSet tasks) {
+        List<Task> views = new ArrayList<>(tasks.cardinality());
+        for (int task = tasks.nextSetBit(0); task >= 0; task = tasks.nextSetBit(task + 1)) {
+            views.add(taskTable.view(task));
+        }
+        return views;
     }
 
 }
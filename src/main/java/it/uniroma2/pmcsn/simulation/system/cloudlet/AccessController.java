@@ -2,7 +2,6 @@ package it.uniroma2.pmcsn.simulation.system.cloudlet;
 
 import com.google.common.base.Preconditions;
 import it.uniroma2.pmcsn.simulation.model.IState;
-import it.uniroma2.pmcsn.simulation.model.Task;
 import it.uniroma2.pmcsn.simulation.system.cloudlet.access_control.Action;
 import it.uniroma2.pmcsn.simulation.system.cloudlet.access_control.IAccessControl;
 import it.uniroma2.pmcsn.simulation.system.cloudlet.model.AccessControllerConfig;
@@ -25,8 +24,7 @@ class AccessController {
         this.accessControlAlgorithm = accessControllerConfig.getAlgorithm();
     }
 
-    public Action offloadOn(@Nonnull Task offloadRequest, @Nonnull IState state) {
-        Preconditions.checkNotNull(offloadRequest, "OffloadRequest can not be null (current: %s)", offloadRequest);
+    public Action offloadOn(int offloadRequest, @Nonnull IState state) {
         Preconditions.checkNotNull(state, "State can not be null (current: %s)", state);
 
         return accessControlAlgorithm.accessControl(offloadRequest, state);
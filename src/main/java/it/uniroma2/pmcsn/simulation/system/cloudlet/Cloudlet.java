@@ -2,6 +2,7 @@ package it.uniroma2.pmcsn.simulation.system.cloudlet;
 
 import com.google.common.base.Preconditions;
 import it.uniroma2.pmcsn.simulation.model.Task;
+import it.uniroma2.pmcsn.simulation.model.TaskTable;
 import it.uniroma2.pmcsn.simulation.system.IExecutor;
 import it.uniroma2.pmcsn.simulation.system.cloudlet.access_control.AccessControlFactory;
 import it.uniroma2.pmcsn.simulation.system.cloudlet.access_control.Action;
@@ -32,12 +33,20 @@ public class Cloudlet implements IExecutor {
     private final TaskDispatcher taskDispatcher;
     // Cloudlet state
     private final CloudletState cloudletState;
+    // Store of the tasks
+    private final TaskTable taskTable;
 
     public Cloudlet(@Nonnull CloudletConfig cloudletConfig) {
         Preconditions.checkNotNull(cloudletConfig, "CloudletConfig can not be null (current: %s)", cloudletConfig);
 
         this.cloudletConfig = cloudletConfig;
-        this.cloudletState = new CloudletState(cloudletConfig.getThresholdN(), cloudletConfig.getThresholdS());
+        this.taskTable = cloudletConfig.getTaskTable();
+        this.cloudletState = new CloudletState(
+                cloudletConfig.getFutureEventList(),
+                taskTable,
+                cloudletConfig.getThresholdN(),
+                cloudletConfig.getThresholdS()
+        );
 
         AccessControllerConfig accessControllerConfig = AccessControllerConfig.ControllerConfigBuilder.builder()
                 .algorithm(AccessControlFactory.get(cloudletConfig.getAccessControlAlgorithm()))
@@ -56,18 +65,15 @@ public class Cloudlet implements IExecutor {
     }
 
     @Override
-    public void receive(@Nonnull Task task) {
-        Preconditions.checkNotNull(task, "Task can not be null (current: %s)", task);
-
+    public void receive(int task) {
         cloudletState.add(task);
     }
 
     @Override
-    public void receive(@Nonnull Task task, @Nonnull Task.Class preemptionClass) {
-        Preconditions.checkNotNull(task, "Task can not be null (current: %s)", task);
+    public void receive(int task, @Nonnull Task.Class preemptionClass) {
         Preconditions.checkNotNull(preemptionClass, "PreemptionClass can not be null (current: %s)", preemptionClass);
 
-        Task interruptedTask;
+        int interruptedTask;
         switch (preemptionClass) {
             case CLASS1:
                 throw new UnsupportedOperationException(
@@ -77,8 +83,9 @@ public class Cloudlet implements IExecutor {
 
             case CLASS2:
                 interruptedTask = taskInterruptAlgorithm.getTaskToInterruptFrom(
-                        task.getArrival(),
-                        cloudletState.getTasksClass2()
+                        taskTable.getArrival(task),
+                        cloudletState,
+                        Task.Class.CLASS2
                 );
                 break;
 
@@ -90,7 +97,7 @@ public class Cloudlet implements IExecutor {
         }
 
         Preconditions.checkState(
-                interruptedTask != null,
+                interruptedTask != TaskTable.NULL,
                 "Offload request with preemption received but not class 2 task are in the cloudlet"
         );
 
@@ -98,32 +105,36 @@ public class Cloudlet implements IExecutor {
         cloudletState.add(task);
 
         // current instant is the instant of the current task arrival
-        double currentTime = task.getArrival();
-        double residualCloudletServiceTime = interruptedTask.getCompletion() - currentTime;
-        interruptedTask.setInterrupted(true);
-        interruptedTask.setCompletion(residualCloudletServiceTime * cloudletConfig.getMu2());
+        double currentTime = taskTable.getArrival(task);
+        double residualCloudletServiceTime = taskTable.getCompletion(interruptedTask) - currentTime;
+        taskTable.setInterrupted(interruptedTask, true);
+        taskTable.setCompletion(interruptedTask, residualCloudletServiceTime * cloudletConfig.getMu2());
 
         // cloudlet send interrupted class 2 task on the cloud
         taskDispatcher.dispatch(interruptedTask, SEND_CLOUD);
     }
 
     @Override
-    public void execute(@Nonnull Task task) {
-        Preconditions.checkNotNull(task, "Task can not be null (current: %s)", task);
-
-        cloudletState.setCompletionOf(task, task.getArrival() + computeServiceTimeFor(task.getTaskClass()));
+    public void execute(int task) {
+        cloudletState.setCompletionOf(task, taskTable.getArrival(task) + computeServiceTimeFor(task));
     }
 
     @Override
-    public void result(@Nonnull Task task) {
-        Preconditions.checkNotNull(task, "Task can not be null (current: %s)", task);
+    public int resume(@Nonnull Task.Class taskClass, double time) {
+        Preconditions.checkNotNull(taskClass, "TaskClass can not be null (current: %s)", taskClass);
 
-        cloudletState.remove(task);
+        int task = taskTable.add(taskClass, time - computeServiceTimeFor(taskClass));
+        cloudletState.add(task);
+        cloudletState.setCompletionOf(task, time + computeServiceTimeFor(taskClass));
+        return task;
     }
 
-    public Action accept(@Nonnull Task offloadRequest) {
-        Preconditions.checkNotNull(offloadRequest, "Task can not be null (current: %s)", offloadRequest);
+    @Override
+    public void result(int task) {
+        cloudletState.remove(task);
+    }
 
+    public Action accept(int offloadRequest) {
         // ask the controller on which execution node the new task should be processed
         Action action = accessController.offloadOn(offloadRequest, cloudletState);
         // call the dispatcher to send the task to the appropriate execution node
@@ -131,6 +142,30 @@ public class Cloudlet implements IExecutor {
         return action;
     }
 
+    /**
+     * Get service time of {@param task}, scaling its work if it has been drawn on arrival.
+     *
+     * @param task handle of the task
+     * @return service time
+     */
+    private double computeServiceTimeFor(int task) {
+        Task.Class taskClass = taskTable.getTaskClass(task);
+        if (!taskTable.hasWork(task)) {
+            return computeServiceTimeFor(taskClass, taskTable.getId(task));
+        }
+
+        switch (taskClass) {
+            case CLASS1:
+                return taskTable.getWork(task) / cloudletConfig.getMu1();
+
+            case CLASS2:
+                return taskTable.getWork(task) / cloudletConfig.getMu2();
+
+            default:
+                throw new TypeNotPresentException(taskClass.name(), new Throwable("Task class not supported"));
+        }
+    }
+
     private double computeServiceTimeFor(@Nonnull Task.Class taskClass) {
         Preconditions.checkNotNull(taskClass, "Task class must be not null (current: %s)", taskClass);
 
@@ -146,4 +181,25 @@ public class Cloudlet implements IExecutor {
         }
     }
 
+    /**
+     * Get service time of the task with id {@param id}, drawn from its id with a counter-based generator,
+     * see {@link it.uniroma2.pmcsn.simulation.util.Distribution#fromExponential(int, long, double)}.
+     */
+    private double computeServiceTimeFor(@Nonnull Task.Class taskClass, long id) {
+        Preconditions.checkNotNull(taskClass, "Task class must be not null (current: %s)", taskClass);
+
+        switch (taskClass) {
+            case CLASS1:
+                return cloudletConfig.getDistribution()
+                        .fromExponential(TASK_CLASS1_RNG_STREAM, id, 1 / cloudletConfig.getMu1());
+
+            case CLASS2:
+                return cloudletConfig.getDistribution()
+                        .fromExponential(TASK_CLASS2_RNG_STREAM, id, 1 / cloudletConfig.getMu2());
+
+            default:
+                throw new TypeNotPresentException(taskClass.name(), new Throwable("Task class not supported"));
+        }
+    }
+
 }
@@ -31,8 +31,7 @@ class TaskDispatcher {
         }};
     }
 
-    public void dispatch(@Nonnull Task offloadRequest, @Nonnull Action action) {
-        Preconditions.checkNotNull(offloadRequest, "Task must be not null (current: %s)", offloadRequest);
+    public void dispatch(int offloadRequest, @Nonnull Action action) {
         Preconditions.checkNotNull(action, "Action must be not null (current: %s)", action);
 
         IExecutor executor = executionNodes.get(action);
@@ -1,10 +1,8 @@
 package it.uniroma2.pmcsn.simulation.system.cloudlet.access_control;
 
-import com.google.common.base.Preconditions;
-import it.uniroma2.pmcsn.simulation.model.IState;
 import it.uniroma2.pmcsn.simulation.model.Task;
-import it.uniroma2.pmcsn.simulation.system.cloudlet.model.CloudletState;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 
 import static it.uniroma2.pmcsn.simulation.system.cloudlet.access_control.Action.*;
@@ -12,17 +10,8 @@ import static it.uniroma2.pmcsn.simulation.system.cloudlet.access_control.Action
 class Algorithm2 implements IAccessControl {
 
     @Override
-    public @Nonnull Action accessControl(@Nonnull Task offloadRequest, @Nonnull IState state) {
-        Preconditions.checkNotNull(offloadRequest, "Task must be not null (current: %s)", offloadRequest);
-        Preconditions.checkNotNull(state, "State must be not null (current: %s)", state);
-
-        CloudletState cloudletState = (CloudletState) state;
-        int N = cloudletState.getThresholdN();
-        int S = cloudletState.getThresholdS();
-        int n1 = cloudletState.getSizeTasksClass1();
-        int n2 = cloudletState.getSizeTasksClass2();
-
-        Task.Class taskClass = offloadRequest.getTaskClass();
+    public @Nonnull Action accessControl(@Nonnull Task.Class taskClass, @Nonnegative int n1, @Nonnegative int n2,
+                                         @Nonnegative int N, @Nonnegative int S) {
         switch (taskClass) {
             case CLASS1:
                 if (n1 == N) {
@@ -1,12 +1,40 @@
 package it.uniroma2.pmcsn.simulation.system.cloudlet.access_control;
 
+import com.google.common.base.Preconditions;
 import it.uniroma2.pmcsn.simulation.model.IState;
 import it.uniroma2.pmcsn.simulation.model.Task;
+import it.uniroma2.pmcsn.simulation.system.cloudlet.model.CloudletState;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 
 public interface IAccessControl {
 
-    @Nonnull Action accessControl(@Nonnull Task offloadRequest, @Nonnull IState state);
+    default @Nonnull Action accessControl(int offloadRequest, @Nonnull IState state) {
+        Preconditions.checkNotNull(state, "State must be not null (current: %s)", state);
+
+        CloudletState cloudletState = (CloudletState) state;
+        return accessControl(
+                cloudletState.getTaskTable().getTaskClass(offloadRequest),
+                cloudletState.getSizeTasksClass1(),
+                cloudletState.getSizeTasksClass2(),
+                cloudletState.getThresholdN(),
+                cloudletState.getThresholdS()
+        );
+    }
+
+    /**
+     * Choose the action for an offload request, given only the number of tasks in the cloudlet,
+     * so engines which do not keep tasks share the same policy.
+     *
+     * @param taskClass class of the offloaded task
+     * @param n1 class 1 tasks in the cloudlet
+     * @param n2 class 2 tasks in the cloudlet
+     * @param thresholdN max number of tasks in the cloudlet
+     * @param thresholdS threshold for class 2 tasks in the cloudlet
+     * @return action for the offload request
+     */
+    @Nonnull Action accessControl(@Nonnull Task.Class taskClass, @Nonnegative int n1, @Nonnegative int n2,
+                                  @Nonnegative int thresholdN, @Nonnegative int thresholdS);
 
 }
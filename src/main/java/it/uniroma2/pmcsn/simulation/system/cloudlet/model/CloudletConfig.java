@@ -1,9 +1,11 @@
 package it.uniroma2.pmcsn.simulation.system.cloudlet.model;
 
 import com.google.common.base.Preconditions;
+import it.uniroma2.pmcsn.simulation.model.TaskTable;
 import it.uniroma2.pmcsn.simulation.system.cloud.Cloud;
 import it.uniroma2.pmcsn.simulation.system.cloudlet.access_control.AccessControlFactory;
 import it.uniroma2.pmcsn.simulation.system.cloudlet.task_interrupt.TaskInterruptFactory;
+import it.uniroma2.pmcsn.simulation.simulator.fel.IFutureEventList;
 import it.uniroma2.pmcsn.simulation.util.Distribution;
 
 import javax.annotation.Nonnegative;
@@ -13,6 +15,8 @@ public final class CloudletConfig {
 
     private final Cloud cloud;
     private final Distribution distribution;
+    private final IFutureEventList futureEventList;
+    private final TaskTable taskTable;
     private final double mu1;
     private final double mu2;
     private final int thresholdN;
@@ -22,12 +26,14 @@ public final class CloudletConfig {
     private final int thresholdS;
 
     public CloudletConfig(@Nonnull Cloud cloud, @Nonnull Distribution distribution,
-                          @Nonnegative double mu1, @Nonnegative double mu2, @Nonnegative int thresholdN,
+                          @Nonnull IFutureEventList futureEventList, @Nonnull TaskTable taskTable, @Nonnegative double mu1, @Nonnegative double mu2, @Nonnegative int thresholdN,
                           @Nonnull AccessControlFactory.Algorithm accessControlAlgorithm,
                           @Nonnull TaskInterruptFactory.Algorithm interruptTaskAlgorithm,
                           @Nonnegative int thresholdS) {
         Preconditions.checkNotNull(cloud, "Cloud can not be null (current: %s)", cloud);
         Preconditions.checkNotNull(distribution, "Distribution can not be null (current: %s)", distribution);
+        Preconditions.checkNotNull(futureEventList, "FutureEventList can not be null (current: %s)", futureEventList);
+        Preconditions.checkNotNull(taskTable, "TaskTable can not be null (current: %s)", taskTable);
         Preconditions.checkArgument(mu1 >= 0, "Mu1 must be >= 0 (current: %s)", mu1);
         Preconditions.checkArgument(mu2 >= 0, "Mu2 must be >= 0 (current: %s)", mu2);
         Preconditions.checkArgument(thresholdN > 0, "ThresholdN must be > 0 (current: %s)", thresholdN);
@@ -37,6 +43,8 @@ public final class CloudletConfig {
 
         this.cloud = cloud;
         this.distribution = distribution;
+        this.futureEventList = futureEventList;
+        this.taskTable = taskTable;
         this.mu1 = mu1;
         this.mu2 = mu2;
         this.thresholdN = thresholdN;
@@ -53,6 +61,14 @@ public final class CloudletConfig {
         return distribution;
     }
 
+    public IFutureEventList getFutureEventList() {
+        return futureEventList;
+    }
+
+    public TaskTable getTaskTable() {
+        return taskTable;
+    }
+
     public double getMu1() {
         return mu1;
     }
@@ -81,6 +97,8 @@ public final class CloudletConfig {
 
         private final Cloud cloud;
         private final Distribution distribution;
+        private final IFutureEventList futureEventList;
+        private final TaskTable taskTable;
         private final double mu1;
         private final double mu2;
         private final int thresholdN;
@@ -89,10 +107,13 @@ public final class CloudletConfig {
 
         private int thresholdS;
 
-        public CloudletConfigBuilder(Cloud cloud, Distribution distribution, double mu1, double mu2, int thresholdN,
+        public CloudletConfigBuilder(Cloud cloud, Distribution distribution, IFutureEventList futureEventList,
+                                     TaskTable taskTable, double mu1, double mu2, int thresholdN,
                                      AccessControlFactory.Algorithm accessControlAlgorithm, TaskInterruptFactory.Algorithm interruptTaskAlgorithm) {
             this.cloud = cloud;
             this.distribution = distribution;
+            this.futureEventList = futureEventList;
+            this.taskTable = taskTable;
             this.mu1 = mu1;
             this.mu2 = mu2;
             this.thresholdN = thresholdN;
@@ -101,7 +122,7 @@ public final class CloudletConfig {
         }
 
         public CloudletConfig build() {
-            return new CloudletConfig(cloud, distribution, mu1, mu2,
+            return new CloudletConfig(cloud, distribution, futureEventList, taskTable, mu1, mu2,
                     thresholdN, accessControlAlgorithm, interruptTaskAlgorithm, thresholdS);
         }
 
@@ -112,7 +133,17 @@ public final class CloudletConfig {
 
         @FunctionalInterface
         public interface DistributionBuilder {
-            Mu1Builder distribution(Distribution distribution);
+            FutureEventListBuilder distribution(Distribution distribution);
+        }
+
+        @FunctionalInterface
+        public interface FutureEventListBuilder {
+            TaskTableBuilder futureEventList(IFutureEventList futureEventList);
+        }
+
+        @FunctionalInterface
+        public interface TaskTableBuilder {
+            Mu1Builder taskTable(TaskTable taskTable);
         }
 
         @FunctionalInterface
@@ -146,8 +177,8 @@ public final class CloudletConfig {
         }
 
         public static CloudBuilder builder() {
-            return cloud -> distribution -> mu1 -> mu2 -> thresholdN -> accessControlAlgorithm -> interruptTaskAlgorithm ->
-                    new CloudletConfigBuilder(cloud, distribution, mu1, mu2, thresholdN, accessControlAlgorithm, interruptTaskAlgorithm);
+            return cloud -> distribution -> futureEventList -> taskTable -> mu1 -> mu2 -> thresholdN -> accessControlAlgorithm -> interruptTaskAlgorithm ->
+                    new CloudletConfigBuilder(cloud, distribution, futureEventList, taskTable, mu1, mu2, thresholdN, accessControlAlgorithm, interruptTaskAlgorithm);
         }
 
     }
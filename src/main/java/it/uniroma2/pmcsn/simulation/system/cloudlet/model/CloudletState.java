@@ -3,44 +3,64 @@ package it.uniroma2.pmcsn.simulation.system.cloudlet.model;
 import com.google.common.base.Preconditions;
 import it.uniroma2.pmcsn.simulation.model.IState;
 import it.uniroma2.pmcsn.simulation.model.Task;
+import it.uniroma2.pmcsn.simulation.model.TaskHeap;
+import it.uniroma2.pmcsn.simulation.model.TaskTable;
+import it.uniroma2.pmcsn.simulation.simulator.Event;
+import it.uniroma2.pmcsn.simulation.simulator.fel.IFutureEventList;
 import org.checkerframework.checker.index.qual.NonNegative;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
-import javax.annotation.Nullable;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.function.Predicate;
 
 /**
+ * Population of the {@link it.uniroma2.pmcsn.simulation.system.cloudlet.Cloudlet}.
  *
- *
- * Using the Arrays would be ideal (fixed length) but to use the features
- *  of java8 (lambda expression) it would require the creation of a List at each use.
- * Workaround: use List and check max requested size at each insertion.
+ * For each class, tasks are indexed both by arrival time and by completion time (only tasks
+ * already executed), so that membership check and selection of the task to interrupt are O(1),
+ * while add, execution and removal of a task are O(log n). Indices are heaps of {@link TaskTable}
+ * handles sized on the cloudlet capacity, so they never allocate while the simulation runs.
  */
 public final class CloudletState implements IState {
 
     private final int thresholdN;
     private final int thresholdS;
 
-    private List<Task> tasksClass1;
-    private List<Task> tasksClass2;
-
-    public CloudletState(@Nonnegative int thresholdN) {
-        this(thresholdN, thresholdN);
+    // Future event list on which completions are scheduled
+    private final IFutureEventList futureEventList;
+    // Store of the tasks
+    private final TaskTable taskTable;
+
+    // Tasks ordered by arrival time
+    private final TaskHeap tasksClass1;
+    private final TaskHeap tasksClass2;
+    // Executed tasks ordered by completion time
+    private final TaskHeap completionsClass1;
+    private final TaskHeap completionsClass2;
+
+    public CloudletState(@Nonnull IFutureEventList futureEventList, @Nonnull TaskTable taskTable,
+                         @Nonnegative int thresholdN) {
+        this(futureEventList, taskTable, thresholdN, thresholdN);
     }
 
-    public CloudletState(@Nonnegative int thresholdN, @Nonnegative int thresholdS) {
+    public CloudletState(@Nonnull IFutureEventList futureEventList, @Nonnull TaskTable taskTable,
+                         @Nonnegative int thresholdN, @Nonnegative int thresholdS) {
+        Preconditions.checkNotNull(futureEventList, "FutureEventList can not be null (current: %s)", futureEventList);
+        Preconditions.checkNotNull(taskTable, "TaskTable can not be null (current: %s)", taskTable);
         Preconditions.checkArgument(thresholdN > 0, "ThresholdN must be > 0 (current: %s)", thresholdN);
         Preconditions.checkArgument(thresholdS <= thresholdN, "ThresholdS must be in range [0, %s] (current: %s)", thresholdN, thresholdS);
 
         this.thresholdN = thresholdN;
         this.thresholdS = thresholdS;
 
-        this.tasksClass1 = new ArrayList<>(thresholdN);
-        this.tasksClass2 = new ArrayList<>(thresholdN);
+        this.futureEventList = futureEventList;
+        this.taskTable = taskTable;
+
+        this.tasksClass1 = new TaskHeap(taskTable::getArrival, thresholdN);
+        this.tasksClass2 = new TaskHeap(taskTable::getArrival, thresholdN);
+        this.completionsClass1 = new TaskHeap(taskTable::getCompletion, thresholdN);
+        this.completionsClass2 = new TaskHeap(taskTable::getCompletion, thresholdN);
     }
 
     public int getThresholdN() {
@@ -51,6 +71,10 @@ public final class CloudletState implements IState {
         return thresholdS;
     }
 
+    public @Nonnull TaskTable getTaskTable() {
+        return taskTable;
+    }
+
     public int getSizeTasksClass1() {
         return tasksClass1.size();
     }
@@ -60,46 +84,51 @@ public final class CloudletState implements IState {
     }
 
     public @Nonnull List<Task> getTasksClass1() {
-        return new ArrayList<>(tasksClass1);
+        return getViewsOf(tasksClass1);
     }
 
     public @Nonnull List<Task> getTasksClass2() {
-        return new ArrayList<>(tasksClass2);
+        return getViewsOf(tasksClass2);
     }
 
-    public @Nullable Task getTaskFrom(@Nonnull List<Task> taskList, @Nonnull Predicate<Task> predicate,
-                                       @Nonnull Comparator<Task> comparator) {
-        Preconditions.checkNotNull(taskList, "TaskList can not be null (current: %s)", taskList);
-        Preconditions.checkNotNull(predicate, "Predicate can not be null (current: %s)", predicate);
-        Preconditions.checkNotNull(comparator, "Comparator can not be null (current: %s)", comparator);
+    public int getNextCompletionClass1() {
+        return getTaskWithMinCompletion(Task.Class.CLASS1);
+    }
 
-        return taskList.parallelStream()
-                .filter(predicate)
-                .min(comparator)
-                .orElse(null);
+    public int getNextCompletionClass2() {
+        return getTaskWithMinCompletion(Task.Class.CLASS2);
     }
 
-    public @Nullable Task getNextCompletionClass1() {
-        return getTaskFrom(tasksClass1, Task::isCompleted, Task.minCompletionTime);
+    public int getTaskWithMinArrival(@Nonnull Task.Class taskClass) {
+        return getTasksOf(taskClass).first();
     }
 
-    public @Nullable Task getNextCompletionClass2() {
-        return getTaskFrom(tasksClass2, Task::isCompleted, Task.minCompletionTime);
+    public int getTaskWithMaxArrival(@Nonnull Task.Class taskClass) {
+        return getTasksOf(taskClass).last();
+    }
+
+    public int getTaskWithMinCompletion(@Nonnull Task.Class taskClass) {
+        return getCompletionsOf(taskClass).first();
+    }
+
+    public int getTaskWithMaxCompletion(@Nonnull Task.Class taskClass) {
+        return getCompletionsOf(taskClass).last();
     }
 
     /**
      * Get next {@link Task} from {@link it.uniroma2.pmcsn.simulation.system.cloudlet.Cloudlet} population.
      *
-     * @return the {@link Task} with the shortest **completion** time. If no completed task is found, return null.
+     * @return the {@link Task} with the shortest **completion** time. If no completed task is found,
+     * return {@link TaskTable#NULL}.
      */
     @Override
-    public @Nullable Task getNextEvent() {
-        Task taskClass1 = getNextCompletionClass1();
-        Task taskClass2 = getNextCompletionClass2();
+    public int getNextEvent() {
+        int taskClass1 = getNextCompletionClass1();
+        int taskClass2 = getNextCompletionClass2();
 
-        if (taskClass1 != null && taskClass2 != null) {
-            return taskClass1.getCompletion() > taskClass2.getCompletion() ? taskClass2 : taskClass1;
-        } else if (taskClass1 != null) {
+        if (taskClass1 != TaskTable.NULL && taskClass2 != TaskTable.NULL) {
+            return taskTable.getCompletion(taskClass1) > taskTable.getCompletion(taskClass2) ? taskClass2 : taskClass1;
+        } else if (taskClass1 != TaskTable.NULL) {
             return taskClass1;
         } else {
             return taskClass2;
@@ -115,108 +144,118 @@ public final class CloudletState implements IState {
      * can not accept incoming {@link Task}
      */
     @Override
-    public void add(@Nonnull Task task) {
-        Preconditions.checkNotNull(task, "Task can not be null (current: %s)", task);
+    public void add(int task) {
+        Preconditions.checkArgument(taskTable.contains(task), "Task not found (current: %s)", task);
         Preconditions.checkState(
                 getSizeTasksClass1() + getSizeTasksClass2() < thresholdN,
                 "Cloudlet can not accept other tasks: max size reached (current: %s)",
                 thresholdN
         );
 
-        Task.Class taskClass = task.getTaskClass();
-        switch (taskClass) {
-            case CLASS1:
-                Preconditions.checkState(
-                        !tasksClass1.contains(task),
-                        "Cloudlet already contains %s (current: %s)",
-                        task,
-                        tasksClass1
-                );
-                tasksClass1.add(task);
-                break;
-
-            case CLASS2:
-                Preconditions.checkState(
-                        !tasksClass2.contains(task),
-                        "Cloudlet already contains %s (current: %s)",
-                        task,
-                        tasksClass2
-                );
-                tasksClass2.add(task);
-                break;
-
-            default:
-                throw new TypeNotPresentException(taskClass.name(), new Throwable("Task type not supported"));
+        Task.Class taskClass = taskTable.getTaskClass(task);
+        TaskHeap tasks = getTasksOf(taskClass);
+        Preconditions.checkState(
+                !tasks.contains(task),
+                "Cloudlet already contains %s (current: %s)",
+                task,
+                tasks
+        );
+        // address handles up to the table capacity, so indices grow with the table and not with handles seen
+        TaskHeap completions = getCompletionsOf(taskClass);
+        tasks.ensureCapacity(taskTable.capacity());
+        completions.ensureCapacity(taskTable.capacity());
+        tasks.add(task);
+        if (taskTable.isCompleted(task)) {
+            completions.add(task);
         }
     }
 
-    public void setCompletionOf(@Nonnull Task task, @NonNegative double completion) {
-        Preconditions.checkNotNull(task, "Task must be not null (current: %s)", task);
-        Preconditions.checkArgument(completion > 0, "Completion can not be negative (current: %s)", completion);
+    public void setCompletionOf(int task, @NonNegative double completion) {
+        // explicit checks, to avoid boxing the arguments on each event
+        if (completion <= 0) {
+            throw new IllegalArgumentException(String.format("Completion can not be negative (current: %s)", completion));
+        }
+        if (taskTable.getArrival(task) >= completion) {
+            throw new IllegalStateException(String.format(
+                    "Task completion time must be greater than task arrival time (current: %s, %s)",
+                    taskTable.getArrival(task),
+                    completion
+            ));
+        }
+
+        Task.Class taskClass = taskTable.getTaskClass(task);
+        TaskHeap tasks = getTasksOf(taskClass);
         Preconditions.checkState(
-                task.getArrival() < completion,
-                "Task completion time must be greater than task arrival time (current: %s, %s)",
-                task.getArrival(),
-                completion
+                tasks.contains(task),
+                "Expected to find task %s in tasks of class %s (current: %s)",
+                task,
+                taskClass,
+                tasks
         );
 
-        Task.Class taskClass = task.getTaskClass();
+        // completion time is the key of the index, so the task must be re-indexed
+        TaskHeap completions = getCompletionsOf(taskClass);
+        completions.remove(task);
+        taskTable.setCompletion(task, completion);
+        completions.add(task);
+
+        futureEventList.schedule(Event.Type.CLOUDLET_COMPLETION, task, completion);
+    }
+
+    @Override
+    public void remove(int task) {
+        Preconditions.checkArgument(taskTable.contains(task), "Task not found (current: %s)", task);
+
+        Task.Class taskClass = taskTable.getTaskClass(task);
+        getTasksOf(taskClass).remove(task);
+        getCompletionsOf(taskClass).remove(task);
+
+        // an interrupted task leaves the cloudlet before its completion
+        futureEventList.cancel(Event.Type.CLOUDLET_COMPLETION, task);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getSizeTasksClass1() == 0 && getSizeTasksClass2() == 0;
+    }
+
+    private @Nonnull TaskHeap getTasksOf(@Nonnull Task.Class taskClass) {
+        Preconditions.checkNotNull(taskClass, "Task class must be not null (current: %s)", taskClass);
+
         switch (taskClass) {
             case CLASS1:
-                Task taskClass1ToUpdate = tasksClass1.parallelStream()
-                        .filter(t -> t.equals(task))
-                        .findFirst()
-                        .orElse(null);
-                Preconditions.checkNotNull(
-                        taskClass1ToUpdate,
-                        "Expected to find task %s in list tasksClass1 (current: %s)",
-                        task.toString(),
-                        tasksClass1
-                );
-                taskClass1ToUpdate.setCompletion(completion);
-                break;
+                return tasksClass1;
 
             case CLASS2:
-                Task taskClass2ToUpdate = tasksClass2.parallelStream()
-                        .filter(t -> t.equals(task))
-                        .findFirst()
-                        .orElse(null);
-                Preconditions.checkNotNull(
-                        taskClass2ToUpdate,
-                        "Expected to find task %s in list tasksClass2 (current: %s)",
-                        task.toString(),
-                        tasksClass2
-                );
-                taskClass2ToUpdate.setCompletion(completion);
-                break;
+                return tasksClass2;
 
             default:
                 throw new TypeNotPresentException(taskClass.name(), new Throwable("Task type not supported"));
         }
     }
 
-    @Override
-    public void remove(@Nonnull Task task) {
-        Preconditions.checkNotNull(task, "Task can not be null (current: %s)", task);
+    private @Nonnull TaskHeap getCompletionsOf(@Nonnull Task.Class taskClass) {
+        Preconditions.checkNotNull(taskClass, "Task class must be not null (current: %s)", taskClass);
 
-        Task.Class taskClass = task.getTaskClass();
         switch (taskClass) {
             case CLASS1:
-                tasksClass1.remove(task);
-                break;
+                return completionsClass1;
 
             case CLASS2:
-                tasksClass2.remove(task);
-                break;
+                return completionsClass2;
 
             default:
                 throw new TypeNotPresentException(taskClass.name(), new Throwable("Task type not supported"));
         }
     }
 
-    @Override
-    public boolean isEmpty() {
-        return getSizeTasksClass1() == 0 && getSizeTasksClass2() == 0;
+    private @Nonnull List<Task> getViewsOf(@Nonnull TaskHeap tasks) {
+        int[] handles = tasks.toArray();
+        List<Task> views = new ArrayList<>(handles.length);
+        for (int task : handles) {
+            views.add(taskTable.view(task));
+        }
+        return views;
     }
 
 }
@@ -1,14 +1,23 @@
 package it.uniroma2.pmcsn.simulation.system.cloudlet.task_interrupt;
 
 import it.uniroma2.pmcsn.simulation.model.Task;
+import it.uniroma2.pmcsn.simulation.model.TaskTable;
+import it.uniroma2.pmcsn.simulation.system.cloudlet.model.CloudletState;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
-import javax.annotation.Nullable;
-import java.util.List;
 
 public interface ITaskInterrupt {
 
-    @Nullable Task getTaskToInterruptFrom(@Nonnegative double currentTime, @Nonnull List<Task> taskList);
+    /**
+     * Choose the {@link Task} of class {@param taskClass} to interrupt.
+     *
+     * @param currentTime current time instant
+     * @param cloudletState from which to choose the task
+     * @param taskClass class of the task to interrupt
+     * @return handle of the task to interrupt or {@link TaskTable#NULL} if there are no tasks of class {@param taskClass}
+     */
+    int getTaskToInterruptFrom(@Nonnegative double currentTime, @Nonnull CloudletState cloudletState,
+                               @Nonnull Task.Class taskClass);
 
 }
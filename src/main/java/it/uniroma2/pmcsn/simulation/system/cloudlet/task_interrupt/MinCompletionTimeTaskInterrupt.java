@@ -2,23 +2,23 @@ package it.uniroma2.pmcsn.simulation.system.cloudlet.task_interrupt;
 
 import com.google.common.base.Preconditions;
 import it.uniroma2.pmcsn.simulation.model.Task;
+import it.uniroma2.pmcsn.simulation.system.cloudlet.model.CloudletState;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
-import javax.annotation.Nullable;
-import java.util.List;
 
 class MinCompletionTimeTaskInterrupt implements ITaskInterrupt {
 
     @Override
-    public @Nullable Task getTaskToInterruptFrom(@Nonnegative double currentTime, @Nonnull List<Task> taskList) {
-        Preconditions.checkArgument(currentTime > 0, "CurrentEvent must be > 0 (current: %s)", currentTime);
-        Preconditions.checkNotNull(taskList, "TaskList can not be null (current: %s)", taskList);
+    public int getTaskToInterruptFrom(@Nonnegative double currentTime, @Nonnull CloudletState cloudletState,
+                                      @Nonnull Task.Class taskClass) {
+        if (currentTime <= 0) {
+            throw new IllegalArgumentException(String.format("CurrentEvent must be > 0 (current: %s)", currentTime));
+        }
+        Preconditions.checkNotNull(cloudletState, "CloudletState can not be null (current: %s)", cloudletState);
+        Preconditions.checkNotNull(taskClass, "TaskClass can not be null (current: %s)", taskClass);
 
-        return taskList.parallelStream()
-                .filter(Task::isArrived)
-                .min(Task.minCompletionTime)
-                .orElse(null);
+        return cloudletState.getTaskWithMinCompletion(taskClass);
     }
 
 }
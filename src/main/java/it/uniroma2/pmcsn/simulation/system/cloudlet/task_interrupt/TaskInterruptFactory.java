@@ -22,6 +22,16 @@ public class TaskInterruptFactory {
             throw new TypeNotPresentException(algorithm, new Throwable("Selected strategy not yet implemented"));
         }
 
+        /**
+         * Choosing by arrival time does not depend on residual service times, so with exponential services
+         * the tasks left in the cloudlet still have exponential residual service times.
+         *
+         * @return {@code true} iif the interrupted task is chosen by arrival time
+         */
+        public boolean isByArrivalTime() {
+            return this == MIN_ARRIVAL_TIME || this == MAX_ARRIVAL_TIME;
+        }
+
     }
 
     public static @Nonnull ITaskInterrupt get(@Nonnull String strategy) {
@@ -1,41 +1,111 @@
 package it.uniroma2.pmcsn.simulation.util;
 
 import com.google.common.base.Preconditions;
+import it.uniroma2.pmcsn.simulation.util.generator.GeneratorFactory;
+import it.uniroma2.pmcsn.simulation.util.generator.ICounterGenerator;
+import it.uniroma2.pmcsn.simulation.util.generator.IGenerator;
+import it.uniroma2.pmcsn.simulation.util.generator.LehmerGenerator;
 import it.uniroma2.pmcsn.util.random.Rngs;
 import it.uniroma2.pmcsn.util.random.Rvgs;
+import it.uniroma2.pmcsn.util.random.Rvms;
 
 import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
 
+/**
+ * Variates of {@link #STREAMS} streams, stream 0 being the stream offset.
+ *
+ * Stream k draws from the k-th split of a generator of the seed, see {@link GeneratorFactory}: with the default
+ * {@link GeneratorFactory.Algorithm#LEHMER} generator, stream k is the one planted by Rngs, with the other generators
+ * streams have no period ceiling and no jump to compute.
+ *
+ * With a counter-based generator, e.g. {@link GeneratorFactory.Algorithm#PHILOX}, variates of a counter
+ * (see {@link #fromExponential(int, long, double)}) are a pure function of seed, stream and counter, such as
+ * the service time of a task on a node from the id of the task: they do not depend on the order of the draws,
+ * and tasks with the same id get the same variates in every run with the same streams (common random numbers).
+ *
+ * Uniforms are prefetched from each stream in blocks of {@link #PREFETCH} values by {@link IGenerator#fill},
+ * and variates are computed from them as {@link Rvgs} does: with the Lehmer generator, each stream gives
+ * the same variates, in the same order, of draws one by one from Rngs.
+ */
 public class Distribution {
 
-    private final Rngs rngs;
-    private final Rvgs rvgs;
+    // Lehmer generator parameters of Rngs
+    public static final long MODULUS = Rngs.MODULUS;
+    public static final long MULTIPLIER = Rngs.MULTIPLIER;
+    // Number of streams
+    public static final int STREAMS = 256;
+    // Draws between the initial states of two consecutive streams planted by Rngs
+    public static final long STREAM_JUMP = 8367782;
+    // Min mean of Poisson variates generated by transformed rejection
+    public static final double POISSON_REJECTION_MEAN = 10.0;
+    // Uniforms prefetched from a stream at once
+    public static final int PREFETCH = 256;
+
+    private final GeneratorFactory.Algorithm algorithm;
+    private final Rvms rvms;
+    // Stream used in place of stream 0
+    private final int streamOffset;
+    private final boolean antithetic;
+    // Generator split into the streams, split in index order on first draw
+    private final IGenerator generator;
+    private final IGenerator[] streams = new IGenerator[STREAMS];
+    private int splits;
+    // Uniforms prefetched from each stream, allocated on first draw, and index of the next one
+    private final double[][] prefetched = new double[STREAMS][];
+    private final int[] next = new int[STREAMS];
 
     public Distribution() {
         this(0);
     }
 
-    public Distribution(@Nonnegative long seed) {
-        Preconditions.checkArgument(seed >= 0, "Rngs seed must be >= 0 (current: %s)", seed);
-        if (seed > 0) {
-            Preconditions.checkArgument(getDigitsOf(seed) <= 9, "Rngs seed must have at most 9 digits (current: %s)", seed);
-        }
+    public Distribution(long seed) {
+        this(seed, 0);
+    }
+
+    public Distribution(long seed, @Nonnegative int streamOffset) {
+        this(seed, streamOffset, false);
+    }
+
+    public Distribution(long seed, @Nonnegative int streamOffset, boolean antithetic) {
+        this(seed, streamOffset, antithetic, GeneratorFactory.Algorithm.LEHMER);
+    }
 
-        this.rngs = new Rngs();
-        this.rngs.plantSeeds(seed);
-        this.rvgs = new Rvgs(this.rngs);
+    /**
+     * @param seed of the generator, in range [0, {@link #MODULUS}) for the Lehmer generator,
+     *             see {@link LehmerGenerator}
+     * @param streamOffset stream used in place of stream 0
+     * @param antithetic iif true, each uniform u is replaced by 1 - u, still in range (0.0, 1.0): a run drawing
+     *                   1 - u and a run drawing u, with the same seed and streams, draw negatively correlated variates
+     * @param algorithm of the generator
+     */
+    public Distribution(long seed, @Nonnegative int streamOffset, boolean antithetic,
+                        @Nonnull GeneratorFactory.Algorithm algorithm) {
+        Preconditions.checkArgument(
+                streamOffset >= 0 && streamOffset < STREAMS,
+                "Stream offset must be in range [0, %s) (current: %s)",
+                STREAMS,
+                streamOffset
+        );
+        Preconditions.checkNotNull(algorithm, "Algorithm can not be null (current: %s)", algorithm);
+
+        this.algorithm = algorithm;
+        this.generator = GeneratorFactory.get(algorithm, seed);
+        this.rvms = new Rvms();
+        this.streamOffset = streamOffset;
+        this.antithetic = antithetic;
     }
 
-    public Rngs getRngs() {
-        return rngs;
+    public @Nonnull GeneratorFactory.Algorithm getAlgorithm() {
+        return algorithm;
     }
 
-    public Rvgs getRvgs() {
-        return rvgs;
+    public int getStreamOffset() {
+        return streamOffset;
     }
 
-    public void selectRngStream(int stream) {
-        rngs.selectStream(stream);
+    public boolean isAntithetic() {
+        return antithetic;
     }
 
     public double fromExponential(double value) {
@@ -43,8 +113,71 @@ public class Distribution {
     }
 
     public double fromExponential(int stream, double value) {
-        selectRngStream(stream);
-        return rvgs.exponential(value);
+        return -value * Math.log(1.0 - random(stream));
+    }
+
+    /**
+     * Get an exponential variate of {@param counter}: with a counter-based generator, the same variate for the same
+     * stream and counter, whatever the values drawn before, otherwise the next variate of {@param stream}.
+     *
+     * @param stream index of the stream
+     * @param counter e.g. the id of a task
+     * @param value mean of the distribution
+     * @return exponential variate
+     */
+    public double fromExponential(int stream, long counter, double value) {
+        return -value * Math.log(1.0 - random(stream, counter));
+    }
+
+    public double fromUniform(int stream, double a, double b) {
+        return a + (b - a) * random(stream);
+    }
+
+    /**
+     * Get a Poisson variate. {@link Rvgs#poisson(double)} draws about {@param mean} values, so for large means
+     * the PTRS transformed rejection of Hörmann (1993) is used, drawing less than 3 values on average.
+     *
+     * @param stream index of the stream
+     * @param mean mean of the distribution, >= 0
+     * @return Poisson variate
+     */
+    public long fromPoisson(int stream, double mean) {
+        if (mean <= 0.0) {
+            return 0;
+        }
+        if (mean < POISSON_REJECTION_MEAN) {
+            // same values of Rvgs#poisson(double)
+            double t = 0.0;
+            long x = 0;
+            while (t < mean) {
+                t += fromExponential(stream, 1.0);
+                ++x;
+            }
+            return x - 1;
+        }
+
+        double squareRoot = Math.sqrt(mean);
+        double logMean = Math.log(mean);
+        double b = 0.931 + 2.53 * squareRoot;
+        double a = -0.059 + 0.02483 * b;
+        double inverseAlpha = 1.1239 + 1.1328 / (b - 3.4);
+        double vr = 0.9277 - 3.6224 / (b - 2);
+        while (true) {
+            double u = random(stream) - 0.5;
+            double v = random(stream);
+            double us = 0.5 - Math.abs(u);
+            long k = (long) Math.floor((2 * a / us + b) * u + mean + 0.43);
+            // squeeze
+            if (us >= 0.07 && v <= vr) {
+                return k;
+            }
+            if (k < 0 || (us < 0.013 && v > us)) {
+                continue;
+            }
+            if (Math.log(v * inverseAlpha / (a / (us * us) + b)) <= -mean + k * logMean - rvms.logFactorial(k)) {
+                return k;
+            }
+        }
     }
 
     public long fromBernoulli(double value) {
@@ -52,8 +185,94 @@ public class Distribution {
     }
 
     public long fromBernoulli(int stream, double value) {
-        selectRngStream(stream);
-        return rvgs.bernoulli(value);
+        return random(stream) < 1.0 - value ? 0 : 1;
+    }
+
+    /**
+     * Get the next uniform of {@param stream}, prefetching a block of values when none is left.
+     *
+     * @param stream index of the stream
+     * @return uniform in range (0.0, 1.0)
+     */
+    private double random(int stream) {
+        // stream index is wrapped modulo the number of streams, as Rngs does
+        int index = (streamOffset + stream) % STREAMS;
+        double[] values = prefetched[index];
+        if (values == null) {
+            values = prefetched[index] = new double[PREFETCH];
+            next[index] = PREFETCH;
+        }
+        if (next[index] == PREFETCH) {
+            fill(index, values);
+            next[index] = 0;
+        }
+        return values[next[index]++];
+    }
+
+    /**
+     * Get the uniform of {@param counter} with a counter-based generator,
+     * otherwise the next uniform of {@param stream}.
+     *
+     * @param stream index of the stream
+     * @param counter any value
+     * @return uniform in range (0.0, 1.0)
+     */
+    private double random(int stream, long counter) {
+        int index = (streamOffset + stream) % STREAMS;
+        IGenerator generator = getGenerator(index);
+        if (!(generator instanceof ICounterGenerator)) {
+            return random(stream);
+        }
+        double value = ((ICounterGenerator) generator).random(counter);
+        return antithetic ? 1.0 - value : value;
+    }
+
+    private void fill(int index, @Nonnull double[] values) {
+        getGenerator(index).fill(values, 0, values.length);
+        if (antithetic) {
+            for (int i = 0; i < values.length; ++i) {
+                values[i] = 1.0 - values[i];
+            }
+        }
+    }
+
+    /**
+     * @param index of the stream
+     * @return generator of the stream, splitting streams in index order up to {@param index}
+     */
+    private @Nonnull IGenerator getGenerator(int index) {
+        while (splits <= index) {
+            streams[splits++] = generator.split();
+        }
+        return streams[index];
+    }
+
+    /**
+     * Jump ahead the Lehmer generator, in O(log draws) multiplications.
+     *
+     * @param seed initial state, in range (0, {@link #MODULUS})
+     * @param draws number of draws to skip
+     * @return state of the generator after {@param draws} draws starting from {@param seed}
+     */
+    public static long seedAfter(long seed, @Nonnegative long draws) {
+        Preconditions.checkArgument(
+                seed > 0 && seed < MODULUS,
+                "Seed must be in range (0, %s) (current: %s)",
+                MODULUS,
+                seed
+        );
+        Preconditions.checkArgument(draws >= 0, "Draws must be >= 0 (current: %s)", draws);
+
+        // MULTIPLIER^draws mod MODULUS by square-and-multiply, products fit in 62 bits
+        long result = seed;
+        long multiplier = MULTIPLIER;
+        for (long exponent = draws % (MODULUS - 1); exponent > 0; exponent >>= 1) {
+            if ((exponent & 1) == 1) {
+                result = result * multiplier % MODULUS;
+            }
+            multiplier = multiplier * multiplier % MODULUS;
+        }
+        return result;
     }
 
     /**
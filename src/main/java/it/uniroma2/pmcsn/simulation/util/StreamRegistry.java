@@ -0,0 +1,173 @@
+package it.uniroma2.pmcsn.simulation.util;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Assignment of disjoint segments of the Lehmer generator to the streams of independent replications,
+ * for any number of replications.
+ *
+ * Stream s of replication r starts P(r, s) = ((r mod B) * S + s) * J + (r div B) * (J / K) draws after the root
+ * seed, with S streams per replication, B = {@link Distribution#STREAMS} / S blocks, K = ceil(R / B) replications
+ * per block, R replications and J = {@link Distribution#STREAM_JUMP} draws between two streams planted by Rngs:
+ * replications in different blocks use different Rngs streams, replications in the same block start from
+ * different states of those streams. Each stream can draw J / K values before reaching the start of another one,
+ * see {@link #getCapacity()}.
+ *
+ * The first stream of a replication is the seed of its {@link Distribution}, planted by Rngs at the offset of its
+ * block, so that Rngs plants all the others: any assignment is computed by {@link Distribution#seedAfter(long, long)}
+ * in O(log P) multiplications. Assignments handed out are recorded, in replication order.
+ */
+public class StreamRegistry {
+
+    private final long seed;
+    private final int replications;
+    private final int streams;
+    private final int blocks;
+    // Draws between the starts of replications of the same block
+    private final long capacity;
+    // Assignments handed out, by replication
+    private final Map<Integer, Assignment> assignments = new TreeMap<>();
+
+    /**
+     * @param seed root seed, in range (0, {@link Distribution#MODULUS})
+     * @param replications number of replications
+     * @param streams number of streams of each replication
+     */
+    public StreamRegistry(long seed, @Nonnegative int replications, @Nonnegative int streams) {
+        Preconditions.checkArgument(
+                seed > 0 && seed < Distribution.MODULUS,
+                "Seed must be in range (0, %s) (current: %s)",
+                Distribution.MODULUS,
+                seed
+        );
+        Preconditions.checkArgument(replications > 0, "Replications must be > 0 (current: %s)", replications);
+        Preconditions.checkArgument(
+                streams > 0 && streams <= Distribution.STREAMS,
+                "Streams must be in range (0, %s] (current: %s)",
+                Distribution.STREAMS,
+                streams
+        );
+
+        this.seed = seed;
+        this.replications = replications;
+        this.streams = streams;
+        this.blocks = Distribution.STREAMS / streams;
+        this.capacity = Distribution.STREAM_JUMP / ((replications + blocks - 1) / blocks);
+    }
+
+    public int getReplications() {
+        return replications;
+    }
+
+    public int getStreams() {
+        return streams;
+    }
+
+    /**
+     * @return number of replications using different Rngs streams
+     */
+    public int getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * @return values each stream can draw without overlapping any other stream
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Hand out the streams of {@param replication}, recording the assignment.
+     *
+     * @param replication index of the replication, in range [0, replications)
+     * @return seed and stream offset of the {@link Distribution} of {@param replication}
+     */
+    public synchronized @Nonnull Assignment assign(@Nonnegative int replication) {
+        checkReplication(replication);
+
+        return assignments.computeIfAbsent(replication, r -> new Assignment(
+                r,
+                Distribution.seedAfter(seed, (long) (r / blocks) * capacity),
+                (r % blocks) * streams
+        ));
+    }
+
+    /**
+     * @param replication index of the replication, in range [0, replications)
+     * @param stream index of the stream in the replication, in range [0, streams)
+     * @return initial state of {@param stream} of {@param replication}
+     */
+    public long getSeed(@Nonnegative int replication, @Nonnegative int stream) {
+        checkReplication(replication);
+        Preconditions.checkArgument(
+                stream >= 0 && stream < streams,
+                "Stream must be in range [0, %s) (current: %s)",
+                streams,
+                stream
+        );
+
+        long draws = ((long) (replication % blocks) * streams + stream) * Distribution.STREAM_JUMP +
+                (long) (replication / blocks) * capacity;
+        return Distribution.seedAfter(seed, draws);
+    }
+
+    /**
+     * @return assignments handed out, in replication order
+     */
+    public synchronized @Nonnull List<Assignment> getAssignments() {
+        return new ArrayList<>(assignments.values());
+    }
+
+    private void checkReplication(int replication) {
+        Preconditions.checkArgument(
+                replication >= 0 && replication < replications,
+                "Replication must be in range [0, %s) (current: %s)",
+                replications,
+                replication
+        );
+    }
+
+    /**
+     * Streams of a replication: the ones of a {@link Distribution} with seed {@link #getSeed()}
+     * and stream offset {@link #getStreamOffset()}.
+     */
+    public static class Assignment {
+
+        private final int replication;
+        private final long seed;
+        private final int streamOffset;
+
+        private Assignment(int replication, long seed, int streamOffset) {
+            this.replication = replication;
+            this.seed = seed;
+            this.streamOffset = streamOffset;
+        }
+
+        public int getReplication() {
+            return replication;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public int getStreamOffset() {
+            return streamOffset;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("replication %s: seed %s, stream offset %s", replication, seed, streamOffset);
+        }
+
+    }
+
+}
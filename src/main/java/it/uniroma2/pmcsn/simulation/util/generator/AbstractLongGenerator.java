@@ -0,0 +1,51 @@
+package it.uniroma2.pmcsn.simulation.util.generator;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Generator of uniforms from 64 bits values: each uniform is made of the 52 high bits of a value,
+ * centered in their interval, so that it is never 0.0 nor 1.0.
+ */
+public abstract class AbstractLongGenerator implements IGenerator {
+
+    // Width of the interval of a uniform, 2^-52
+    private static final double ULP = 0x1.0p-52;
+
+    /**
+     * @return next 64 bits value
+     */
+    protected abstract long nextLong();
+
+    @Override
+    public double random() {
+        return toUniform(nextLong());
+    }
+
+    @Override
+    public void fill(@Nonnull double[] out, int from, int to) {
+        for (int i = from; i < to; ++i) {
+            out[i] = toUniform(nextLong());
+        }
+    }
+
+    /**
+     * @param bits 64 bits value
+     * @return uniform in range (0.0, 1.0) of the 52 high bits of {@param bits}
+     */
+    protected static double toUniform(long bits) {
+        return ((bits >>> 12) + 0.5) * ULP;
+    }
+
+    /**
+     * Stafford's variant 13 of the MurmurHash3 finalizer, as SplitMix64 does, to seed a state from any value.
+     *
+     * @param z value to mix
+     * @return mixed value
+     */
+    protected static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+}
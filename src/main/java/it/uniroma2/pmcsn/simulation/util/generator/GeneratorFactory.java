@@ -0,0 +1,58 @@
+package it.uniroma2.pmcsn.simulation.util.generator;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnull;
+
+public class GeneratorFactory {
+
+    public enum Algorithm {
+
+        LEHMER,
+        SPLITTABLE,
+        XOROSHIRO128_PLUS_PLUS,
+        L64X128_MIX,
+        PHILOX;
+
+        public static @Nonnull Algorithm from(@Nonnull String algorithm) {
+            for (Algorithm a : Algorithm.values()) {
+                if (algorithm.equalsIgnoreCase(a.name())) {
+                    return a;
+                }
+            }
+            throw new TypeNotPresentException(algorithm, new Throwable("Selected generator not yet implemented"));
+        }
+
+    }
+
+    public static @Nonnull IGenerator get(@Nonnull String algorithm, long seed) {
+        Preconditions.checkNotNull(algorithm, "Algorithm can not be null");
+
+        return get(Algorithm.from(algorithm), seed);
+    }
+
+    public static @Nonnull IGenerator get(@Nonnull Algorithm algorithm, long seed) {
+        Preconditions.checkNotNull(algorithm, "Algorithm can not be null");
+
+        switch (algorithm) {
+            case LEHMER:
+                return new LehmerGenerator(seed);
+
+            case SPLITTABLE:
+                return new SplittableGenerator(seed);
+
+            case XOROSHIRO128_PLUS_PLUS:
+                return new Xoroshiro128PlusPlusGenerator(seed);
+
+            case L64X128_MIX:
+                return new L64X128MixGenerator(seed);
+
+            case PHILOX:
+                return new PhiloxGenerator(seed);
+
+            default:
+                throw new TypeNotPresentException(algorithm.name(), new Throwable("Generator not yet implemented"));
+        }
+    }
+
+}
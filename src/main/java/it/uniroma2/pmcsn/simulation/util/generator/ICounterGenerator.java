@@ -0,0 +1,17 @@
+package it.uniroma2.pmcsn.simulation.util.generator;
+
+/**
+ * Counter-based generator: the uniform of any counter is computed directly, as a bijection of the counter
+ * keyed by the state of the generator, so it does not depend on the values drawn before.
+ */
+public interface ICounterGenerator extends IGenerator {
+
+    /**
+     * Values of counters are not drawn by {@link #random()}, {@link #fill(double[], int, int)} nor by splits.
+     *
+     * @param counter any value, e.g. the id of a task
+     * @return uniform of {@param counter}, in range (0.0, 1.0), the same on each call
+     */
+    double random(long counter);
+
+}
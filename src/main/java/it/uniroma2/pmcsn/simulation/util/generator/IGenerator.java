@@ -0,0 +1,29 @@
+package it.uniroma2.pmcsn.simulation.util.generator;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Generator of uniforms, drawing the values of a stream of a {@link it.uniroma2.pmcsn.simulation.util.Distribution}.
+ */
+public interface IGenerator {
+
+    /**
+     * @return next uniform, in range (0.0, 1.0)
+     */
+    double random();
+
+    /**
+     * Fill {@param out} in range [{@param from}, {@param to}) with the next uniforms, the same values
+     * of as many calls to {@link #random()}.
+     */
+    void fill(@Nonnull double[] out, int from, int to);
+
+    /**
+     * Split a new generator off this one, changing its state: values drawn by a split do not overlap
+     * the values drawn by the other splits of the same generator, so splits are independent streams.
+     *
+     * @return new generator
+     */
+    @Nonnull IGenerator split();
+
+}
@@ -0,0 +1,78 @@
+package it.uniroma2.pmcsn.simulation.util.generator;
+
+import javax.annotation.Nonnull;
+
+/**
+ * LXM generator of Steele and Vigna (2021), with a 64 bits LCG and a xoroshiro128 generator combined by
+ * the mixing function of Doug Lea, the same values of L64X128MixRandom of java.util.random from the same state.
+ *
+ * Each generator has period 2^64 (2^128 - 1), and generators with a different additive constant of the LCG
+ * draw different sequences: a split gets a new additive constant and a new state from this generator,
+ * as L64X128MixRandom does.
+ */
+public class L64X128MixGenerator extends AbstractLongGenerator {
+
+    // Multiplier of the LCG
+    private static final long M = 0xd1342543de82ef95L;
+    // Multiplier of the mixing function
+    private static final long LEA = 0xdaba0b6eb09322e3L;
+
+    // Additive constant of the LCG, odd
+    private final long a;
+    // State of the LCG
+    private long s;
+    // State of the xoroshiro128 generator
+    private long x0;
+    private long x1;
+
+    /**
+     * @param seed mixed to the initial state
+     */
+    public L64X128MixGenerator(long seed) {
+        this(
+                mix(seed + 0x9e3779b97f4a7c15L),
+                mix(seed + 2 * 0x9e3779b97f4a7c15L),
+                mix(seed + 3 * 0x9e3779b97f4a7c15L),
+                mix(seed + 4 * 0x9e3779b97f4a7c15L)
+        );
+    }
+
+    /**
+     * @param a additive constant of the LCG, made odd
+     * @param s initial state of the LCG
+     * @param x0 first half of the initial state of the xoroshiro128 generator
+     * @param x1 second half of the initial state of the xoroshiro128 generator, the state must be not all zero
+     */
+    public L64X128MixGenerator(long a, long s, long x0, long x1) {
+        if ((x0 | x1) == 0) {
+            // the all zero state is a fixed point
+            x0 = 0x9e3779b97f4a7c15L;
+            x1 = 0x6a09e667f3bcc909L;
+        }
+        this.a = a | 1;
+        this.s = s;
+        this.x0 = x0;
+        this.x1 = x1;
+    }
+
+    @Override
+    protected long nextLong() {
+        long z = s + x0;
+        z = (z ^ (z >>> 32)) * LEA;
+        z = (z ^ (z >>> 32)) * LEA;
+        z ^= z >>> 32;
+
+        s = M * s + a;
+        long q0 = x0;
+        long q1 = x1 ^ q0;
+        x0 = Long.rotateLeft(q0, 24) ^ q1 ^ (q1 << 16);
+        x1 = Long.rotateLeft(q1, 37);
+        return z;
+    }
+
+    @Override
+    public @Nonnull L64X128MixGenerator split() {
+        return new L64X128MixGenerator(nextLong() << 1, nextLong(), nextLong(), nextLong());
+    }
+
+}
@@ -0,0 +1,74 @@
+package it.uniroma2.pmcsn.simulation.util.generator;
+
+import com.google.common.base.Preconditions;
+import it.uniroma2.pmcsn.simulation.util.Distribution;
+import it.uniroma2.pmcsn.util.random.Rngs;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lehmer generator of Rngs, with period 2^31 - 2, drawing the values of a stream planted by Rngs.
+ *
+ * A generator and its splits share the streams planted by {@link Rngs#plantSeeds(long)} from the seed: the k-th split
+ * draws stream k, {@link Distribution#STREAM_JUMP} values after the previous one, so streams of a {@link Distribution}
+ * draw the same values of Rngs, and at most {@link Distribution#STREAMS} splits are available. The first split draws
+ * stream 0, the one of this generator: only splits should be drawn from.
+ */
+public class LehmerGenerator implements IGenerator {
+
+    private final Rngs rngs;
+    // Rngs stream drawn by this generator
+    private final int stream;
+    // Streams split off, shared by this generator and its splits
+    private final AtomicInteger splits;
+
+    /**
+     * @param seed planted by Rngs, in range [0, {@link Rngs#MODULUS}): with seed 0, Rngs asks for the seed
+     *             interactively, see {@link Rngs#putSeed(long)}
+     */
+    public LehmerGenerator(long seed) {
+        Preconditions.checkArgument(
+                seed >= 0 && seed < Rngs.MODULUS,
+                "Seed must be in range [0, %s) (current: %s)",
+                Rngs.MODULUS,
+                seed
+        );
+
+        this.rngs = new Rngs();
+        this.rngs.plantSeeds(seed);
+        this.stream = 0;
+        this.splits = new AtomicInteger();
+    }
+
+    private LehmerGenerator(@Nonnull Rngs rngs, int stream, @Nonnull AtomicInteger splits) {
+        this.rngs = rngs;
+        this.stream = stream;
+        this.splits = splits;
+    }
+
+    @Override
+    public double random() {
+        rngs.selectStream(stream);
+        return rngs.random();
+    }
+
+    @Override
+    public void fill(@Nonnull double[] out, int from, int to) {
+        rngs.fill(stream, out, from, to);
+    }
+
+    @Override
+    public @Nonnull LehmerGenerator split() {
+        int split = splits.getAndIncrement();
+        Preconditions.checkState(
+                split < Distribution.STREAMS,
+                "Splits must be at most %s (current: %s)",
+                Distribution.STREAMS,
+                split + 1
+        );
+
+        return new LehmerGenerator(rngs, split, splits);
+    }
+
+}
@@ -0,0 +1,108 @@
+package it.uniroma2.pmcsn.simulation.util.generator;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Philox4x32-10 counter-based generator of Salmon et al. (2011), the same values of philox4x32 of Random123
+ * from the same counter and key.
+ *
+ * Each value is a bijection of a 128 bits counter keyed by 64 bits: the first two words of the counter are
+ * the index of the value, the last one its domain, so that values drawn in sequence (2^64 blocks of two values),
+ * values of counters (see {@link #random(long)}) and keys of splits never share a counter. A split is keyed
+ * by the value of its index in the domain of splits.
+ */
+public class PhiloxGenerator extends AbstractLongGenerator implements ICounterGenerator {
+
+    // Multipliers and key increments of the rounds
+    private static final int M0 = 0xD2511F53;
+    private static final int M1 = 0xCD9E8D57;
+    private static final int W0 = 0x9E3779B9;
+    private static final int W1 = 0xBB67AE85;
+    public static final int ROUNDS = 10;
+
+    // Domains of the counters
+    private static final int SEQUENCE = 0;
+    private static final int COUNTER = 1;
+    private static final int SPLIT = 2;
+
+    private final long key;
+    // Blocks drawn in sequence and splits
+    private long blocks;
+    private long splits;
+    // Second value of the last block drawn in sequence
+    private long buffered;
+    private boolean isBuffered;
+    // Counter and value of the current bijection
+    private final int[] block = new int[4];
+
+    /**
+     * @param key of the bijection
+     */
+    public PhiloxGenerator(long key) {
+        this.key = key;
+    }
+
+    @Override
+    protected long nextLong() {
+        if (isBuffered) {
+            isBuffered = false;
+            return buffered;
+        }
+        bijection(blocks++, SEQUENCE);
+        buffered = join(block[2], block[3]);
+        isBuffered = true;
+        return join(block[0], block[1]);
+    }
+
+    @Override
+    public double random(long counter) {
+        bijection(counter, COUNTER);
+        return toUniform(join(block[0], block[1]));
+    }
+
+    @Override
+    public @Nonnull PhiloxGenerator split() {
+        bijection(splits++, SPLIT);
+        return new PhiloxGenerator(join(block[0], block[1]));
+    }
+
+    /**
+     * Compute in {@link #block} the value of {@param index} in {@param domain}.
+     */
+    private void bijection(long index, int domain) {
+        block[0] = (int) index;
+        block[1] = (int) (index >>> 32);
+        block[2] = 0;
+        block[3] = domain;
+        philox(block, (int) key, (int) (key >>> 32));
+    }
+
+    /**
+     * Replace {@param counter} with its value keyed by {@param k0} and {@param k1}.
+     */
+    static void philox(@Nonnull int[] counter, int k0, int k1) {
+        int c0 = counter[0];
+        int c1 = counter[1];
+        int c2 = counter[2];
+        int c3 = counter[3];
+        for (int round = 0; round < ROUNDS; ++round) {
+            long product0 = (M0 & 0xffffffffL) * (c0 & 0xffffffffL);
+            long product1 = (M1 & 0xffffffffL) * (c2 & 0xffffffffL);
+            c0 = (int) (product1 >>> 32) ^ c1 ^ k0;
+            c1 = (int) product1;
+            c2 = (int) (product0 >>> 32) ^ c3 ^ k1;
+            c3 = (int) product0;
+            k0 += W0;
+            k1 += W1;
+        }
+        counter[0] = c0;
+        counter[1] = c1;
+        counter[2] = c2;
+        counter[3] = c3;
+    }
+
+    private static long join(int low, int high) {
+        return (low & 0xffffffffL) | ((long) high << 32);
+    }
+
+}
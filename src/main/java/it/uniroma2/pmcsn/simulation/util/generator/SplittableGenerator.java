@@ -0,0 +1,33 @@
+package it.uniroma2.pmcsn.simulation.util.generator;
+
+import javax.annotation.Nonnull;
+import java.util.SplittableRandom;
+
+/**
+ * SplitMix64 generator of {@link SplittableRandom}, with period 2^64 for each split.
+ *
+ * Splits get a new state and a new increment (gamma) from this generator, as {@link SplittableRandom#split()} does.
+ */
+public class SplittableGenerator extends AbstractLongGenerator {
+
+    private final SplittableRandom random;
+
+    public SplittableGenerator(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private SplittableGenerator(@Nonnull SplittableRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    protected long nextLong() {
+        return random.nextLong();
+    }
+
+    @Override
+    public @Nonnull SplittableGenerator split() {
+        return new SplittableGenerator(random.split());
+    }
+
+}
@@ -0,0 +1,78 @@
+package it.uniroma2.pmcsn.simulation.util.generator;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Xoroshiro128++ generator of Blackman and Vigna (2019), with period 2^128 - 1, the same values
+ * of Xoroshiro128PlusPlus of java.util.random from the same state.
+ *
+ * A split takes the state of this generator, which then jumps 2^64 values ahead: splits draw disjoint
+ * segments of 2^64 values of the same sequence.
+ */
+public class Xoroshiro128PlusPlusGenerator extends AbstractLongGenerator {
+
+    // Jump polynomial of 2^64 values
+    private static final long[] JUMP = {0x2bd7a6a6e99c2ddcL, 0x0992ccaf6a6fca05L};
+
+    private long x0;
+    private long x1;
+
+    /**
+     * @param seed mixed to the initial state
+     */
+    public Xoroshiro128PlusPlusGenerator(long seed) {
+        this(mix(seed + 0x9e3779b97f4a7c15L), mix(seed + 2 * 0x9e3779b97f4a7c15L));
+    }
+
+    /**
+     * @param x0 first half of the initial state
+     * @param x1 second half of the initial state, the state must be not all zero
+     */
+    public Xoroshiro128PlusPlusGenerator(long x0, long x1) {
+        if ((x0 | x1) == 0) {
+            // the all zero state is a fixed point
+            x0 = 0x9e3779b97f4a7c15L;
+            x1 = 0x6a09e667f3bcc909L;
+        }
+        this.x0 = x0;
+        this.x1 = x1;
+    }
+
+    @Override
+    protected long nextLong() {
+        long s0 = x0;
+        long s1 = x1;
+        long result = Long.rotateLeft(s0 + s1, 17) + s0;
+        s1 ^= s0;
+        x0 = Long.rotateLeft(s0, 49) ^ s1 ^ (s1 << 21);
+        x1 = Long.rotateLeft(s1, 28);
+        return result;
+    }
+
+    /**
+     * Move 2^64 values ahead.
+     */
+    public void jump() {
+        long s0 = 0;
+        long s1 = 0;
+        for (long polynomial : JUMP) {
+            for (int bit = 0; bit < 64; ++bit) {
+                if ((polynomial & (1L << bit)) != 0) {
+                    s0 ^= x0;
+                    s1 ^= x1;
+                }
+                nextLong();
+            }
+        }
+        x0 = s0;
+        x1 = s1;
+    }
+
+    @Override
+    public @Nonnull Xoroshiro128PlusPlusGenerator split() {
+        Xoroshiro128PlusPlusGenerator split = new Xoroshiro128PlusPlusGenerator(x0, x1);
+        jump();
+        return split;
+    }
+
+}
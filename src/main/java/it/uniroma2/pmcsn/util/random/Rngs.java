@@ -42,8 +42,8 @@ import java.util.Date;
  */
 public class Rngs {
 
-    long MODULUS = 2147483647; /* DON'T CHANGE THIS VALUE                  */
-    long MULTIPLIER = 48271;      /* DON'T CHANGE THIS VALUE                  */
+    public static final long MODULUS = 2147483647; /* DON'T CHANGE THIS VALUE           */
+    public static final long MULTIPLIER = 48271;   /* DON'T CHANGE THIS VALUE           */
     static long CHECK = 399268537L; /* DON'T CHANGE THIS VALUE                  */
     long DEFAULT = 123456789L; /* initial seed, use 0 < DEFAULT < MODULUS  */
 
@@ -93,16 +93,65 @@ public class Rngs {
          * between 0.0 and 1.0.
          * ----------------------------------------------------------------
          */
-        long Q = MODULUS / MULTIPLIER;
-        long R = MODULUS % MULTIPLIER;
-        long t;
+        long x = next(seed[stream]);
+        seed[stream] = x;
+        return ((double) x / MODULUS);
+    }
 
-        t = MULTIPLIER * (seed[stream] % Q) - R * (seed[stream] / Q);
-        if (t > 0)
-            seed[stream] = t;
-        else
-            seed[stream] = t + MODULUS;
-        return ((double) seed[stream] / MODULUS);
+    public void fill(int index, double[] out) {
+        /* ----------------------------------------------------------------
+         * Use this function to fill out with the next out.length values
+         * returned by random() from stream index, without changing the
+         * current stream.
+         * ----------------------------------------------------------------
+         */
+        fill(index, out, 0, out.length);
+    }
+
+    public void fill(int index, double[] out, int from, int to) {
+        /* ----------------------------------------------------------------
+         * Use this function to fill out[from, to) with the next values
+         * returned by random() from stream index, without changing the
+         * current stream.
+         * ----------------------------------------------------------------
+         */
+        int s = index % STREAMS;
+        if ((initialized == 0) && (s != 0))        /* protect against        */
+            plantSeeds(DEFAULT);                     /* un-initialized streams */
+
+        long x = seed[s];
+        for (int i = from; i < to; i++) {          /* states are exact in   */
+            x = next(x);                             /* a double, divisions   */
+            out[i] = x;                              /* are done in a second  */
+        }                                            /* loop, vectorized      */
+        for (int i = from; i < to; i++)
+            out[i] /= MODULUS;
+        seed[s] = x;
+    }
+
+    public static long next(long x) {
+        /* ----------------------------------------------------------------
+         * Returns the state following x, the same of Schrage's method
+         * without divisions: the product of x and MULTIPLIER is less than
+         * 2^47 and 2^31 = 1 mod MODULUS, so the product is folded adding
+         * its high bits to its low 31 bits, minus MODULUS if greater.
+         * ----------------------------------------------------------------
+         */
+        long t = x * MULTIPLIER;
+
+        t = (t & MODULUS) + (t >>> 31);
+        if (t >= MODULUS)
+            t -= MODULUS;
+        return (t);
+    }
+
+    public int getStream() {
+        /* ---------------------------------------------------------------
+         * Use this function to get the index of the current random number
+         * generator stream.
+         * ---------------------------------------------------------------
+         */
+        return stream;
     }
 
     public void plantSeeds(long x) {
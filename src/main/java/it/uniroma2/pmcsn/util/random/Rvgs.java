@@ -151,6 +151,21 @@ public class Rvgs {
         return (-m * Math.log(1.0 - rngs.random()));
     }
 
+    public void exponential(double m, double[] out, int from, int to)
+        /* =========================================================
+         * Fills out[from, to) with the exponentially distributed
+         * positive real numbers returned by exponential(m) from the
+         * current stream, in the same order.
+         * NOTE: use m > 0.0
+         * =========================================================
+         */ {
+        int i;
+
+        rngs.fill(rngs.getStream(), out, from, to);
+        for (i = from; i < to; i++)
+            out[i] = (-m * Math.log(1.0 - out[i]));
+    }
+
     public double erlang(long n, double b)
         /* ==================================================
          * Returns an Erlang distributed positive real number.
@@ -0,0 +1,46 @@
+package it.uniroma2.pmcsn.simulation.simulator;
+
+import it.uniroma2.pmcsn.simulation.model.Engine;
+import it.uniroma2.pmcsn.simulation.model.SimulationConfig;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.Metric;
+import it.uniroma2.pmcsn.simulation.simulator.statistics.ReplicationStatistics;
+import it.uniroma2.pmcsn.simulation.system.cloudlet.access_control.AccessControlFactory;
+import it.uniroma2.pmcsn.simulation.system.cloudlet.task_interrupt.TaskInterruptFactory;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Replications advanced side by side in the lanes of a {@link MarkovianReplicationKernel} must give the same
+ * estimates of replications run one by one.
+ */
+public class MarkovianReplicationKernelTest {
+
+    private static final double STOP = 2000.0;
+    // Not a multiple of the lanes, so that the last kernel has fewer lanes
+    private static final int REPLICATIONS = 20;
+    private static final int THREADS = 2;
+
+    @Test
+    public void lanesGiveTheEstimatesOfReplicationsRunOneByOne() throws InterruptedException {
+        SimulationConfig simulationConfig = SimulationConfig.getInstance().snapshot(Map.of(
+                SimulationConfig.ENGINE, Engine.MARKOVIAN.name(),
+                SimulationConfig.CLOUDLET_ACCESS_CONTROL_ALGORITHM, AccessControlFactory.Algorithm.ALGORITHM2.name(),
+                SimulationConfig.CLOUDLET_TASK_INTERRUPT_ALGORITHM, TaskInterruptFactory.Algorithm.MIN_ARRIVAL_TIME.name(),
+                SimulationConfig.RNGS_SEED, 683159895L,
+                SimulationConfig.STOP, STOP
+        ));
+
+        ReplicationStatistics oneByOne = new ReplicationRunner(simulationConfig, REPLICATIONS, THREADS, 1).run();
+        ReplicationStatistics lanes = new ReplicationRunner(simulationConfig, REPLICATIONS, THREADS, 8).run();
+
+        assertEquals(oneByOne.getReplications(), lanes.getReplications());
+        for (Metric metric : Metric.values()) {
+            assertEquals(metric.name(), oneByOne.getMean(metric), lanes.getMean(metric), 0.0);
+            assertEquals(metric.name(), oneByOne.getHalfWidth(metric), lanes.getHalfWidth(metric), 0.0);
+        }
+    }
+
+}
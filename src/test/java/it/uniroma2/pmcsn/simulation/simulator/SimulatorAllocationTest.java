@@ -0,0 +1,38 @@
+package it.uniroma2.pmcsn.simulation.simulator;
+
+import it.uniroma2.pmcsn.simulation.model.Engine;
+import it.uniroma2.pmcsn.simulation.model.SimulationConfig;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * After {@link AbstractSimulator#WARM_UP_EVENTS} events, the event loop of the next event
+ * simulation must not allocate, so that its throughput does not depend on the garbage collector.
+ */
+public class SimulatorAllocationTest {
+
+    // Simulated time long enough to process several times the warm up events
+    private static final double STOP = 50000.0;
+
+    @Test
+    public void productionModeDoesNotAllocateAfterWarmUp() {
+        SimulationConfig simulationConfig = SimulationConfig.getInstance().snapshot(Map.of(
+                SimulationConfig.ENGINE, Engine.NEXT_EVENT.name(),
+                SimulationConfig.PRODUCTION_MODE, true,
+                SimulationConfig.STOP, STOP
+        ));
+
+        // first run loads classes and compiles code paths first taken after its warm up events,
+        //  which allocates once per JVM and not per event
+        SimulatorFactory.get(simulationConfig).start();
+
+        ISimulator simulator = SimulatorFactory.get(simulationConfig);
+        simulator.start();
+
+        assertEquals(0.0, simulator.getAllocatedBytesPerEvent(), 0.0);
+    }
+
+}
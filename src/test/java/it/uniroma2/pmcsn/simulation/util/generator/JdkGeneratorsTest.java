@@ -0,0 +1,61 @@
+package it.uniroma2.pmcsn.simulation.util.generator;
+
+import org.junit.Test;
+
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link Xoroshiro128PlusPlusGenerator} and {@link L64X128MixGenerator} must draw the same values of the generators
+ * of java.util.random with the same name, from the same state.
+ */
+public class JdkGeneratorsTest {
+
+    private static final int DRAWS = 10000;
+
+    // State of the JDK generators, bytes below 0x80 so that they are read as unsigned
+    private static final byte[] SEED = {
+            0x01, 0x23, 0x45, 0x67, 0x09, 0x2b, 0x4d, 0x6f, 0x10, 0x32, 0x54, 0x76, 0x18, 0x3a, 0x5c, 0x7e,
+            0x02, 0x24, 0x46, 0x68, 0x0a, 0x2c, 0x4e, 0x70, 0x11, 0x33, 0x55, 0x77, 0x19, 0x3b, 0x5d, 0x7f
+    };
+
+    @Test
+    public void xoroshiro128PlusPlusDrawsTheValuesOfTheJdk() {
+        RandomGenerator.JumpableGenerator jdk = (RandomGenerator.JumpableGenerator)
+                RandomGeneratorFactory.of("Xoroshiro128PlusPlus").create(SEED);
+        Xoroshiro128PlusPlusGenerator generator = new Xoroshiro128PlusPlusGenerator(word(0), word(1));
+
+        for (int i = 0; i < DRAWS; ++i) {
+            assertEquals(jdk.nextLong(), generator.nextLong());
+        }
+        jdk.jump();
+        generator.jump();
+        for (int i = 0; i < DRAWS; ++i) {
+            assertEquals(jdk.nextLong(), generator.nextLong());
+        }
+    }
+
+    @Test
+    public void l64X128MixDrawsTheValuesOfTheJdk() {
+        RandomGenerator jdk = RandomGeneratorFactory.of("L64X128MixRandom").create(SEED);
+        L64X128MixGenerator generator = new L64X128MixGenerator(word(0), word(1), word(2), word(3));
+
+        for (int i = 0; i < DRAWS; ++i) {
+            assertEquals(jdk.nextLong(), generator.nextLong());
+        }
+    }
+
+    /**
+     * @return {@param index}-th word of {@link #SEED}, read big endian as the JDK does
+     */
+    private static long word(int index) {
+        long word = 0;
+        for (int i = index * Long.BYTES; i < (index + 1) * Long.BYTES; ++i) {
+            word = (word << 8) | (SEED[i] & 0xff);
+        }
+        return word;
+    }
+
+}
@@ -0,0 +1,49 @@
+package it.uniroma2.pmcsn.simulation.util.generator;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link PhiloxGenerator} must give the values of philox4x32-10 of Random123, checked on its known answer vectors.
+ */
+public class PhiloxGeneratorTest {
+
+    @Test
+    public void philoxGivesTheKnownAnswerVectorsOfRandom123() {
+        assertPhilox(
+                new int[]{0x00000000, 0x00000000, 0x00000000, 0x00000000},
+                0x00000000, 0x00000000,
+                new int[]{0x6627e8d5, 0xe169c58d, 0xbc57ac4c, 0x9b00dbd8}
+        );
+        assertPhilox(
+                new int[]{0xffffffff, 0xffffffff, 0xffffffff, 0xffffffff},
+                0xffffffff, 0xffffffff,
+                new int[]{0x408f276d, 0x41c83b0e, 0xa20bc7c6, 0x6d5451fd}
+        );
+        assertPhilox(
+                new int[]{0x243f6a88, 0x85a308d3, 0x13198a2e, 0x03707344},
+                0xa4093822, 0x299f31d0,
+                new int[]{0xd16cfe09, 0x94fdcceb, 0x5001e420, 0x24126ea1}
+        );
+    }
+
+    @Test
+    public void counterValuesDoNotDependOnDrawnValues() {
+        PhiloxGenerator generator = new PhiloxGenerator(683159895L);
+        double first = generator.random(42L);
+        generator.random();
+        generator.split();
+
+        assertEquals(first, generator.random(42L), 0.0);
+        assertEquals(first, new PhiloxGenerator(683159895L).random(42L), 0.0);
+    }
+
+    private static void assertPhilox(int[] counter, int k0, int k1, int[] expected) {
+        int[] block = counter.clone();
+        PhiloxGenerator.philox(block, k0, k1);
+        assertArrayEquals(expected, block);
+    }
+
+}
@@ -0,0 +1,74 @@
+package it.uniroma2.pmcsn.util.random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link Rngs#next(long)} folds the product of the state and the multiplier instead of using Schrage's method,
+ * so it must give the same states of Schrage's method, and Rngs must draw the same values of the library.
+ */
+public class RngsTest {
+
+    // States checked along a single sequence
+    private static final int DRAWS = 1000000;
+
+    @Test
+    public void nextIsSchragesMethod() {
+        long[] states = {1, 2, Rngs.MULTIPLIER - 1, Rngs.MULTIPLIER, Rngs.MULTIPLIER + 1, Rngs.MODULUS - 1};
+        for (long state : states) {
+            assertEquals(schrage(state), Rngs.next(state));
+        }
+
+        long x = 123456789L;
+        for (int i = 0; i < DRAWS; ++i) {
+            long expected = schrage(x);
+            assertEquals(expected, Rngs.next(x));
+            x = expected;
+        }
+    }
+
+    @Test
+    public void tenThousandthStateFromOneIsCheck() {
+        long x = 1;
+        for (int i = 0; i < 10000; ++i) {
+            x = Rngs.next(x);
+        }
+
+        assertEquals(Rngs.CHECK, x);
+    }
+
+    @Test
+    public void fillDrawsTheValuesOfRandom() {
+        int stream = 3;
+        Rngs rngs = new Rngs();
+        rngs.plantSeeds(123456789L);
+        rngs.selectStream(stream);
+        double[] expected = new double[1000];
+        for (int i = 0; i < expected.length; ++i) {
+            expected[i] = rngs.random();
+        }
+
+        Rngs filled = new Rngs();
+        filled.plantSeeds(123456789L);
+        double[] out = new double[expected.length];
+        filled.fill(stream, out, 0, 400);
+        filled.fill(stream, out, 400, out.length);
+
+        assertArrayEquals(expected, out, 0.0);
+        filled.selectStream(stream);
+        assertEquals(rngs.random(), filled.random(), 0.0);
+    }
+
+    /**
+     * State following {@param x} by Schrage's method, as computed by the library before.
+     */
+    private static long schrage(long x) {
+        long q = Rngs.MODULUS / Rngs.MULTIPLIER;
+        long r = Rngs.MODULUS % Rngs.MULTIPLIER;
+        long t = Rngs.MULTIPLIER * (x % q) - r * (x / q);
+        return t > 0 ? t : t + Rngs.MODULUS;
+    }
+
+}